@@ -11,6 +11,7 @@ import javax.annotation.concurrent.Immutable;
 
 import org.reasm.source.AbstractSourceFile;
 import org.reasm.source.SourceNode;
+import org.reasm.source.SourceNodeSerializer;
 
 import ca.fragag.Consumer;
 import ca.fragag.text.Document;
@@ -65,6 +66,28 @@ public abstract class Architecture implements Environment.ObjectWithNames {
         return null;
     }
 
+    /**
+     * Finds a split point in the contents of a source file at or after the specified position. A split point is a position where
+     * the text can be cut in two such that parsing each part with {@link #parse(Document)} and putting the children of the two
+     * resulting {@link org.reasm.source.SimpleCompositeSourceNode SimpleCompositeSourceNodes} in a single
+     * {@link org.reasm.source.SimpleCompositeSourceNode} produces a source node that is equivalent to the result of parsing the
+     * whole text; for example, the start of a line that is not inside a block construct.
+     * <p>
+     * {@link org.reasm.source.ParallelParser} uses the split points to parse large source files in parallel. This method may be
+     * called from several threads concurrently.
+     *
+     * @param text
+     *            the contents of a source file
+     * @param position
+     *            the position from which to search for a split point
+     * @return the first split point at or after <code>position</code>, which must not be greater than <code>text</code>'s length,
+     *         or -1 if there is no split point after <code>position</code>. The default implementation always returns -1, so source
+     *         files are always parsed as a whole.
+     */
+    public int findSplitPoint(@Nonnull Document text, int position) {
+        return -1;
+    }
+
     /**
      * Gets the names of this architecture. The returned set is {@linkplain Collections#unmodifiableSet(Set) unmodifiable}.
      *
@@ -76,6 +99,18 @@ public abstract class Architecture implements Environment.ObjectWithNames {
         return this.names;
     }
 
+    /**
+     * Gets a {@link SourceNodeSerializer} that can write the trees produced by {@link #parse(Document)} and read them back, so that
+     * they can be stored in a {@link org.reasm.source.ParseCache}.
+     *
+     * @return the serializer, or <code>null</code> if the trees produced by this architecture cannot be serialized. The default
+     *         implementation returns <code>null</code>.
+     */
+    @CheckForNull
+    public SourceNodeSerializer getSourceNodeSerializer() {
+        return null;
+    }
+
     /**
      * Parses the contents of a source file.
      *
@@ -96,7 +131,8 @@ public abstract class Architecture implements Environment.ObjectWithNames {
      * reuse existing {@link SourceNode}s from the old source file in the parts that didn't change.
      * <p>
      * The default implementation simply calls {@link #parse(Document)}. It is strongly encouraged to override this method in
-     * subclasses to supply a better implementation that reuses {@link SourceNode}s from the old source file.
+     * subclasses to supply a better implementation that reuses {@link SourceNode}s from the old source file. Architectures whose
+     * source files are a flat sequence of nodes can delegate to {@link org.reasm.source.IncrementalParser}.
      *
      * @param text
      *            the new contents of the source file
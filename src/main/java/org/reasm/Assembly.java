@@ -143,12 +143,18 @@ public final class Assembly {
     @Nonnull
     private final AtomicBoolean stepping = new AtomicBoolean();
     private int currentPass;
+    private long symbolDefinitionEpoch;
     @Nonnull
     private final SymbolTable symbolTable = new SymbolTable();
     @Nonnull
     private final HashMap<AssemblyStepLocation, Scope> scopeTable = new HashMap<>();
     @Nonnull
     private final Iterable<UserSymbol> allSymbols;
+    @CheckForNull
+    private SymbolIndex symbolIndex;
+    // Guarded by this, because evaluationSnapshot() may be called from many threads.
+    @CheckForNull
+    private EvaluationSnapshot evaluationSnapshot;
     @Nonnull
     private MessageGravity gravity = MessageGravity.NONE;
     @Nonnull
@@ -173,8 +179,13 @@ public final class Assembly {
     private AssemblyStepLocation currentScopeKey;
     @CheckForNull
     private UserSymbol lastNonSuffixSymbol;
+
+    // The SymbolLookupContext for the current namespace, scope key, last non-suffix symbol and anonymous symbol counters.
+    // It is discarded when one of these changes.
+    @CheckForNull
+    private SymbolLookupContext currentSymbolLookupContext;
     @Nonnull
-    private final ArrayList<SymbolReference> symbolReferences = new ArrayList<>();
+    private final SymbolReferenceLog symbolReferences = new SymbolReferenceLog();
     @Nonnull
     private final ArrayList<Block> blockStack = new ArrayList<>();
     @Nonnull
@@ -226,6 +237,28 @@ public final class Assembly {
         }
     }
 
+    /**
+     * Gets an {@link EvaluationSnapshot} of this assembly, which can be used to evaluate expressions against the final state of this
+     * assembly from many threads concurrently. The snapshot is created on the first call to this method; further calls return the
+     * same snapshot.
+     *
+     * @return the evaluation snapshot
+     * @throws IllegalStateException
+     *             the assembly is not complete
+     */
+    @Nonnull
+    public final synchronized EvaluationSnapshot evaluationSnapshot() {
+        if (this.builder != null) {
+            throw new IllegalStateException("The assembly is not complete.");
+        }
+
+        if (this.evaluationSnapshot == null) {
+            this.evaluationSnapshot = new EvaluationSnapshot(this, this.symbolTable, this.scopeTable);
+        }
+
+        return this.evaluationSnapshot;
+    }
+
     /**
      * Fetches the raw contents of a file.
      *
@@ -324,14 +357,20 @@ public final class Assembly {
     }
 
     /**
-     * Gets a {@link SymbolLookupContext} with some attributes from the current state of this assembly.
+     * Gets a {@link SymbolLookupContext} with some attributes from the current state of this assembly. The same instance is
+     * returned until one of these attributes changes.
      *
      * @return a {@link SymbolLookupContext}
      */
     @Nonnull
     public final SymbolLookupContext getCurrentSymbolLookupContext() {
-        return new SymbolLookupContext(this, this.currentNamespace, this.currentScopeKey, this.lastNonSuffixSymbol,
-                this.forwCounter, this.backCounter);
+        SymbolLookupContext lookupContext = this.currentSymbolLookupContext;
+        if (lookupContext == null) {
+            lookupContext = this.createSymbolLookupContext();
+            this.currentSymbolLookupContext = lookupContext;
+        }
+
+        return lookupContext;
     }
 
     /**
@@ -400,6 +439,30 @@ public final class Assembly {
         return this.unmodifiableSteps;
     }
 
+    /**
+     * Gets the symbol definition epoch of this assembly. The epoch changes whenever a new symbol is added to this assembly,
+     * whenever a symbol that had no definition in the current pass is defined and whenever a new pass starts; redefining a symbol
+     * that already has a definition doesn't change it. As long as the epoch doesn't change, looking up a symbol by name in a given
+     * {@link SymbolLookupContext} finds the same symbol, so
+     * {@link org.reasm.expressions.EpochSymbolLookup} implementations may use this epoch to let their lookups be cached.
+     *
+     * @return the symbol definition epoch
+     */
+    public final long getSymbolDefinitionEpoch() {
+        return this.symbolDefinitionEpoch;
+    }
+
+    /**
+     * Gets an index of the symbols (both non-local and local) defined in this assembly, which answers prefix and wildcard queries
+     * on symbol names efficiently. The index is built when the assembly completes.
+     *
+     * @return the symbol index, or <code>null</code> if the assembly is not complete yet
+     */
+    @CheckForNull
+    public final SymbolIndex getSymbolIndex() {
+        return this.symbolIndex;
+    }
+
     /**
      * Gets the non-local symbols defined in this assembly.
      *
@@ -584,18 +647,11 @@ public final class Assembly {
                 }
 
                 if (this.blockStack.isEmpty()) {
-                    boolean assemblyRequiresNewPass = false;
-                    int numberOfUnresolvedSymbolReferences = 0;
-                    for (SymbolReference symbolReference : this.symbolReferences) {
-                        if (symbolReference.isStale()) {
-                            assemblyRequiresNewPass = true;
-                            break;
-                        }
+                    final SymbolReferenceLog symbolReferences = this.symbolReferences;
+                    final int numberOfSymbolReferences = symbolReferences.size();
+                    final boolean assemblyRequiresNewPass = symbolReferences.isAnyStale();
 
-                        if (symbolReference.getSymbol() == null) {
-                            numberOfUnresolvedSymbolReferences++;
-                        }
-                    }
+                    final int numberOfUnresolvedSymbolReferences = symbolReferences.getNumberOfUnresolvedReferences();
 
                     ArrayList<UserSymbol> symbolsDefinedWithUndefinedValue = null;
                     for (UserSymbol symbol : this.allSymbols) {
@@ -621,8 +677,9 @@ public final class Assembly {
                         }
 
                         if (numberOfUnresolvedSymbolReferences != 0) {
-                            for (SymbolReference symbolReference : this.symbolReferences) {
-                                if (symbolReference.getSymbol() == null) {
+                            for (int i = 0; i < numberOfSymbolReferences; i++) {
+                                if (symbolReferences.isUnresolved(i)) {
+                                    final SymbolReference symbolReference = symbolReferences.get(i);
                                     final AssemblyMessage message = new UnresolvedSymbolReferenceErrorMessage(symbolReference);
                                     message.addToAssembly(symbolReference.getStep());
                                     this.appendMessage(message);
@@ -720,6 +777,7 @@ public final class Assembly {
         }
 
         symbolTable.addSymbol(symbol);
+        ++this.symbolDefinitionEpoch;
     }
 
     final void addSymbolReference(@Nonnull SymbolReference symbolReference) {
@@ -743,6 +801,17 @@ public final class Assembly {
         return lookupContext;
     }
 
+    /**
+     * Creates a new {@link SymbolLookupContext} with some attributes from the current state of this assembly.
+     *
+     * @return a new {@link SymbolLookupContext}
+     */
+    @Nonnull
+    final SymbolLookupContext createSymbolLookupContext() {
+        return new SymbolLookupContext(this, this.currentNamespace, this.currentScopeKey, this.lastNonSuffixSymbol,
+                this.forwCounter, this.backCounter);
+    }
+
     /** @see AssemblyBuilder#defineSymbol(SymbolContext, String, boolean, SymbolType, Object) */
     final <TValue> void defineSymbol(@Nonnull SymbolContext<TValue> context, @Nonnull String symbolName, boolean isLocalSymbol,
             @Nonnull AssemblyStep definition, @Nonnull SymbolType symbolType, @CheckForNull TValue value) {
@@ -811,6 +880,7 @@ public final class Assembly {
         }
 
         this.currentNamespace = ns;
+        this.currentSymbolLookupContext = null;
         step.setHasSideEffects();
     }
 
@@ -826,6 +896,7 @@ public final class Assembly {
             this.addMessage(new ExitingNamespaceWithoutNamespaceErrorMessage(), step);
         } else {
             this.currentNamespace = this.currentNamespace.getParent();
+            this.currentSymbolLookupContext = null;
         }
 
         step.setHasSideEffects();
@@ -901,6 +972,10 @@ public final class Assembly {
         return ++this.macroCounter;
     }
 
+    final void incrementSymbolDefinitionEpoch() {
+        ++this.symbolDefinitionEpoch;
+    }
+
     /** @see AssemblyBuilder#processIOException(IOException) */
     final void processIOException(@Nonnull IOException exception, @CheckForNull AssemblyStep step) {
         this.addMessage(new IOErrorMessage(exception), step);
@@ -945,6 +1020,7 @@ public final class Assembly {
         }
 
         this.builder = null;
+        this.symbolIndex = new SymbolIndex(this.allSymbols);
 
         try {
             notifyCustomAssemblyDataCompleted(this.customAssemblyData.values().iterator(), t);
@@ -976,6 +1052,8 @@ public final class Assembly {
             symbolName = String.format("__forw%d", ++this.forwCounter);
         }
 
+        this.currentSymbolLookupContext = null;
+
         this.defineSymbolFinal(context, symbolName, false, definition, symbolType, value);
     }
 
@@ -997,21 +1075,30 @@ public final class Assembly {
      */
     private final <TValue> void defineSymbolFinal(@Nonnull SymbolContext<TValue> context, @Nonnull String symbolName,
             boolean isLocalSymbol, @Nonnull AssemblyStep definition, @Nonnull SymbolType symbolType, @CheckForNull TValue value) {
-        // Try to find an existing symbol with that name, or fall back to creating the symbol.
-        final SymbolReference symbolReference = new SymbolReference(SymbolReference.cachedContextSingleton(context), symbolName,
-                isLocalSymbol, true, this.getCurrentSymbolLookupContext(), definition,
-                SymbolDefinitionResolutionFallback.getInstance(symbolType));
-        this.addSymbolReference(symbolReference);
-        final UserSymbol symbol = (UserSymbol) symbolReference.getSymbol();
-        assert symbol != null;
+        // Try to find an existing symbol with that name, or fall back to creating the symbol. The definition is recorded directly
+        // in the symbol reference log, without creating a SymbolReference.
+        final ImmutableList<? extends SymbolContext<?>> contexts = SymbolReference.cachedContextSingleton(context);
+        final SymbolLookupContext lookupContext = this.getCurrentSymbolLookupContext();
+        final String name = lookupContext.expandSymbol(symbolName, isLocalSymbol);
+        final Scope scope = isLocalSymbol ? lookupContext.getScope() : null;
+        final String definedName = lookupContext.getDefinedName(name, isLocalSymbol, Assembly.isSuffixSymbolName(symbolName));
+        final SymbolDefinitionResolutionFallback fallback = SymbolDefinitionResolutionFallback.getInstance(symbolType);
+        UserSymbol symbol = lookupContext.findSymbol(contexts, name, scope, definedName, false);
+        if (symbol == null) {
+            symbol = fallback.createSymbol(this, context, definedName, scope);
+        }
+
+        final int symbolReferenceIndex = this.symbolReferences.add(contexts, name, definedName, scope, lookupContext, definition,
+                fallback, symbol);
 
         if (symbol.define(this, definition, symbolType, value)) {
             // Update the symbol reference's value, because we just changed it.
-            symbolReference.setValue(value);
+            this.symbolReferences.updateValue(symbolReferenceIndex);
         }
 
         if (!isLocalSymbol) {
             this.currentScopeKey = definition.getLocation();
+            this.currentSymbolLookupContext = null;
 
             if (!Assembly.isSuffixSymbolName(symbolName)) {
                 this.lastNonSuffixSymbol = symbol;
@@ -1086,6 +1173,7 @@ public final class Assembly {
         this.backCounter = 0;
         this.currentScopeKey = null;
         this.lastNonSuffixSymbol = null;
+        this.currentSymbolLookupContext = null;
         this.symbolReferences.clear();
         SourceFile mainSourceFile = this.configuration.getMainSourceFile();
         Architecture initialArchitecture = this.configuration.getInitialArchitecture();
@@ -1094,6 +1182,7 @@ public final class Assembly {
         this.currentEncoding = UTF_8;
         this.currentNamespace = null;
         ++this.currentPass;
+        ++this.symbolDefinitionEpoch;
 
         for (CustomAssemblyData customAssemblyData : this.customAssemblyData.values()) {
             customAssemblyData.startedNewPass();
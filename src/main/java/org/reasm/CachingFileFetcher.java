@@ -0,0 +1,375 @@
+package org.reasm;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.reasm.source.SourceFile;
+
+import ca.fragag.text.Document;
+
+/**
+ * A {@link FileFetcher} that caches the files fetched by another {@link FileFetcher}, so that they can be shared by many
+ * assemblies. An {@link Assembly} only caches the files it fetches for its own duration; when the same caching file fetcher is
+ * used in the {@link Configuration} of successive assemblies (for example, when a program is reassembled each time one of its
+ * source files changes), the unchanged files are neither read nor parsed again, because the cached {@link SourceFile SourceFiles}
+ * keep their parsed trees.
+ * <p>
+ * Before a cached file is returned, it is validated in one of two ways:
+ * <ul>
+ * <li>If the fetcher was created with a base directory, the file path is resolved against that directory, and the file's last
+ * modification time and size are compared with the ones the file had when it was cached. The underlying fetcher is only called if
+ * they differ.</li>
+ * <li>Otherwise, or if the file's attributes cannot be read, the file is fetched again from the underlying fetcher, and the cached
+ * file is returned instead if their contents are equal.</li>
+ * </ul>
+ * <p>
+ * The cache is bounded by the total size of the cached files, counted as 2 bytes per character for source files (parsed trees
+ * are not counted) and 1 byte per byte for binary files. When the total size exceeds the maximum size, the least recently used
+ * files are evicted.
+ * <p>
+ * The byte arrays returned by {@link #fetchBinaryFile(String)} are shared by all the callers; they must not be modified.
+ *
+ * @author Francis Gagné
+ */
+@ThreadSafe
+public final class CachingFileFetcher implements FileFetcher {
+
+    /**
+     * A cached file.
+     *
+     * @author Francis Gagné
+     */
+    @Immutable
+    private static final class Entry {
+
+        @Nonnull
+        final Object contents;
+        @CheckForNull
+        final FileStamp stamp;
+        final long size;
+
+        Entry(@Nonnull Object contents, @CheckForNull FileStamp stamp, long size) {
+            this.contents = contents;
+            this.stamp = stamp;
+            this.size = size;
+        }
+
+    }
+
+    /**
+     * The last modification time and the size of a file.
+     *
+     * @author Francis Gagné
+     */
+    @Immutable
+    private static final class FileStamp {
+
+        @Nonnull
+        private final FileTime lastModifiedTime;
+        private final long size;
+
+        FileStamp(@Nonnull FileTime lastModifiedTime, long size) {
+            this.lastModifiedTime = lastModifiedTime;
+            this.size = size;
+        }
+
+        @Override
+        public final boolean equals(@CheckForNull Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (obj == null) {
+                return false;
+            }
+
+            if (this.getClass() != obj.getClass()) {
+                return false;
+            }
+
+            final FileStamp other = (FileStamp) obj;
+            if (!this.lastModifiedTime.equals(other.lastModifiedTime)) {
+                return false;
+            }
+
+            if (this.size != other.size) {
+                return false;
+            }
+
+            return true;
+        }
+
+        @Override
+        public final int hashCode() {
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + this.lastModifiedTime.hashCode();
+            result = prime * result + (int) (this.size ^ this.size >>> 32);
+            return result;
+        }
+
+    }
+
+    /**
+     * The key of a cached file. A file may be fetched both as a source file and as a binary file; each is cached separately.
+     *
+     * @author Francis Gagné
+     */
+    @Immutable
+    private static final class Key {
+
+        @Nonnull
+        private final String filePath;
+        private final boolean binary;
+
+        Key(@Nonnull String filePath, boolean binary) {
+            this.filePath = filePath;
+            this.binary = binary;
+        }
+
+        @Override
+        public final boolean equals(@CheckForNull Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (obj == null) {
+                return false;
+            }
+
+            if (this.getClass() != obj.getClass()) {
+                return false;
+            }
+
+            final Key other = (Key) obj;
+            if (!this.filePath.equals(other.filePath)) {
+                return false;
+            }
+
+            if (this.binary != other.binary) {
+                return false;
+            }
+
+            return true;
+        }
+
+        @Override
+        public final int hashCode() {
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + this.filePath.hashCode();
+            result = prime * result + (this.binary ? 1231 : 1237);
+            return result;
+        }
+
+    }
+
+    private static boolean contentEquals(@Nonnull Document a, @Nonnull Document b) {
+        final int length = a.length();
+        if (length != b.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (a.charAt(i) != b.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Nonnull
+    private final FileFetcher fileFetcher;
+    private final long maximumSize;
+    @CheckForNull
+    private final Path baseDirectory;
+
+    // The cached files, from the least recently used to the most recently used, and the sum of their sizes. Guarded by this.
+    @Nonnull
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+
+    /**
+     * Initializes a new CachingFileFetcher that validates cached files by fetching them again and comparing their contents.
+     *
+     * @param fileFetcher
+     *            the file fetcher that fetches the files
+     * @param maximumSize
+     *            the maximum total size of the cached files, in bytes
+     */
+    public CachingFileFetcher(@Nonnull FileFetcher fileFetcher, long maximumSize) {
+        this(fileFetcher, maximumSize, null);
+    }
+
+    /**
+     * Initializes a new CachingFileFetcher.
+     *
+     * @param fileFetcher
+     *            the file fetcher that fetches the files
+     * @param maximumSize
+     *            the maximum total size of the cached files, in bytes
+     * @param baseDirectory
+     *            the directory against which the file paths passed to {@link #fetchBinaryFile(String)} and
+     *            {@link #fetchSourceFile(String)} are resolved to validate cached files by their last modification time and size,
+     *            or <code>null</code> to validate cached files by their contents
+     */
+    public CachingFileFetcher(@Nonnull FileFetcher fileFetcher, long maximumSize, @CheckForNull Path baseDirectory) {
+        if (fileFetcher == null) {
+            throw new NullPointerException("fileFetcher");
+        }
+
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("maximumSize must be positive or zero");
+        }
+
+        this.fileFetcher = fileFetcher;
+        this.maximumSize = maximumSize;
+        this.baseDirectory = baseDirectory;
+    }
+
+    @Override
+    public final byte[] fetchBinaryFile(@Nonnull String filePath) throws IOException {
+        if (filePath == null) {
+            throw new NullPointerException("filePath");
+        }
+
+        final Key key = new Key(filePath, true);
+        final FileStamp stamp = this.readStamp(filePath);
+        final Entry entry = this.get(key);
+        if (entry != null && stamp != null && stamp.equals(entry.stamp)) {
+            return (byte[]) entry.contents;
+        }
+
+        byte[] fileContents = this.fileFetcher.fetchBinaryFile(filePath);
+        if (fileContents == null) {
+            return null;
+        }
+
+        if (entry != null && Arrays.equals((byte[]) entry.contents, fileContents)) {
+            fileContents = (byte[]) entry.contents;
+        }
+
+        this.put(key, new Entry(fileContents, stamp, fileContents.length));
+        return fileContents;
+    }
+
+    @Override
+    public final SourceFile fetchSourceFile(@Nonnull String filePath) throws IOException {
+        if (filePath == null) {
+            throw new NullPointerException("filePath");
+        }
+
+        final Key key = new Key(filePath, false);
+        final FileStamp stamp = this.readStamp(filePath);
+        final Entry entry = this.get(key);
+        if (entry != null && stamp != null && stamp.equals(entry.stamp)) {
+            return (SourceFile) entry.contents;
+        }
+
+        SourceFile sourceFile = this.fileFetcher.fetchSourceFile(filePath);
+        if (sourceFile == null) {
+            return null;
+        }
+
+        // Keep the cached source file if its contents haven't changed, so that its parsed trees are reused.
+        if (entry != null && contentEquals(((SourceFile) entry.contents).getText(), sourceFile.getText())) {
+            sourceFile = (SourceFile) entry.contents;
+        }
+
+        this.put(key, new Entry(sourceFile, stamp, sourceFile.getText().length() * 2L));
+        return sourceFile;
+    }
+
+    /**
+     * Gets the base directory against which file paths are resolved to validate cached files.
+     *
+     * @return the base directory, or <code>null</code> if cached files are validated by their contents
+     */
+    @CheckForNull
+    public final Path getBaseDirectory() {
+        return this.baseDirectory;
+    }
+
+    /**
+     * Gets the maximum total size of the cached files.
+     *
+     * @return the maximum size, in bytes
+     */
+    public final long getMaximumSize() {
+        return this.maximumSize;
+    }
+
+    /**
+     * Gets the total size of the cached files.
+     *
+     * @return the size, in bytes
+     */
+    public final synchronized long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Removes all the files from the cache.
+     */
+    public final synchronized void invalidateAll() {
+        this.entries.clear();
+        this.size = 0;
+    }
+
+    @CheckForNull
+    private final synchronized Entry get(@Nonnull Key key) {
+        return this.entries.get(key);
+    }
+
+    private final synchronized void put(@Nonnull Key key, @Nonnull Entry entry) {
+        final Entry oldEntry = this.entries.remove(key);
+        if (oldEntry != null) {
+            this.size -= oldEntry.size;
+        }
+
+        if (entry.size > this.maximumSize) {
+            return;
+        }
+
+        this.entries.put(key, entry);
+        this.size += entry.size;
+
+        // Evict the least recently used files.
+        final Iterator<Map.Entry<Key, Entry>> iterator = this.entries.entrySet().iterator();
+        while (this.size > this.maximumSize) {
+            this.size -= iterator.next().getValue().size;
+            iterator.remove();
+        }
+    }
+
+    @CheckForNull
+    private final FileStamp readStamp(@Nonnull String filePath) {
+        final Path baseDirectory = this.baseDirectory;
+        if (baseDirectory == null) {
+            return null;
+        }
+
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(baseDirectory.resolve(filePath), BasicFileAttributes.class);
+            return new FileStamp(attributes.lastModifiedTime(), attributes.size());
+        } catch (InvalidPathException | IOException e) {
+            // Fall back to validating the file by its contents.
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,215 @@
+package org.reasm;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import org.reasm.expressions.EpochSymbolLookup;
+import org.reasm.expressions.EvaluationContext;
+import org.reasm.expressions.Expression;
+import org.reasm.expressions.SymbolLookup;
+
+import ca.fragag.Consumer;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+
+/**
+ * A read-only view of the symbols of a completed {@link Assembly}, for evaluating {@linkplain Expression expressions} against the
+ * assembly's final state. The symbol tables are copied to immutable maps when the snapshot is created, and the symbols of a
+ * completed assembly are never modified, so a snapshot may be used from many threads concurrently without synchronization.
+ * <p>
+ * Evaluating an expression with {@link #evaluate(Expression, long, Consumer)} is thread-safe as long as the {@link SymbolLookup
+ * SymbolLookups} and {@linkplain Function functions} that the expression uses are thread-safe; the symbol lookups returned by
+ * {@link #getSymbolLookup(SymbolContext)} are.
+ *
+ * @see Assembly#evaluationSnapshot()
+ *
+ * @author Francis Gagné
+ */
+@Immutable
+public final class EvaluationSnapshot {
+
+    /**
+     * An immutable copy of a {@link SymbolTable}.
+     *
+     * @author Francis Gagné
+     */
+    @Immutable
+    private static final class SymbolTableSnapshot {
+
+        @Nonnull
+        private final ImmutableMap<SymbolContext<?>, ImmutableSortedMap<String, UserSymbol>> symbols;
+
+        SymbolTableSnapshot(@Nonnull SymbolTable symbolTable) {
+            final ImmutableMap.Builder<SymbolContext<?>, ImmutableSortedMap<String, UserSymbol>> builder = ImmutableMap.builder();
+            for (Map.Entry<SymbolContext<?>, TreeMap<String, UserSymbol>> entry : symbolTable.symbols.entrySet()) {
+                builder.put(entry.getKey(), ImmutableSortedMap.copyOf(entry.getValue(), String.CASE_INSENSITIVE_ORDER));
+            }
+
+            this.symbols = builder.build();
+        }
+
+        @CheckForNull
+        final UserSymbol getSymbol(@Nonnull SymbolContext<?> context, @Nonnull String name) {
+            final ImmutableSortedMap<String, UserSymbol> contextSymbols = this.symbols.get(context);
+            if (contextSymbols != null) {
+                return contextSymbols.get(name);
+            }
+
+            return null;
+        }
+
+    }
+
+    @Nonnull
+    private final Assembly assembly;
+    @Nonnull
+    private final SymbolTableSnapshot symbols;
+    @Nonnull
+    private final Map<AssemblyStepLocation, SymbolTableSnapshot> localSymbols;
+
+    /**
+     * Initializes a new EvaluationSnapshot.
+     *
+     * @param assembly
+     *            the completed assembly
+     * @param symbolTable
+     *            the table of the non-local symbols of the assembly
+     * @param scopes
+     *            the scopes of the assembly
+     */
+    EvaluationSnapshot(@Nonnull Assembly assembly, @Nonnull SymbolTable symbolTable,
+            @Nonnull Map<AssemblyStepLocation, Scope> scopes) {
+        this.assembly = assembly;
+        this.symbols = new SymbolTableSnapshot(symbolTable);
+
+        // The scope keys may be null, so we can't use an ImmutableMap here.
+        final HashMap<AssemblyStepLocation, SymbolTableSnapshot> localSymbols = new HashMap<>();
+        for (Map.Entry<AssemblyStepLocation, Scope> entry : scopes.entrySet()) {
+            localSymbols.put(entry.getKey(), new SymbolTableSnapshot(entry.getValue().getLocalSymbolTable()));
+        }
+
+        this.localSymbols = Collections.unmodifiableMap(localSymbols);
+    }
+
+    /**
+     * Evaluates an expression against this snapshot.
+     *
+     * @param expression
+     *            the expression to evaluate
+     * @param programCounter
+     *            the program counter to evaluate the expression at
+     * @param assemblyMessageConsumer
+     *            a {@link Consumer} that will receive the assembly messages that are raised while evaluating the expression, or
+     *            <code>null</code> to ignore them; if it is shared by concurrent evaluations, it must be thread-safe
+     * @return the value of the expression, or <code>null</code> if the value is undetermined
+     */
+    @CheckForNull
+    public final Value evaluate(@Nonnull Expression expression, long programCounter,
+            @CheckForNull Consumer<AssemblyMessage> assemblyMessageConsumer) {
+        if (expression == null) {
+            throw new NullPointerException("expression");
+        }
+
+        return expression.evaluate(new EvaluationContext(this.assembly, programCounter, assemblyMessageConsumer));
+    }
+
+    /**
+     * Gets the assembly this snapshot was taken from.
+     *
+     * @return the assembly
+     */
+    @Nonnull
+    public final Assembly getAssembly() {
+        return this.assembly;
+    }
+
+    /**
+     * Gets a local symbol of the assembly.
+     *
+     * @param scopeKey
+     *            the key of the scope in which the symbol is defined, as in {@link Assembly#getScopes()}
+     * @param context
+     *            the context in which the symbol is defined
+     * @param name
+     *            the name of the symbol
+     * @return the symbol, or <code>null</code> if the scope doesn't exist or doesn't contain a symbol in that context and with that
+     *         name
+     */
+    @CheckForNull
+    public final UserSymbol getLocalSymbol(@CheckForNull AssemblyStepLocation scopeKey, @Nonnull SymbolContext<?> context,
+            @Nonnull String name) {
+        if (context == null) {
+            throw new NullPointerException("context");
+        }
+
+        if (name == null) {
+            throw new NullPointerException("name");
+        }
+
+        final SymbolTableSnapshot scopeSymbols = this.localSymbols.get(scopeKey);
+        if (scopeSymbols != null) {
+            return scopeSymbols.getSymbol(context, name);
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets a non-local symbol of the assembly.
+     *
+     * @param context
+     *            the context in which the symbol is defined
+     * @param name
+     *            the fully qualified name of the symbol
+     * @return the symbol, or <code>null</code> if the assembly doesn't contain a non-local symbol in that context and with that
+     *         name
+     */
+    @CheckForNull
+    public final UserSymbol getSymbol(@Nonnull SymbolContext<?> context, @Nonnull String name) {
+        if (context == null) {
+            throw new NullPointerException("context");
+        }
+
+        if (name == null) {
+            throw new NullPointerException("name");
+        }
+
+        return this.symbols.getSymbol(context, name);
+    }
+
+    /**
+     * Gets a thread-safe {@link SymbolLookup} that looks up the non-local symbols of the assembly in the specified context. The
+     * lookup is an {@link EpochSymbolLookup} whose epoch never changes, because the symbols of the snapshot never change, so
+     * {@link org.reasm.expressions.IdentifierExpression IdentifierExpressions} that use it only look up their symbol once.
+     *
+     * @param context
+     *            the context in which to look up the symbols
+     * @return the {@link SymbolLookup}
+     */
+    @Nonnull
+    public final SymbolLookup getSymbolLookup(@Nonnull final SymbolContext<? extends Value> context) {
+        if (context == null) {
+            throw new NullPointerException("context");
+        }
+
+        return new EpochSymbolLookup() {
+            @Override
+            public long getDefinitionEpoch() {
+                return 0;
+            }
+
+            @Override
+            public Symbol getSymbol(String name) {
+                return EvaluationSnapshot.this.symbols.getSymbol(context, name);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,79 @@
+package org.reasm;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The kind of an integer value. Together with a <code>long</code>, an integer kind describes an integer {@link Value} without
+ * requiring a {@link Value} object.
+ *
+ * @see Symbol#getIntegerKind()
+ * @see Symbol#getIntegerValue()
+ *
+ * @author Francis Gagné
+ */
+@Immutable
+public enum IntegerKind {
+
+    /**
+     * An unsigned integer, represented by {@link UnsignedIntValue}.
+     */
+    UNSIGNED {
+        @Nonnull
+        @Override
+        public Value toValue(long value) {
+            return UnsignedIntValue.of(value);
+        }
+    },
+
+    /**
+     * A signed integer, represented by {@link SignedIntValue}.
+     */
+    SIGNED {
+        @Nonnull
+        @Override
+        public Value toValue(long value) {
+            return SignedIntValue.of(value);
+        }
+    };
+
+    /**
+     * Gets the integer kind of the specified value.
+     *
+     * @param value
+     *            the value
+     * @return {@link #UNSIGNED} if the value is an {@link UnsignedIntValue}, {@link #SIGNED} if the value is a
+     *         {@link SignedIntValue}, or <code>null</code> otherwise
+     */
+    @CheckForNull
+    static IntegerKind of(@CheckForNull Object value) {
+        if (value instanceof Value) {
+            return ((Value) value).getIntegerKind();
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the <code>long</code> representation of the specified integer value.
+     *
+     * @param value
+     *            the value, which must be an {@link UnsignedIntValue} or a {@link SignedIntValue}
+     * @return the <code>long</code> representation of the value
+     */
+    static long longValueOf(@Nonnull Object value) {
+        return ((Value) value).getIntegerValue();
+    }
+
+    /**
+     * Creates a {@link Value} of this kind.
+     *
+     * @param value
+     *            the <code>long</code> representation of the value
+     * @return the {@link Value}
+     */
+    @Nonnull
+    public abstract Value toValue(long value);
+
+}
@@ -12,6 +12,34 @@ import javax.annotation.concurrent.Immutable;
 @Immutable
 public final class SignedIntValue extends Value {
 
+    private static final int CACHE_MIN = -128;
+    private static final int CACHE_MAX = 255;
+
+    @Nonnull
+    private static final SignedIntValue[] CACHE = new SignedIntValue[CACHE_MAX - CACHE_MIN + 1];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new SignedIntValue(CACHE_MIN + i);
+        }
+    }
+
+    /**
+     * Gets a signed integer value. Values from -128 to 255 are preallocated and shared; other values are allocated on each call.
+     *
+     * @param value
+     *            the value
+     * @return a {@link SignedIntValue} for the value
+     */
+    @Nonnull
+    public static SignedIntValue of(long value) {
+        if (value >= CACHE_MIN && value <= CACHE_MAX) {
+            return CACHE[(int) value - CACHE_MIN];
+        }
+
+        return new SignedIntValue(value);
+    }
+
     private final long value;
 
     /**
@@ -45,6 +73,17 @@ public final class SignedIntValue extends Value {
         return true;
     }
 
+    @Nonnull
+    @Override
+    public final IntegerKind getIntegerKind() {
+        return IntegerKind.SIGNED;
+    }
+
+    @Override
+    public final long getIntegerValue() {
+        return this.value;
+    }
+
     @Override
     public final int hashCode() {
         final int prime = 31;
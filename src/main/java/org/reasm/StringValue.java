@@ -1,20 +1,73 @@
 package org.reasm;
 
+import java.util.ArrayDeque;
+
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
 
 /**
  * A string value.
+ * <p>
+ * A string value created by {@link #concat(StringValue)} doesn't copy the characters of its operands; it references them instead,
+ * and the characters are only copied into a single {@link String} (once) when the string is needed, after which the operands are
+ * released. This makes a chain of concatenations run in time proportional to the total length of the strings.
+ * {@link #compareTo(StringValue)}, {@link #equals(Object)} and {@link #length()} don't need the characters to be copied.
  *
  * @author Francis Gagné
  */
 @Immutable
-public final class StringValue extends Value {
+public final class StringValue extends Value implements Comparable<StringValue> {
 
-    @Nonnull
+    /**
+     * Iterates over the characters of a {@link StringValue} without flattening it.
+     *
+     * @author Francis Gagné
+     */
+    private static final class CharIterator {
+
+        @Nonnull
+        private final ArrayDeque<StringValue> pending = new ArrayDeque<>();
+        @Nonnull
+        private String segment = "";
+        private int index;
+
+        CharIterator(@Nonnull StringValue value) {
+            this.pending.push(value);
+        }
+
+        final char next() {
+            while (this.index == this.segment.length()) {
+                final String nodeValue = this.pending.pop().expand(this.pending);
+                if (nodeValue != null) {
+                    this.segment = nodeValue;
+                    this.index = 0;
+                }
+            }
+
+            return this.segment.charAt(this.index++);
+        }
+
+    }
+
+    // The operands of a concatenation. They are released once the value of the concatenation has been computed, so that a long
+    // string built by many concatenations doesn't keep all the intermediate strings alive. They are volatile because
+    // getValue() releases them after storing concatenatedValue: a thread that sees a released operand also sees the value.
+    @CheckForNull
+    private volatile StringValue left;
+    @CheckForNull
+    private volatile StringValue right;
+    private final int length;
+
+    // The value of a string that was not created by concatenation.
+    @CheckForNull
     private final String value;
 
+    // The value of a concatenation, computed on demand. Concurrent computations are harmless: they produce equal strings, and a
+    // String is safe to publish through a data race.
+    @CheckForNull
+    private String concatenatedValue;
+
     /**
      * Initializes a new string value.
      *
@@ -28,9 +81,80 @@ public final class StringValue extends Value {
             throw new NullPointerException("value");
         }
 
+        this.length = value.length();
         this.value = value;
     }
 
+    private StringValue(@Nonnull StringValue left, @Nonnull StringValue right) {
+        final int length = left.length + right.length;
+        if (length < 0) {
+            throw new OutOfMemoryError("The concatenated string is too long.");
+        }
+
+        this.left = left;
+        this.right = right;
+        this.length = length;
+        this.value = null;
+    }
+
+    /**
+     * Compares this string with another string lexicographically, like {@link String#compareTo(String)}.
+     *
+     * @param other
+     *            the other string
+     * @return a negative integer, zero or a positive integer if this string is less than, equal to or greater than the other
+     *         string
+     */
+    @Override
+    public final int compareTo(@Nonnull StringValue other) {
+        if (other == null) {
+            throw new NullPointerException("other");
+        }
+
+        final String value = this.peekValue();
+        final String otherValue = other.peekValue();
+        if (value != null && otherValue != null) {
+            return value.compareTo(otherValue);
+        }
+
+        final CharIterator iterator = new CharIterator(this);
+        final CharIterator otherIterator = new CharIterator(other);
+        final int commonLength = Math.min(this.length, other.length);
+        for (int i = 0; i < commonLength; i++) {
+            final char ch = iterator.next();
+            final char otherCh = otherIterator.next();
+            if (ch != otherCh) {
+                return ch - otherCh;
+            }
+        }
+
+        return this.length - other.length;
+    }
+
+    /**
+     * Concatenates this string with another string.
+     *
+     * @param other
+     *            the string to append to this string
+     * @return the concatenated string
+     */
+    @Nonnull
+    public final StringValue concat(@Nonnull StringValue other) {
+        if (other == null) {
+            throw new NullPointerException("other");
+        }
+
+        if (other.length == 0) {
+            return this;
+        }
+
+        if (this.length == 0) {
+            return other;
+        }
+
+        return new StringValue(this, other);
+    }
+
     @Override
     public final boolean equals(@CheckForNull Object obj) {
         if (this == obj) {
@@ -45,7 +169,12 @@ public final class StringValue extends Value {
             return false;
         }
 
-        if (!this.value.equals(((StringValue) obj).value)) {
+        final StringValue other = (StringValue) obj;
+        if (this.length != other.length) {
+            return false;
+        }
+
+        if (this.compareTo(other) != 0) {
             return false;
         }
 
@@ -56,19 +185,94 @@ public final class StringValue extends Value {
     public final int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + this.value.hashCode();
+        result = prime * result + this.getValue().hashCode();
         return result;
     }
 
+    /**
+     * Gets the length of this string.
+     *
+     * @return the length of this string
+     */
+    public final int length() {
+        return this.length;
+    }
+
     @Nonnull
     @Override
     public final String toString() {
-        return "StringValue [value=" + this.value + "]";
+        return "StringValue [value=" + this.getValue() + "]";
     }
 
     @Override
     final <T> T accept(@Nonnull ValueVisitor<T> visitor) {
-        return visitor.visitString(this.value);
+        return visitor.visitString(this.getValue());
+    }
+
+    /**
+     * Gets the value of this string if it holds a {@link String}; otherwise, pushes the operands of this concatenation on the
+     * specified stack, the right operand first.
+     *
+     * @param pending
+     *            the stack of strings that remain to be visited
+     * @return the value of this string, or <code>null</code> if the operands were pushed
+     */
+    @CheckForNull
+    private final String expand(@Nonnull ArrayDeque<StringValue> pending) {
+        final String value = this.peekValue();
+        if (value != null) {
+            return value;
+        }
+
+        final StringValue left = this.left;
+        final StringValue right = this.right;
+        if (left == null || right == null) {
+            // Another thread computed the value and released the operands after storing the value.
+            return this.concatenatedValue;
+        }
+
+        pending.push(right);
+        pending.push(left);
+        return null;
+    }
+
+    @Nonnull
+    private final String getValue() {
+        String value = this.peekValue();
+        if (value == null) {
+            // Copy the characters of the leaves from left to right. Use an explicit stack, because a long chain of
+            // concatenations would overflow the call stack.
+            final char[] chars = new char[this.length];
+            final ArrayDeque<StringValue> pending = new ArrayDeque<>();
+            pending.push(this);
+            int position = 0;
+            while (!pending.isEmpty()) {
+                final String nodeValue = pending.pop().expand(pending);
+                if (nodeValue != null) {
+                    nodeValue.getChars(0, nodeValue.length(), chars, position);
+                    position += nodeValue.length();
+                }
+            }
+
+            value = new String(chars);
+            this.concatenatedValue = value;
+
+            // Release the operands. This must be done after storing the value (see expand()).
+            this.left = null;
+            this.right = null;
+        }
+
+        return value;
+    }
+
+    @CheckForNull
+    private final String peekValue() {
+        final String value = this.value;
+        if (value != null) {
+            return value;
+        }
+
+        return this.concatenatedValue;
     }
 
 }
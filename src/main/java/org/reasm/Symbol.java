@@ -35,6 +35,34 @@ public abstract class Symbol {
         this.type = type;
     }
 
+    /**
+     * Gets the {@linkplain IntegerKind kind} of this symbol's value, if it is an integer. Together with {@link #getIntegerValue()},
+     * this lets callers read and compare integer values without going through the boxed {@link Value}.
+     *
+     * @return the kind of this symbol's value, or <code>null</code> if the value is not an {@link UnsignedIntValue} or a
+     *         {@link SignedIntValue}
+     */
+    @CheckForNull
+    public IntegerKind getIntegerKind() {
+        return IntegerKind.of(this.getValue());
+    }
+
+    /**
+     * Gets the <code>long</code> representation of this symbol's value, if it is an integer.
+     *
+     * @return the <code>long</code> representation of this symbol's value
+     * @throws IllegalStateException
+     *             this symbol's value is not an integer, i.e. {@link #getIntegerKind()} returns <code>null</code>
+     */
+    public long getIntegerValue() {
+        final Object value = this.getValue();
+        if (IntegerKind.of(value) == null) {
+            throw new IllegalStateException("The symbol's value is not an integer.");
+        }
+
+        return IntegerKind.longValueOf(value);
+    }
+
     /**
      * Gets the name of this symbol.
      *
@@ -1,5 +1,6 @@
 package org.reasm;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
 
@@ -32,9 +33,17 @@ final class SymbolDefinitionResolutionFallback implements SymbolResolutionFallba
     @Nonnull
     @Override
     public UserSymbol resolve(@Nonnull SymbolReference symbolReference) {
-        final UserSymbol newSymbol = new UserSymbol(symbolReference.getContexts().get(0), symbolReference.getDefinedName(),
-                this.symbolType);
-        symbolReference.getAssembly().addSymbol(newSymbol, symbolReference.getScope());
+        final String definedName = symbolReference.getDefinedName();
+        assert definedName != null;
+        return this.createSymbol(symbolReference.getAssembly(), symbolReference.getContexts().get(0), definedName,
+                symbolReference.getScope());
+    }
+
+    @Nonnull
+    final UserSymbol createSymbol(@Nonnull Assembly assembly, @Nonnull SymbolContext<?> context, @Nonnull String definedName,
+            @CheckForNull Scope scope) {
+        final UserSymbol newSymbol = new UserSymbol(context, definedName, this.symbolType);
+        assembly.addSymbol(newSymbol, scope);
         return newSymbol;
     }
 
@@ -0,0 +1,222 @@
+package org.reasm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * An index of the symbols defined in an {@link Assembly}, sorted by name, that answers prefix and wildcard queries without
+ * scanning every symbol. Names are compared case-insensitively, like in the assembly's symbol tables.
+ * <p>
+ * The index is a snapshot: it is built by the assembly when the assembly completes and it includes both the non-local symbols and
+ * the local symbols of every scope.
+ *
+ * @author Francis Gagné
+ */
+public final class SymbolIndex {
+
+    @Nonnull
+    private static final Comparator<UserSymbol> SYMBOL_NAME_COMPARATOR = new Comparator<UserSymbol>() {
+        @Override
+        public int compare(UserSymbol o1, UserSymbol o2) {
+            return String.CASE_INSENSITIVE_ORDER.compare(o1.getName(), o2.getName());
+        }
+    };
+
+    /**
+     * Determines whether a name matches a wildcard pattern, ignoring case. In the pattern, <code>'*'</code> matches any sequence of
+     * characters (including an empty sequence) and <code>'?'</code> matches exactly one character.
+     *
+     * @param pattern
+     *            the pattern
+     * @param name
+     *            the name to match against the pattern
+     * @return <code>true</code> if the name matches the pattern, otherwise <code>false</code>
+     */
+    static boolean matchesPattern(@Nonnull String pattern, @Nonnull String name) {
+        int p = 0, n = 0;
+        int starP = -1, starN = -1;
+        final int patternLength = pattern.length();
+        final int nameLength = name.length();
+
+        while (n < nameLength) {
+            if (p < patternLength) {
+                final char pc = pattern.charAt(p);
+                if (pc == '*') {
+                    starP = p++;
+                    starN = n;
+                    continue;
+                }
+
+                if (pc == '?' || pattern.regionMatches(true, p, name, n, 1)) {
+                    p++;
+                    n++;
+                    continue;
+                }
+            }
+
+            // Mismatch: backtrack to the last '*', if any, and let it consume one more character.
+            if (starP < 0) {
+                return false;
+            }
+
+            p = starP + 1;
+            n = ++starN;
+        }
+
+        while (p < patternLength && pattern.charAt(p) == '*') {
+            p++;
+        }
+
+        return p == patternLength;
+    }
+
+    private static int literalPrefixLength(@Nonnull String pattern) {
+        final int length = pattern.length();
+        for (int i = 0; i < length; i++) {
+            final char ch = pattern.charAt(i);
+            if (ch == '*' || ch == '?') {
+                return i;
+            }
+        }
+
+        return length;
+    }
+
+    @Nonnull
+    private final UserSymbol[] symbols;
+
+    /**
+     * Initializes a new SymbolIndex.
+     *
+     * @param symbols
+     *            the symbols to index
+     */
+    SymbolIndex(@Nonnull Iterable<UserSymbol> symbols) {
+        final ArrayList<UserSymbol> list = new ArrayList<>();
+        for (UserSymbol symbol : symbols) {
+            list.add(symbol);
+        }
+
+        this.symbols = list.toArray(new UserSymbol[list.size()]);
+
+        // The sort is stable, so symbols with the same name in different contexts keep their relative order.
+        Arrays.sort(this.symbols, SYMBOL_NAME_COMPARATOR);
+    }
+
+    /**
+     * Finds the symbols whose name matches a wildcard pattern. In the pattern, <code>'*'</code> matches any sequence of characters
+     * and <code>'?'</code> matches exactly one character; other characters are matched case-insensitively. The characters before
+     * the first wildcard are used to narrow the search by binary search.
+     *
+     * @param pattern
+     *            the pattern to match the symbols' names against
+     * @param context
+     *            the context of the symbols to find, or <code>null</code> to find symbols in all contexts
+     * @param namespace
+     *            the namespace of the symbols to find (symbols in inner namespaces are included), or <code>null</code> to find
+     *            symbols in all namespaces; the pattern is matched against the part of the name that follows the namespace's name
+     * @param type
+     *            the type of the symbols to find, or <code>null</code> to find symbols of all types
+     * @return an unmodifiable list of the matching symbols, sorted by name
+     */
+    @Nonnull
+    public final List<UserSymbol> findByPattern(@Nonnull String pattern, @CheckForNull SymbolContext<?> context,
+            @CheckForNull Namespace namespace, @CheckForNull SymbolType type) {
+        if (pattern == null) {
+            throw new NullPointerException("pattern");
+        }
+
+        final String namespacePrefix = Assembly.buildNamespacedSymbolName(namespace, "");
+        final String prefix = namespacePrefix + pattern.substring(0, literalPrefixLength(pattern));
+        return this.find(prefix, namespacePrefix + pattern, context, type);
+    }
+
+    /**
+     * Finds the symbols whose name starts with a prefix, ignoring case.
+     *
+     * @param prefix
+     *            the prefix of the names of the symbols to find
+     * @param context
+     *            the context of the symbols to find, or <code>null</code> to find symbols in all contexts
+     * @param namespace
+     *            the namespace of the symbols to find (symbols in inner namespaces are included), or <code>null</code> to find
+     *            symbols in all namespaces; the prefix is matched against the part of the name that follows the namespace's name
+     * @param type
+     *            the type of the symbols to find, or <code>null</code> to find symbols of all types
+     * @return an unmodifiable list of the matching symbols, sorted by name
+     */
+    @Nonnull
+    public final List<UserSymbol> findByPrefix(@Nonnull String prefix, @CheckForNull SymbolContext<?> context,
+            @CheckForNull Namespace namespace, @CheckForNull SymbolType type) {
+        if (prefix == null) {
+            throw new NullPointerException("prefix");
+        }
+
+        return this.find(Assembly.buildNamespacedSymbolName(namespace, prefix), null, context, type);
+    }
+
+    /**
+     * Gets the number of symbols in this index.
+     *
+     * @return the number of symbols
+     */
+    public final int size() {
+        return this.symbols.length;
+    }
+
+    @Nonnull
+    private List<UserSymbol> find(@Nonnull String prefix, @CheckForNull String pattern, @CheckForNull SymbolContext<?> context,
+            @CheckForNull SymbolType type) {
+        final UserSymbol[] symbols = this.symbols;
+        final int prefixLength = prefix.length();
+        final ArrayList<UserSymbol> result = new ArrayList<>();
+
+        for (int i = this.lowerBound(prefix); i < symbols.length; i++) {
+            final UserSymbol symbol = symbols[i];
+            final String name = symbol.getName();
+
+            // The symbols that start with the prefix are contiguous in the array.
+            if (!name.regionMatches(true, 0, prefix, 0, prefixLength)) {
+                break;
+            }
+
+            if (context != null && symbol.getContext() != context) {
+                continue;
+            }
+
+            if (type != null && symbol.getType() != type) {
+                continue;
+            }
+
+            if (pattern != null && !matchesPattern(pattern, name)) {
+                continue;
+            }
+
+            result.add(symbol);
+        }
+
+        return Collections.unmodifiableList(result);
+    }
+
+    private int lowerBound(@Nonnull String name) {
+        final UserSymbol[] symbols = this.symbols;
+        int low = 0, high = symbols.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (String.CASE_INSENSITIVE_ORDER.compare(symbols[mid].getName(), name) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+}
@@ -23,13 +23,11 @@ import javax.annotation.Nonnull;
 public final class SymbolLookupContext {
 
     @CheckForNull
-    private static UserSymbol lookupSymbol(@Nonnull SymbolReference symbolReference, @Nonnull SymbolTable symbolTable,
-            @Nonnull String name, boolean definitionRequired) {
-        final List<? extends SymbolContext<?>> contexts = symbolReference.getContexts();
-
+    private static UserSymbol lookupSymbol(@Nonnull List<? extends SymbolContext<?>> contexts, @Nonnull SymbolTable symbolTable,
+            @Nonnull String name, boolean isDefinition, boolean definitionRequired) {
         for (int i = 0; i < contexts.size(); i++) {
             final UserSymbol symbol = symbolTable.getSymbol(contexts.get(i), name);
-            if (symbol != null && (symbol.exists(definitionRequired) || symbolReference.getDefinedName() != null)) {
+            if (symbol != null && (symbol.exists(definitionRequired) || isDefinition)) {
                 return symbol;
             }
         }
@@ -113,61 +111,65 @@ public final class SymbolLookupContext {
         return this.expandSuffixSymbol(this.expandAnonymousSymbol(name), local);
     }
 
-    final Assembly getAssembly() {
-        return this.assembly;
-    }
-
-    @Nonnull
-    final String getDefinedName(@Nonnull String name, boolean local, boolean isSuffixSymbol) {
-        if (local || isSuffixSymbol) {
-            return name;
-        }
-
-        return Assembly.buildNamespacedSymbolName(this.namespace, name);
-    }
-
-    final Scope getScope() {
-        return this.assembly.getScope(this.scopeKey);
-    }
-
+    /**
+     * Looks up the symbol referenced by a symbol reference in the symbol tables. The symbol reference's
+     * {@link SymbolResolutionFallback} is not called.
+     *
+     * @param contexts
+     *            the contexts of the symbol reference
+     * @param name
+     *            the expanded name of the symbol reference
+     * @param scope
+     *            the scope of a local symbol reference, or <code>null</code>
+     * @param definedName
+     *            the full name of the symbol that the symbol reference defines, or <code>null</code> if it is not a definition
+     * @param definitionRequired
+     *            <code>true</code> to ignore symbols that have not been defined yet
+     * @return the symbol, or <code>null</code> if no symbol was found
+     */
     @CheckForNull
-    final Symbol resolveSymbolReference(@Nonnull SymbolReference symbolReference, boolean definitionRequired) {
+    final UserSymbol findSymbol(@Nonnull List<? extends SymbolContext<?>> contexts, @Nonnull String name,
+            @CheckForNull Scope scope, @CheckForNull String definedName, boolean definitionRequired) {
         SymbolTable symbolTable = this.assembly.getSymbolTable();
-        final Scope scope = symbolReference.getScope();
         if (scope != null) {
             symbolTable = scope.getLocalSymbolTable();
         }
 
-        final String symbolDefinedName = symbolReference.getDefinedName();
-        if (symbolDefinedName != null) {
+        if (definedName != null) {
             // If the symbol reference is a definition,
             // only look up existing symbols in the current namespace,
             // not in parent namespaces.
-            final UserSymbol symbol = lookupSymbol(symbolReference, symbolTable, symbolDefinedName, definitionRequired);
-            if (symbol != null) {
-                return symbol;
-            }
-
-            return symbolReference.resolveFallbackSymbol();
+            return lookupSymbol(contexts, symbolTable, definedName, true, definitionRequired);
         }
 
-        final String symbolName = symbolReference.getName();
         if (scope == null) {
             for (Namespace namespace = this.namespace; namespace != null; namespace = namespace.getParent()) {
-                final String namespacedSymbolName = Assembly.buildNamespacedSymbolName(namespace, symbolName);
-                final UserSymbol symbol = lookupSymbol(symbolReference, symbolTable, namespacedSymbolName, definitionRequired);
+                final String namespacedSymbolName = Assembly.buildNamespacedSymbolName(namespace, name);
+                final UserSymbol symbol = lookupSymbol(contexts, symbolTable, namespacedSymbolName, false, definitionRequired);
                 if (symbol != null) {
                     return symbol;
                 }
             }
         }
 
-        final UserSymbol symbol = lookupSymbol(symbolReference, symbolTable, symbolName, definitionRequired);
-        if (symbol != null) {
-            return symbol;
+        return lookupSymbol(contexts, symbolTable, name, false, definitionRequired);
+    }
+
+    final Assembly getAssembly() {
+        return this.assembly;
+    }
+
+    @Nonnull
+    final String getDefinedName(@Nonnull String name, boolean local, boolean isSuffixSymbol) {
+        if (local || isSuffixSymbol) {
+            return name;
         }
 
-        return symbolReference.resolveFallbackSymbol();
+        return Assembly.buildNamespacedSymbolName(this.namespace, name);
+    }
+
+    final Scope getScope() {
+        return this.assembly.getScope(this.scopeKey);
     }
 
     /**
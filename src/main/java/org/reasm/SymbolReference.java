@@ -1,7 +1,6 @@
 package org.reasm;
 
 import java.util.List;
-import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -63,10 +62,10 @@ public final class SymbolReference {
     @CheckForNull
     private final Symbol symbol;
     @CheckForNull
-    private Object value;
+    private final Object value;
 
     /**
-     * Initializes a new SymbolReference.
+     * Initializes a new SymbolReference and resolves it.
      *
      * @param contexts
      *            a list of the contexts of the symbol reference
@@ -105,10 +104,51 @@ public final class SymbolReference {
             this.definedName = null;
         }
 
-        this.symbol = lookupContext.resolveSymbolReference(this, false);
-        if (this.symbol != null) {
-            this.value = this.symbol.getValue();
+        Symbol symbol = lookupContext.findSymbol(contexts, this.name, this.scope, this.definedName, false);
+        if (symbol == null && symbolResolutionFallback != null) {
+            symbol = symbolResolutionFallback.resolve(this);
         }
+
+        this.symbol = symbol;
+        this.value = symbol != null ? symbol.getValue() : null;
+    }
+
+    /**
+     * Initializes a new SymbolReference from the state recorded by a {@link SymbolReferenceLog}, without resolving it.
+     *
+     * @param contexts
+     *            a list of the contexts of the symbol reference
+     * @param name
+     *            the expanded name of the symbol to look up
+     * @param lookupContext
+     *            the context in which to perform the symbol lookups
+     * @param step
+     *            the assembly step in which the reference appears
+     * @param scope
+     *            the scope of a local symbol reference, or <code>null</code>
+     * @param symbolResolutionFallback
+     *            a {@link SymbolResolutionFallback} object that provides a means of returning a symbol when no existing symbol is
+     *            found
+     * @param definedName
+     *            the full name of the symbol that the symbol reference defines, or <code>null</code> if it is not a definition
+     * @param symbol
+     *            the symbol that the symbol reference resolved to
+     * @param value
+     *            the value that the symbol had
+     */
+    SymbolReference(@Nonnull List<? extends SymbolContext<?>> contexts, @Nonnull String name,
+            @Nonnull SymbolLookupContext lookupContext, @CheckForNull AssemblyStep step, @CheckForNull Scope scope,
+            @CheckForNull SymbolResolutionFallback symbolResolutionFallback, @CheckForNull String definedName,
+            @CheckForNull Symbol symbol, @CheckForNull Object value) {
+        this.contexts = contexts;
+        this.name = name;
+        this.lookupContext = lookupContext;
+        this.step = step;
+        this.scope = scope;
+        this.symbolResolutionFallback = symbolResolutionFallback;
+        this.definedName = definedName;
+        this.symbol = symbol;
+        this.value = value;
     }
 
     /**
@@ -189,73 +229,19 @@ public final class SymbolReference {
         return this.scope != null;
     }
 
+    @Nonnull
+    final SymbolLookupContext getLookupContext() {
+        return this.lookupContext;
+    }
+
     @CheckForNull
     final Scope getScope() {
         return this.scope;
     }
 
-    final boolean isStale() {
-        // Resolve the symbol reference again.
-        //
-        // There are some situations where the reference
-        // will resolve to a different symbol if we perform a new pass.
-        //
-        // - If a reference to a symbol appears before the symbol's definition,
-        //   the reference will initially resolve to null.
-        //   Resolving the reference now (and again in the next pass) will find the symbol.
-        //
-        // - We might get a different symbol if the reference is in a namespace
-        //   and a constant is defined later in that namespace that matches the reference.
-        //
-        // - If the symbol reference specifies many contexts
-        //   and a symbol is defined later in a context that has higher priority in this reference,
-        //   the reference will resolve to that new symbol.
-        final Symbol resolvedSymbol = this.lookupContext.resolveSymbolReference(this, true);
-
-        // If the symbol reference resolves to a different symbol...
-        if (this.symbol != resolvedSymbol) {
-            // If the reference did resolve to a symbol initially,
-            // but doesn't resolve to a symbol now, then the reference is stale.
-            if (resolvedSymbol == null) {
-                return true;
-            }
-
-            // If the newly resolved symbol is a constant, then the reference is stale.
-            if (resolvedSymbol.getType().allowsForwardReferences()) {
-                return true;
-            }
-        }
-
-        // If the reference did not resolve to a symbol initially, then the reference is not stale.
-        if (this.symbol == null) {
-            return false;
-        }
-
-        // If the initially resolved symbol is a variable, then the reference is not stale.
-        if (this.symbol.getType().allowsRedefinition()) {
-            return false;
-        }
-
-        // If the symbol's value didn't change, then the reference is not stale.
-        if (Objects.equals(this.value, this.symbol.getValue())) {
-            return false;
-        }
-
-        // Otherwise, the reference is stale.
-        return true;
-    }
-
     @CheckForNull
-    final Symbol resolveFallbackSymbol() {
-        if (this.symbolResolutionFallback != null) {
-            return this.symbolResolutionFallback.resolve(this);
-        }
-
-        return null;
-    }
-
-    final void setValue(Object value) {
-        this.value = value;
+    final SymbolResolutionFallback getSymbolResolutionFallback() {
+        return this.symbolResolutionFallback;
     }
 
 }
@@ -0,0 +1,470 @@
+package org.reasm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * The log of the symbol references recorded during a pass of an {@link Assembly}.
+ * <p>
+ * The log doesn't keep {@link SymbolReference} objects. Each symbol reference is stored as a row of parallel arrays: the expanded
+ * name, the defined name, the scope, the fallback, the resolved symbol, the value it had (with a tag and a <code>long</code> for
+ * integer values) and indices into tables of the lookup contexts, steps and lists of contexts, which consecutive symbol references
+ * usually share. The staleness check at the end of a pass scans these arrays, and the arrays are reused from one pass to the next.
+ * A {@link SymbolReference} is only created when one is needed: to call a {@link SymbolResolutionFallback} or to report an
+ * unresolved symbol reference (see {@link #get(int)}).
+ * <p>
+ * When the log contains many symbol references, the staleness check is performed in parallel. It only reads the symbol tables,
+ * which are not modified during the check. Symbol references that have a custom {@link SymbolResolutionFallback} are always
+ * checked on the calling thread, because the fallback is not required to be thread-safe.
+ *
+ * @author Francis Gagné
+ */
+final class SymbolReferenceLog {
+
+    /**
+     * A task that checks the staleness of a range of symbol references in parallel.
+     *
+     * @author Francis Gagné
+     */
+    private final class StalenessCheckTask extends RecursiveTask<Boolean> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int start;
+        private final int end;
+        @Nonnull
+        private final AtomicBoolean staleReferenceFound;
+
+        StalenessCheckTask(int start, int end, @Nonnull AtomicBoolean staleReferenceFound) {
+            this.start = start;
+            this.end = end;
+            this.staleReferenceFound = staleReferenceFound;
+        }
+
+        @Override
+        protected Boolean compute() {
+            if (this.end - this.start <= PARALLEL_BATCH_SIZE) {
+                final SymbolReferenceLog log = SymbolReferenceLog.this;
+                for (int i = this.start; i < this.end; i++) {
+                    // Stop early if another task found a stale reference.
+                    if ((i & 0xFF) == 0 && this.staleReferenceFound.get()) {
+                        return false;
+                    }
+
+                    if (!log.serialCheckRequired[i] && log.isStale(i)) {
+                        this.staleReferenceFound.set(true);
+                        return true;
+                    }
+                }
+
+                return false;
+            }
+
+            if (this.staleReferenceFound.get()) {
+                return false;
+            }
+
+            final int middle = (this.start + this.end) >>> 1;
+            final StalenessCheckTask left = new StalenessCheckTask(this.start, middle, this.staleReferenceFound);
+            left.fork();
+            final boolean rightResult = new StalenessCheckTask(middle, this.end, this.staleReferenceFound).compute();
+            final boolean leftResult = left.join();
+            return leftResult || rightResult;
+        }
+
+    }
+
+    private static final class ForkJoinPoolHolder {
+
+        static final ForkJoinPool POOL = new ForkJoinPool();
+
+        // This class is not meant to be instantiated.
+        private ForkJoinPoolHolder() {
+        }
+
+    }
+
+    /**
+     * The minimum number of symbol references for which the staleness check is performed in parallel.
+     */
+    static final int PARALLEL_THRESHOLD = 16384;
+
+    private static final int PARALLEL_BATCH_SIZE = 4096;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    // Integer kind tags stored in the integerKinds array.
+    private static final byte NOT_AN_INTEGER = 0;
+    private static final byte UNSIGNED_INTEGER = 1;
+    private static final byte SIGNED_INTEGER = 2;
+
+    private static byte integerKindTag(@CheckForNull IntegerKind integerKind) {
+        if (integerKind == null) {
+            return NOT_AN_INTEGER;
+        }
+
+        switch (integerKind) {
+        case UNSIGNED:
+            return UNSIGNED_INTEGER;
+
+        case SIGNED:
+            return SIGNED_INTEGER;
+        }
+
+        throw new AssertionError(); // unreachable
+    }
+
+    // Gets the index of an element in a table, adding the element if it is not the last one. Consecutive symbol references
+    // usually have the same lookup context and step, so comparing with the last element is enough to keep the tables small.
+    private static <T> int indexInTable(@Nonnull ArrayList<T> table, @CheckForNull T element) {
+        final int lastIndex = table.size() - 1;
+        if (lastIndex >= 0 && table.get(lastIndex) == element) {
+            return lastIndex;
+        }
+
+        table.add(element);
+        return lastIndex + 1;
+    }
+
+    // The tables that the index columns refer to.
+    @Nonnull
+    private final ArrayList<SymbolLookupContext> lookupContextTable = new ArrayList<>();
+    @Nonnull
+    private final ArrayList<AssemblyStep> stepTable = new ArrayList<>();
+    @Nonnull
+    private final ArrayList<List<? extends SymbolContext<?>>> contextListTable = new ArrayList<>();
+    @Nonnull
+    private final HashMap<List<? extends SymbolContext<?>>, Integer> contextListIndicesByList = new HashMap<>();
+
+    // The columns, with one element per symbol reference.
+    @Nonnull
+    private String[] names = new String[INITIAL_CAPACITY];
+    @Nonnull
+    private String[] definedNames = new String[INITIAL_CAPACITY];
+    @Nonnull
+    private Scope[] scopes = new Scope[INITIAL_CAPACITY];
+    @Nonnull
+    private SymbolResolutionFallback[] fallbacks = new SymbolResolutionFallback[INITIAL_CAPACITY];
+    @Nonnull
+    private int[] lookupContextIndices = new int[INITIAL_CAPACITY];
+    @Nonnull
+    private int[] stepIndices = new int[INITIAL_CAPACITY];
+    @Nonnull
+    private int[] contextListIndices = new int[INITIAL_CAPACITY];
+    @Nonnull
+    private Symbol[] symbols = new Symbol[INITIAL_CAPACITY];
+    @Nonnull
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    @Nonnull
+    private byte[] integerKinds = new byte[INITIAL_CAPACITY];
+    @Nonnull
+    private long[] integerValues = new long[INITIAL_CAPACITY];
+    @Nonnull
+    private boolean[] serialCheckRequired = new boolean[INITIAL_CAPACITY];
+
+    private int size;
+    private int numberOfUnresolvedReferences;
+
+    /**
+     * Adds a symbol reference that has just been resolved to this log. The value of the resolved symbol is captured.
+     *
+     * @param contexts
+     *            the contexts of the symbol reference
+     * @param name
+     *            the expanded name of the symbol reference
+     * @param definedName
+     *            the full name of the symbol that the symbol reference defines, or <code>null</code> if it is not a definition
+     * @param scope
+     *            the scope of a local symbol reference, or <code>null</code>
+     * @param lookupContext
+     *            the context in which the symbol reference was resolved
+     * @param step
+     *            the assembly step in which the symbol reference appears
+     * @param fallback
+     *            the symbol reference's {@link SymbolResolutionFallback}, or <code>null</code>
+     * @param symbol
+     *            the symbol that the symbol reference resolved to, or <code>null</code>
+     * @return the index of the symbol reference in this log
+     */
+    final int add(@Nonnull List<? extends SymbolContext<?>> contexts, @Nonnull String name, @CheckForNull String definedName,
+            @CheckForNull Scope scope, @Nonnull SymbolLookupContext lookupContext, @CheckForNull AssemblyStep step,
+            @CheckForNull SymbolResolutionFallback fallback, @CheckForNull Symbol symbol) {
+        final int index = this.size;
+        if (index == this.names.length) {
+            this.grow();
+        }
+
+        Integer contextListIndex = this.contextListIndicesByList.get(contexts);
+        if (contextListIndex == null) {
+            contextListIndex = this.contextListTable.size();
+            this.contextListTable.add(contexts);
+            this.contextListIndicesByList.put(contexts, contextListIndex);
+        }
+
+        this.names[index] = name;
+        this.definedNames[index] = definedName;
+        this.scopes[index] = scope;
+        this.fallbacks[index] = fallback;
+        this.lookupContextIndices[index] = indexInTable(this.lookupContextTable, lookupContext);
+        this.stepIndices[index] = indexInTable(this.stepTable, step);
+        this.contextListIndices[index] = contextListIndex;
+        this.symbols[index] = symbol;
+        this.serialCheckRequired[index] = fallback != null && !(fallback instanceof SymbolDefinitionResolutionFallback);
+        this.size = index + 1;
+
+        if (symbol == null) {
+            this.values[index] = null;
+            this.integerKinds[index] = NOT_AN_INTEGER;
+            this.numberOfUnresolvedReferences++;
+        } else {
+            this.updateValue(index);
+        }
+
+        return index;
+    }
+
+    /**
+     * Adds a symbol reference that has just been resolved to this log. The symbol reference object itself is not kept.
+     *
+     * @param symbolReference
+     *            the symbol reference to add
+     * @return the index of the symbol reference in this log
+     */
+    final int add(@Nonnull SymbolReference symbolReference) {
+        return this.add(symbolReference.getContexts(), symbolReference.getName(), symbolReference.getDefinedName(),
+                symbolReference.getScope(), symbolReference.getLookupContext(), symbolReference.getStep(),
+                symbolReference.getSymbolResolutionFallback(), symbolReference.getSymbol());
+    }
+
+    /**
+     * Removes all the symbol references from this log. The arrays are kept to be reused in the next pass.
+     */
+    final void clear() {
+        // Release the references to the objects so that they can be garbage-collected.
+        final int size = this.size;
+        Arrays.fill(this.names, 0, size, null);
+        Arrays.fill(this.definedNames, 0, size, null);
+        Arrays.fill(this.scopes, 0, size, null);
+        Arrays.fill(this.fallbacks, 0, size, null);
+        Arrays.fill(this.symbols, 0, size, null);
+        Arrays.fill(this.values, 0, size, null);
+        this.lookupContextTable.clear();
+        this.stepTable.clear();
+        this.contextListTable.clear();
+        this.contextListIndicesByList.clear();
+        this.size = 0;
+        this.numberOfUnresolvedReferences = 0;
+    }
+
+    /**
+     * Creates a {@link SymbolReference} that represents the symbol reference at the specified index in this log.
+     *
+     * @param index
+     *            the index of the symbol reference
+     * @return a new symbol reference
+     */
+    @Nonnull
+    final SymbolReference get(int index) {
+        assert index < this.size;
+        return new SymbolReference(this.contextListTable.get(this.contextListIndices[index]), this.names[index],
+                this.lookupContextTable.get(this.lookupContextIndices[index]), this.stepTable.get(this.stepIndices[index]),
+                this.scopes[index], this.fallbacks[index], this.definedNames[index], this.symbols[index], this.values[index]);
+    }
+
+    /**
+     * Gets the number of symbol references in this log that couldn't be resolved.
+     *
+     * @return the number of unresolved symbol references
+     */
+    final int getNumberOfUnresolvedReferences() {
+        return this.numberOfUnresolvedReferences;
+    }
+
+    /**
+     * Determines whether any symbol reference in this log is stale. The check is performed in parallel if this log contains at
+     * least {@link #PARALLEL_THRESHOLD} symbol references and more than one processor is available.
+     *
+     * @return <code>true</code> if at least one symbol reference is stale, otherwise <code>false</code>
+     */
+    final boolean isAnyStale() {
+        final int size = this.size;
+        if (size < PARALLEL_THRESHOLD || Runtime.getRuntime().availableProcessors() < 2) {
+            for (int i = 0; i < size; i++) {
+                if (this.isStale(i)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        // Check the symbol references that may call a custom fallback on this thread first.
+        for (int i = 0; i < size; i++) {
+            if (this.serialCheckRequired[i] && this.isStale(i)) {
+                return true;
+            }
+        }
+
+        return ForkJoinPoolHolder.POOL.invoke(new StalenessCheckTask(0, size, new AtomicBoolean()));
+    }
+
+    /**
+     * Determines whether the symbol reference at the specified index in this log is stale, i.e. whether resolving it again would
+     * produce a different symbol or value.
+     * <p>
+     * This method only reads the symbol tables and this log, so it may be called concurrently for different symbol references as
+     * long as the symbol tables are not modified and the symbol references don't have a custom {@link SymbolResolutionFallback}.
+     *
+     * @param index
+     *            the index of the symbol reference
+     * @return <code>true</code> if the symbol reference is stale, otherwise <code>false</code>
+     */
+    final boolean isStale(int index) {
+        assert index < this.size;
+
+        // Resolve the symbol reference again.
+        //
+        // There are some situations where the reference
+        // will resolve to a different symbol if we perform a new pass.
+        //
+        // - If a reference to a symbol appears before the symbol's definition,
+        //   the reference will initially resolve to null.
+        //   Resolving the reference now (and again in the next pass) will find the symbol.
+        //
+        // - We might get a different symbol if the reference is in a namespace
+        //   and a constant is defined later in that namespace that matches the reference.
+        //
+        // - If the symbol reference specifies many contexts
+        //   and a symbol is defined later in a context that has higher priority in this reference,
+        //   the reference will resolve to that new symbol.
+        final Symbol symbol = this.symbols[index];
+        final Symbol resolvedSymbol = this.resolve(index);
+
+        // If the symbol reference resolves to a different symbol...
+        if (symbol != resolvedSymbol) {
+            // If the reference did resolve to a symbol initially,
+            // but doesn't resolve to a symbol now, then the reference is stale.
+            if (resolvedSymbol == null) {
+                return true;
+            }
+
+            // If the newly resolved symbol is a constant, then the reference is stale.
+            if (resolvedSymbol.getType().allowsForwardReferences()) {
+                return true;
+            }
+        }
+
+        // If the reference did not resolve to a symbol initially, then the reference is not stale.
+        if (symbol == null) {
+            return false;
+        }
+
+        // If the initially resolved symbol is a variable, then the reference is not stale.
+        if (symbol.getType().allowsRedefinition()) {
+            return false;
+        }
+
+        // If the symbol's value didn't change, then the reference is not stale.
+        // Small integer values are shared instances, so the identity check settles most cases.
+        // Other integer values are compared through their primitive representation.
+        final Object oldValue = this.values[index];
+        final Object value = symbol.getValue();
+        if (oldValue == value) {
+            return false;
+        }
+
+        final byte integerKind = this.integerKinds[index];
+        if (integerKind != NOT_AN_INTEGER) {
+            return integerKind != integerKindTag(symbol.getIntegerKind()) || this.integerValues[index] != symbol.getIntegerValue();
+        }
+
+        if (Objects.equals(oldValue, value)) {
+            return false;
+        }
+
+        // Otherwise, the reference is stale.
+        return true;
+    }
+
+    /**
+     * Determines whether the symbol reference at the specified index in this log is unresolved.
+     *
+     * @param index
+     *            the index of the symbol reference
+     * @return <code>true</code> if the symbol reference couldn't be resolved, otherwise <code>false</code>
+     */
+    final boolean isUnresolved(int index) {
+        assert index < this.size;
+        return this.symbols[index] == null;
+    }
+
+    /**
+     * Gets the number of symbol references in this log.
+     *
+     * @return the number of symbol references
+     */
+    final int size() {
+        return this.size;
+    }
+
+    /**
+     * Captures the current value of the symbol that the symbol reference at the specified index in this log resolved to.
+     *
+     * @param index
+     *            the index of the symbol reference
+     */
+    final void updateValue(int index) {
+        assert index < this.size;
+        final Symbol symbol = this.symbols[index];
+        assert symbol != null;
+        this.values[index] = symbol.getValue();
+        final IntegerKind integerKind = symbol.getIntegerKind();
+        this.integerKinds[index] = integerKindTag(integerKind);
+        if (integerKind != null) {
+            this.integerValues[index] = symbol.getIntegerValue();
+        }
+    }
+
+    private final void grow() {
+        final int newCapacity = this.names.length * 2;
+        this.names = Arrays.copyOf(this.names, newCapacity);
+        this.definedNames = Arrays.copyOf(this.definedNames, newCapacity);
+        this.scopes = Arrays.copyOf(this.scopes, newCapacity);
+        this.fallbacks = Arrays.copyOf(this.fallbacks, newCapacity);
+        this.lookupContextIndices = Arrays.copyOf(this.lookupContextIndices, newCapacity);
+        this.stepIndices = Arrays.copyOf(this.stepIndices, newCapacity);
+        this.contextListIndices = Arrays.copyOf(this.contextListIndices, newCapacity);
+        this.symbols = Arrays.copyOf(this.symbols, newCapacity);
+        this.values = Arrays.copyOf(this.values, newCapacity);
+        this.integerKinds = Arrays.copyOf(this.integerKinds, newCapacity);
+        this.integerValues = Arrays.copyOf(this.integerValues, newCapacity);
+        this.serialCheckRequired = Arrays.copyOf(this.serialCheckRequired, newCapacity);
+    }
+
+    @CheckForNull
+    private final Symbol resolve(int index) {
+        final SymbolLookupContext lookupContext = this.lookupContextTable.get(this.lookupContextIndices[index]);
+        final Symbol symbol = lookupContext.findSymbol(this.contextListTable.get(this.contextListIndices[index]),
+                this.names[index], this.scopes[index], this.definedNames[index], true);
+        if (symbol != null) {
+            return symbol;
+        }
+
+        final SymbolResolutionFallback fallback = this.fallbacks[index];
+        if (fallback != null) {
+            return fallback.resolve(this.get(index));
+        }
+
+        return null;
+    }
+
+}
@@ -12,6 +12,34 @@ import javax.annotation.concurrent.Immutable;
 @Immutable
 public final class UnsignedIntValue extends Value {
 
+    private static final int CACHE_MAX = 255;
+
+    @Nonnull
+    private static final UnsignedIntValue[] CACHE = new UnsignedIntValue[CACHE_MAX + 1];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new UnsignedIntValue(i);
+        }
+    }
+
+    /**
+     * Gets an unsigned integer value. Values from 0 to 255 are preallocated and shared; other values are allocated on each call.
+     *
+     * @param value
+     *            the value
+     * @return an {@link UnsignedIntValue} for the value
+     */
+    @Nonnull
+    public static UnsignedIntValue of(long value) {
+        // Values of 2**63 and above are negative as a long, so they are not cached.
+        if (value >= 0 && value <= CACHE_MAX) {
+            return CACHE[(int) value];
+        }
+
+        return new UnsignedIntValue(value);
+    }
+
     private final long value;
 
     /**
@@ -45,6 +73,17 @@ public final class UnsignedIntValue extends Value {
         return true;
     }
 
+    @Nonnull
+    @Override
+    public final IntegerKind getIntegerKind() {
+        return IntegerKind.UNSIGNED;
+    }
+
+    @Override
+    public final long getIntegerValue() {
+        return this.value;
+    }
+
     @Override
     public final int hashCode() {
         final int prime = 31;
@@ -26,7 +26,7 @@ public final class UserSymbol extends Symbol {
         // Values are supposed to be immutable, so we can just copy the reference.
         final UserSymbol symbol = new UserSymbol(predefinedSymbol.getContext(), predefinedSymbol.getName(),
                 predefinedSymbol.getType());
-        symbol.value = predefinedSymbol.getValue();
+        symbol.setValue(predefinedSymbol.getValue());
         symbol.predefined = true;
         return symbol;
     }
@@ -37,6 +37,9 @@ public final class UserSymbol extends Symbol {
     private AssemblyStep definition;
     @CheckForNull
     private Object value;
+    @CheckForNull
+    private IntegerKind integerKind;
+    private long integerValue;
     private boolean predefined;
     private boolean wasDefinedOnLastPass;
 
@@ -75,6 +78,21 @@ public final class UserSymbol extends Symbol {
         return this.definition;
     }
 
+    @CheckForNull
+    @Override
+    public final IntegerKind getIntegerKind() {
+        return this.integerKind;
+    }
+
+    @Override
+    public final long getIntegerValue() {
+        if (this.integerKind == null) {
+            throw new IllegalStateException("The symbol's value is not an integer.");
+        }
+
+        return this.integerValue;
+    }
+
     /**
      * Gets the value of this symbol.
      *
@@ -131,10 +149,13 @@ public final class UserSymbol extends Symbol {
         }
 
         if (this.definition == null) {
+            // A symbol without a definition may pretend not to exist, so giving it a definition may change which symbol a name
+            // resolves to.
             this.definition = step;
+            assembly.incrementSymbolDefinitionEpoch();
         }
 
-        this.value = value;
+        this.setValue(value);
         return true;
     }
 
@@ -176,4 +197,22 @@ public final class UserSymbol extends Symbol {
         this.definition = null;
     }
 
+    private final void setValue(@CheckForNull Object value) {
+        final IntegerKind integerKind = IntegerKind.of(value);
+        if (integerKind != null) {
+            final long integerValue = IntegerKind.longValueOf(value);
+
+            // If the value didn't change (typically, on a new pass), keep the current value object, so that symbol references
+            // that captured it keep seeing the same instance.
+            if (integerKind == this.integerKind && integerValue == this.integerValue) {
+                return;
+            }
+
+            this.integerValue = integerValue;
+        }
+
+        this.integerKind = integerKind;
+        this.value = value;
+    }
+
 }
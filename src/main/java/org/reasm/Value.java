@@ -42,6 +42,29 @@ public abstract class Value {
     @Override
     public abstract boolean equals(Object obj);
 
+    /**
+     * Gets the {@linkplain IntegerKind kind} of this value, if it is an integer. Together with {@link #getIntegerValue()}, this lets
+     * callers operate on integer values without going through a {@link ValueVisitor}.
+     *
+     * @return the kind of this value, or <code>null</code> if this value is not an {@link UnsignedIntValue} or a
+     *         {@link SignedIntValue}
+     */
+    @CheckForNull
+    public IntegerKind getIntegerKind() {
+        return null;
+    }
+
+    /**
+     * Gets the <code>long</code> representation of this value, if it is an integer.
+     *
+     * @return the <code>long</code> representation of this value
+     * @throws IllegalStateException
+     *             this value is not an integer, i.e. {@link #getIntegerKind()} returns <code>null</code>
+     */
+    public long getIntegerValue() {
+        throw new IllegalStateException("The value is not an integer.");
+    }
+
     @Override
     public abstract int hashCode();
 
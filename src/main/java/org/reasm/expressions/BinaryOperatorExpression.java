@@ -18,6 +18,8 @@ public final class BinaryOperatorExpression extends ValueOrientedExpression {
     private final BinaryOperator operator;
     @Nonnull
     private final Expression operand1, operand2;
+    private final boolean dependsOnProgramCounter;
+    private final boolean dependsOnSymbols;
 
     /**
      * Initializes a new BinaryOperatorExpression.
@@ -45,6 +47,26 @@ public final class BinaryOperatorExpression extends ValueOrientedExpression {
         this.operator = operator;
         this.operand1 = operand1;
         this.operand2 = operand2;
+        this.dependsOnProgramCounter = operand1.dependsOnProgramCounter() || operand2.dependsOnProgramCounter();
+        this.dependsOnSymbols = operand1.dependsOnSymbols() || operand2.dependsOnSymbols();
+    }
+
+    @Override
+    public final void collectDependencies(ExpressionDependencyVisitor visitor) {
+        if (this.dependsOnProgramCounter || this.dependsOnSymbols) {
+            this.operand1.collectDependencies(visitor);
+            this.operand2.collectDependencies(visitor);
+        }
+    }
+
+    @Override
+    public final boolean dependsOnProgramCounter() {
+        return this.dependsOnProgramCounter;
+    }
+
+    @Override
+    public final boolean dependsOnSymbols() {
+        return this.dependsOnSymbols;
     }
 
     @Override
@@ -83,6 +105,21 @@ public final class BinaryOperatorExpression extends ValueOrientedExpression {
                 evaluationContext);
     }
 
+    @Nonnull
+    @Override
+    public final Expression fold() {
+        final Expression operand1 = this.operand1.fold();
+        final Expression operand2 = this.operand2.fold();
+        final Expression folded = operand1 == this.operand1 && operand2 == this.operand2 ? this : new BinaryOperatorExpression(
+                this.operator, operand1, operand2);
+
+        if (isConstant(operand1) && isConstant(operand2)) {
+            return foldConstant(folded);
+        }
+
+        return folded;
+    }
+
     /**
      * Gets the first operand to the binary operator in this expression.
      *
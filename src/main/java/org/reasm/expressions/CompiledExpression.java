@@ -0,0 +1,547 @@
+package org.reasm.expressions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.reasm.IntegerKind;
+import org.reasm.SignedIntValue;
+import org.reasm.UnsignedIntValue;
+import org.reasm.Value;
+
+import com.google.common.primitives.UnsignedLongs;
+
+/**
+ * An {@link Expression} compiled to a linear program that runs on an operand stack. A compiled expression is meant to be created
+ * once and evaluated many times; its evaluation avoids the recursive traversal of the expression tree.
+ * <p>
+ * Evaluating a compiled expression produces the same {@link Value} and raises the same assembly messages, in the same order, as
+ * evaluating the expression it was compiled from. {@link BinaryOperatorExpression BinaryOperatorExpressions},
+ * {@link UnaryOperatorExpression UnaryOperatorExpressions}, {@link ConditionalExpression ConditionalExpressions},
+ * {@link GroupingExpression GroupingExpressions}, {@link ValueExpression ValueExpressions} and the
+ * {@link ProgramCounterExpression} are compiled to instructions; other expressions are evaluated as a whole by a single
+ * instruction.
+ * <p>
+ * The operand stack holds integers in primitive form. Arithmetic, bitwise, bit shift and comparison operators applied to two
+ * integers compute their result on the primitive values directly, so a chain of integer operators only allocates a {@link Value}
+ * for the final result (and none at all if it is a small integer). Other operands and operators go through
+ * {@link BinaryOperator#apply(Value, Value, EvaluationContext)}.
+ *
+ * @author Francis Gagné
+ */
+@ThreadSafe
+public final class CompiledExpression {
+
+    /**
+     * Compiles an {@link Expression} to a program.
+     *
+     * @author Francis Gagné
+     */
+    private static final class Compiler {
+
+        @Nonnull
+        private int[] code = new int[16];
+        private int codeLength;
+        @Nonnull
+        private final ArrayList<Object> constants = new ArrayList<>();
+        private int stackDepth;
+        private int maxStackDepth;
+
+        Compiler() {
+        }
+
+        final void compile(@Nonnull Expression expression) {
+            if (expression instanceof ValueExpression) {
+                this.emit(PUSH_VALUE, this.addConstant(((ValueExpression) expression).getValue()));
+                this.push();
+            } else if (expression instanceof ProgramCounterExpression) {
+                this.emit(PUSH_PROGRAM_COUNTER);
+                this.push();
+            } else if (expression instanceof UnaryOperatorExpression) {
+                final UnaryOperatorExpression unaryOperatorExpression = (UnaryOperatorExpression) expression;
+                this.compile(unaryOperatorExpression.getOperand());
+                this.emit(APPLY_UNARY_OPERATOR, this.addConstant(unaryOperatorExpression.getOperator()));
+            } else if (expression instanceof BinaryOperatorExpression) {
+                final BinaryOperatorExpression binaryOperatorExpression = (BinaryOperatorExpression) expression;
+                this.compile(binaryOperatorExpression.getOperand1());
+                this.compile(binaryOperatorExpression.getOperand2());
+                final BinaryOperator operator = binaryOperatorExpression.getOperator();
+                this.emit(APPLY_BINARY_OPERATOR, this.addConstant(operator), integerOperation(operator));
+                this.stackDepth--;
+            } else if (expression instanceof GroupingExpression) {
+                this.compile(((GroupingExpression) expression).getChildExpression());
+            } else if (expression instanceof ConditionalExpression) {
+                this.compileConditional((ConditionalExpression) expression);
+            } else {
+                this.emit(EVALUATE, this.addConstant(expression));
+                this.push();
+            }
+        }
+
+        private int addConstant(@CheckForNull Object constant) {
+            this.constants.add(constant);
+            return this.constants.size() - 1;
+        }
+
+        private void compileConditional(@Nonnull ConditionalExpression expression) {
+            this.compile(expression.getCondition());
+            this.stackDepth--;
+
+            // BRANCH pops the condition and jumps to the false part or to the end (with an undetermined value on the stack), or
+            // falls through to the true part. The jump targets are patched once they are known.
+            this.emit(BRANCH, 0, 0);
+            final int branchOperands = this.codeLength - 2;
+
+            final int stackDepthBeforeParts = this.stackDepth;
+            this.compile(expression.getTruePart());
+            this.emit(JUMP, 0);
+            final int jumpOperand = this.codeLength - 1;
+
+            this.code[branchOperands] = this.codeLength;
+            this.stackDepth = stackDepthBeforeParts;
+            this.compile(expression.getFalsePart());
+
+            this.code[branchOperands + 1] = this.codeLength;
+            this.code[jumpOperand] = this.codeLength;
+        }
+
+        private void emit(int... instruction) {
+            while (this.codeLength + instruction.length > this.code.length) {
+                this.code = Arrays.copyOf(this.code, this.code.length * 2);
+            }
+
+            System.arraycopy(instruction, 0, this.code, this.codeLength, instruction.length);
+            this.codeLength += instruction.length;
+        }
+
+        private void push() {
+            if (++this.stackDepth > this.maxStackDepth) {
+                this.maxStackDepth = this.stackDepth;
+            }
+        }
+
+    }
+
+    /**
+     * The operand stack of an evaluation. A slot whose integer kind is not <code>null</code> holds an integer in primitive form;
+     * its {@link Value} is only created when it is needed, unless it was already known when the integer was pushed. Other slots
+     * hold a {@link Value}, or <code>null</code> for an undetermined value.
+     *
+     * @author Francis Gagné
+     */
+    private static final class Stack {
+
+        @Nonnull
+        final Value[] values;
+        @Nonnull
+        final IntegerKind[] integerKinds;
+        @Nonnull
+        final long[] integerValues;
+
+        Stack(int size) {
+            this.values = new Value[size];
+            this.integerKinds = new IntegerKind[size];
+            this.integerValues = new long[size];
+        }
+
+        @CheckForNull
+        final Value get(int index) {
+            Value value = this.values[index];
+            if (value == null) {
+                final IntegerKind integerKind = this.integerKinds[index];
+                if (integerKind == IntegerKind.UNSIGNED) {
+                    value = UnsignedIntValue.of(this.integerValues[index]);
+                } else if (integerKind == IntegerKind.SIGNED) {
+                    value = SignedIntValue.of(this.integerValues[index]);
+                }
+            }
+
+            return value;
+        }
+
+        final void set(int index, @CheckForNull Value value) {
+            this.values[index] = value;
+            if (value == null) {
+                this.integerKinds[index] = null;
+                return;
+            }
+
+            final IntegerKind integerKind = value.getIntegerKind();
+            this.integerKinds[index] = integerKind;
+            if (integerKind != null) {
+                this.integerValues[index] = value.getIntegerValue();
+            }
+        }
+
+        final void setInteger(int index, @Nonnull IntegerKind integerKind, long integerValue) {
+            this.values[index] = null;
+            this.integerKinds[index] = integerKind;
+            this.integerValues[index] = integerValue;
+        }
+
+    }
+
+    // Opcodes. Operands follow the opcode in the code array.
+    /** PUSH_VALUE constantIndex: pushes a constant {@link Value} (possibly <code>null</code>). */
+    private static final int PUSH_VALUE = 0;
+    /** PUSH_PROGRAM_COUNTER: pushes the program counter of the evaluation context. */
+    private static final int PUSH_PROGRAM_COUNTER = 1;
+    /** EVALUATE constantIndex: evaluates a constant {@link Expression} and pushes the result. */
+    private static final int EVALUATE = 2;
+    /** APPLY_UNARY_OPERATOR constantIndex: pops an operand and pushes the result of a constant {@link UnaryOperator}. */
+    private static final int APPLY_UNARY_OPERATOR = 3;
+    /**
+     * APPLY_BINARY_OPERATOR constantIndex integerOperation: pops two operands and pushes the result of a constant
+     * {@link BinaryOperator}, computing it with integerOperation if both operands are integers.
+     */
+    private static final int APPLY_BINARY_OPERATOR = 4;
+    /**
+     * BRANCH falseTarget undeterminedTarget: pops a condition; continues if it is true, jumps to falseTarget if it is false, or
+     * pushes an undetermined value and jumps to undeterminedTarget if it is undetermined.
+     */
+    private static final int BRANCH = 5;
+    /** JUMP target: continues at target. */
+    private static final int JUMP = 6;
+
+    // Operations on two integers in primitive form, matching the integer cases in ExpressionEvaluation.
+    private static final int NO_INTEGER_OPERATION = 0;
+    private static final int INTEGER_ADDITION = 1;
+    private static final int INTEGER_SUBTRACTION = 2;
+    private static final int INTEGER_MULTIPLICATION = 3;
+    private static final int INTEGER_DIVISION = 4;
+    private static final int INTEGER_MODULUS = 5;
+    private static final int INTEGER_BIT_SHIFT_LEFT = 6;
+    private static final int INTEGER_BIT_SHIFT_RIGHT = 7;
+    private static final int INTEGER_BITWISE_AND = 8;
+    private static final int INTEGER_BITWISE_XOR = 9;
+    private static final int INTEGER_BITWISE_OR = 10;
+    private static final int INTEGER_LESS_THAN = 11;
+    private static final int INTEGER_LESS_THAN_OR_EQUAL_TO = 12;
+    private static final int INTEGER_GREATER_THAN = 13;
+    private static final int INTEGER_GREATER_THAN_OR_EQUAL_TO = 14;
+    private static final int INTEGER_EQUAL_TO = 15;
+    private static final int INTEGER_DIFFERENT_FROM = 16;
+
+    /**
+     * Applies an integer operation to the integers at the specified index and at the next index of a stack, and stores the result
+     * at the specified index.
+     *
+     * @param stack
+     *            the stack
+     * @param index
+     *            the index of the first operand
+     * @param integerOperation
+     *            the integer operation
+     * @return <code>true</code> if the result was stored, or <code>false</code> if the operation must be performed by the
+     *         {@link BinaryOperator} instead (e.g. because it raises an assembly message)
+     */
+    private static boolean applyIntegerOperation(@Nonnull Stack stack, int index, int integerOperation) {
+        final IntegerKind kind1 = stack.integerKinds[index];
+        final IntegerKind kind2 = stack.integerKinds[index + 1];
+        if (kind1 == null || kind2 == null) {
+            return false;
+        }
+
+        final long value1 = stack.integerValues[index];
+        final long value2 = stack.integerValues[index + 1];
+        final IntegerKind arithmeticKind = kind1 == IntegerKind.UNSIGNED && kind2 == IntegerKind.UNSIGNED ? IntegerKind.UNSIGNED
+                : IntegerKind.SIGNED;
+        switch (integerOperation) {
+        case INTEGER_ADDITION:
+            stack.setInteger(index, arithmeticKind, value1 + value2);
+            return true;
+
+        case INTEGER_SUBTRACTION:
+            // If the result of an unsigned subtraction is negative, it is a signed integer.
+            if (arithmeticKind == IntegerKind.UNSIGNED && UnsignedLongs.compare(value1, value2) < 0) {
+                stack.setInteger(index, IntegerKind.SIGNED, value1 - value2);
+            } else {
+                stack.setInteger(index, arithmeticKind, value1 - value2);
+            }
+
+            return true;
+
+        case INTEGER_MULTIPLICATION:
+            stack.setInteger(index, arithmeticKind, value1 * value2);
+            return true;
+
+        case INTEGER_DIVISION:
+        case INTEGER_MODULUS:
+            // Let the operator report the division by zero.
+            if (value2 == 0) {
+                return false;
+            }
+
+            if (arithmeticKind == IntegerKind.UNSIGNED) {
+                stack.setInteger(index, arithmeticKind, integerOperation == INTEGER_DIVISION ? UnsignedLongs.divide(value1, value2)
+                        : UnsignedLongs.remainder(value1, value2));
+            } else {
+                stack.setInteger(index, arithmeticKind, integerOperation == INTEGER_DIVISION ? value1 / value2 : value1 % value2);
+            }
+
+            return true;
+
+        case INTEGER_BIT_SHIFT_LEFT:
+            stack.setInteger(index, kind1, value1 << value2);
+            return true;
+
+        case INTEGER_BIT_SHIFT_RIGHT:
+            stack.setInteger(index, kind1, kind1 == IntegerKind.UNSIGNED ? value1 >>> value2 : value1 >> value2);
+            return true;
+
+        case INTEGER_BITWISE_AND:
+            stack.setInteger(index, IntegerKind.UNSIGNED, value1 & value2);
+            return true;
+
+        case INTEGER_BITWISE_XOR:
+            stack.setInteger(index, IntegerKind.UNSIGNED, value1 ^ value2);
+            return true;
+
+        case INTEGER_BITWISE_OR:
+            stack.setInteger(index, IntegerKind.UNSIGNED, value1 | value2);
+            return true;
+        }
+
+        // The remaining operations are comparisons, which produce 1 if the comparison is true or 0 if it is false.
+        final int comparisonResult = ExpressionEvaluation.compareIntegers(kind1, value1, kind2, value2);
+        final boolean result;
+        switch (integerOperation) {
+        case INTEGER_LESS_THAN:
+            result = comparisonResult < 0;
+            break;
+
+        case INTEGER_LESS_THAN_OR_EQUAL_TO:
+            result = comparisonResult <= 0;
+            break;
+
+        case INTEGER_GREATER_THAN:
+            result = comparisonResult > 0;
+            break;
+
+        case INTEGER_GREATER_THAN_OR_EQUAL_TO:
+            result = comparisonResult >= 0;
+            break;
+
+        case INTEGER_EQUAL_TO:
+            result = comparisonResult == 0;
+            break;
+
+        case INTEGER_DIFFERENT_FROM:
+            result = comparisonResult != 0;
+            break;
+
+        default:
+            return false;
+        }
+
+        stack.setInteger(index, IntegerKind.UNSIGNED, result ? 1 : 0);
+        return true;
+    }
+
+    private static int integerOperation(@Nonnull BinaryOperator operator) {
+        if (operator == BinaryOperator.ADDITION) {
+            return INTEGER_ADDITION;
+        }
+
+        if (operator == BinaryOperator.SUBTRACTION) {
+            return INTEGER_SUBTRACTION;
+        }
+
+        if (operator == BinaryOperator.MULTIPLICATION) {
+            return INTEGER_MULTIPLICATION;
+        }
+
+        if (operator == BinaryOperator.DIVISION) {
+            return INTEGER_DIVISION;
+        }
+
+        if (operator == BinaryOperator.MODULUS) {
+            return INTEGER_MODULUS;
+        }
+
+        if (operator == BinaryOperator.BIT_SHIFT_LEFT) {
+            return INTEGER_BIT_SHIFT_LEFT;
+        }
+
+        if (operator == BinaryOperator.BIT_SHIFT_RIGHT) {
+            return INTEGER_BIT_SHIFT_RIGHT;
+        }
+
+        if (operator == BinaryOperator.BITWISE_AND) {
+            return INTEGER_BITWISE_AND;
+        }
+
+        if (operator == BinaryOperator.BITWISE_XOR) {
+            return INTEGER_BITWISE_XOR;
+        }
+
+        if (operator == BinaryOperator.BITWISE_OR) {
+            return INTEGER_BITWISE_OR;
+        }
+
+        if (operator == BinaryOperator.LESS_THAN) {
+            return INTEGER_LESS_THAN;
+        }
+
+        if (operator == BinaryOperator.LESS_THAN_OR_EQUAL_TO) {
+            return INTEGER_LESS_THAN_OR_EQUAL_TO;
+        }
+
+        if (operator == BinaryOperator.GREATER_THAN) {
+            return INTEGER_GREATER_THAN;
+        }
+
+        if (operator == BinaryOperator.GREATER_THAN_OR_EQUAL_TO) {
+            return INTEGER_GREATER_THAN_OR_EQUAL_TO;
+        }
+
+        if (operator == BinaryOperator.EQUAL_TO) {
+            return INTEGER_EQUAL_TO;
+        }
+
+        if (operator == BinaryOperator.DIFFERENT_FROM) {
+            return INTEGER_DIFFERENT_FROM;
+        }
+
+        return NO_INTEGER_OPERATION;
+    }
+
+    @Nonnull
+    private final Expression expression;
+    @Nonnull
+    private final int[] code;
+    @Nonnull
+    private final Object[] constants;
+    private final int maxStackDepth;
+
+    // A stack that was used by a previous evaluation, to be reused by the next one.
+    // An evaluation that finds no spare stack (e.g. because of a concurrent evaluation) allocates a new one.
+    @Nonnull
+    private final AtomicReference<Stack> spareStack = new AtomicReference<>();
+
+    /**
+     * Initializes a new CompiledExpression.
+     *
+     * @param expression
+     *            the expression to compile
+     */
+    public CompiledExpression(@Nonnull Expression expression) {
+        if (expression == null) {
+            throw new NullPointerException("expression");
+        }
+
+        final Compiler compiler = new Compiler();
+        compiler.compile(expression);
+        this.expression = expression;
+        this.code = Arrays.copyOf(compiler.code, compiler.codeLength);
+        this.constants = compiler.constants.toArray();
+        this.maxStackDepth = compiler.maxStackDepth;
+    }
+
+    /**
+     * Evaluates this compiled expression.
+     *
+     * @param evaluationContext
+     *            the {@link EvaluationContext} in which the expression is evaluated
+     * @return the {@link Value} of the expression, or <code>null</code> if the value is undetermined
+     * @see Expression#evaluate(EvaluationContext)
+     */
+    @CheckForNull
+    public final Value evaluate(@Nonnull EvaluationContext evaluationContext) {
+        Stack stack = this.spareStack.getAndSet(null);
+        if (stack == null) {
+            stack = new Stack(this.maxStackDepth);
+        }
+
+        final int[] code = this.code;
+        final Object[] constants = this.constants;
+        int top = 0;
+        int ip = 0;
+
+        while (ip < code.length) {
+            switch (code[ip]) {
+            case PUSH_VALUE:
+                stack.set(top++, (Value) constants[code[ip + 1]]);
+                ip += 2;
+                break;
+
+            case PUSH_PROGRAM_COUNTER:
+                stack.setInteger(top++, IntegerKind.UNSIGNED, evaluationContext.getProgramCounter());
+                ip += 1;
+                break;
+
+            case EVALUATE:
+                stack.set(top++, ((Expression) constants[code[ip + 1]]).evaluate(evaluationContext));
+                ip += 2;
+                break;
+
+            case APPLY_UNARY_OPERATOR:
+                stack.set(top - 1, ((UnaryOperator) constants[code[ip + 1]]).apply(stack.get(top - 1), evaluationContext));
+                ip += 2;
+                break;
+
+            case APPLY_BINARY_OPERATOR:
+                top--;
+                if (!applyIntegerOperation(stack, top - 1, code[ip + 2])) {
+                    final BinaryOperator operator = (BinaryOperator) constants[code[ip + 1]];
+                    stack.set(top - 1, operator.apply(stack.get(top - 1), stack.get(top), evaluationContext));
+                }
+
+                ip += 3;
+                break;
+
+            case BRANCH:
+                final Boolean condition = ExpressionEvaluation.valueToBoolean(stack.get(--top));
+                if (condition == null) {
+                    stack.set(top++, null);
+                    ip = code[ip + 2];
+                } else if (condition.booleanValue()) {
+                    ip += 3;
+                } else {
+                    ip = code[ip + 1];
+                }
+
+                break;
+
+            case JUMP:
+                ip = code[ip + 1];
+                break;
+
+            default:
+                throw new AssertionError(); // unreachable
+            }
+        }
+
+        assert top == 1;
+        final Value result = stack.get(0);
+
+        // Release the references to the intermediate values before offering the stack for reuse.
+        Arrays.fill(stack.values, null);
+        this.spareStack.set(stack);
+        return result;
+    }
+
+    /**
+     * Gets the expression that was compiled to this compiled expression.
+     *
+     * @return the expression
+     */
+    @Nonnull
+    public final Expression getExpression() {
+        return this.expression;
+    }
+
+    /**
+     * Gets the maximum depth of the operand stack while evaluating this compiled expression.
+     *
+     * @return the maximum depth of the operand stack
+     */
+    final int getMaxStackDepth() {
+        return this.maxStackDepth;
+    }
+
+}
@@ -16,6 +16,8 @@ public final class ConditionalExpression extends ExpressionOrientedExpression {
 
     @Nonnull
     private final Expression condition, truePart, falsePart;
+    private final boolean dependsOnProgramCounter;
+    private final boolean dependsOnSymbols;
 
     /**
      * Initializes a new ConditionalExpression.
@@ -43,6 +45,28 @@ public final class ConditionalExpression extends ExpressionOrientedExpression {
         this.condition = condition;
         this.truePart = truePart;
         this.falsePart = falsePart;
+        this.dependsOnProgramCounter = condition.dependsOnProgramCounter() || truePart.dependsOnProgramCounter()
+                || falsePart.dependsOnProgramCounter();
+        this.dependsOnSymbols = condition.dependsOnSymbols() || truePart.dependsOnSymbols() || falsePart.dependsOnSymbols();
+    }
+
+    @Override
+    public final void collectDependencies(ExpressionDependencyVisitor visitor) {
+        if (this.dependsOnProgramCounter || this.dependsOnSymbols) {
+            this.condition.collectDependencies(visitor);
+            this.truePart.collectDependencies(visitor);
+            this.falsePart.collectDependencies(visitor);
+        }
+    }
+
+    @Override
+    public final boolean dependsOnProgramCounter() {
+        return this.dependsOnProgramCounter;
+    }
+
+    @Override
+    public final boolean dependsOnSymbols() {
+        return this.dependsOnSymbols;
     }
 
     @Override
@@ -75,6 +99,30 @@ public final class ConditionalExpression extends ExpressionOrientedExpression {
         return true;
     }
 
+    @Nonnull
+    @Override
+    public final Expression fold() {
+        final Expression condition = this.condition.fold();
+
+        // If the condition is constant, only the selected part remains.
+        if (isConstant(condition)) {
+            final Boolean conditionValue = ExpressionEvaluation.valueToBoolean(((ValueExpression) condition).getValue());
+            if (conditionValue == null) {
+                return ValueExpression.UNDETERMINED;
+            }
+
+            return (conditionValue.booleanValue() ? this.truePart : this.falsePart).fold();
+        }
+
+        final Expression truePart = this.truePart.fold();
+        final Expression falsePart = this.falsePart.fold();
+        if (condition == this.condition && truePart == this.truePart && falsePart == this.falsePart) {
+            return this;
+        }
+
+        return new ConditionalExpression(condition, truePart, falsePart);
+    }
+
     /**
      * Gets the condition expression in this conditional expression.
      *
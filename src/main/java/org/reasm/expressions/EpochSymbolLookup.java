@@ -0,0 +1,24 @@
+package org.reasm.expressions;
+
+import org.reasm.Assembly;
+
+/**
+ * A {@link SymbolLookup} whose results may be cached. The lookup reports a definition epoch; as long as the epoch doesn't change,
+ * {@link #getSymbol(String)} must return the same symbol for the same name, and calling it again must have no other effect that
+ * the caller relies on. {@link IdentifierExpression} uses the epoch to skip the lookup when the same expression is evaluated again.
+ * <p>
+ * An implementation that looks up symbols in an {@link Assembly} in a fixed {@link org.reasm.SymbolLookupContext} will typically
+ * return {@link Assembly#getSymbolDefinitionEpoch()}.
+ *
+ * @author Francis Gagné
+ */
+public interface EpochSymbolLookup extends SymbolLookup {
+
+    /**
+     * Gets the current definition epoch of this lookup.
+     *
+     * @return the definition epoch
+     */
+    long getDefinitionEpoch();
+
+}
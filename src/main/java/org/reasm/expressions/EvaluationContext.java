@@ -2,6 +2,7 @@ package org.reasm.expressions;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
 
 import org.reasm.Assembly;
 import org.reasm.AssemblyMessage;
@@ -10,9 +11,14 @@ import ca.fragag.Consumer;
 
 /**
  * A set of information and handlers to use while evaluating an {@link Expression}.
+ * <p>
+ * An evaluation context is immutable. It may be shared by concurrent evaluations if its assembly message consumer is thread-safe.
+ *
+ * @see org.reasm.EvaluationSnapshot
  *
  * @author Francis Gagné
  */
+@Immutable
 public final class EvaluationContext {
 
     private static final Consumer<AssemblyMessage> DUMMY_ASSEMBLY_MESSAGE_CONSUMER = new Consumer<AssemblyMessage>() {
@@ -6,9 +6,12 @@ import javax.annotation.concurrent.Immutable;
 
 import org.reasm.AssemblyMessage;
 import org.reasm.Function;
+import org.reasm.FunctionValue;
 import org.reasm.Value;
 import org.reasm.ValueVisitor;
 
+import ca.fragag.Consumer;
+
 import com.google.common.primitives.UnsignedLongs;
 
 /**
@@ -60,7 +63,10 @@ public abstract class Expression {
     };
 
     /**
-     * Parses a floating-point number from the specified {@link CharSequence}.
+     * Parses a floating-point number from the specified {@link CharSequence}. The number must consist of decimal digits, optionally
+     * followed by a point and decimal digits, optionally followed by an 'E' or an 'e', an optional '+' or '-' and decimal digits.
+     * The result is rounded to the nearest <code>double</code>; numbers that are too large to be represented produce
+     * {@link Double#POSITIVE_INFINITY} and numbers that are too small to be represented produce 0.
      *
      * @param value
      *            the {@link CharSequence} to parse a number from
@@ -71,91 +77,7 @@ public abstract class Expression {
             throw new NullPointerException("value");
         }
 
-        double result = 0.0;
-        int i;
-        int exponent = -1;
-        char ch = '\0';
-
-        // Find the exponent of the left-most digit.
-        for (i = 0; i < value.length(); i++) {
-            ch = value.charAt(i);
-            if (!isDigit(ch)) {
-                break;
-            }
-
-            exponent++;
-        }
-
-        loop: for (i = 0; i < value.length(); i++) {
-            ch = value.charAt(i);
-
-            switch (ch) {
-            case '.':
-            case 'E':
-            case 'e':
-                i++;
-                break loop;
-            }
-
-            // Compute the value of the current digit.
-            assert isDigit(ch);
-            int digit = ch - '0';
-
-            // Update the result with this digit. Multiply the digit by 10**exponent, where exponent corresponds to the digit's
-            // position, to get the best precision.
-            // TODO: detect overflow/underflow/loss of precision and report as a warning?
-            result += digit * Math.pow(10, exponent);
-            exponent--;
-        }
-
-        assert exponent == -1;
-
-        if (ch == '.') {
-            for (; i < value.length(); i++) {
-                ch = value.charAt(i);
-
-                if (ch == 'E' || ch == 'e') {
-                    i++;
-                    break;
-                }
-
-                // Compute the value of the current digit.
-                assert isDigit(ch);
-                int digit = ch - '0';
-
-                // Update the fraction with this digit.
-                // TODO: detect overflow/underflow/loss of precision and report as a warning?
-                result += digit * Math.pow(10, exponent);
-                exponent--;
-            }
-        }
-
-        int scientificENotationExponent = 0;
-        int scientificENotationExponentSign = 1;
-        if (ch == 'E' || ch == 'e') {
-            ch = value.charAt(i);
-            if (ch == '+') {
-                i++;
-            } else if (ch == '-') {
-                scientificENotationExponentSign = -1;
-                i++;
-            }
-
-            for (; i < value.length(); i++) {
-                ch = value.charAt(i);
-
-                // Compute the value of the current digit.
-                assert isDigit(ch);
-                int digit = ch - '0';
-
-                // Update the exponent with this digit.
-                // TODO: detect overflow and report as a warning?
-                scientificENotationExponent *= 10;
-                scientificENotationExponent += digit;
-            }
-        }
-
-        return result * Math.pow(10, scientificENotationExponent * scientificENotationExponentSign);
+        return FloatParsing.parse(value, 0, value.length());
     }
 
     /**
@@ -217,8 +139,47 @@ public abstract class Expression {
         return Value.accept(value, VALUE_TO_STRING_VISITOR);
     }
 
-    private static boolean isDigit(int codePoint) {
-        return codePoint >= '0' && codePoint <= '9';
+    /**
+     * Evaluates an expression whose operands are all {@linkplain #isConstant(Expression) constant} and returns a
+     * {@link ValueExpression} that holds the result. If the evaluation raises assembly messages, the expression is returned
+     * unchanged, so that the messages are raised when the expression is evaluated in an assembly.
+     *
+     * @param expression
+     *            the expression to evaluate
+     * @return a {@link ValueExpression}, or <code>expression</code>
+     */
+    @Nonnull
+    static Expression foldConstant(@Nonnull Expression expression) {
+        final boolean[] messageRaised = new boolean[1];
+        final Value value = expression.evaluate(new EvaluationContext(null, 0, new Consumer<AssemblyMessage>() {
+            @Override
+            public void accept(AssemblyMessage message) {
+                messageRaised[0] = true;
+            }
+        }));
+
+        if (messageRaised[0]) {
+            return expression;
+        }
+
+        if (value == null) {
+            return ValueExpression.UNDETERMINED;
+        }
+
+        return new ValueExpression(value);
+    }
+
+    /**
+     * Determines whether an expression is a constant that can be folded into the expressions that use it. Functions are not
+     * considered constants, because comparing functions depends on the assembly in which they are compared.
+     *
+     * @param expression
+     *            the expression
+     * @return <code>true</code> if the expression is a {@link ValueExpression} that does not hold a {@link FunctionValue},
+     *         otherwise <code>false</code>
+     */
+    static boolean isConstant(@Nonnull Expression expression) {
+        return expression instanceof ValueExpression && !(((ValueExpression) expression).getValue() instanceof FunctionValue);
     }
 
     /**
@@ -227,6 +188,46 @@ public abstract class Expression {
     protected Expression() {
     }
 
+    /**
+     * Reports the dependencies of this expression to an {@link ExpressionDependencyVisitor}. The dependencies of subexpressions are
+     * reported in evaluation order. A symbol or the program counter may be reported even if a particular evaluation doesn't read
+     * it, but everything that an evaluation may read is reported.
+     * <p>
+     * This implementation calls {@link ExpressionDependencyVisitor#visitUnknown(Expression)} with this expression, unless this
+     * expression depends neither on symbols nor on the program counter.
+     *
+     * @param visitor
+     *            the visitor that receives the dependencies
+     */
+    public void collectDependencies(@Nonnull ExpressionDependencyVisitor visitor) {
+        if (this.dependsOnSymbols() || this.dependsOnProgramCounter()) {
+            visitor.visitUnknown(this);
+        }
+    }
+
+    /**
+     * Determines whether the value of this expression may depend on the {@linkplain EvaluationContext#getProgramCounter() program
+     * counter}. This implementation returns <code>true</code>.
+     *
+     * @return <code>true</code> if evaluating this expression may read the program counter, or <code>false</code> if it never does
+     */
+    public boolean dependsOnProgramCounter() {
+        return true;
+    }
+
+    /**
+     * Determines whether the value of this expression may depend on the value of symbols. This implementation returns
+     * <code>true</code>.
+     * <p>
+     * An expression that depends neither on symbols nor on the program counter evaluates to the same value in every pass of an
+     * assembly, so the results that are derived from it may be cached across passes.
+     *
+     * @return <code>true</code> if evaluating this expression may read symbols, or <code>false</code> if it never does
+     */
+    public boolean dependsOnSymbols() {
+        return true;
+    }
+
     @Override
     public abstract boolean equals(@CheckForNull Object obj);
 
@@ -241,6 +242,18 @@ public abstract class Expression {
     @CheckForNull
     public abstract Value evaluate(@Nonnull EvaluationContext evaluationContext);
 
+    /**
+     * Folds the constant subexpressions of this expression: the subexpressions that don't depend on symbols or on the program
+     * counter are replaced with a {@link ValueExpression} that holds their value. Subexpressions whose evaluation raises assembly
+     * messages are not folded. This implementation returns <code>this</code>.
+     *
+     * @return an equivalent expression with its constant subexpressions folded, or <code>this</code> if nothing could be folded
+     */
+    @Nonnull
+    public Expression fold() {
+        return this;
+    }
+
     @Override
     public abstract int hashCode();
 
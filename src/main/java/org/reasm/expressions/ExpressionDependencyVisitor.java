@@ -0,0 +1,57 @@
+package org.reasm.expressions;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A visitor that receives the dependencies of an {@link Expression}, i.e. the parts of the assembly state that the expression may
+ * read when it is evaluated.
+ *
+ * @see Expression#collectDependencies(ExpressionDependencyVisitor)
+ *
+ * @author Francis Gagné
+ */
+public interface ExpressionDependencyVisitor {
+
+    /**
+     * This method is called when an expression looks up a symbol whose name is computed when the expression is evaluated, such as
+     * a {@link PeriodExpression} or an {@link IndexerExpression}. The dependencies of the subexpressions that compute the name are
+     * reported separately.
+     *
+     * @param expression
+     *            the expression that looks up the symbol
+     */
+    void visitComputedIdentifier(@Nonnull Expression expression);
+
+    /**
+     * This method is called when an expression calls a function. The expression that a function call simplifies to is only known
+     * when the function is called, so it may read any symbol and the program counter. The dependencies of the function expression
+     * and of the arguments are reported separately.
+     *
+     * @param expression
+     *            the function call expression
+     */
+    void visitFunctionCall(@Nonnull FunctionCallExpression expression);
+
+    /**
+     * This method is called when an expression looks up a symbol by name.
+     *
+     * @param expression
+     *            the expression that looks up the symbol
+     */
+    void visitIdentifier(@Nonnull IdentifierExpression expression);
+
+    /**
+     * This method is called when an expression reads the program counter.
+     */
+    void visitProgramCounter();
+
+    /**
+     * This method is called for an expression that doesn't report its dependencies. Such an expression may read any symbol and the
+     * program counter.
+     *
+     * @param expression
+     *            the expression
+     */
+    void visitUnknown(@Nonnull Expression expression);
+
+}
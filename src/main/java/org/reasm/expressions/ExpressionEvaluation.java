@@ -1,17 +1,13 @@
 package org.reasm.expressions;
 
-import java.lang.ref.WeakReference;
-import java.util.ArrayList;
-import java.util.WeakHashMap;
-
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
 import javax.annotation.meta.When;
 
-import org.reasm.Assembly;
 import org.reasm.FloatValue;
 import org.reasm.Function;
+import org.reasm.IntegerKind;
 import org.reasm.SignedIntValue;
 import org.reasm.StringValue;
 import org.reasm.UnsignedIntValue;
@@ -40,13 +36,13 @@ final class ExpressionEvaluation {
             @Nonnull
             @Override
             public Value applySigned(long value1, long value2, @Nonnull EvaluationContext evaluationContext) {
-                return new SignedIntValue(value1 * value2);
+                return SignedIntValue.of(value1 * value2);
             }
 
             @Nonnull
             @Override
             public Value applyUnsigned(long value1, long value2, @Nonnull EvaluationContext evaluationContext) {
-                return new UnsignedIntValue(value1 * value2);
+                return UnsignedIntValue.of(value1 * value2);
             }
 
         },
@@ -72,7 +68,7 @@ final class ExpressionEvaluation {
                     return null;
                 }
 
-                return new SignedIntValue(value1 / value2);
+                return SignedIntValue.of(value1 / value2);
             }
 
             @CheckForNull
@@ -83,7 +79,7 @@ final class ExpressionEvaluation {
                     return null;
                 }
 
-                return new UnsignedIntValue(UnsignedLongs.divide(value1, value2));
+                return UnsignedIntValue.of(UnsignedLongs.divide(value1, value2));
             }
 
         },
@@ -109,7 +105,7 @@ final class ExpressionEvaluation {
                     return null;
                 }
 
-                return new SignedIntValue(value1 % value2);
+                return SignedIntValue.of(value1 % value2);
             }
 
             @CheckForNull
@@ -120,7 +116,7 @@ final class ExpressionEvaluation {
                     return null;
                 }
 
-                return new UnsignedIntValue(UnsignedLongs.remainder(value1, value2));
+                return UnsignedIntValue.of(UnsignedLongs.remainder(value1, value2));
             }
 
         },
@@ -136,7 +132,7 @@ final class ExpressionEvaluation {
             @Nonnull
             @Override
             public Value applySigned(long value1, long value2, @Nonnull EvaluationContext evaluationContext) {
-                return new SignedIntValue(value1 - value2);
+                return SignedIntValue.of(value1 - value2);
             }
 
             @Nonnull
@@ -144,10 +140,10 @@ final class ExpressionEvaluation {
             public Value applyUnsigned(long value1, long value2, @Nonnull EvaluationContext evaluationContext) {
                 // If the result is negative, return it as a signed integer. Note that the result might underflow.
                 if (UnsignedLongs.compare(value1, value2) < 0) {
-                    return new SignedIntValue(value1 - value2);
+                    return SignedIntValue.of(value1 - value2);
                 }
 
-                return new UnsignedIntValue(value1 - value2);
+                return UnsignedIntValue.of(value1 - value2);
             }
 
         };
@@ -242,13 +238,13 @@ final class ExpressionEvaluation {
             @Nonnull
             @Override
             public Value applySigned(long value1, long value2) {
-                return new SignedIntValue(value1 << value2);
+                return SignedIntValue.of(value1 << value2);
             }
 
             @Nonnull
             @Override
             public Value applyUnsigned(long value1, long value2) {
-                return new UnsignedIntValue(value1 << value2);
+                return UnsignedIntValue.of(value1 << value2);
             }
 
         },
@@ -258,13 +254,13 @@ final class ExpressionEvaluation {
             @Nonnull
             @Override
             public Value applySigned(long value1, long value2) {
-                return new SignedIntValue(value1 >> value2);
+                return SignedIntValue.of(value1 >> value2);
             }
 
             @Nonnull
             @Override
             public Value applyUnsigned(long value1, long value2) {
-                return new UnsignedIntValue(value1 >>> value2);
+                return UnsignedIntValue.of(value1 >>> value2);
             }
 
         };
@@ -497,16 +493,51 @@ final class ExpressionEvaluation {
 
     }
 
-    static final WeakHashMap<Assembly, ArrayList<WeakReference<Function>>> FUNCTION_LISTS_BY_ASSEMBLY = new WeakHashMap<>();
-
     @Nonnull
     static Value booleanToValue(boolean value) {
-        return new UnsignedIntValue(value ? 1 : 0);
+        return UnsignedIntValue.of(value ? 1 : 0);
+    }
+
+    static int compareIntegers(@Nonnull IntegerKind kind1, long value1, @Nonnull IntegerKind kind2, long value2) {
+        if (kind1 == IntegerKind.UNSIGNED) {
+            if (kind2 == IntegerKind.UNSIGNED) {
+                return UnsignedLongs.compare(value1, value2);
+            }
+
+            if (value1 < 0 || value2 < 0) { // value1 >= 2**63 || value2 < 0
+                return 1;
+            }
+        } else if (kind2 == IntegerKind.UNSIGNED) {
+            if (value1 < 0 || value2 < 0) { // value1 < 0 || value2 >= 2**63
+                return -1;
+            }
+        }
+
+        return Long.compare(value1, value2);
     }
 
     @CheckForNull
     static Value evaluateAddition(@CheckForNull Value operand1, @CheckForNull final Value operand2,
             final @Nonnull EvaluationContext evaluationContext) {
+        if (areIntegers(operand1, operand2)) {
+            final long value1 = operand1.getIntegerValue();
+            final long value2 = operand2.getIntegerValue();
+            if (operand1.getIntegerKind() == IntegerKind.UNSIGNED && operand2.getIntegerKind() == IntegerKind.UNSIGNED) {
+                return UnsignedIntValue.of(value1 + value2);
+            }
+
+            return SignedIntValue.of(value1 + value2);
+        }
+
+        // Concatenate strings without flattening them, so that a chain of concatenations runs in linear time.
+        if (operand1 instanceof StringValue || operand2 instanceof StringValue) {
+            final StringValue string1 = asStringValue(operand1);
+            final StringValue string2 = asStringValue(operand2);
+            if (string1 != null && string2 != null) {
+                return string1.concat(string2);
+            }
+        }
+
         final String operatorName = "addition";
         return Value.accept(operand1, new NumericValueTransformer(evaluationContext, operatorName) {
 
@@ -548,7 +579,7 @@ final class ExpressionEvaluation {
 
                     @Override
                     public Value visitSignedInt(long value2) {
-                        return new SignedIntValue(value1 + value2);
+                        return SignedIntValue.of(value1 + value2);
                     }
 
                     @Override
@@ -558,7 +589,7 @@ final class ExpressionEvaluation {
 
                     @Override
                     public Value visitUnsignedInt(long value2) {
-                        return new SignedIntValue(value1 + value2);
+                        return SignedIntValue.of(value1 + value2);
                     }
 
                 });
@@ -602,7 +633,7 @@ final class ExpressionEvaluation {
 
                     @Override
                     public Value visitSignedInt(long value2) {
-                        return new SignedIntValue(value1 + value2);
+                        return SignedIntValue.of(value1 + value2);
                     }
 
                     @Override
@@ -612,7 +643,7 @@ final class ExpressionEvaluation {
 
                     @Override
                     public Value visitUnsignedInt(long value2) {
-                        return new UnsignedIntValue(value1 + value2);
+                        return UnsignedIntValue.of(value1 + value2);
                     }
 
                 });
@@ -624,6 +655,16 @@ final class ExpressionEvaluation {
     @CheckForNull
     static Value evaluateArithmetic(@CheckForNull Value operand1, @CheckForNull final Value operand2,
             @Nonnull EvaluationContext evaluationContext, @Nonnull final Arithmetic operator) {
+        if (areIntegers(operand1, operand2)) {
+            final long value1 = operand1.getIntegerValue();
+            final long value2 = operand2.getIntegerValue();
+            if (operand1.getIntegerKind() == IntegerKind.UNSIGNED && operand2.getIntegerKind() == IntegerKind.UNSIGNED) {
+                return operator.applyUnsigned(value1, value2, evaluationContext);
+            }
+
+            return operator.applySigned(value1, value2, evaluationContext);
+        }
+
         final String operatorName = operator.getName();
         return Value.accept(operand1, new NumericValueTransformer(evaluationContext, operatorName) {
 
@@ -699,6 +740,10 @@ final class ExpressionEvaluation {
     @CheckForNull
     static Value evaluateBinaryBitwise(@CheckForNull Value operand1, @CheckForNull final Value operand2,
             @Nonnull EvaluationContext evaluationContext, @Nonnull final BinaryBitwise operator) {
+        if (areIntegers(operand1, operand2)) {
+            return UnsignedIntValue.of(operator.apply(operand1.getIntegerValue(), operand2.getIntegerValue()));
+        }
+
         final String operatorName = operator.getName();
         return Value.accept(operand1, new BinaryValueTransformer(evaluationContext, operatorName) {
 
@@ -708,12 +753,12 @@ final class ExpressionEvaluation {
 
                     @Override
                     public Value visitSignedInt(long value2) {
-                        return new UnsignedIntValue(operator.apply(value1, value2));
+                        return UnsignedIntValue.of(operator.apply(value1, value2));
                     }
 
                     @Override
                     public Value visitUnsignedInt(long value2) {
-                        return new UnsignedIntValue(operator.apply(value1, value2));
+                        return UnsignedIntValue.of(operator.apply(value1, value2));
                     }
 
                 });
@@ -725,12 +770,12 @@ final class ExpressionEvaluation {
 
                     @Override
                     public Value visitSignedInt(long value2) {
-                        return new UnsignedIntValue(operator.apply(value1, value2));
+                        return UnsignedIntValue.of(operator.apply(value1, value2));
                     }
 
                     @Override
                     public Value visitUnsignedInt(long value2) {
-                        return new UnsignedIntValue(operator.apply(value1, value2));
+                        return UnsignedIntValue.of(operator.apply(value1, value2));
                     }
 
                 });
@@ -757,6 +802,16 @@ final class ExpressionEvaluation {
     @CheckForNull
     static Value evaluateBitShift(@CheckForNull Value operand1, @CheckForNull final Value operand2,
             final @Nonnull EvaluationContext evaluationContext, @Nonnull final BitShift operator) {
+        if (areIntegers(operand1, operand2)) {
+            final long value1 = operand1.getIntegerValue();
+            final long value2 = operand2.getIntegerValue();
+            if (operand1.getIntegerKind() == IntegerKind.UNSIGNED) {
+                return operator.applyUnsigned(value1, value2);
+            }
+
+            return operator.applySigned(value1, value2);
+        }
+
         final String operatorName = operator.getName();
         return Value.accept(operand1, new BinaryValueTransformer(evaluationContext, operatorName) {
 
@@ -813,7 +868,7 @@ final class ExpressionEvaluation {
 
             @Override
             public Value visitUnsignedInt(long value) {
-                return new UnsignedIntValue(~value);
+                return UnsignedIntValue.of(~value);
             }
 
         });
@@ -822,6 +877,20 @@ final class ExpressionEvaluation {
     @CheckForNull
     static Value evaluateComparison(@CheckForNull Value operand1, @CheckForNull final Value operand2,
             final @Nonnull EvaluationContext evaluationContext, @Nonnull final Comparison operator) {
+        if (areIntegers(operand1, operand2)) {
+            return booleanToValue(operator.testComparisonResult(compareIntegers(operand1.getIntegerKind(),
+                    operand1.getIntegerValue(), operand2.getIntegerKind(), operand2.getIntegerValue())));
+        }
+
+        // Compare strings without flattening them.
+        if (operand1 instanceof StringValue || operand2 instanceof StringValue) {
+            final StringValue string1 = asStringValue(operand1);
+            final StringValue string2 = asStringValue(operand2);
+            if (string1 != null && string2 != null) {
+                return booleanToValue(operator.testComparisonResult(string1.compareTo(string2)));
+            }
+        }
+
         final Integer comparisonResult = Value.accept(operand1, new ValueVisitor<Integer>() {
 
             @Override
@@ -879,48 +948,8 @@ final class ExpressionEvaluation {
                             return 0;
                         }
 
-                        // To provide coherent comparison for functions, we store them in a list and compare their index in the
-                        // list. We can't use hash codes because we can't guarantee that distinct functions will have distinct hash
-                        // codes. We use a distinct list for each assembly so that the results will be the same when you try to
-                        // assemble the same source code multiple times.
-
-                        ArrayList<WeakReference<Function>> functions;
-                        synchronized (FUNCTION_LISTS_BY_ASSEMBLY) {
-                            final Assembly assembly = evaluationContext.getAssembly();
-                            functions = FUNCTION_LISTS_BY_ASSEMBLY.get(assembly);
-
-                            if (functions == null) {
-                                functions = new ArrayList<>();
-                                FUNCTION_LISTS_BY_ASSEMBLY.put(assembly, functions);
-                            }
-                        }
-
-                        synchronized (functions) {
-                            for (int i = 0; i < functions.size();) {
-                                final Function function = functions.get(i).get();
-                                if (function == null) {
-                                    // The reference's referent has been garbage collected; remove the entry.
-                                    functions.remove(i);
-                                    continue; // do NOT increment i
-                                }
-
-                                if (function == value1) {
-                                    // We found value1 first: value1 < value2.
-                                    return -1;
-                                }
-
-                                if (function == value2) {
-                                    // We found value2 first: value1 > value2.
-                                    return 1;
-                                }
-
-                                i++;
-                            }
-
-                            // We found neither; add value1 to the list and return -1 (value1 < value2).
-                            functions.add(new WeakReference<>(value1));
-                            return -1;
-                        }
+                        // Distinct functions are ordered by the order in which they are first compared in the assembly.
+                        return FunctionOrdering.of(evaluationContext.getAssembly()).compare(value1, value2);
                     }
 
                     @Override
@@ -1112,7 +1141,7 @@ final class ExpressionEvaluation {
 
             @Override
             public Value visitSignedInt(long value) {
-                return new SignedIntValue(-value);
+                return SignedIntValue.of(-value);
             }
 
             @Override
@@ -1129,6 +1158,11 @@ final class ExpressionEvaluation {
         // For strict equality, the types of the operands must match. If they don't match, the values are not strictly equal
         // (they are strictly different).
 
+        // Compare strings without flattening them.
+        if (operand1 instanceof StringValue && operand2 instanceof StringValue) {
+            return booleanToValue(operand1.equals(operand2) == operator.isEqual());
+        }
+
         Boolean equalityResult = Value.accept(operand1, new ValueVisitor<Boolean>() {
 
             @Override
@@ -1238,7 +1272,7 @@ final class ExpressionEvaluation {
 
             @Override
             public Value visitUnsignedInt(long value) {
-                return new SignedIntValue(value);
+                return SignedIntValue.of(value);
             }
 
         });
@@ -1352,8 +1386,7 @@ final class ExpressionEvaluation {
                 //   Values such as "1." and ".5" are accepted.
                 // - If the 'E' or 'e' is present, ensure that there is at least one digit after it.
                 if ((haveIntegerDigits || haveFractionalDigits) && implies(haveScientificENotation, haveScientificENotationDigits)) {
-                    final double floatValue = Expression.parseFloatWithOverflow(value.substring(numberStartPosition,
-                            numberEndPosition));
+                    final double floatValue = FloatParsing.parse(value, numberStartPosition, numberEndPosition);
                     return negative ? -floatValue : floatValue;
                 }
             }
@@ -1375,9 +1408,67 @@ final class ExpressionEvaluation {
 
     @CheckForNull
     static Boolean valueToBoolean(@CheckForNull Value value) {
+        // Avoid flattening strings.
+        if (value instanceof StringValue) {
+            return ((StringValue) value).length() != 0;
+        }
+
         return Value.accept(value, ValueToBooleanVisitor.INSTANCE);
     }
 
+    /**
+     * Converts a value to a {@link StringValue} for concatenating or comparing it with a string.
+     *
+     * @param value
+     *            the value
+     * @return the value itself if it's a {@link StringValue}, the decimal representation of the value if it's a number, or
+     *         <code>null</code> if the value is a function or is undetermined
+     */
+    @CheckForNull
+    private static StringValue asStringValue(@CheckForNull Value value) {
+        if (value instanceof StringValue) {
+            return (StringValue) value;
+        }
+
+        return Value.accept(value, new ValueVisitor<StringValue>() {
+
+            @Override
+            public StringValue visitFloat(double value) {
+                return new StringValue(Double.toString(value));
+            }
+
+            @Override
+            public StringValue visitFunction(@Nonnull Function value) {
+                return null;
+            }
+
+            @Override
+            public StringValue visitSignedInt(long value) {
+                return new StringValue(Long.toString(value));
+            }
+
+            @Override
+            public StringValue visitString(@Nonnull String value) {
+                throw new AssertionError();
+            }
+
+            @Override
+            public StringValue visitUndetermined() {
+                return null;
+            }
+
+            @Override
+            public StringValue visitUnsignedInt(long value) {
+                return new StringValue(UnsignedLongs.toString(value));
+            }
+
+        });
+    }
+
+    private static boolean areIntegers(@CheckForNull Value operand1, @CheckForNull Value operand2) {
+        return operand1 != null && operand2 != null && operand1.getIntegerKind() != null && operand2.getIntegerKind() != null;
+    }
+
     private static boolean implies(boolean a, boolean b) {
         return !a || b;
     }
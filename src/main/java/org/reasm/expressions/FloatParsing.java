@@ -0,0 +1,333 @@
+package org.reasm.expressions;
+
+import java.math.BigInteger;
+
+import javax.annotation.Nonnull;
+
+import com.google.common.primitives.UnsignedLongs;
+
+/**
+ * Converts decimal floating-point numbers to <code>double</code> values, rounding to the nearest representable value.
+ * <p>
+ * Up to 19 significant digits are accumulated in a <code>long</code>. When the mantissa and the power of 10 are small enough to be
+ * represented exactly, the result is computed with a single multiplication or division (Clinger's fast path). Otherwise, the
+ * result is computed with the Eisel-Lemire algorithm, which multiplies the mantissa by a 128-bit approximation of the power of 10.
+ * In the rare cases where neither method can determine the correctly rounded result (e.g. when the number has more than 19
+ * significant digits and the digits that were dropped affect the rounding), the number is parsed by
+ * {@link Double#parseDouble(String)}.
+ *
+ * @author Francis Gagné
+ */
+final class FloatParsing {
+
+    private static final int MAX_SIGNIFICANT_DIGITS = 19;
+    private static final int SMALLEST_POWER_OF_TEN = -342;
+    private static final int LARGEST_POWER_OF_TEN = 308;
+    private static final int MAX_EXACT_POWER_OF_TEN = 22;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final int MANTISSA_EXPLICIT_BITS = 52;
+    private static final int MINIMUM_EXPONENT = -1023;
+    private static final int INFINITE_POWER = 0x7FF;
+
+    // Exponents beyond this value produce an infinity or a zero regardless of the mantissa.
+    private static final int EXPONENT_SATURATION = 100000;
+
+    private static final double[] EXACT_POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+            1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    private static final long[] POWERS_OF_TEN = { 1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L,
+            1000000000L, 10000000000L, 100000000000L, 1000000000000L, 10000000000000L, 100000000000000L, 1000000000000000L,
+            10000000000000000L };
+
+    /**
+     * The 128-bit approximations of the powers of 5 from 5<sup>{@value #SMALLEST_POWER_OF_TEN}</sup> to
+     * 5<sup>{@value #LARGEST_POWER_OF_TEN}</sup>, normalized so that the most significant bit is set. Each approximation occupies
+     * two consecutive elements: the high 64 bits, then the low 64 bits.
+     */
+    @Nonnull
+    private static final long[] POWERS_OF_FIVE_128 = computePowersOfFive();
+
+    private static final long FAILED = -1;
+
+    /**
+     * Parses a floating-point number from a range of a {@link CharSequence}. The range must contain one or more decimal digits,
+     * optionally followed by a point and zero or more decimal digits, optionally followed by an 'E' or an 'e', an optional '+' or
+     * '-' and one or more decimal digits. The integer part may be empty if the fractional part contains at least one digit.
+     * <p>
+     * Numbers that are too large to be represented produce {@link Double#POSITIVE_INFINITY}; numbers that are too small to be
+     * represented produce 0.
+     *
+     * @param value
+     *            the {@link CharSequence} to parse a number from
+     * @param start
+     *            the index of the first character of the number
+     * @param end
+     *            the index following the last character of the number
+     * @return the parsed number
+     */
+    static double parse(@Nonnull CharSequence value, int start, int end) {
+        long mantissa = 0;
+        int significantDigits = 0;
+        long exponent = 0;
+        boolean truncated = false;
+        int i = start;
+        char ch = '\0';
+
+        // Read the integer part.
+        for (; i < end; i++) {
+            ch = value.charAt(i);
+            if (!isDigit(ch)) {
+                break;
+            }
+
+            final int digit = ch - '0';
+            if (significantDigits < MAX_SIGNIFICANT_DIGITS) {
+                // Leading zeros are not significant.
+                if (mantissa != 0 || digit != 0) {
+                    mantissa = mantissa * 10 + digit;
+                    significantDigits++;
+                }
+            } else {
+                // The digit doesn't fit in the mantissa; drop it and scale the mantissa instead.
+                truncated |= digit != 0;
+                exponent++;
+            }
+        }
+
+        // Read the fractional part.
+        if (i < end && ch == '.') {
+            for (i++; i < end; i++) {
+                ch = value.charAt(i);
+                if (!isDigit(ch)) {
+                    break;
+                }
+
+                final int digit = ch - '0';
+                if (significantDigits < MAX_SIGNIFICANT_DIGITS) {
+                    if (mantissa != 0 || digit != 0) {
+                        mantissa = mantissa * 10 + digit;
+                        significantDigits++;
+                    }
+
+                    exponent--;
+                } else {
+                    truncated |= digit != 0;
+                }
+            }
+        }
+
+        // Read the exponent.
+        if (i < end && (ch == 'E' || ch == 'e')) {
+            i++;
+            boolean negativeExponent = false;
+            ch = value.charAt(i);
+            if (ch == '+') {
+                i++;
+            } else if (ch == '-') {
+                negativeExponent = true;
+                i++;
+            }
+
+            int explicitExponent = 0;
+            for (; i < end; i++) {
+                ch = value.charAt(i);
+                assert isDigit(ch);
+                if (explicitExponent < EXPONENT_SATURATION) {
+                    explicitExponent = explicitExponent * 10 + (ch - '0');
+                }
+            }
+
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+
+        assert i == end;
+
+        if (mantissa == 0) {
+            return 0.0;
+        }
+
+        if (!truncated) {
+            // Clinger's fast path: if the mantissa and the power of 10 are exactly representable as doubles, then the result of a
+            // single floating-point multiplication or division is correctly rounded. (The mantissa is unsigned; a negative value
+            // is greater than 2**63.)
+            if (mantissa >= 0 && mantissa <= MAX_EXACT_MANTISSA) {
+                if (exponent >= -MAX_EXACT_POWER_OF_TEN && exponent <= MAX_EXACT_POWER_OF_TEN) {
+                    if (exponent < 0) {
+                        return mantissa / EXACT_POWERS_OF_TEN[(int) -exponent];
+                    }
+
+                    return mantissa * EXACT_POWERS_OF_TEN[(int) exponent];
+                }
+
+                // If the exponent is slightly too large, move some of it to the mantissa if the mantissa remains exact.
+                if (exponent > MAX_EXACT_POWER_OF_TEN && exponent < MAX_EXACT_POWER_OF_TEN + POWERS_OF_TEN.length) {
+                    final long powerOfTen = POWERS_OF_TEN[(int) exponent - MAX_EXACT_POWER_OF_TEN];
+                    if (mantissa <= MAX_EXACT_MANTISSA / powerOfTen) {
+                        return mantissa * powerOfTen * EXACT_POWERS_OF_TEN[MAX_EXACT_POWER_OF_TEN];
+                    }
+                }
+            }
+
+            final long bits = eiselLemire(exponent, mantissa);
+            if (bits != FAILED) {
+                return Double.longBitsToDouble(bits);
+            }
+        } else {
+            // The dropped digits make the number lie strictly between mantissa * 10**exponent and (mantissa + 1) * 10**exponent.
+            // If both bounds round to the same value, then that's the result.
+            final long bits = eiselLemire(exponent, mantissa);
+            if (bits != FAILED && bits == eiselLemire(exponent, mantissa + 1)) {
+                return Double.longBitsToDouble(bits);
+            }
+        }
+
+        return Double.parseDouble(value.subSequence(start, end).toString());
+    }
+
+    @Nonnull
+    private static long[] computePowersOfFive() {
+        final long[] powers = new long[2 * (LARGEST_POWER_OF_TEN - SMALLEST_POWER_OF_TEN + 1)];
+        final BigInteger twoTo128 = BigInteger.ONE.shiftLeft(128);
+        int index = 0;
+
+        // For negative powers, compute a reciprocal with enough precision, rounded up, then truncate it to 128 bits.
+        for (int q = SMALLEST_POWER_OF_TEN; q < 0; q++) {
+            final BigInteger powerOfFive = BigInteger.valueOf(5).pow(-q);
+            final int z = powerOfFive.subtract(BigInteger.ONE).bitLength();
+            final int b = q >= -27 ? z + 127 : 2 * z + 128;
+            BigInteger c = BigInteger.ONE.shiftLeft(b).divide(powerOfFive).add(BigInteger.ONE);
+            if (c.compareTo(twoTo128) >= 0) {
+                c = c.shiftRight(c.bitLength() - 128);
+            }
+
+            index = store(powers, index, c);
+        }
+
+        // For non-negative powers, shift the power so that its most significant bit is bit 127, truncating the low bits.
+        for (int q = 0; q <= LARGEST_POWER_OF_TEN; q++) {
+            final BigInteger powerOfFive = BigInteger.valueOf(5).pow(q);
+            index = store(powers, index, powerOfFive.shiftLeft(128 - powerOfFive.bitLength()));
+        }
+
+        return powers;
+    }
+
+    /**
+     * Computes the bits of the double that is nearest to <code>w * 10**q</code> with the Eisel-Lemire algorithm.
+     *
+     * @param q
+     *            the power of 10
+     * @param w
+     *            the mantissa, as an unsigned 64-bit integer; must not be 0
+     * @return the bits of the double, or {@link #FAILED} if the result could not be determined
+     */
+    private static long eiselLemire(long q, long w) {
+        if (q < SMALLEST_POWER_OF_TEN) {
+            return 0;
+        }
+
+        if (q > LARGEST_POWER_OF_TEN) {
+            return (long) INFINITE_POWER << MANTISSA_EXPLICIT_BITS;
+        }
+
+        // Normalize the mantissa so that its most significant bit is set.
+        final int leadingZeros = Long.numberOfLeadingZeros(w);
+        w <<= leadingZeros;
+
+        // Multiply the mantissa by the 128-bit approximation of 5**q. We only need the 55 most significant bits of the product
+        // (the 53 bits of the result's mantissa, plus 1 bit that may be 0, plus 1 bit for rounding); if the other bits of the high
+        // half of the product are all ones, adding the contribution of the low half of the approximation may carry into them.
+        final int index = 2 * ((int) q - SMALLEST_POWER_OF_TEN);
+        long high = unsignedMultiplyHigh(w, POWERS_OF_FIVE_128[index]);
+        long low = w * POWERS_OF_FIVE_128[index];
+        final long precisionMask = -1L >>> (MANTISSA_EXPLICIT_BITS + 3);
+        if ((high & precisionMask) == precisionMask) {
+            final long secondHigh = unsignedMultiplyHigh(w, POWERS_OF_FIVE_128[index + 1]);
+            low += secondHigh;
+            if (UnsignedLongs.compare(secondHigh, low) > 0) {
+                high++;
+            }
+
+            // The product may still be off by one unit of the low half; we can only be sure of the result when the power of 5
+            // is exactly representable in 128 bits (or its reciprocal is accurate enough).
+            if (low == -1L && (q < -27 || q > 55)) {
+                return FAILED;
+            }
+        }
+
+        final int upperBit = (int) (high >>> 63);
+        final int shift = upperBit + 64 - MANTISSA_EXPLICIT_BITS - 3;
+        long mantissa = high >>> shift;
+
+        // power(q) computes floor(q * log2(10)) + 63.
+        int power2 = ((217706 * (int) q) >> 16) + 63 + upperBit - leadingZeros - MINIMUM_EXPONENT;
+
+        if (power2 <= 0) {
+            // The result is subnormal (or zero).
+            if (-power2 + 1 >= 64) {
+                return 0;
+            }
+
+            mantissa >>>= -power2 + 1;
+            mantissa += mantissa & 1;
+            mantissa >>>= 1;
+
+            // If rounding up carried into the implicit bit, the result is the smallest normal number; the exponent bits then
+            // coincide with the carried bit.
+            power2 = mantissa < 1L << MANTISSA_EXPLICIT_BITS ? 0 : 1;
+            return (long) power2 << MANTISSA_EXPLICIT_BITS | mantissa;
+        }
+
+        // If the product is exactly halfway between two doubles, round to even. This can only happen for small powers of 10.
+        if (UnsignedLongs.compare(low, 1) <= 0 && q >= -4 && q <= 23 && (mantissa & 3) == 1) {
+            if (mantissa << shift == high) {
+                mantissa &= ~1L;
+            }
+        }
+
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if (mantissa >= 2L << MANTISSA_EXPLICIT_BITS) {
+            mantissa = 1L << MANTISSA_EXPLICIT_BITS;
+            power2++;
+        }
+
+        mantissa &= ~(1L << MANTISSA_EXPLICIT_BITS);
+        if (power2 >= INFINITE_POWER) {
+            return (long) INFINITE_POWER << MANTISSA_EXPLICIT_BITS;
+        }
+
+        return (long) power2 << MANTISSA_EXPLICIT_BITS | mantissa;
+    }
+
+    private static boolean isDigit(char ch) {
+        return ch >= '0' && ch <= '9';
+    }
+
+    private static int store(@Nonnull long[] powers, int index, @Nonnull BigInteger value) {
+        powers[index] = value.shiftRight(64).longValue();
+        powers[index + 1] = value.longValue();
+        return index + 2;
+    }
+
+    private static long unsignedMultiplyHigh(long a, long b) {
+        final long aLow = a & 0xFFFFFFFFL;
+        final long aHigh = a >>> 32;
+        final long bLow = b & 0xFFFFFFFFL;
+        final long bHigh = b >>> 32;
+
+        final long lowLow = aLow * bLow;
+        final long highLow = aHigh * bLow;
+        final long lowHigh = aLow * bHigh;
+        final long highHigh = aHigh * bHigh;
+
+        // This sum can't overflow 64 bits.
+        final long cross = (lowLow >>> 32) + (highLow & 0xFFFFFFFFL) + lowHigh;
+        return (highLow >>> 32) + (cross >>> 32) + highHigh;
+    }
+
+    // This class is not meant to be instantiated.
+    private FloatParsing() {
+    }
+
+}
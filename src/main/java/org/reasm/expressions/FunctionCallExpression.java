@@ -64,6 +64,15 @@ public final class FunctionCallExpression extends ExpressionOrientedExpression {
         this(function, arguments.toArray(new Expression[arguments.size()]));
     }
 
+    @Override
+    public final void collectDependencies(ExpressionDependencyVisitor visitor) {
+        this.function.collectDependencies(visitor);
+        visitor.visitFunctionCall(this);
+        for (Expression argument : this.arguments) {
+            argument.collectDependencies(visitor);
+        }
+    }
+
     @Override
     public final boolean equals(@CheckForNull Object obj) {
         if (this == obj) {
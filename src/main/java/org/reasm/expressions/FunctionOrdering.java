@@ -0,0 +1,102 @@
+package org.reasm.expressions;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.reasm.Assembly;
+import org.reasm.Function;
+
+import com.google.common.collect.MapMaker;
+
+/**
+ * Provides a coherent ordering of {@linkplain Function functions}. We can't use hash codes because we can't guarantee that
+ * distinct functions will have distinct hash codes, so each function is assigned an ordinal the first time it is compared. We use
+ * a distinct ordering for each assembly so that the results will be the same when you try to assemble the same source code
+ * multiple times.
+ * <p>
+ * The ordinals are held in concurrent maps with weak keys (compared by identity), so comparing two functions that have already
+ * been assigned an ordinal doesn't take any lock, and the functions and assemblies can still be garbage-collected.
+ *
+ * @author Francis Gagné
+ */
+@ThreadSafe
+final class FunctionOrdering {
+
+    @Nonnull
+    private static final ConcurrentMap<Assembly, FunctionOrdering> ORDERINGS_BY_ASSEMBLY = new MapMaker().weakKeys().makeMap();
+    @Nonnull
+    private static final FunctionOrdering ORDERING_WITHOUT_ASSEMBLY = new FunctionOrdering();
+
+    /**
+     * Gets the function ordering of the specified assembly.
+     *
+     * @param assembly
+     *            the assembly, or <code>null</code> to get the ordering used for evaluations that are not part of an assembly
+     * @return the function ordering
+     */
+    @Nonnull
+    static FunctionOrdering of(@CheckForNull Assembly assembly) {
+        if (assembly == null) {
+            return ORDERING_WITHOUT_ASSEMBLY;
+        }
+
+        FunctionOrdering ordering = ORDERINGS_BY_ASSEMBLY.get(assembly);
+        if (ordering == null) {
+            final FunctionOrdering newOrdering = new FunctionOrdering();
+            ordering = ORDERINGS_BY_ASSEMBLY.putIfAbsent(assembly, newOrdering);
+            if (ordering == null) {
+                ordering = newOrdering;
+            }
+        }
+
+        return ordering;
+    }
+
+    @Nonnull
+    private final ConcurrentMap<Function, Long> ordinals = new MapMaker().weakKeys().makeMap();
+    @Nonnull
+    private final AtomicLong nextOrdinal = new AtomicLong();
+
+    FunctionOrdering() {
+    }
+
+    /**
+     * Compares two functions. A function that is compared for the first time is greater than all the functions that have been
+     * compared before. If neither function has been compared before, the first function is less than the second one, and both are
+     * less than the functions that are compared for the first time afterwards.
+     *
+     * @param function1
+     *            the first function
+     * @param function2
+     *            the second function
+     * @return a negative integer, zero or a positive integer if the first function is less than, the same as or greater than the
+     *         second function
+     */
+    final int compare(@Nonnull Function function1, @Nonnull Function function2) {
+        if (function1 == function2) {
+            return 0;
+        }
+
+        // Assign the ordinal of the first function before the ordinal of the second function.
+        final long ordinal1 = this.getOrdinal(function1);
+        final long ordinal2 = this.getOrdinal(function2);
+        return Long.compare(ordinal1, ordinal2);
+    }
+
+    private final long getOrdinal(@Nonnull Function function) {
+        final Long ordinal = this.ordinals.get(function);
+        if (ordinal != null) {
+            return ordinal;
+        }
+
+        // If another thread assigns an ordinal to the same function concurrently, the ordinal that was put first wins.
+        final Long newOrdinal = this.nextOrdinal.getAndIncrement();
+        final Long existingOrdinal = this.ordinals.putIfAbsent(function, newOrdinal);
+        return existingOrdinal != null ? existingOrdinal : newOrdinal;
+    }
+
+}
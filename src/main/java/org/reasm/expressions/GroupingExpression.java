@@ -14,6 +14,8 @@ public final class GroupingExpression extends ExpressionOrientedExpression {
 
     @Nonnull
     private final Expression childExpression;
+    private final boolean dependsOnProgramCounter;
+    private final boolean dependsOnSymbols;
 
     /**
      * Initializes a new GroupingExpression.
@@ -27,6 +29,25 @@ public final class GroupingExpression extends ExpressionOrientedExpression {
         }
 
         this.childExpression = childExpression;
+        this.dependsOnProgramCounter = childExpression.dependsOnProgramCounter();
+        this.dependsOnSymbols = childExpression.dependsOnSymbols();
+    }
+
+    @Override
+    public final void collectDependencies(ExpressionDependencyVisitor visitor) {
+        if (this.dependsOnProgramCounter || this.dependsOnSymbols) {
+            this.childExpression.collectDependencies(visitor);
+        }
+    }
+
+    @Override
+    public final boolean dependsOnProgramCounter() {
+        return this.dependsOnProgramCounter;
+    }
+
+    @Override
+    public final boolean dependsOnSymbols() {
+        return this.dependsOnSymbols;
     }
 
     @Override
@@ -51,6 +72,19 @@ public final class GroupingExpression extends ExpressionOrientedExpression {
         return true;
     }
 
+    @Nonnull
+    @Override
+    public final Expression fold() {
+        final Expression childExpression = this.childExpression.fold();
+
+        // A constant doesn't need to be grouped.
+        if (isConstant(childExpression)) {
+            return childExpression;
+        }
+
+        return childExpression == this.childExpression ? this : new GroupingExpression(childExpression);
+    }
+
     /**
      * Gets the expression between the grouping parentheses in this expression.
      *
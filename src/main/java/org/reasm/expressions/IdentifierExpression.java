@@ -18,11 +18,36 @@ import org.reasm.ValueVisitor;
 @Immutable
 public final class IdentifierExpression extends Expression {
 
+    /**
+     * The symbol found by an {@link EpochSymbolLookup}, and the definition epoch in which it was found.
+     *
+     * @author Francis Gagné
+     */
+    @Immutable
+    private static final class Resolution {
+
+        final long epoch;
+        @CheckForNull
+        final Symbol symbol;
+
+        Resolution(long epoch, @CheckForNull Symbol symbol) {
+            this.epoch = epoch;
+            this.symbol = symbol;
+        }
+
+    }
+
     @Nonnull
     private final String identifier;
     @CheckForNull
     private final SymbolLookup symbolLookup;
 
+    // The last resolution of the identifier, when the symbol lookup is an EpochSymbolLookup. This is only a cache, so it doesn't
+    // break the immutability of the expression. Races are harmless: a Resolution is immutable, and a stale one is detected by its
+    // epoch.
+    @CheckForNull
+    private Resolution resolution;
+
     /**
      * Initializes a new IdentifierExpression.
      *
@@ -31,7 +56,8 @@ public final class IdentifierExpression extends Expression {
      * @param symbolLookup
      *            an object that looks up symbols by name, which will be used to look up the symbol for this identifier when the
      *            identifier is {@linkplain #evaluate(EvaluationContext) evaluated}, or <code>null</code> to consider the symbol
-     *            undefined
+     *            undefined; if it is an {@link EpochSymbolLookup}, the symbol is only looked up again when the lookup's definition
+     *            epoch changes
      */
     public IdentifierExpression(@Nonnull String identifier, @CheckForNull SymbolLookup symbolLookup) {
         if (identifier == null) {
@@ -42,6 +68,24 @@ public final class IdentifierExpression extends Expression {
         this.symbolLookup = symbolLookup;
     }
 
+    @Override
+    public final void collectDependencies(ExpressionDependencyVisitor visitor) {
+        // An identifier without a symbol lookup always evaluates to an undetermined value.
+        if (this.symbolLookup != null) {
+            visitor.visitIdentifier(this);
+        }
+    }
+
+    @Override
+    public final boolean dependsOnProgramCounter() {
+        return false;
+    }
+
+    @Override
+    public final boolean dependsOnSymbols() {
+        return this.symbolLookup != null;
+    }
+
     @Override
     public final boolean equals(@CheckForNull Object obj) {
         if (this == obj) {
@@ -71,7 +115,7 @@ public final class IdentifierExpression extends Expression {
     @Override
     public final Value evaluate(EvaluationContext evaluationContext) {
         if (this.symbolLookup != null) {
-            final Symbol symbol = this.symbolLookup.getSymbol(this.identifier);
+            final Symbol symbol = this.resolveSymbol(this.symbolLookup);
             if (symbol != null) {
                 final Object value = symbol.getValue();
                 if (value instanceof Value) {
@@ -125,4 +169,22 @@ public final class IdentifierExpression extends Expression {
         return "IdentifierExpression [identifier=" + this.identifier + ", symbolLookup=" + this.symbolLookup + "]";
     }
 
+    @CheckForNull
+    private final Symbol resolveSymbol(@Nonnull SymbolLookup symbolLookup) {
+        if (symbolLookup instanceof EpochSymbolLookup) {
+            // Read the epoch before looking up the symbol: if a symbol is defined during the lookup, the resolution will be stale
+            // and the symbol will be looked up again next time.
+            final long epoch = ((EpochSymbolLookup) symbolLookup).getDefinitionEpoch();
+            Resolution resolution = this.resolution;
+            if (resolution == null || resolution.epoch != epoch) {
+                resolution = new Resolution(epoch, symbolLookup.getSymbol(this.identifier));
+                this.resolution = resolution;
+            }
+
+            return resolution.symbol;
+        }
+
+        return symbolLookup.getSymbol(this.identifier);
+    }
+
 }
@@ -23,6 +23,7 @@ public final class IndexerExpression extends ExpressionOrientedExpression {
     private final Expression indexExpression;
     @CheckForNull
     private final SymbolLookup fallbackSymbolLookup;
+    private final boolean dependsOnProgramCounter;
 
     /**
      * Initializes a new IndexerExpression.
@@ -50,6 +51,19 @@ public final class IndexerExpression extends ExpressionOrientedExpression {
         this.subjectExpression = subjectExpression;
         this.indexExpression = indexExpression;
         this.fallbackSymbolLookup = fallbackSymbolLookup;
+        this.dependsOnProgramCounter = subjectExpression.dependsOnProgramCounter() || indexExpression.dependsOnProgramCounter();
+    }
+
+    @Override
+    public final void collectDependencies(ExpressionDependencyVisitor visitor) {
+        this.subjectExpression.collectDependencies(visitor);
+        this.indexExpression.collectDependencies(visitor);
+        visitor.visitComputedIdentifier(this);
+    }
+
+    @Override
+    public final boolean dependsOnProgramCounter() {
+        return this.dependsOnProgramCounter;
     }
 
     @Override
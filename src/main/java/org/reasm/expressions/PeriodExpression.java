@@ -22,6 +22,7 @@ public final class PeriodExpression extends ExpressionOrientedExpression {
     private final Expression rightExpression;
     @CheckForNull
     private final SymbolLookup fallbackSymbolLookup;
+    private final boolean dependsOnProgramCounter;
 
     /**
      * Initializes a new PeriodExpression.
@@ -49,6 +50,19 @@ public final class PeriodExpression extends ExpressionOrientedExpression {
         this.leftExpression = leftExpression;
         this.rightExpression = rightExpression;
         this.fallbackSymbolLookup = fallbackSymbolLookup;
+        this.dependsOnProgramCounter = leftExpression.dependsOnProgramCounter() || rightExpression.dependsOnProgramCounter();
+    }
+
+    @Override
+    public final void collectDependencies(ExpressionDependencyVisitor visitor) {
+        this.leftExpression.collectDependencies(visitor);
+        this.rightExpression.collectDependencies(visitor);
+        visitor.visitComputedIdentifier(this);
+    }
+
+    @Override
+    public final boolean dependsOnProgramCounter() {
+        return this.dependsOnProgramCounter;
     }
 
     @Override
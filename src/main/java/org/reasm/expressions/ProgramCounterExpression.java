@@ -23,6 +23,16 @@ public final class ProgramCounterExpression extends ValueOrientedExpression {
     private ProgramCounterExpression() {
     }
 
+    @Override
+    public final void collectDependencies(ExpressionDependencyVisitor visitor) {
+        visitor.visitProgramCounter();
+    }
+
+    @Override
+    public final boolean dependsOnSymbols() {
+        return false;
+    }
+
     @Override
     public final boolean equals(@CheckForNull Object obj) {
         return obj != null && this.getClass() == obj.getClass();
@@ -31,7 +41,7 @@ public final class ProgramCounterExpression extends ValueOrientedExpression {
     @Nonnull
     @Override
     public final Value evaluate(EvaluationContext evaluationContext) {
-        return new UnsignedIntValue(evaluationContext.getProgramCounter());
+        return UnsignedIntValue.of(evaluationContext.getProgramCounter());
     }
 
     @Override
@@ -18,6 +18,8 @@ public final class UnaryOperatorExpression extends ValueOrientedExpression {
     private final UnaryOperator operator;
     @Nonnull
     private final Expression operand;
+    private final boolean dependsOnProgramCounter;
+    private final boolean dependsOnSymbols;
 
     /**
      * Initializes a new UnaryOperatorExpression.
@@ -38,6 +40,25 @@ public final class UnaryOperatorExpression extends ValueOrientedExpression {
 
         this.operator = operator;
         this.operand = operand;
+        this.dependsOnProgramCounter = operand.dependsOnProgramCounter();
+        this.dependsOnSymbols = operand.dependsOnSymbols();
+    }
+
+    @Override
+    public final void collectDependencies(ExpressionDependencyVisitor visitor) {
+        if (this.dependsOnProgramCounter || this.dependsOnSymbols) {
+            this.operand.collectDependencies(visitor);
+        }
+    }
+
+    @Override
+    public final boolean dependsOnProgramCounter() {
+        return this.dependsOnProgramCounter;
+    }
+
+    @Override
+    public final boolean dependsOnSymbols() {
+        return this.dependsOnSymbols;
     }
 
     @Override
@@ -71,6 +92,19 @@ public final class UnaryOperatorExpression extends ValueOrientedExpression {
         return this.operator.apply(this.operand.evaluate(evaluationContext), evaluationContext);
     }
 
+    @Nonnull
+    @Override
+    public final Expression fold() {
+        final Expression operand = this.operand.fold();
+        final Expression folded = operand == this.operand ? this : new UnaryOperatorExpression(this.operator, operand);
+
+        if (isConstant(operand)) {
+            return foldConstant(folded);
+        }
+
+        return folded;
+    }
+
     /**
      * Gets the operand to the unary operator in this expression.
      *
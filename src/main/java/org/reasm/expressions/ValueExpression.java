@@ -32,6 +32,21 @@ public final class ValueExpression extends ValueOrientedExpression {
         this.value = value;
     }
 
+    @Override
+    public final void collectDependencies(ExpressionDependencyVisitor visitor) {
+        // A value has no dependencies.
+    }
+
+    @Override
+    public final boolean dependsOnProgramCounter() {
+        return false;
+    }
+
+    @Override
+    public final boolean dependsOnSymbols() {
+        return false;
+    }
+
     @Override
     public final boolean equals(@CheckForNull Object obj) {
         if (this == obj) {
@@ -1,24 +1,23 @@
 package org.reasm.source;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
 
 import org.reasm.Architecture;
 import org.reasm.ContractViolationException;
 import org.reasm.LineBreakCounter;
+import org.reasm.SubstringBounds;
 
-import ca.fragag.text.CharSequenceReader;
 import ca.fragag.text.Document;
-import ca.fragag.text.DocumentReader;
-import ca.fragag.text.GenericCharSequenceReader;
 
 /**
  * The base class for {@link SourceFile} and {@link MacroInstantiation}.
@@ -31,45 +30,116 @@ import ca.fragag.text.GenericCharSequenceReader;
 @Immutable
 public abstract class AbstractSourceFile<TSelf extends AbstractSourceFile<TSelf>> {
 
+    /**
+     * The text of a range of a source file, with the results of parsing that text on its own. All the {@link MacroInstantiation
+     * MacroInstantiations} of a macro body share the same SharedRange, so the text of the macro body is copied once and parsed
+     * once for each architecture, no matter how many times the macro is expanded.
+     *
+     * @author Francis Gagné
+     */
+    @ThreadSafe
+    static final class SharedRange {
+
+        @Nonnull
+        final Document text;
+        @Nonnull
+        final Map<Architecture, SourceNode> parsedMap = Collections.synchronizedMap(new HashMap<Architecture, SourceNode>());
+
+        SharedRange(@Nonnull Document text) {
+            this.text = text;
+        }
+
+    }
+
+    // The number of characters that computeLineLengths() copies from the text at a time.
+    private static final int CHUNK_SIZE = 8192;
+
     /**
      * Computes the lengths of lines in the specified text.
      *
      * @param text
      *            the text
-     * @return a {@link Collection} of the line lengths in the text
+     * @return an array of the line lengths in the text
      */
     @Nonnull
-    static ArrayList<Integer> computeLineLengths(@Nonnull CharSequence text) {
-        final ArrayList<Integer> lineLengths = new ArrayList<>();
-        final CharSequenceReader<?> reader;
-        if (text instanceof Document) {
-            reader = new DocumentReader((Document) text);
-        } else {
-            reader = new GenericCharSequenceReader(text);
-        }
-
+    static int[] computeLineLengths(@Nonnull CharSequence text) {
+        // Line breaks are never part of a surrogate pair, so we can scan the text char by char instead of code point by code
+        // point. Copying the text in chunks lets the inner loop run on a char[], which is much faster than going through a
+        // CharSequence for each character.
+        final int textLength = text.length();
+        final char[] chunk = new char[Math.min(textLength, CHUNK_SIZE)];
+        int[] lineLengths = new int[16];
+        int numberOfLines = 0;
         int currentLineStart = 0;
-        for (; !reader.atEnd();) {
-            final int codePoint = reader.getCurrentCodePoint();
-            if (codePoint == '\r') {
-                reader.advance();
-                if (!reader.atEnd() && reader.getCurrentCodePoint() == '\n') {
-                    reader.advance();
+        boolean lastWasCR = false;
+
+        for (int chunkStart = 0; chunkStart < textLength; chunkStart += chunk.length) {
+            final int chunkEnd = Math.min(chunkStart + chunk.length, textLength);
+            copyChars(text, chunkStart, chunkEnd, chunk);
+
+            for (int i = 0, chunkLength = chunkEnd - chunkStart; i < chunkLength; i++) {
+                final char ch = chunk[i];
+
+                // CR and LF are the only characters we care about, and most characters are greater than both of them.
+                if (ch > '\r') {
+                    lastWasCR = false;
+                    continue;
                 }
 
-                lineLengths.add(reader.getCurrentPosition() - currentLineStart);
-                currentLineStart = reader.getCurrentPosition();
-            } else if (codePoint == '\n') {
-                reader.advance();
-                lineLengths.add(reader.getCurrentPosition() - currentLineStart);
-                currentLineStart = reader.getCurrentPosition();
-            } else {
-                reader.advance();
+                if (ch == '\n' && lastWasCR) {
+                    // A LF that follows a CR belongs to the line that the CR ended.
+                    lineLengths[numberOfLines - 1]++;
+                    currentLineStart++;
+                    lastWasCR = false;
+                } else if (ch == '\r' || ch == '\n') {
+                    if (numberOfLines == lineLengths.length) {
+                        lineLengths = Arrays.copyOf(lineLengths, numberOfLines * 2);
+                    }
+
+                    final int lineEnd = chunkStart + i + 1;
+                    lineLengths[numberOfLines++] = lineEnd - currentLineStart;
+                    currentLineStart = lineEnd;
+                    lastWasCR = ch == '\r';
+                } else {
+                    lastWasCR = false;
+                }
             }
         }
 
-        lineLengths.add(reader.getCurrentPosition() - currentLineStart);
-        return lineLengths;
+        if (numberOfLines == lineLengths.length) {
+            lineLengths = Arrays.copyOf(lineLengths, numberOfLines + 1);
+        }
+
+        lineLengths[numberOfLines++] = textLength - currentLineStart;
+        return Arrays.copyOf(lineLengths, numberOfLines);
+    }
+
+    /**
+     * Copies a range of characters from a {@link CharSequence} to the start of an array.
+     *
+     * @param text
+     *            the {@link CharSequence} to copy characters from
+     * @param start
+     *            the index of the first character to copy
+     * @param end
+     *            the index following the last character to copy
+     * @param destination
+     *            the array to copy the characters to
+     */
+    static void copyChars(@Nonnull CharSequence text, int start, int end, @Nonnull char[] destination) {
+        if (text instanceof String) {
+            ((String) text).getChars(start, end, destination, 0);
+        } else if (text instanceof StringBuilder) {
+            ((StringBuilder) text).getChars(start, end, destination, 0);
+        } else if (text instanceof Document) {
+            // Document has no bulk copy method, but converting a range of it to a String copies the range in bulk, which is much
+            // faster than calling charAt() for each character.
+            text.subSequence(start, end).toString().getChars(0, end - start, destination, 0);
+        } else {
+            for (int i = start; i < end; i++) {
+                destination[i - start] = text.charAt(i);
+            }
+        }
     }
 
     /**
@@ -83,7 +153,7 @@ public abstract class AbstractSourceFile<TSelf extends AbstractSourceFile<TSelf>
      * @param method
      *            the name of the method called (<code>"parse"</code> or <code>"reparse"</code>)
      */
-    private static void validateParseResult(@Nonnull SourceNode result, @Nonnull Document text, @Nonnull String method) {
+    static void validateParseResult(@Nonnull SourceNode result, @Nonnull Document text, @Nonnull String method) {
         if (result == null) {
             throw new ContractViolationException("Contract violation: Architecture." + method + "() must not return null.");
         }
@@ -97,10 +167,14 @@ public abstract class AbstractSourceFile<TSelf extends AbstractSourceFile<TSelf>
 
     @Nonnull
     private final Document text;
-    @Nonnull
-    private final LineLengthList lineLengths;
+    // The line lengths, computed on demand: most files are assembled without ever needing a line number. Concurrent computations
+    // are harmless: they produce equal lists, and a LineLengthList is immutable, so it is safe to publish through a data race.
+    @CheckForNull
+    private LineLengthList lineLengths;
     @Nonnull
     private final Map<Architecture, SourceNode> parsedMap;
+    @Nonnull
+    private final HashMap<SubstringBounds, SharedRange> sharedRanges = new HashMap<>();
 
     /**
      * Initializes a new AbstractSourceFile.
@@ -114,16 +188,21 @@ public abstract class AbstractSourceFile<TSelf extends AbstractSourceFile<TSelf>
         }
 
         this.text = text;
-        this.lineLengths = LineLengthList.Factory.INSTANCE.create(computeLineLengths(text));
         this.parsedMap = Collections.synchronizedMap(new HashMap<Architecture, SourceNode>());
     }
 
-    AbstractSourceFile(@Nonnull Document text, @Nonnull LineLengthList lineLengths, @Nonnull Map<Architecture, SourceNode> parsedMap) {
+    AbstractSourceFile(@Nonnull Document text, @CheckForNull LineLengthList lineLengths,
+            @Nonnull Map<Architecture, SourceNode> parsedMap) {
         this.text = text;
         this.lineLengths = lineLengths;
         this.parsedMap = Collections.synchronizedMap(parsedMap);
     }
 
+    AbstractSourceFile(@Nonnull SharedRange sharedRange) {
+        this.text = sharedRange.text;
+        this.parsedMap = sharedRange.parsedMap;
+    }
+
     /**
      * Gets the name of this source file. May be <code>null</code>.
      *
@@ -145,16 +224,86 @@ public abstract class AbstractSourceFile<TSelf extends AbstractSourceFile<TSelf>
             throw new NullPointerException("architecture");
         }
 
-        synchronized (this.parsedMap) {
-            SourceNode result = this.parsedMap.get(architecture);
-            if (result == null) {
-                result = architecture.parse(this.text);
-                validateParseResult(result, this.text, "parse");
-                this.parsedMap.put(architecture, result);
-            }
+        return this.getParsedCore(architecture, null, null);
+    }
 
-            return result;
+    /**
+     * Gets the root source node of this source file for the specified architecture. If the file hasn't been parsed for that
+     * architecture yet, it is parsed with {@link ParallelParser#parse(Architecture, Document, ForkJoinPool)}, which parses large
+     * files in parallel on the specified pool if the architecture declares split points.
+     *
+     * @param architecture
+     *            the architecture
+     * @param pool
+     *            the pool on which to parse the file
+     * @return the file's root {@link SourceNode}
+     */
+    @Nonnull
+    public final SourceNode getParsed(@Nonnull Architecture architecture, @Nonnull ForkJoinPool pool) {
+        if (architecture == null) {
+            throw new NullPointerException("architecture");
         }
+
+        if (pool == null) {
+            throw new NullPointerException("pool");
+        }
+
+        return this.getParsedCore(architecture, pool, null);
+    }
+
+    /**
+     * Gets the root source node of this source file for the specified architecture. If the file hasn't been parsed for that
+     * architecture yet, the result is loaded from the specified {@link ParseCache} if the cache contains a tree for the same text;
+     * otherwise, the file is parsed and the result is stored in the cache.
+     *
+     * @param architecture
+     *            the architecture
+     * @param cache
+     *            the cache in which to look for the parsed file
+     * @return the file's root {@link SourceNode}
+     */
+    @Nonnull
+    public final SourceNode getParsed(@Nonnull Architecture architecture, @Nonnull ParseCache cache) {
+        if (architecture == null) {
+            throw new NullPointerException("architecture");
+        }
+
+        if (cache == null) {
+            throw new NullPointerException("cache");
+        }
+
+        return this.getParsedCore(architecture, null, cache);
+    }
+
+    /**
+     * Gets the root source node of this source file for the specified architecture. If the file hasn't been parsed for that
+     * architecture yet, the result is loaded from the specified {@link ParseCache} if the cache contains a tree for the same text;
+     * otherwise, the file is parsed with {@link ParallelParser#parse(Architecture, Document, ForkJoinPool)} on the specified pool
+     * and the result is stored in the cache.
+     *
+     * @param architecture
+     *            the architecture
+     * @param cache
+     *            the cache in which to look for the parsed file
+     * @param pool
+     *            the pool on which to parse the file
+     * @return the file's root {@link SourceNode}
+     */
+    @Nonnull
+    public final SourceNode getParsed(@Nonnull Architecture architecture, @Nonnull ParseCache cache, @Nonnull ForkJoinPool pool) {
+        if (architecture == null) {
+            throw new NullPointerException("architecture");
+        }
+
+        if (cache == null) {
+            throw new NullPointerException("cache");
+        }
+
+        if (pool == null) {
+            throw new NullPointerException("pool");
+        }
+
+        return this.getParsedCore(architecture, pool, cache);
     }
 
     /**
@@ -214,8 +363,8 @@ public abstract class AbstractSourceFile<TSelf extends AbstractSourceFile<TSelf>
             return this.self();
         }
 
-        // Adjust the line lengths.
-        final LineLengthList lineLengths = this.adjustLineLengths(offset, length, text);
+        // Adjust the line lengths, if they have been computed. Otherwise, the new source file will compute them if it needs them.
+        final LineLengthList lineLengths = this.lineLengths == null ? null : this.adjustLineLengths(offset, length, text);
 
         // Re-parse the edited source file for each architecture for which this source file had been parsed.
         final HashMap<Architecture, SourceNode> parsedMap = this.reparse(offset, length, text, newTextDocument);
@@ -270,10 +419,10 @@ public abstract class AbstractSourceFile<TSelf extends AbstractSourceFile<TSelf>
      */
     @Nonnull
     final LineLengthList adjustLineLengths(int offset, int length, @Nonnull String text) {
-        LineLengthList lineLengths = this.lineLengths;
-        final ArrayList<Integer> newTextLineLengths = computeLineLengths(text);
+        LineLengthList lineLengths = this.getLineLengths();
+        final int[] newTextLineLengths = computeLineLengths(text);
         final int numberOfLinesInOldText = LineBreakCounter.count(this.text.subSequence(offset, offset + length)) + 1;
-        final int numberOfLinesInNewText = newTextLineLengths.size();
+        final int numberOfLinesInNewText = newTextLineLengths.length;
 
         assert numberOfLinesInOldText >= 1;
         assert numberOfLinesInNewText >= 1;
@@ -288,16 +437,17 @@ public abstract class AbstractSourceFile<TSelf extends AbstractSourceFile<TSelf>
             lineLengths.textLocationOfTextPosition(offset + length, textLocation);
         }
 
-        final int numberOfCharsOnLastLineAfterReplacement = lineLengths.get(textLocation.lineIndex) - textLocation.linePosition;
+        final int numberOfCharsOnLastLineAfterReplacement = lineLengths.getLineLength(textLocation.lineIndex)
+                - textLocation.linePosition;
 
         for (int i = 0;; i++) {
             if (i < numberOfLinesInNewText) {
                 final int lineLength = (i == 0 ? numberOfCharsOnFirstLineBeforeReplacement : 0)
                         + (i == numberOfLinesInNewText - 1 ? numberOfCharsOnLastLineAfterReplacement : 0)
-                        + newTextLineLengths.get(i);
+                        + newTextLineLengths[i];
                 if (i < numberOfLinesInOldText) {
                     // Update the line length.
-                    if (lineLength != lineLengths.get(lineIndex)) {
+                    if (lineLength != lineLengths.getLineLength(lineIndex)) {
                         lineLengths = LineLengthList.Factory.INSTANCE.set(lineLengths, lineIndex, lineLength);
                     }
                 } else {
@@ -323,7 +473,7 @@ public abstract class AbstractSourceFile<TSelf extends AbstractSourceFile<TSelf>
     abstract TSelf createDerivedFile(@Nonnull Document text);
 
     @Nonnull
-    abstract TSelf createDerivedFile(@Nonnull Document text, @Nonnull LineLengthList lineLengths,
+    abstract TSelf createDerivedFile(@Nonnull Document text, @CheckForNull LineLengthList lineLengths,
             @Nonnull HashMap<Architecture, SourceNode> parsedMap);
 
     /**
@@ -356,6 +506,37 @@ public abstract class AbstractSourceFile<TSelf extends AbstractSourceFile<TSelf>
         return parsedMap;
     }
 
+    /**
+     * Gets the {@link SharedRange} for the specified range of this file's text, creating it if necessary.
+     *
+     * @param start
+     *            the start of the range
+     * @param end
+     *            the end of the range
+     * @return the {@link SharedRange}
+     */
+    @Nonnull
+    final SharedRange getSharedRange(int start, int end) {
+        final SubstringBounds bounds = new SubstringBounds(start, end);
+        synchronized (this.sharedRanges) {
+            SharedRange sharedRange = this.sharedRanges.get(bounds);
+            if (sharedRange == null) {
+                // A macro body that covers the whole file can use the file's document as is.
+                final Document text;
+                if (start == 0 && end == this.text.length()) {
+                    text = this.text;
+                } else {
+                    text = new Document(this.text.subSequence(start, end));
+                }
+
+                sharedRange = new SharedRange(text);
+                this.sharedRanges.put(bounds, sharedRange);
+            }
+
+            return sharedRange;
+        }
+    }
+
     @Nonnull
     abstract TSelf self();
 
@@ -368,7 +549,41 @@ public abstract class AbstractSourceFile<TSelf extends AbstractSourceFile<TSelf>
      *            the text location
      */
     void textLocationOfTextPosition(int textPosition, @Nonnull LineLengthList.TextLocation textLocation) {
-        this.lineLengths.textLocationOfTextPosition(textPosition, textLocation);
+        this.getLineLengths().textLocationOfTextPosition(textPosition, textLocation);
+    }
+
+    @Nonnull
+    private final LineLengthList getLineLengths() {
+        LineLengthList lineLengths = this.lineLengths;
+        if (lineLengths == null) {
+            lineLengths = LineLengthList.Factory.INSTANCE.createFromArray(computeLineLengths(this.text));
+            this.lineLengths = lineLengths;
+        }
+
+        return lineLengths;
+    }
+
+    @Nonnull
+    private final SourceNode getParsedCore(@Nonnull Architecture architecture, @CheckForNull ForkJoinPool pool,
+            @CheckForNull ParseCache cache) {
+        synchronized (this.parsedMap) {
+            SourceNode result = this.parsedMap.get(architecture);
+            if (result == null) {
+                // ParseCache and ParallelParser validate the result.
+                if (cache != null) {
+                    result = cache.parse(architecture, this.text, pool);
+                } else if (pool != null) {
+                    result = ParallelParser.parse(architecture, this.text, pool);
+                } else {
+                    result = architecture.parse(this.text);
+                    validateParseResult(result, this.text, "parse");
+                }
+
+                this.parsedMap.put(architecture, result);
+            }
+
+            return result;
+        }
     }
 
 }
@@ -7,9 +7,6 @@ import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
 
-import ca.fragag.collections.ImmutableTreeList;
-import ca.fragag.collections.ImmutableTreeListFactory;
-
 /**
  * A source node that is composed of other source nodes.
  *
@@ -18,25 +15,8 @@ import ca.fragag.collections.ImmutableTreeListFactory;
 @Immutable
 public abstract class CompositeSourceNode extends SourceNode {
 
-    /**
-     * Gets the sum of the lengths of the specified sequence of source nodes. The result will be the length of a composite source
-     * node having this sequence of source nodes as children.
-     *
-     * @param childNodes
-     *            the child nodes of a composite source node being created
-     * @return the sum of the lengths of the child nodes
-     */
-    private static int totalLength(@Nonnull Iterable<? extends SourceNode> childNodes) {
-        int result = 0;
-        for (SourceNode node : childNodes) {
-            result += node.getLength();
-        }
-
-        return result;
-    }
-
     @Nonnull
-    private final ImmutableTreeList<SourceNode> childNodes;
+    private final SourceNodeList childNodes;
 
     /**
      * Initializes a new composite source node.
@@ -47,12 +27,20 @@ public abstract class CompositeSourceNode extends SourceNode {
      *            the parse error on the source node, or <code>null</code> if no parse error occurred
      */
     public CompositeSourceNode(@Nonnull Iterable<? extends SourceNode> childNodes, @CheckForNull ParseError parseError) {
-        this(ImmutableTreeListFactory.<SourceNode> getInstance().create(Objects.requireNonNull(childNodes, "childNodes")),
-                parseError);
+        this(SourceNodeList.Factory.INSTANCE.create(Objects.requireNonNull(childNodes, "childNodes")), parseError);
     }
 
-    private CompositeSourceNode(@Nonnull ImmutableTreeList<SourceNode> childNodes, @CheckForNull ParseError parseError) {
-        super(totalLength(childNodes), parseError);
+    /**
+     * Initializes a new composite source node from a list of child nodes that was already built, e.g. by splicing the child nodes
+     * of another composite source node.
+     *
+     * @param childNodes
+     *            the child nodes
+     * @param parseError
+     *            the parse error on the source node, or <code>null</code> if no parse error occurred
+     */
+    CompositeSourceNode(@Nonnull SourceNodeList childNodes, @CheckForNull ParseError parseError) {
+        super(childNodes.getTotalLength(), parseError);
         this.childNodes = childNodes;
     }
 
@@ -66,4 +54,14 @@ public abstract class CompositeSourceNode extends SourceNode {
         return this.childNodes;
     }
 
+    /**
+     * Gets the child nodes of this composite source node as a {@link SourceNodeList}.
+     *
+     * @return the child nodes
+     */
+    @Nonnull
+    final SourceNodeList getChildNodeList() {
+        return this.childNodes;
+    }
+
 }
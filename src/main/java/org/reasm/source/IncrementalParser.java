@@ -0,0 +1,165 @@
+package org.reasm.source;
+
+import java.util.ArrayList;
+
+import javax.annotation.Nonnull;
+
+import org.reasm.Architecture;
+import org.reasm.ContractViolationException;
+
+import ca.fragag.text.Document;
+import ca.fragag.text.DocumentReader;
+
+/**
+ * Parses the contents of a source file as a sequence of independent nodes, and re-parses it incrementally after it has been
+ * altered. An {@link Architecture} whose source files are a flat sequence of nodes (typically one node per line or per
+ * instruction) can implement {@link Architecture#parse(Document)} and
+ * {@link Architecture#reparse(Document, AbstractSourceFile, int, int, int)} by delegating to {@link #parse(Document)} and
+ * {@link #reparse(Document, SourceNode, int, int, int)}; it only needs to implement {@link #parseNode(DocumentReader)}.
+ * <p>
+ * {@link #reparse(Document, SourceNode, int, int, int)} reuses the old nodes before the node that contains the replaced range,
+ * parses new nodes from there until a new node ends at the start of an old node that follows the replaced range, and reuses that
+ * old node and all the nodes after it. The damaged node is found from the lengths cached in the tree of child nodes, and the new
+ * nodes are spliced into that persistent tree, so the cost of re-parsing is proportional to the size of the damaged region (times
+ * the logarithm of the number of nodes) rather than to the size of the source file. For this to produce the same result as a full
+ * parse, the node that {@link #parseNode(DocumentReader)} parses at a given position must only depend on the text it covers and on
+ * the character that immediately follows it. In particular, it must not depend on the text that precedes it.
+ * <p>
+ * Implementations should be immutable, because the methods of this class may be called from several threads concurrently.
+ *
+ * @author Francis Gagné
+ */
+public abstract class IncrementalParser {
+
+    /**
+     * Parses the contents of a source file.
+     *
+     * @param text
+     *            the contents of a source file
+     * @return a {@link SimpleCompositeSourceNode} whose children are the nodes parsed by {@link #parseNode(DocumentReader)}
+     * @throws ContractViolationException
+     *             {@link #parseNode(DocumentReader)} returned an invalid node
+     */
+    @Nonnull
+    public final SourceNode parse(@Nonnull Document text) {
+        if (text == null) {
+            throw new NullPointerException("text");
+        }
+
+        final ArrayList<SourceNode> nodes = new ArrayList<>();
+        final DocumentReader reader = new DocumentReader(text);
+        while (!reader.atEnd()) {
+            nodes.add(this.parseNextNode(reader));
+        }
+
+        return new SimpleCompositeSourceNode(nodes);
+    }
+
+    /**
+     * Re-parses the contents of a source file after it has been altered, reusing the nodes from the old source file that are not
+     * affected by the alteration.
+     *
+     * @param text
+     *            the new contents of the source file
+     * @param oldParsed
+     *            the result of parsing the old source file with this parser
+     * @param replaceOffset
+     *            the offset at which the replace occurred
+     * @param lengthToRemove
+     *            the length of text from the old source file that was removed
+     * @param lengthToInsert
+     *            the length of text from the new source file that was inserted
+     * @return a {@link SimpleCompositeSourceNode} whose children are the nodes parsed by {@link #parseNode(DocumentReader)}; if
+     *         <code>oldParsed</code> is not a {@link SimpleCompositeSourceNode}, the whole text is parsed again
+     * @throws ContractViolationException
+     *             {@link #parseNode(DocumentReader)} returned an invalid node
+     */
+    @Nonnull
+    public final SourceNode reparse(@Nonnull Document text, @Nonnull SourceNode oldParsed, int replaceOffset, int lengthToRemove,
+            int lengthToInsert) {
+        if (text == null) {
+            throw new NullPointerException("text");
+        }
+
+        if (oldParsed == null) {
+            throw new NullPointerException("oldParsed");
+        }
+
+        if (oldParsed.getClass() != SimpleCompositeSourceNode.class) {
+            return this.parse(text);
+        }
+
+        final SourceNodeList oldNodes = ((SimpleCompositeSourceNode) oldParsed).getChildNodeList();
+        final int numberOfOldNodes = oldNodes.size();
+
+        // Reuse the old nodes that end before replaceOffset. The node that ends at replaceOffset must be parsed again, because the
+        // character that follows it has changed, so look for the node that contains the character that precedes replaceOffset.
+        final int damagedOffset = Math.min(replaceOffset, oldNodes.getTotalLength());
+        final int firstDamagedIndex = damagedOffset == 0 ? 0 : oldNodes.indexOfTextPosition(damagedOffset - 1);
+        int oldIndex = firstDamagedIndex;
+        int oldPosition = oldNodes.textPositionOfIndex(firstDamagedIndex);
+
+        // Parse new nodes until one ends at the start of an old node that is entirely after the replaced range. Positions in the
+        // old text are translated to the new text by adding the difference between the inserted and removed lengths. If no such
+        // node is found, all the old nodes from the first damaged node are replaced.
+        final ArrayList<SourceNode> newNodes = new ArrayList<>();
+        final int lengthDifference = lengthToInsert - lengthToRemove;
+        final int endOfInsertedText = replaceOffset + lengthToInsert;
+        final DocumentReader reader = new DocumentReader(text, oldPosition);
+        int firstReusedIndex = numberOfOldNodes;
+        while (!reader.atEnd()) {
+            newNodes.add(this.parseNextNode(reader));
+            final int newPosition = reader.getCurrentPosition();
+            if (newPosition < endOfInsertedText) {
+                continue;
+            }
+
+            // Skip the old nodes that start before the end of the new node.
+            while (oldIndex < numberOfOldNodes && oldPosition + lengthDifference < newPosition) {
+                oldPosition += oldNodes.get(oldIndex).getLength();
+                oldIndex++;
+            }
+
+            if (oldIndex < numberOfOldNodes && oldPosition + lengthDifference == newPosition) {
+                firstReusedIndex = oldIndex;
+                break;
+            }
+        }
+
+        // Splice the new nodes into the old list, which shares all the nodes outside of the damaged region with the new list.
+        return new SimpleCompositeSourceNode(SourceNodeList.Factory.INSTANCE.splice(oldNodes, firstDamagedIndex, firstReusedIndex
+                - firstDamagedIndex, newNodes));
+    }
+
+    /**
+     * Parses a single node at the position of the specified reader.
+     *
+     * @param reader
+     *            a {@link DocumentReader} positioned at the start of the node to parse; it is not at the end of the text. The
+     *            reader's position after this method returns is irrelevant.
+     * @return the node; its length must be at least 1 and it must not extend past the end of the text
+     */
+    @Nonnull
+    protected abstract SourceNode parseNode(@Nonnull DocumentReader reader);
+
+    @Nonnull
+    private final SourceNode parseNextNode(@Nonnull DocumentReader reader) {
+        final int start = reader.getCurrentPosition();
+        final int remainingLength = reader.getDocument().length() - start;
+        final SourceNode node = this.parseNode(reader);
+        if (node == null) {
+            throw new ContractViolationException("Contract violation: IncrementalParser.parseNode() must not return null.");
+        }
+
+        final int length = node.getLength();
+        if (length < 1 || length > remainingLength) {
+            throw new ContractViolationException("Contract violation: IncrementalParser.parseNode() must return a SourceNode "
+                    + "with a length between 1 and the length of the remaining text (expected a value between 1 and "
+                    + remainingLength + ", got " + length + ").");
+        }
+
+        reader.setCurrentPosition(start + length);
+        return node;
+    }
+
+}
@@ -1,21 +1,24 @@
 package org.reasm.source;
 
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
 
-import ca.fragag.collections.AbstractImmutableTreeList;
-import ca.fragag.collections.AbstractImmutableTreeListFactory;
-import ca.fragag.collections.AbstractImmutableTreeNode;
-import ca.fragag.collections.AbstractImmutableTreeNodeFactory;
-
 /**
  * A list of line lengths.
+ * <p>
+ * The line lengths are stored in a persistent B+ tree: the leaves hold the line lengths in <code>int</code> arrays, and the
+ * branches hold the cumulative number of lines and the cumulative length of their children, so that queries never touch a boxed
+ * {@link Integer} and only visit one node per level of the tree. Modifying a list with the {@link Factory} copies the nodes on the
+ * path to the modified leaf and shares all the other nodes with the original list, which is left unchanged.
  *
  * @author Francis Gagné
  */
 @Immutable
-class LineLengthList extends AbstractImmutableTreeList<Integer, LineLengthList.Node> {
+final class LineLengthList extends AbstractList<Integer> implements RandomAccess {
 
     /**
      * The list factory class for {@link LineLengthList}.
@@ -23,190 +26,174 @@ class LineLengthList extends AbstractImmutableTreeList<Integer, LineLengthList.N
      * @author Francis Gagné
      */
     @Immutable
-    static class Factory extends AbstractImmutableTreeListFactory<Integer, Node, LineLengthList> {
+    static final class Factory {
 
-        public static final Factory INSTANCE = new Factory(Node.Factory.INSTANCE);
+        public static final Factory INSTANCE = new Factory();
 
-        /**
-         * Initializes a new Factory.
-         *
-         * @param nodeFactory
-         *            the node factory to use
-         */
-        protected Factory(@Nonnull Node.Factory nodeFactory) {
-            super(nodeFactory);
-        }
+        private static final LineLengthList EMPTY = new LineLengthList(null);
 
-        @Override
-        protected LineLengthList createList(@CheckForNull Node root) {
-            return new LineLengthList(root);
+        private Factory() {
         }
 
-    }
-
-    /**
-     * An implementation of {@link AbstractImmutableTreeNode} that stores the sum of the value of itself and of its subtrees.
-     *
-     * @author Francis Gagné
-     */
-    @Immutable
-    static class Node extends AbstractImmutableTreeNode<Integer, Node> {
-
         /**
-         * The node factory class for {@link Node}.
+         * Creates a new list by inserting a line length in a list.
          *
-         * @author Francis Gagné
+         * @param list
+         *            the original list
+         * @param index
+         *            the index at which to insert the line length
+         * @param lineLength
+         *            the line length to insert
+         * @return the new list
          */
-        @Immutable
-        static class Factory extends AbstractImmutableTreeNodeFactory<Integer, Node> {
-
-            public static final Factory INSTANCE = new Factory();
+        @Nonnull
+        public final LineLengthList add(@Nonnull LineLengthList list, int index, int lineLength) {
+            if (index < 0 || index > list.size()) {
+                throw new IndexOutOfBoundsException("index");
+            }
 
-            private Factory() {
+            final Node root = list.root;
+            if (root == null) {
+                return new LineLengthList(new Leaf(new int[] { lineLength }));
             }
 
-            @Override
-            protected Node createNode(@CheckForNull Node left, @Nonnull Integer value, @CheckForNull Node right) {
-                return new Node(left, value, right);
+            final Node[] nodes = root.add(index, lineLength);
+            if (nodes.length == 1) {
+                return new LineLengthList(nodes[0]);
             }
 
+            // The root was split: grow the tree by one level.
+            return new LineLengthList(new Branch(nodes));
         }
 
         /**
-         * Gets the line index of the line starting at or before the specified position. The result is also the number of line
-         * breaks that appear before that position.
+         * Creates an empty list.
          *
-         * @param node
-         *            the root node of a LineLengthList
-         * @param textPosition
-         *            the text position
-         * @return the index
+         * @return the empty list
          */
-        static int lineIndexOfTextPosition(@Nonnull Node node, int textPosition) {
-            int index = 0;
-            for (;;) {
-                final Node left = node.getLeft();
-                if (left != null) {
-                    if (textPosition < left.totalLength) {
-                        node = left;
-                        continue;
-                    }
-
-                    textPosition -= left.totalLength;
-                    index += left.getSize();
-                }
+        @Nonnull
+        public final LineLengthList create() {
+            return EMPTY;
+        }
 
-                final int value = node.getIntValue();
-                if (textPosition < value) {
-                    return index;
+        /**
+         * Creates a list from a sequence of line lengths.
+         *
+         * @param lineLengths
+         *            the line lengths
+         * @return the new list
+         */
+        @Nonnull
+        public final LineLengthList create(@Nonnull Iterable<Integer> lineLengths) {
+            int[] array = new int[16];
+            int size = 0;
+            for (Integer lineLength : lineLengths) {
+                if (size == array.length) {
+                    final int[] newArray = new int[size * 2];
+                    System.arraycopy(array, 0, newArray, 0, size);
+                    array = newArray;
                 }
 
-                node = node.getRight();
-                assert node != null;
-                textPosition -= value;
-                index++;
+                array[size++] = lineLength;
             }
+
+            final int[] trimmedArray = new int[size];
+            System.arraycopy(array, 0, trimmedArray, 0, size);
+            return this.createFromArray(trimmedArray);
         }
 
         /**
-         * Writes the location of the specified position in textLocation.
+         * Creates a list from an array of line lengths. The tree is built bottom-up in linear time, by filling the leaves and then
+         * each level of branches as evenly as possible, instead of inserting the elements one by one.
          *
-         * @param textPosition
-         *            the text position
-         * @param textLocation
-         *            the text location
+         * @param lineLengths
+         *            the line lengths
+         * @return the new list
          */
-        static void textLocationOfTextPosition(@Nonnull Node node, int textPosition, @Nonnull TextLocation textLocation) {
-            for (;;) {
-                final Node left = node.getLeft();
-                if (left != null) {
-                    if (textPosition < left.totalLength) {
-                        node = left;
-                        continue;
-                    }
-
-                    textPosition -= left.totalLength;
-                    textLocation.lineIndex += left.getSize();
-                }
+        @Nonnull
+        public final LineLengthList createFromArray(@Nonnull int[] lineLengths) {
+            if (lineLengths.length == 0) {
+                return EMPTY;
+            }
+
+            final int numberOfLeaves = divideRoundingUp(lineLengths.length, MAX_LEAF_SIZE);
+            Node[] level = new Node[numberOfLeaves];
+            for (int i = 0; i < numberOfLeaves; i++) {
+                final int start = (int) ((long) lineLengths.length * i / numberOfLeaves);
+                final int end = (int) ((long) lineLengths.length * (i + 1) / numberOfLeaves);
+                final int[] leafLineLengths = new int[end - start];
+                System.arraycopy(lineLengths, start, leafLineLengths, 0, end - start);
+                level[i] = new Leaf(leafLineLengths);
+            }
 
-                int value = node.getIntValue();
-                if (textPosition < value) {
-                    textLocation.linePosition = textPosition;
-                    return;
+            while (level.length > 1) {
+                final int numberOfBranches = divideRoundingUp(level.length, MAX_BRANCH_SIZE);
+                final Node[] nextLevel = new Node[numberOfBranches];
+                for (int i = 0; i < numberOfBranches; i++) {
+                    final int start = (int) ((long) level.length * i / numberOfBranches);
+                    final int end = (int) ((long) level.length * (i + 1) / numberOfBranches);
+                    final Node[] children = new Node[end - start];
+                    System.arraycopy(level, start, children, 0, end - start);
+                    nextLevel[i] = new Branch(children);
                 }
 
-                node = node.getRight();
-                assert node != null;
-                textPosition -= value;
-                textLocation.lineIndex += 1;
+                level = nextLevel;
             }
+
+            return new LineLengthList(level[0]);
         }
 
         /**
-         * Gets the text position of the start of the line at the specified line index.
+         * Creates a new list by removing a line length from a list.
          *
-         * @param node
-         *            the root node of a LineLengthList
-         * @param lineIndex
-         *            the line index
-         * @return the text position
+         * @param list
+         *            the original list
+         * @param index
+         *            the index of the line length to remove
+         * @return the new list
          */
-        static int textPositionOfLineIndex(@Nonnull Node node, int lineIndex) {
-            int textPosition = 0;
-            for (;;) {
-                final Node left = node.getLeft();
-                if (left != null) {
-                    if (lineIndex < left.getSize()) {
-                        node = left;
-                        continue;
-                    }
-
-                    lineIndex -= left.getSize();
-                    textPosition += left.totalLength;
-                }
+        @Nonnull
+        public final LineLengthList remove(@Nonnull LineLengthList list, int index) {
+            if (index < 0 || index >= list.size()) {
+                throw new IndexOutOfBoundsException("index");
+            }
 
-                if (lineIndex == 0) {
-                    return textPosition;
-                }
+            final Node root = list.root;
+            assert root != null;
+            Node newRoot = root.remove(index);
 
-                textPosition += node.getIntValue();
-                node = node.getRight();
-                assert node != null;
-                lineIndex--;
+            // Shrink the tree while the root is a branch with a single child.
+            while (newRoot instanceof Branch && ((Branch) newRoot).children.length == 1) {
+                newRoot = ((Branch) newRoot).children[0];
             }
-        }
 
-        private final transient int totalLength;
+            if (newRoot.size == 0) {
+                return EMPTY;
+            }
 
-        /**
-         * Initializes a new Node.
-         *
-         * @param left
-         *            the left subtree
-         * @param value
-         *            the element value (the line length)
-         * @param right
-         *            the right subtree
-         */
-        protected Node(@CheckForNull Node left, @Nonnull Integer value, @CheckForNull Node right) {
-            super(left, value, right);
-            this.totalLength = (left == null ? 0 : left.totalLength) + value + (right == null ? 0 : right.totalLength);
+            return new LineLengthList(newRoot);
         }
 
         /**
-         * Gets the total length of this node and its subtrees.
+         * Creates a new list by replacing a line length in a list.
          *
-         * @return the total length
+         * @param list
+         *            the original list
+         * @param index
+         *            the index of the line length to replace
+         * @param lineLength
+         *            the new line length
+         * @return the new list
          */
-        public final int getTotalLength() {
-            return this.totalLength;
-        }
-
         @Nonnull
-        private final int getIntValue() {
-            final Integer value = super.getValue();
-            assert value != null;
-            return value;
+        public final LineLengthList set(@Nonnull LineLengthList list, int index, int lineLength) {
+            if (index < 0 || index >= list.size()) {
+                throw new IndexOutOfBoundsException("index");
+            }
+
+            final Node root = list.root;
+            assert root != null;
+            return new LineLengthList(root.set(index, lineLength));
         }
 
     }
@@ -224,13 +211,453 @@ class LineLengthList extends AbstractImmutableTreeList<Integer, LineLengthList.N
     }
 
     /**
-     * Initializes a new LineLengthList.
+     * A branch of the tree. The <code>n</code>th element of {@link #sizeSums} and of {@link #lengthSums} is the number of lines and
+     * the total length of the children from 0 to <code>n</code> inclusively.
+     *
+     * @author Francis Gagné
+     */
+    @Immutable
+    private static final class Branch extends Node {
+
+        @Nonnull
+        final Node[] children;
+        @Nonnull
+        private final int[] sizeSums;
+        @Nonnull
+        private final int[] lengthSums;
+
+        Branch(@Nonnull Node[] children) {
+            this(children, computeSizeSums(children), computeLengthSums(children));
+        }
+
+        private Branch(@Nonnull Node[] children, @Nonnull int[] sizeSums, @Nonnull int[] lengthSums) {
+            super(sizeSums[sizeSums.length - 1], lengthSums[lengthSums.length - 1]);
+            this.children = children;
+            this.sizeSums = sizeSums;
+            this.lengthSums = lengthSums;
+        }
+
+        @Nonnull
+        @Override
+        final Node[] add(int index, int lineLength) {
+            // Appending at the end of the list goes in the last child.
+            int childIndex = this.childIndexOfLineIndex(index);
+            if (childIndex == this.children.length) {
+                childIndex--;
+            }
+
+            final Node[] newChildren = this.children[childIndex].add(index - this.sizeBefore(childIndex), lineLength);
+            if (newChildren.length == 1) {
+                return new Node[] { this.replaceChild(childIndex, newChildren[0]) };
+            }
+
+            final Node[] children = new Node[this.children.length + 1];
+            System.arraycopy(this.children, 0, children, 0, childIndex);
+            children[childIndex] = newChildren[0];
+            children[childIndex + 1] = newChildren[1];
+            System.arraycopy(this.children, childIndex + 1, children, childIndex + 2, this.children.length - childIndex - 1);
+            if (children.length <= MAX_BRANCH_SIZE) {
+                return new Node[] { new Branch(children) };
+            }
+
+            return splitBranch(children);
+        }
+
+        @Override
+        final int getEntryCount() {
+            return this.children.length;
+        }
+
+        @Override
+        final int getLineLength(int index) {
+            final int childIndex = this.childIndexOfLineIndex(index);
+            return this.children[childIndex].getLineLength(index - this.sizeBefore(childIndex));
+        }
+
+        @Override
+        final int minimumEntryCount() {
+            return MAX_BRANCH_SIZE / 2;
+        }
+
+        @Nonnull
+        @Override
+        final Node remove(int index) {
+            final int childIndex = this.childIndexOfLineIndex(index);
+            final Node newChild = this.children[childIndex].remove(index - this.sizeBefore(childIndex));
+            if (newChild.getEntryCount() >= newChild.minimumEntryCount() || this.children.length == 1) {
+                return this.replaceChild(childIndex, newChild);
+            }
+
+            // The child has too few entries: merge it with a sibling, or redistribute their entries if they don't fit in one node.
+            final int leftIndex = childIndex == 0 ? 0 : childIndex - 1;
+            final Node left = leftIndex == childIndex ? newChild : this.children[leftIndex];
+            final Node right = leftIndex == childIndex ? this.children[leftIndex + 1] : newChild;
+            final Node[] joinedChildren = left.join(right);
+
+            final Node[] children = new Node[this.children.length - 2 + joinedChildren.length];
+            System.arraycopy(this.children, 0, children, 0, leftIndex);
+            System.arraycopy(joinedChildren, 0, children, leftIndex, joinedChildren.length);
+            System.arraycopy(this.children, leftIndex + 2, children, leftIndex + joinedChildren.length, this.children.length
+                    - leftIndex - 2);
+            return new Branch(children);
+        }
+
+        @Nonnull
+        @Override
+        final Node set(int index, int lineLength) {
+            final int childIndex = this.childIndexOfLineIndex(index);
+            return this.replaceChild(childIndex, this.children[childIndex].set(index - this.sizeBefore(childIndex), lineLength));
+        }
+
+        @Override
+        final int lineIndexOfTextPosition(int textPosition) {
+            final int childIndex = this.childIndexOfTextPosition(textPosition);
+            if (childIndex == 0) {
+                return this.children[0].lineIndexOfTextPosition(textPosition);
+            }
+
+            return this.sizeSums[childIndex - 1]
+                    + this.children[childIndex].lineIndexOfTextPosition(textPosition - this.lengthSums[childIndex - 1]);
+        }
+
+        @Nonnull
+        @Override
+        final Node[] join(@Nonnull Node other) {
+            final Node[] otherChildren = ((Branch) other).children;
+            final Node[] children = new Node[this.children.length + otherChildren.length];
+            System.arraycopy(this.children, 0, children, 0, this.children.length);
+            System.arraycopy(otherChildren, 0, children, this.children.length, otherChildren.length);
+            if (children.length <= MAX_BRANCH_SIZE) {
+                return new Node[] { new Branch(children) };
+            }
+
+            return splitBranch(children);
+        }
+
+        @Override
+        final void textLocationOfTextPosition(int textPosition, @Nonnull TextLocation textLocation) {
+            final int childIndex = this.childIndexOfTextPosition(textPosition);
+            if (childIndex == 0) {
+                this.children[0].textLocationOfTextPosition(textPosition, textLocation);
+                return;
+            }
+
+            textLocation.lineIndex += this.sizeSums[childIndex - 1];
+            this.children[childIndex].textLocationOfTextPosition(textPosition - this.lengthSums[childIndex - 1], textLocation);
+        }
+
+        @Override
+        final int textPositionOfLineIndex(int lineIndex) {
+            final int childIndex = this.childIndexOfLineIndex(lineIndex);
+            if (childIndex == 0) {
+                return this.children[0].textPositionOfLineIndex(lineIndex);
+            }
+
+            return this.lengthSums[childIndex - 1]
+                    + this.children[childIndex].textPositionOfLineIndex(lineIndex - this.sizeSums[childIndex - 1]);
+        }
+
+        private final int childIndexOfLineIndex(int lineIndex) {
+            int childIndex = 0;
+            while (childIndex < this.sizeSums.length && lineIndex >= this.sizeSums[childIndex]) {
+                childIndex++;
+            }
+
+            return childIndex;
+        }
+
+        private final int childIndexOfTextPosition(int textPosition) {
+            int childIndex = 0;
+            while (textPosition >= this.lengthSums[childIndex]) {
+                childIndex++;
+            }
+
+            return childIndex;
+        }
+
+        @Nonnull
+        private final Branch replaceChild(int childIndex, @Nonnull Node newChild) {
+            final Node[] children = this.children.clone();
+            children[childIndex] = newChild;
+            final int[] sizeSums = this.sizeSums.clone();
+            final int[] lengthSums = this.lengthSums.clone();
+            final int sizeDelta = newChild.size - this.children[childIndex].size;
+            final int lengthDelta = newChild.totalLength - this.children[childIndex].totalLength;
+            for (int i = childIndex; i < children.length; i++) {
+                sizeSums[i] += sizeDelta;
+                lengthSums[i] += lengthDelta;
+            }
+
+            return new Branch(children, sizeSums, lengthSums);
+        }
+
+        private final int sizeBefore(int childIndex) {
+            return childIndex == 0 ? 0 : this.sizeSums[childIndex - 1];
+        }
+
+    }
+
+    /**
+     * A leaf of the tree.
+     *
+     * @author Francis Gagné
+     */
+    @Immutable
+    private static final class Leaf extends Node {
+
+        @Nonnull
+        private final int[] lineLengths;
+
+        Leaf(@Nonnull int[] lineLengths) {
+            super(lineLengths.length, sum(lineLengths));
+            this.lineLengths = lineLengths;
+        }
+
+        @Nonnull
+        @Override
+        final Node[] add(int index, int lineLength) {
+            final int[] lineLengths = new int[this.lineLengths.length + 1];
+            System.arraycopy(this.lineLengths, 0, lineLengths, 0, index);
+            lineLengths[index] = lineLength;
+            System.arraycopy(this.lineLengths, index, lineLengths, index + 1, this.lineLengths.length - index);
+            if (lineLengths.length <= MAX_LEAF_SIZE) {
+                return new Node[] { new Leaf(lineLengths) };
+            }
+
+            return splitLeaf(lineLengths);
+        }
+
+        @Override
+        final int getEntryCount() {
+            return this.lineLengths.length;
+        }
+
+        @Override
+        final int getLineLength(int index) {
+            return this.lineLengths[index];
+        }
+
+        @Nonnull
+        @Override
+        final Node[] join(@Nonnull Node other) {
+            final int[] otherLineLengths = ((Leaf) other).lineLengths;
+            final int[] lineLengths = new int[this.lineLengths.length + otherLineLengths.length];
+            System.arraycopy(this.lineLengths, 0, lineLengths, 0, this.lineLengths.length);
+            System.arraycopy(otherLineLengths, 0, lineLengths, this.lineLengths.length, otherLineLengths.length);
+            if (lineLengths.length <= MAX_LEAF_SIZE) {
+                return new Node[] { new Leaf(lineLengths) };
+            }
+
+            return splitLeaf(lineLengths);
+        }
+
+        @Override
+        final int lineIndexOfTextPosition(int textPosition) {
+            int index = 0;
+            while (textPosition >= this.lineLengths[index]) {
+                textPosition -= this.lineLengths[index];
+                index++;
+            }
+
+            return index;
+        }
+
+        @Override
+        final int minimumEntryCount() {
+            return MAX_LEAF_SIZE / 2;
+        }
+
+        @Nonnull
+        @Override
+        final Node remove(int index) {
+            final int[] lineLengths = new int[this.lineLengths.length - 1];
+            System.arraycopy(this.lineLengths, 0, lineLengths, 0, index);
+            System.arraycopy(this.lineLengths, index + 1, lineLengths, index, lineLengths.length - index);
+            return new Leaf(lineLengths);
+        }
+
+        @Nonnull
+        @Override
+        final Node set(int index, int lineLength) {
+            final int[] lineLengths = this.lineLengths.clone();
+            lineLengths[index] = lineLength;
+            return new Leaf(lineLengths);
+        }
+
+        @Override
+        final void textLocationOfTextPosition(int textPosition, @Nonnull TextLocation textLocation) {
+            int index = 0;
+            while (textPosition >= this.lineLengths[index]) {
+                textPosition -= this.lineLengths[index];
+                index++;
+            }
+
+            textLocation.lineIndex += index;
+            textLocation.linePosition = textPosition;
+        }
+
+        @Override
+        final int textPositionOfLineIndex(int lineIndex) {
+            int textPosition = 0;
+            for (int i = 0; i < lineIndex; i++) {
+                textPosition += this.lineLengths[i];
+            }
+
+            return textPosition;
+        }
+
+    }
+
+    /**
+     * A node of the tree. The operations that modify a node return new nodes and leave the original node unchanged.
+     *
+     * @author Francis Gagné
+     */
+    @Immutable
+    private abstract static class Node {
+
+        final int size;
+        final int totalLength;
+
+        Node(int size, int totalLength) {
+            this.size = size;
+            this.totalLength = totalLength;
+        }
+
+        /**
+         * Inserts a line length in this node.
+         *
+         * @return one node, or two nodes if the node had to be split
+         */
+        @Nonnull
+        abstract Node[] add(int index, int lineLength);
+
+        /**
+         * Gets the number of line lengths in a leaf or the number of children of a branch.
+         */
+        abstract int getEntryCount();
+
+        abstract int getLineLength(int index);
+
+        /**
+         * Joins the entries of this node with the entries of a node of the same kind that immediately follows it.
+         *
+         * @return one node, or two nodes if the entries don't fit in one node
+         */
+        @Nonnull
+        abstract Node[] join(@Nonnull Node other);
+
+        abstract int lineIndexOfTextPosition(int textPosition);
+
+        /**
+         * Gets the number of entries below which a node that is not the root must be joined with a sibling.
+         */
+        abstract int minimumEntryCount();
+
+        /**
+         * Removes a line length from this node. The resulting node may have fewer entries than {@link #minimumEntryCount()}; the
+         * parent takes care of joining it with a sibling.
+         */
+        @Nonnull
+        abstract Node remove(int index);
+
+        @Nonnull
+        abstract Node set(int index, int lineLength);
+
+        abstract void textLocationOfTextPosition(int textPosition, @Nonnull TextLocation textLocation);
+
+        abstract int textPositionOfLineIndex(int lineIndex);
+
+    }
+
+    private static final int MAX_LEAF_SIZE = 64;
+    private static final int MAX_BRANCH_SIZE = 32;
+
+    @Nonnull
+    private static int[] computeLengthSums(@Nonnull Node[] children) {
+        final int[] lengthSums = new int[children.length];
+        int sum = 0;
+        for (int i = 0; i < children.length; i++) {
+            sum += children[i].totalLength;
+            lengthSums[i] = sum;
+        }
+
+        return lengthSums;
+    }
+
+    @Nonnull
+    private static int[] computeSizeSums(@Nonnull Node[] children) {
+        final int[] sizeSums = new int[children.length];
+        int sum = 0;
+        for (int i = 0; i < children.length; i++) {
+            sum += children[i].size;
+            sizeSums[i] = sum;
+        }
+
+        return sizeSums;
+    }
+
+    private static int divideRoundingUp(int dividend, int divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+
+    @Nonnull
+    private static Node[] splitBranch(@Nonnull Node[] children) {
+        final int middle = children.length / 2;
+        final Node[] leftChildren = new Node[middle];
+        final Node[] rightChildren = new Node[children.length - middle];
+        System.arraycopy(children, 0, leftChildren, 0, leftChildren.length);
+        System.arraycopy(children, middle, rightChildren, 0, rightChildren.length);
+        return new Node[] { new Branch(leftChildren), new Branch(rightChildren) };
+    }
+
+    @Nonnull
+    private static Node[] splitLeaf(@Nonnull int[] lineLengths) {
+        final int middle = lineLengths.length / 2;
+        final int[] leftLineLengths = new int[middle];
+        final int[] rightLineLengths = new int[lineLengths.length - middle];
+        System.arraycopy(lineLengths, 0, leftLineLengths, 0, leftLineLengths.length);
+        System.arraycopy(lineLengths, middle, rightLineLengths, 0, rightLineLengths.length);
+        return new Node[] { new Leaf(leftLineLengths), new Leaf(rightLineLengths) };
+    }
+
+    private static int sum(@Nonnull int[] values) {
+        int sum = 0;
+        for (int value : values) {
+            sum += value;
+        }
+
+        return sum;
+    }
+
+    @CheckForNull
+    private final Node root;
+
+    private LineLengthList(@CheckForNull Node root) {
+        this.root = root;
+    }
+
+    @Nonnull
+    @Override
+    public final Integer get(int index) {
+        return this.getLineLength(index);
+    }
+
+    /**
+     * Gets the line length at the specified index, without boxing it.
      *
-     * @param root
-     *            the list's root node
+     * @param index
+     *            the index of the line
+     * @return the line length
      */
-    protected LineLengthList(@CheckForNull Node root) {
-        super(root);
+    public final int getLineLength(int index) {
+        if (index < 0 || index >= this.size()) {
+            throw new IndexOutOfBoundsException("index");
+        }
+
+        final Node root = this.root;
+        assert root != null;
+        return root.getLineLength(index);
     }
 
     /**
@@ -242,7 +669,7 @@ class LineLengthList extends AbstractImmutableTreeList<Integer, LineLengthList.N
      * @return the index
      */
     public final int lineIndexOfTextPosition(int textPosition) {
-        final Node root = this.getRoot();
+        final Node root = this.root;
         if (root == null) {
             if (textPosition != 0) {
                 throw new IndexOutOfBoundsException("textPosition");
@@ -251,15 +678,21 @@ class LineLengthList extends AbstractImmutableTreeList<Integer, LineLengthList.N
             return 0;
         }
 
-        if (textPosition < 0 || textPosition > root.getTotalLength()) {
+        if (textPosition < 0 || textPosition > root.totalLength) {
             throw new IndexOutOfBoundsException("textPosition");
         }
 
-        if (textPosition == root.getTotalLength()) {
+        if (textPosition == root.totalLength) {
             return this.size() - 1;
         }
 
-        return Node.lineIndexOfTextPosition(root, textPosition);
+        return root.lineIndexOfTextPosition(textPosition);
+    }
+
+    @Override
+    public final int size() {
+        final Node root = this.root;
+        return root == null ? 0 : root.size;
     }
 
     /**
@@ -271,7 +704,7 @@ class LineLengthList extends AbstractImmutableTreeList<Integer, LineLengthList.N
      *            the text location
      */
     public final void textLocationOfTextPosition(int textPosition, @Nonnull TextLocation textLocation) {
-        final Node root = this.getRoot();
+        final Node root = this.root;
         if (root == null) {
             if (textPosition != 0) {
                 throw new IndexOutOfBoundsException("textPosition");
@@ -282,19 +715,18 @@ class LineLengthList extends AbstractImmutableTreeList<Integer, LineLengthList.N
             return;
         }
 
-        if (textPosition < 0 || textPosition > root.getTotalLength()) {
+        if (textPosition < 0 || textPosition > root.totalLength) {
             throw new IndexOutOfBoundsException("textPosition");
         }
 
         textLocation.lineIndex = 0;
         textLocation.linePosition = 0;
-        if (textPosition == root.getTotalLength()) {
+        if (textPosition == root.totalLength) {
             textLocation.lineIndex = this.size() - 1;
-            textLocation.linePosition = this.get(textLocation.lineIndex);
+            textLocation.linePosition = root.getLineLength(textLocation.lineIndex);
         } else {
-            Node.textLocationOfTextPosition(root, textPosition, textLocation);
+            root.textLocationOfTextPosition(textPosition, textLocation);
         }
-
     }
 
     /**
@@ -305,7 +737,7 @@ class LineLengthList extends AbstractImmutableTreeList<Integer, LineLengthList.N
      * @return the text position
      */
     public final int textPositionOfLineIndex(int lineIndex) {
-        final Node root = this.getRoot();
+        final Node root = this.root;
         if (root == null) {
             if (lineIndex != 0) {
                 throw new IndexOutOfBoundsException("lineIndex");
@@ -318,7 +750,7 @@ class LineLengthList extends AbstractImmutableTreeList<Integer, LineLengthList.N
             throw new IndexOutOfBoundsException("lineIndex");
         }
 
-        return Node.textPositionOfLineIndex(root, lineIndex);
+        return root.textPositionOfLineIndex(lineIndex);
     }
 
 }
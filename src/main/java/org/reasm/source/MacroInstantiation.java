@@ -16,6 +16,9 @@ import ca.fragag.text.Document;
  * <p>
  * To use this class, first instantiate it by calling {@link #MacroInstantiation(SourceLocation)}, passing a {@link SourceLocation}
  * that contains the macro's body. Then, call {@link #replaceText(int, int, String)} to perform text substitutions.
+ * <p>
+ * The MacroInstantiations created from the same macro body share the text of the body and the results of parsing it, so expanding
+ * a macro many times only parses its body once for each architecture.
  *
  * @author Francis Gagné
  */
@@ -25,6 +28,10 @@ public final class MacroInstantiation extends AbstractSourceFile<MacroInstantiat
     @Nonnull
     private final SourceLocation macroBody;
 
+    // true if the text of this MacroInstantiation is the text of the macro body, in which case the locations in this
+    // MacroInstantiation are derived from the line lengths of the file that contains the macro body.
+    private final boolean sharesMacroBodyLineLengths;
+
     /**
      * Initializes a new MacroInstantiation.
      *
@@ -33,19 +40,27 @@ public final class MacroInstantiation extends AbstractSourceFile<MacroInstantiat
      *            from this MacroInstantiation will start from the line number of that {@link SourceLocation}.
      */
     public MacroInstantiation(@Nonnull SourceLocation macroBody) {
-        super(new Document(Objects.requireNonNull(macroBody, "macroBody").getText()));
+        this(Objects.requireNonNull(macroBody, "macroBody"), macroBody.getFile().getSharedRange(macroBody.getTextPosition(),
+                macroBody.getTextPosition() + macroBody.getSourceNode().getLength()));
+    }
+
+    private MacroInstantiation(@Nonnull SourceLocation macroBody, @Nonnull SharedRange sharedRange) {
+        super(sharedRange);
         this.macroBody = macroBody;
+        this.sharesMacroBodyLineLengths = true;
     }
 
     private MacroInstantiation(@Nonnull Document text, @Nonnull SourceLocation macroBody) {
         super(text);
         this.macroBody = macroBody;
+        this.sharesMacroBodyLineLengths = false;
     }
 
-    private MacroInstantiation(@Nonnull Document text, @Nonnull SourceLocation macroBody, @Nonnull LineLengthList lineLengths,
+    private MacroInstantiation(@Nonnull Document text, @Nonnull SourceLocation macroBody, @CheckForNull LineLengthList lineLengths,
             @Nonnull HashMap<Architecture, SourceNode> parsedMap) {
         super(text, lineLengths, parsedMap);
         this.macroBody = macroBody;
+        this.sharesMacroBodyLineLengths = false;
     }
 
     @CheckForNull
@@ -62,7 +77,7 @@ public final class MacroInstantiation extends AbstractSourceFile<MacroInstantiat
 
     @Nonnull
     @Override
-    final MacroInstantiation createDerivedFile(@Nonnull Document text, @Nonnull LineLengthList lineLengths,
+    final MacroInstantiation createDerivedFile(@Nonnull Document text, @CheckForNull LineLengthList lineLengths,
             @Nonnull HashMap<Architecture, SourceNode> parsedMap) {
         return new MacroInstantiation(text, this.macroBody, lineLengths, parsedMap);
     }
@@ -76,6 +91,17 @@ public final class MacroInstantiation extends AbstractSourceFile<MacroInstantiat
     @Nonnull
     @Override
     void textLocationOfTextPosition(int textPosition, @Nonnull LineLengthList.TextLocation textLocation) {
+        if (this.sharesMacroBodyLineLengths) {
+            // Locate the position in the file that contains the macro body. The line index is then already relative to the origin
+            // file, but the position on the first line must be made relative to the start of the macro body.
+            this.macroBody.getFile().textLocationOfTextPosition(this.macroBody.getTextPosition() + textPosition, textLocation);
+            if (textLocation.lineIndex == this.macroBody.getLineNumber() - 1) {
+                textLocation.linePosition -= this.macroBody.getLinePosition() - 1;
+            }
+
+            return;
+        }
+
         super.textLocationOfTextPosition(textPosition, textLocation);
         textLocation.lineIndex += this.macroBody.getLineNumber() - 1;
     }
@@ -0,0 +1,328 @@
+package org.reasm.source;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link CharSequence} over encoded text in a {@link ByteBuffer}, usually a memory-mapped file, that decodes the text on demand.
+ * <p>
+ * The text is decoded once when the sequence is created, to count the characters and to record where each chunk of
+ * {@value #CHUNK_SIZE} characters starts in the buffer; the decoded characters are discarded. Afterwards, reading a character
+ * decodes the chunk that contains it. The most recently decoded chunk is kept, so reading the text sequentially decodes each chunk
+ * only once, and the whole decoded text is never held in memory unless {@link #toString()} is called.
+ * <p>
+ * Each chunk is decoded with a new decoder, so the charset must not carry decoding state from one character to the next. UTF-8,
+ * ISO-8859-1 and the UTF-16 charsets with an explicit byte order are suitable; UTF-16 with a byte order mark and the ISO-2022
+ * charsets are not.
+ *
+ * @author Francis Gagné
+ */
+@ThreadSafe
+final class MappedCharSequence implements CharSequence {
+
+    /**
+     * A decoded chunk.
+     *
+     * @author Francis Gagné
+     */
+    @Immutable
+    private static final class Chunk {
+
+        final int index;
+        @Nonnull
+        final char[] chars;
+
+        Chunk(int index, @Nonnull char[] chars) {
+            this.index = index;
+            this.chars = chars;
+        }
+
+    }
+
+    /**
+     * A view of a range of a {@link MappedCharSequence}.
+     *
+     * @author Francis Gagné
+     */
+    @ThreadSafe
+    private static final class Range implements CharSequence {
+
+        @Nonnull
+        private final MappedCharSequence sequence;
+        private final int start;
+        private final int end;
+
+        Range(@Nonnull MappedCharSequence sequence, int start, int end) {
+            this.sequence = sequence;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public final char charAt(int index) {
+            if (index < 0 || index >= this.length()) {
+                throw new IndexOutOfBoundsException("index");
+            }
+
+            return this.sequence.charAt(this.start + index);
+        }
+
+        @Override
+        public final int length() {
+            return this.end - this.start;
+        }
+
+        @Nonnull
+        @Override
+        public final CharSequence subSequence(int start, int end) {
+            if (start < 0 || start > end || end > this.length()) {
+                throw new IndexOutOfBoundsException("start, end");
+            }
+
+            return new Range(this.sequence, this.start + start, this.start + end);
+        }
+
+        @Nonnull
+        @Override
+        public final String toString() {
+            final char[] chars = new char[this.length()];
+            this.sequence.getChars(this.start, this.end, chars, 0);
+            return new String(chars);
+        }
+
+    }
+
+    static final int CHUNK_SIZE = 16384;
+
+    /**
+     * Maps a file in memory and creates a {@link MappedCharSequence} over its contents.
+     *
+     * @param path
+     *            the path of the file
+     * @param charset
+     *            the charset of the file
+     * @return the {@link MappedCharSequence}
+     * @throws IOException
+     *             an I/O error occurred, the file is larger than 2 GB or the file's contents are not valid in the specified charset
+     */
+    @Nonnull
+    static MappedCharSequence map(@Nonnull Path path, @Nonnull Charset charset) throws IOException {
+        final ByteBuffer bytes;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("The file is too large to be mapped: " + path);
+            }
+
+            // The mapping remains valid after the channel is closed.
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        return new MappedCharSequence(bytes, charset);
+    }
+
+    @Nonnull
+    private static CharsetDecoder newDecoder(@Nonnull Charset charset) {
+        return charset.newDecoder().onMalformedInput(CodingErrorAction.REPORT).onUnmappableCharacter(CodingErrorAction.REPORT);
+    }
+
+    @Nonnull
+    private final ByteBuffer bytes;
+    @Nonnull
+    private final Charset charset;
+    private final int length;
+
+    // The position of the start of each chunk in the buffer and in the decoded text. The last element of each array is the end of
+    // the buffer and the length of the text, respectively.
+    @Nonnull
+    private final int[] chunkBytePositions;
+    @Nonnull
+    private final int[] chunkCharPositions;
+
+    // The most recently decoded chunk. Concurrent readers may replace each other's chunk; that only causes extra decoding.
+    @CheckForNull
+    private volatile Chunk lastChunk;
+
+    /**
+     * Initializes a new MappedCharSequence.
+     *
+     * @param bytes
+     *            the encoded text; the bytes between the buffer's position and limit are used, and they must not be modified
+     *            afterwards
+     * @param charset
+     *            the charset of the text
+     * @throws IOException
+     *             the bytes are not valid in the specified charset, or the decoded text is too long
+     */
+    MappedCharSequence(@Nonnull ByteBuffer bytes, @Nonnull Charset charset) throws IOException {
+        if (bytes == null) {
+            throw new NullPointerException("bytes");
+        }
+
+        if (charset == null) {
+            throw new NullPointerException("charset");
+        }
+
+        this.bytes = bytes.slice();
+        this.charset = charset;
+
+        final ByteBuffer input = this.bytes.duplicate();
+        final CharBuffer output = CharBuffer.allocate(CHUNK_SIZE);
+        final CharsetDecoder decoder = newDecoder(charset);
+        int[] chunkBytePositions = new int[16];
+        int[] chunkCharPositions = new int[16];
+        int numberOfChunks = 0;
+        long length = 0;
+        for (;;) {
+            if (numberOfChunks + 1 >= chunkBytePositions.length) {
+                chunkBytePositions = Arrays.copyOf(chunkBytePositions, chunkBytePositions.length * 2);
+                chunkCharPositions = Arrays.copyOf(chunkCharPositions, chunkCharPositions.length * 2);
+            }
+
+            chunkBytePositions[numberOfChunks] = input.position();
+            chunkCharPositions[numberOfChunks] = (int) length;
+            numberOfChunks++;
+
+            // Decode up to one chunk of characters. The decoder stops before a character that doesn't fit in the output buffer,
+            // so every chunk starts at the start of a character in the input.
+            output.clear();
+            CoderResult result = decoder.decode(input, output, true);
+            if (result.isUnderflow()) {
+                result = decoder.flush(output);
+            }
+
+            if (result.isError()) {
+                result.throwException();
+            }
+
+            length += output.position();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("The decoded text is too long.");
+            }
+
+            if (result.isUnderflow()) {
+                break;
+            }
+        }
+
+        chunkBytePositions[numberOfChunks] = input.position();
+        chunkCharPositions[numberOfChunks] = (int) length;
+        this.chunkBytePositions = Arrays.copyOf(chunkBytePositions, numberOfChunks + 1);
+        this.chunkCharPositions = Arrays.copyOf(chunkCharPositions, numberOfChunks + 1);
+        this.length = (int) length;
+    }
+
+    @Override
+    public final char charAt(int index) {
+        if (index < 0 || index >= this.length) {
+            throw new IndexOutOfBoundsException("index");
+        }
+
+        final Chunk chunk = this.getChunk(this.chunkIndexOfCharPosition(index));
+        return chunk.chars[index - this.chunkCharPositions[chunk.index]];
+    }
+
+    /**
+     * Copies characters from this sequence into a character array, like {@link String#getChars(int, int, char[], int)}.
+     *
+     * @param srcBegin
+     *            the index of the first character to copy
+     * @param srcEnd
+     *            the index after the last character to copy
+     * @param dst
+     *            the destination array
+     * @param dstBegin
+     *            the index in the destination array at which to copy the first character
+     */
+    public final void getChars(int srcBegin, int srcEnd, @Nonnull char[] dst, int dstBegin) {
+        if (srcBegin < 0 || srcBegin > srcEnd || srcEnd > this.length) {
+            throw new IndexOutOfBoundsException("srcBegin, srcEnd");
+        }
+
+        if (dstBegin < 0 || dstBegin > dst.length - (srcEnd - srcBegin)) {
+            throw new IndexOutOfBoundsException("dstBegin");
+        }
+
+        while (srcBegin < srcEnd) {
+            final Chunk chunk = this.getChunk(this.chunkIndexOfCharPosition(srcBegin));
+            final int chunkStart = this.chunkCharPositions[chunk.index];
+            final int count = Math.min(srcEnd, chunkStart + chunk.chars.length) - srcBegin;
+            System.arraycopy(chunk.chars, srcBegin - chunkStart, dst, dstBegin, count);
+            srcBegin += count;
+            dstBegin += count;
+        }
+    }
+
+    @Override
+    public final int length() {
+        return this.length;
+    }
+
+    /**
+     * Returns a view of a range of this sequence. The characters are not copied.
+     */
+    @Nonnull
+    @Override
+    public final CharSequence subSequence(int start, int end) {
+        if (start < 0 || start > end || end > this.length) {
+            throw new IndexOutOfBoundsException("start, end");
+        }
+
+        return new Range(this, start, end);
+    }
+
+    @Nonnull
+    @Override
+    public final String toString() {
+        final char[] chars = new char[this.length];
+        this.getChars(0, this.length, chars, 0);
+        return new String(chars);
+    }
+
+    private final int chunkIndexOfCharPosition(int charPosition) {
+        // Find the last chunk that starts at or before charPosition. Only the last chunk can be empty, and it starts at the end of
+        // the text, so it is never found for a valid position.
+        final int index = Arrays.binarySearch(this.chunkCharPositions, 0, this.chunkCharPositions.length - 1, charPosition);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    @Nonnull
+    private final Chunk getChunk(int chunkIndex) {
+        Chunk chunk = this.lastChunk;
+        if (chunk == null || chunk.index != chunkIndex) {
+            final ByteBuffer input = this.bytes.duplicate();
+            input.limit(this.chunkBytePositions[chunkIndex + 1]);
+            input.position(this.chunkBytePositions[chunkIndex]);
+            final CharBuffer output = CharBuffer.allocate(this.chunkCharPositions[chunkIndex + 1]
+                    - this.chunkCharPositions[chunkIndex]);
+
+            // The text was decoded successfully when this sequence was created, so decoding a chunk again cannot fail.
+            final CharsetDecoder decoder = newDecoder(this.charset);
+            final CoderResult result = decoder.decode(input, output, true);
+            assert result.isUnderflow();
+            final CoderResult flushResult = decoder.flush(output);
+            assert flushResult.isUnderflow();
+            assert !output.hasRemaining();
+
+            chunk = new Chunk(chunkIndex, output.array());
+            this.lastChunk = chunk;
+        }
+
+        return chunk;
+    }
+
+}
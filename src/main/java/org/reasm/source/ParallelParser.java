@@ -0,0 +1,179 @@
+package org.reasm.source;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import javax.annotation.Nonnull;
+
+import org.reasm.Architecture;
+import org.reasm.ContractViolationException;
+
+import ca.fragag.text.Document;
+
+/**
+ * Parses the contents of large source files in parallel. The text is split in chunks at the split points that the architecture
+ * declares with {@link Architecture#findSplitPoint(Document, int)}, the chunks are parsed on a {@link ForkJoinPool}, and the
+ * children of the chunks' root nodes are concatenated in a single {@link SimpleCompositeSourceNode}.
+ *
+ * @author Francis Gagné
+ */
+public final class ParallelParser {
+
+    /**
+     * Parses a range of chunks, splitting the range in two halves until a single chunk remains.
+     *
+     * @author Francis Gagné
+     */
+    private static final class ParseTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        @Nonnull
+        private final Architecture architecture;
+        @Nonnull
+        private final Document text;
+        @Nonnull
+        private final int[] chunkBounds;
+        @Nonnull
+        private final SourceNode[] results;
+        private final int fromChunk;
+        private final int toChunk;
+
+        ParseTask(@Nonnull Architecture architecture, @Nonnull Document text, @Nonnull int[] chunkBounds,
+                @Nonnull SourceNode[] results, int fromChunk, int toChunk) {
+            this.architecture = architecture;
+            this.text = text;
+            this.chunkBounds = chunkBounds;
+            this.results = results;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected final void compute() {
+            if (this.toChunk - this.fromChunk == 1) {
+                final Document chunkText = new Document(this.text.subSequence(this.chunkBounds[this.fromChunk],
+                        this.chunkBounds[this.fromChunk + 1]));
+                final SourceNode result = this.architecture.parse(chunkText);
+                AbstractSourceFile.validateParseResult(result, chunkText, "parse");
+                this.results[this.fromChunk] = result;
+                return;
+            }
+
+            final int middleChunk = (this.fromChunk + this.toChunk) >>> 1;
+            invokeAll(new ParseTask(this.architecture, this.text, this.chunkBounds, this.results, this.fromChunk, middleChunk),
+                    new ParseTask(this.architecture, this.text, this.chunkBounds, this.results, middleChunk, this.toChunk));
+        }
+
+    }
+
+    /**
+     * The minimum length of a chunk. Smaller source files are parsed as a whole, because the cost of splitting them would outweigh
+     * the gain.
+     */
+    public static final int MINIMUM_CHUNK_LENGTH = 65536;
+
+    /**
+     * Parses the contents of a source file, in parallel if the text is large enough and the architecture declares split points in
+     * it.
+     *
+     * @param architecture
+     *            the architecture to parse the text with
+     * @param text
+     *            the contents of a source file
+     * @param pool
+     *            the pool on which to parse the chunks
+     * @return the root of the source file's abstract syntax tree; if the text was split, it is a
+     *         {@link SimpleCompositeSourceNode}
+     * @throws ContractViolationException
+     *             the architecture returned an invalid split point or an invalid parse result
+     */
+    @Nonnull
+    public static SourceNode parse(@Nonnull Architecture architecture, @Nonnull Document text, @Nonnull ForkJoinPool pool) {
+        if (architecture == null) {
+            throw new NullPointerException("architecture");
+        }
+
+        if (text == null) {
+            throw new NullPointerException("text");
+        }
+
+        if (pool == null) {
+            throw new NullPointerException("pool");
+        }
+
+        // Aim for a few chunks per worker thread, so that the work is balanced even if some chunks take longer to parse.
+        final int targetChunkLength = (int) ((long) text.length() / ((long) pool.getParallelism() * 4));
+        return parse(architecture, text, pool, Math.max(targetChunkLength, MINIMUM_CHUNK_LENGTH));
+    }
+
+    @Nonnull
+    static SourceNode parse(@Nonnull Architecture architecture, @Nonnull Document text, @Nonnull ForkJoinPool pool,
+            int chunkLength) {
+        final int[] chunkBounds = findChunkBounds(architecture, text, chunkLength);
+        final int numberOfChunks = chunkBounds.length - 1;
+        if (numberOfChunks == 1) {
+            final SourceNode result = architecture.parse(text);
+            AbstractSourceFile.validateParseResult(result, text, "parse");
+            return result;
+        }
+
+        final SourceNode[] results = new SourceNode[numberOfChunks];
+        pool.invoke(new ParseTask(architecture, text, chunkBounds, results, 0, numberOfChunks));
+
+        // Concatenate the chunks. A chunk that was parsed to a plain SimpleCompositeSourceNode contributes its children; any other
+        // node is kept as is.
+        final ArrayList<SourceNode> childNodes = new ArrayList<>();
+        for (SourceNode result : results) {
+            if (result.getClass() == SimpleCompositeSourceNode.class && result.getParseError() == null) {
+                childNodes.addAll(((SimpleCompositeSourceNode) result).getChildNodes());
+            } else {
+                childNodes.add(result);
+            }
+        }
+
+        final SourceNode result = new SimpleCompositeSourceNode(childNodes);
+        AbstractSourceFile.validateParseResult(result, text, "parse");
+        return result;
+    }
+
+    @Nonnull
+    private static int[] findChunkBounds(@Nonnull Architecture architecture, @Nonnull Document text, int chunkLength) {
+        final int textLength = text.length();
+        int[] chunkBounds = new int[16];
+        int numberOfBounds = 0;
+        chunkBounds[numberOfBounds++] = 0;
+
+        int chunkStart = 0;
+        while (textLength - chunkStart > chunkLength) {
+            final int position = chunkStart + chunkLength;
+            final int splitPoint = architecture.findSplitPoint(text, position);
+            if (splitPoint == -1 || splitPoint == textLength) {
+                break;
+            }
+
+            if (splitPoint < position || splitPoint > textLength) {
+                throw new ContractViolationException("Contract violation: Architecture.findSplitPoint() must return -1 or a "
+                        + "position between the position it was given and the length of the text (expected -1 or a value between "
+                        + position + " and " + textLength + ", got " + splitPoint + ").");
+            }
+
+            if (numberOfBounds + 1 >= chunkBounds.length) {
+                chunkBounds = Arrays.copyOf(chunkBounds, chunkBounds.length * 2);
+            }
+
+            chunkBounds[numberOfBounds++] = splitPoint;
+            chunkStart = splitPoint;
+        }
+
+        chunkBounds[numberOfBounds++] = textLength;
+        return Arrays.copyOf(chunkBounds, numberOfBounds);
+    }
+
+    // This class is not meant to be instantiated.
+    private ParallelParser() {
+    }
+
+}
@@ -0,0 +1,279 @@
+package org.reasm.source;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.reasm.Architecture;
+
+import ca.fragag.text.Document;
+
+/**
+ * A cache of parsed source files in a directory on disk. A short-lived process that assembles many unchanged source files can use
+ * a parse cache to load the trees that a previous process stored instead of parsing the files again.
+ * <p>
+ * A tree is stored in a file whose name is a SHA-256 hash of the architecture's class name, the
+ * {@linkplain SourceNodeSerializer#getFormatVersion() format version} of its {@link SourceNodeSerializer} and the text of the
+ * source file, so a tree is only reused for the same text, parsed by the same architecture with the same serialization format.
+ * Stored trees are read through a memory mapping of the file. Only architectures that provide a {@link SourceNodeSerializer} can
+ * use the cache; source files are simply parsed for other architectures.
+ * <p>
+ * The cache is an optimization: a tree that cannot be read, for example because the file is corrupted or because the serializer
+ * throws an exception while reading it, is deleted and treated as missing, and failures to store a tree are ignored. Several
+ * processes may share a cache directory, because trees are written to temporary files that are then moved atomically to their
+ * final name.
+ *
+ * @see AbstractSourceFile#getParsed(Architecture, ParseCache)
+ *
+ * @author Francis Gagné
+ */
+@ThreadSafe
+public final class ParseCache {
+
+    /**
+     * An {@link InputStream} over the remaining bytes of a {@link ByteBuffer}.
+     *
+     * @author Francis Gagné
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+
+        @Nonnull
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(@Nonnull ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public final int available() {
+            return this.buffer.remaining();
+        }
+
+        @Override
+        public final int read() {
+            if (!this.buffer.hasRemaining()) {
+                return -1;
+            }
+
+            return this.buffer.get() & 0xFF;
+        }
+
+        @Override
+        public final int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+
+            if (!this.buffer.hasRemaining()) {
+                return -1;
+            }
+
+            final int count = Math.min(len, this.buffer.remaining());
+            this.buffer.get(b, off, count);
+            return count;
+        }
+
+    }
+
+    // The first bytes of a file in the cache, followed by the length of the text and by the tree.
+    private static final int MAGIC = 0x52504331; // "RPC1"
+
+    // The number of characters that are hashed at a time.
+    private static final int CHUNK_SIZE = 8192;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    @Nonnull
+    private static String computeKey(@Nonnull Architecture architecture, @Nonnull SourceNodeSerializer serializer,
+            @Nonnull Document text) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every implementation of the Java platform supports SHA-256.
+            throw new AssertionError(e);
+        }
+
+        digest.update(architecture.getClass().getName().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(serializer.getFormatVersion().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+
+        final int textLength = text.length();
+        final char[] chunk = new char[Math.min(textLength, CHUNK_SIZE)];
+        final byte[] bytes = new byte[chunk.length * 2];
+        for (int chunkStart = 0; chunkStart < textLength; chunkStart += chunk.length) {
+            final int chunkEnd = Math.min(chunkStart + chunk.length, textLength);
+            AbstractSourceFile.copyChars(text, chunkStart, chunkEnd, chunk);
+            for (int i = 0, chunkLength = chunkEnd - chunkStart; i < chunkLength; i++) {
+                bytes[i * 2] = (byte) (chunk[i] >>> 8);
+                bytes[i * 2 + 1] = (byte) chunk[i];
+            }
+
+            digest.update(bytes, 0, (chunkEnd - chunkStart) * 2);
+        }
+
+        final byte[] hash = digest.digest();
+        final char[] key = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            key[i * 2] = HEX_DIGITS[(hash[i] >>> 4) & 0xF];
+            key[i * 2 + 1] = HEX_DIGITS[hash[i] & 0xF];
+        }
+
+        return new String(key);
+    }
+
+    @CheckForNull
+    private static SourceNode load(@Nonnull Path path, @Nonnull SourceNodeSerializer serializer, @Nonnull Document text) {
+        try {
+            final ByteBuffer bytes;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                // The mapping remains valid after the channel is closed.
+                bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+
+            final DataInputStream in = new DataInputStream(new ByteBufferInputStream(bytes));
+            if (in.readInt() == MAGIC && in.readInt() == text.length()) {
+                final SourceNode result = serializer.read(in);
+                if (result != null && result.getLength() == text.length() && !bytes.hasRemaining()) {
+                    return result;
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // The text has not been parsed before.
+            return null;
+        } catch (IOException | RuntimeException e) {
+            // The file is unreadable or corrupted, or the serializer cannot read it.
+        }
+
+        // Delete the invalid file, in case it cannot be replaced by the tree that will be parsed.
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+        }
+
+        return null;
+    }
+
+    @Nonnull
+    private static SourceNode parseText(@Nonnull Architecture architecture, @Nonnull Document text,
+            @CheckForNull ForkJoinPool pool) {
+        if (pool != null) {
+            // ParallelParser validates the result.
+            return ParallelParser.parse(architecture, text, pool);
+        }
+
+        final SourceNode result = architecture.parse(text);
+        AbstractSourceFile.validateParseResult(result, text, "parse");
+        return result;
+    }
+
+    @Nonnull
+    private final Path directory;
+
+    /**
+     * Initializes a new ParseCache.
+     *
+     * @param directory
+     *            the directory in which the parsed source files are stored; it is created when the first tree is stored if it
+     *            doesn't exist
+     */
+    public ParseCache(@Nonnull Path directory) {
+        if (directory == null) {
+            throw new NullPointerException("directory");
+        }
+
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the directory in which the parsed source files are stored.
+     *
+     * @return the directory
+     */
+    @Nonnull
+    public final Path getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Parses a text with the specified architecture, or loads the result from the cache if the same text was parsed before.
+     *
+     * @param architecture
+     *            the architecture
+     * @param text
+     *            the text to parse
+     * @param pool
+     *            the pool on which to parse the text with {@link ParallelParser} if it is not in the cache, or <code>null</code>
+     *            to parse it on the calling thread
+     * @return the root of the text's abstract syntax tree
+     */
+    @Nonnull
+    final SourceNode parse(@Nonnull Architecture architecture, @Nonnull Document text, @CheckForNull ForkJoinPool pool) {
+        final SourceNodeSerializer serializer = architecture.getSourceNodeSerializer();
+        if (serializer == null) {
+            return parseText(architecture, text, pool);
+        }
+
+        final Path path = this.directory.resolve(computeKey(architecture, serializer, text));
+        SourceNode result = load(path, serializer, text);
+        if (result == null) {
+            result = parseText(architecture, text, pool);
+            this.store(path, serializer, text, result);
+        }
+
+        return result;
+    }
+
+    private final void store(@Nonnull Path path, @Nonnull SourceNodeSerializer serializer, @Nonnull Document text,
+            @Nonnull SourceNode result) {
+        Path temporaryFile = null;
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(text.length());
+            serializer.write(result, out);
+            out.flush();
+
+            Files.createDirectories(this.directory);
+            temporaryFile = Files.createTempFile(this.directory, path.getFileName().toString(), ".tmp");
+            Files.write(temporaryFile, bytes.toByteArray());
+            try {
+                Files.move(temporaryFile, path, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryFile, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            temporaryFile = null;
+        } catch (IOException | RuntimeException e) {
+            // The cache is only an optimization; the tree will be parsed again next time.
+        } finally {
+            if (temporaryFile != null) {
+                try {
+                    Files.deleteIfExists(temporaryFile);
+                } catch (IOException e) {
+                }
+            }
+        }
+    }
+
+}
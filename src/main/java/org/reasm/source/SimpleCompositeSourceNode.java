@@ -23,6 +23,16 @@ public final class SimpleCompositeSourceNode extends CompositeSourceNode {
         super(childNodes, null);
     }
 
+    /**
+     * Initializes a new SimpleCompositeSourceNode from a list of child nodes that was already built.
+     *
+     * @param childNodes
+     *            the child nodes
+     */
+    SimpleCompositeSourceNode(@Nonnull SourceNodeList childNodes) {
+        super(childNodes, null);
+    }
+
     @Override
     protected void assembleCore(@Nonnull AssemblyBuilder builder) {
         builder.enterComposite(true, null);
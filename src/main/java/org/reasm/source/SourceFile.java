@@ -1,5 +1,8 @@
 package org.reasm.source;
 
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -20,6 +23,32 @@ import ca.fragag.text.Document;
 @Immutable
 public final class SourceFile extends AbstractSourceFile<SourceFile> {
 
+    /**
+     * Creates a source file from the contents of a file. The file is mapped in memory, and its text is decoded on demand, in
+     * chunks, instead of being decoded entirely on the heap. The file must not be modified while the source file is in use.
+     *
+     * @param path
+     *            the path of the file; its string representation is used as the source file's name
+     * @param charset
+     *            the charset of the file; it must not carry decoding state from one character to the next, which excludes UTF-16
+     *            with a byte order mark and the ISO-2022 charsets
+     * @return the new source file
+     * @throws IOException
+     *             an I/O error occurred, the file is larger than 2 GB or the file's contents are not valid in the specified charset
+     */
+    @Nonnull
+    public static SourceFile fromPath(@Nonnull Path path, @Nonnull Charset charset) throws IOException {
+        if (path == null) {
+            throw new NullPointerException("path");
+        }
+
+        if (charset == null) {
+            throw new NullPointerException("charset");
+        }
+
+        return new SourceFile(new Document(MappedCharSequence.map(path, charset)), path.toString());
+    }
+
     @CheckForNull
     private final String fileName;
 
@@ -48,7 +77,7 @@ public final class SourceFile extends AbstractSourceFile<SourceFile> {
         this(new Document(Objects.requireNonNull(text, "text")), fileName);
     }
 
-    private SourceFile(@Nonnull Document text, @CheckForNull String fileName, @Nonnull LineLengthList lineLengths,
+    private SourceFile(@Nonnull Document text, @CheckForNull String fileName, @CheckForNull LineLengthList lineLengths,
             @Nonnull Map<Architecture, SourceNode> parsedMap) {
         super(text, lineLengths, parsedMap);
         this.fileName = fileName;
@@ -0,0 +1,210 @@
+package org.reasm.source;
+
+import java.util.List;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import ca.fragag.collections.AbstractImmutableTreeList;
+import ca.fragag.collections.AbstractImmutableTreeListFactory;
+import ca.fragag.collections.AbstractImmutableTreeNode;
+import ca.fragag.collections.AbstractImmutableTreeNodeFactory;
+
+/**
+ * A list of source nodes that knows the total length of its source nodes, so that the source node at a given text position can be
+ * found without iterating over the source nodes that precede it.
+ *
+ * @author Francis Gagné
+ */
+@Immutable
+final class SourceNodeList extends AbstractImmutableTreeList<SourceNode, SourceNodeList.Node> {
+
+    /**
+     * The list factory class for {@link SourceNodeList}.
+     *
+     * @author Francis Gagné
+     */
+    @Immutable
+    static final class Factory extends AbstractImmutableTreeListFactory<SourceNode, Node, SourceNodeList> {
+
+        public static final Factory INSTANCE = new Factory();
+
+        private Factory() {
+            super(Node.Factory.INSTANCE);
+        }
+
+        /**
+         * Creates a new list by replacing a range of source nodes in a list with other source nodes.
+         *
+         * @param list
+         *            the original list
+         * @param index
+         *            the index of the first source node to replace
+         * @param numberOfNodesToRemove
+         *            the number of source nodes to remove from the original list
+         * @param nodesToInsert
+         *            the source nodes to insert at <code>index</code>
+         * @return the new list
+         */
+        @Nonnull
+        public final SourceNodeList splice(@Nonnull SourceNodeList list, int index, int numberOfNodesToRemove,
+                @Nonnull List<SourceNode> nodesToInsert) {
+            final int numberOfNodesToInsert = nodesToInsert.size();
+            SourceNodeList result = list;
+            int i = 0;
+            for (; i < numberOfNodesToRemove && i < numberOfNodesToInsert; i++) {
+                result = this.set(result, index + i, nodesToInsert.get(i));
+            }
+
+            for (int j = i; j < numberOfNodesToRemove; j++) {
+                result = this.remove(result, index + i);
+            }
+
+            for (; i < numberOfNodesToInsert; i++) {
+                result = this.add(result, index + i, nodesToInsert.get(i));
+            }
+
+            return result;
+        }
+
+        @Override
+        protected SourceNodeList createList(@CheckForNull Node root) {
+            return new SourceNodeList(root);
+        }
+
+    }
+
+    /**
+     * An implementation of {@link AbstractImmutableTreeNode} that stores the sum of the lengths of its source node and of the
+     * source nodes in its subtrees.
+     *
+     * @author Francis Gagné
+     */
+    @Immutable
+    static final class Node extends AbstractImmutableTreeNode<SourceNode, Node> {
+
+        /**
+         * The node factory class for {@link Node}.
+         *
+         * @author Francis Gagné
+         */
+        @Immutable
+        static final class Factory extends AbstractImmutableTreeNodeFactory<SourceNode, Node> {
+
+            public static final Factory INSTANCE = new Factory();
+
+            private Factory() {
+            }
+
+            @Override
+            protected Node createNode(@CheckForNull Node left, @Nonnull SourceNode value, @CheckForNull Node right) {
+                return new Node(left, value, right);
+            }
+
+        }
+
+        private static int totalLength(@CheckForNull Node node) {
+            return node == null ? 0 : node.totalLength;
+        }
+
+        private final int totalLength;
+
+        Node(@CheckForNull Node left, @Nonnull SourceNode value, @CheckForNull Node right) {
+            super(left, value, right);
+            this.totalLength = totalLength(left) + value.getLength() + totalLength(right);
+        }
+
+    }
+
+    private SourceNodeList(@CheckForNull Node root) {
+        super(root);
+    }
+
+    /**
+     * Gets the sum of the lengths of the source nodes in this list.
+     *
+     * @return the total length
+     */
+    public final int getTotalLength() {
+        return Node.totalLength(this.getRoot());
+    }
+
+    /**
+     * Gets the index of the source node that contains the specified text position, relative to the start of the first source node.
+     *
+     * @param textPosition
+     *            the text position; it must be less than the {@linkplain #getTotalLength() total length}
+     * @return the index
+     */
+    public final int indexOfTextPosition(int textPosition) {
+        if (textPosition < 0 || textPosition >= this.getTotalLength()) {
+            throw new IndexOutOfBoundsException("textPosition");
+        }
+
+        Node node = this.getRoot();
+        int index = 0;
+        for (;;) {
+            assert node != null;
+            final Node left = node.getLeft();
+            if (left != null) {
+                if (textPosition < left.totalLength) {
+                    node = left;
+                    continue;
+                }
+
+                textPosition -= left.totalLength;
+                index += left.getSize();
+            }
+
+            final int length = node.getValue().getLength();
+            if (textPosition < length) {
+                return index;
+            }
+
+            node = node.getRight();
+            textPosition -= length;
+            index++;
+        }
+    }
+
+    /**
+     * Gets the text position of the start of the source node at the specified index, relative to the start of the first source
+     * node.
+     *
+     * @param index
+     *            the index of a source node, or the size of this list to get the {@linkplain #getTotalLength() total length}
+     * @return the text position
+     */
+    public final int textPositionOfIndex(int index) {
+        if (index < 0 || index > this.size()) {
+            throw new IndexOutOfBoundsException("index");
+        }
+
+        Node node = this.getRoot();
+        int textPosition = 0;
+        while (node != null) {
+            final Node left = node.getLeft();
+            if (left != null) {
+                if (index < left.getSize()) {
+                    node = left;
+                    continue;
+                }
+
+                index -= left.getSize();
+                textPosition += left.totalLength;
+            }
+
+            if (index == 0) {
+                return textPosition;
+            }
+
+            textPosition += node.getValue().getLength();
+            node = node.getRight();
+            index--;
+        }
+
+        return textPosition;
+    }
+
+}
@@ -7,6 +7,7 @@ import javax.annotation.Nonnull;
 
 import org.reasm.SubstringBounds;
 
+import ca.fragag.text.Document;
 import ca.fragag.text.DocumentReader;
 import ca.fragag.text.RangedCharSequenceReader;
 
@@ -91,6 +92,29 @@ public final class SourceNodeRangeReader {
 
     }
 
+    // Gets the code point at a position in a document, without reading a low surrogate at or after the end.
+    private static int codePointAt(@Nonnull Document document, int position, int end) {
+        final char high = document.charAt(position);
+        if (Character.isHighSurrogate(high) && position + 1 < end) {
+            final char low = document.charAt(position + 1);
+            if (Character.isLowSurrogate(low)) {
+                return Character.toCodePoint(high, low);
+            }
+        }
+
+        return high;
+    }
+
+    private static boolean codePointsMatch(boolean ignoreCase, int codePoint1, int codePoint2) {
+        if (codePoint1 == codePoint2) {
+            return true;
+        }
+
+        return ignoreCase
+                && (Character.toUpperCase(codePoint1) == Character.toUpperCase(codePoint2) || Character
+                        .toLowerCase(codePoint1) == Character.toLowerCase(codePoint2));
+    }
+
     private static int restrictEndBound(int start, int end, @Nonnull SourceLocation sourceLocation) {
         if (end < start) {
             return start;
@@ -124,6 +148,10 @@ public final class SourceNodeRangeReader {
     @Nonnull
     private final SkipHandler skipHandler;
 
+    // true if the skip handler is a plain SkipHandler, which never skips a code point. The reader can then skip the calls to the
+    // skip handler and read ranges of characters directly from the document.
+    private final boolean skipsNothing;
+
     /**
      * Initializes a new SourceNodeRangeReader.
      *
@@ -168,6 +196,7 @@ public final class SourceNodeRangeReader {
         }
 
         this.skipHandler = skipHandler;
+        this.skipsNothing = skipHandler.getClass() == SkipHandler.class;
         skipHandler.setReader(this);
         this.checkForCodePointsToSkip();
     }
@@ -217,6 +246,8 @@ public final class SourceNodeRangeReader {
         this.rangedReader = new RangedCharSequenceReader(this.reader, other.rangedReader.getStart(), other.rangedReader.getEnd());
         this.reader.setCurrentPosition(other.reader.getCurrentPosition());
         this.skipHandler = other.skipHandler.clone();
+        this.skipsNothing = other.skipsNothing;
+        this.skipHandler.setReader(this);
     }
 
     /**
@@ -274,6 +305,44 @@ public final class SourceNodeRangeReader {
         return this.sourceLocation;
     }
 
+    /**
+     * Finds the next occurrence of a code point from the current position of this reader, without advancing the reader. Code points
+     * that are skipped by the reader's {@link SkipHandler} are not considered.
+     *
+     * @param codePoint
+     *            the code point to find
+     * @return the position within the {@link SourceNode} (as returned by {@link #getCurrentPositionInSourceNode()}) of the next
+     *         occurrence of the code point, or -1 if the code point doesn't occur before the end of the range
+     */
+    public final int indexOf(int codePoint) {
+        if (this.skipsNothing) {
+            final Document document = this.reader.getDocument();
+            final int end = this.rangedReader.getEnd();
+            final int sourceLocationTextPosition = this.sourceLocation.getTextPosition();
+            for (int position = this.reader.getCurrentPosition(); position < end;) {
+                final int currentCodePoint = codePointAt(document, position, end);
+                if (currentCodePoint == codePoint) {
+                    return position - sourceLocationTextPosition;
+                }
+
+                position += Character.charCount(currentCodePoint);
+            }
+
+            return -1;
+        }
+
+        final SourceNodeRangeReader copy = new SourceNodeRangeReader(this);
+        while (!copy.atEnd()) {
+            if (copy.getCurrentCodePoint() == codePoint) {
+                return copy.getCurrentPositionInSourceNode();
+            }
+
+            copy.advance();
+        }
+
+        return -1;
+    }
+
     /**
      * Reads all characters from the current position to the end of this reader into a string.
      *
@@ -281,6 +350,19 @@ public final class SourceNodeRangeReader {
      */
     @Nonnull
     public final String readToString() {
+        if (this.skipsNothing) {
+            // Copy the rest of the range from the document in one operation.
+            final int position = this.reader.getCurrentPosition();
+            final int end = this.rangedReader.getEnd();
+            if (position >= end) {
+                return "";
+            }
+
+            final String result = this.reader.getDocument().subSequence(position, end).toString();
+            this.reader.setCurrentPosition(end);
+            return result;
+        }
+
         StringBuilder sb = new StringBuilder();
         while (this.getCurrentCodePoint() != -1) {
             sb.appendCodePoint(this.getCurrentCodePoint());
@@ -290,10 +372,67 @@ public final class SourceNodeRangeReader {
         return sb.toString();
     }
 
+    /**
+     * Determines whether the code points from the current position of this reader start with the code points of the specified
+     * string, without advancing the reader. Code points that are skipped by the reader's {@link SkipHandler} are not considered.
+     *
+     * @param ignoreCase
+     *            <code>true</code> to compare the code points without regard to case, like
+     *            {@link String#regionMatches(boolean, int, String, int, int)}; <code>false</code> to compare them exactly
+     * @param other
+     *            the string to compare with
+     * @return <code>true</code> if the code points from the current position of this reader start with the code points of
+     *         <code>other</code>; otherwise, <code>false</code>
+     */
+    public final boolean regionMatches(boolean ignoreCase, @Nonnull String other) {
+        if (other == null) {
+            throw new NullPointerException("other");
+        }
+
+        if (this.skipsNothing) {
+            final Document document = this.reader.getDocument();
+            final int end = this.rangedReader.getEnd();
+            int position = this.reader.getCurrentPosition();
+            for (int i = 0; i < other.length();) {
+                if (position >= end) {
+                    return false;
+                }
+
+                final int currentCodePoint = codePointAt(document, position, end);
+                final int codePoint = other.codePointAt(i);
+                if (!codePointsMatch(ignoreCase, currentCodePoint, codePoint)) {
+                    return false;
+                }
+
+                position += Character.charCount(currentCodePoint);
+                i += Character.charCount(codePoint);
+            }
+
+            return true;
+        }
+
+        final SourceNodeRangeReader copy = new SourceNodeRangeReader(this);
+        for (int i = 0; i < other.length();) {
+            final int codePoint = other.codePointAt(i);
+            if (copy.atEnd() || !codePointsMatch(ignoreCase, copy.getCurrentCodePoint(), codePoint)) {
+                return false;
+            }
+
+            copy.advance();
+            i += Character.charCount(codePoint);
+        }
+
+        return true;
+    }
+
     /**
      * Checks if code points need to be skipped, and skips them until a code point that must not be skipped is found.
      */
     private final void checkForCodePointsToSkip() {
+        if (this.skipsNothing) {
+            return;
+        }
+
         for (;;) {
             // If we have reached the end of the specified range or of the source node, return.
             if (this.rangedReader.atEnd()) {
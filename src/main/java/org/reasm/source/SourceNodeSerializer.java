@@ -0,0 +1,58 @@
+package org.reasm.source;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+
+import org.reasm.Architecture;
+
+/**
+ * Provides methods to write the abstract syntax tree produced by an {@link Architecture} to a binary stream and to read it back.
+ * {@link ParseCache} uses a serializer to store parsed source files on disk, so that unchanged source files don't need to be parsed
+ * again in a later process.
+ * <p>
+ * Implementations must be thread-safe.
+ *
+ * @see Architecture#getSourceNodeSerializer()
+ *
+ * @author Francis Gagné
+ */
+public interface SourceNodeSerializer {
+
+    /**
+     * Gets a string that identifies the serialization format and the behavior of the architecture's parser. Trees that were
+     * written with a different format version are never read. Implementations should change the format version whenever the
+     * format changes or the parser produces different trees.
+     *
+     * @return the format version
+     */
+    @Nonnull
+    String getFormatVersion();
+
+    /**
+     * Reads a tree that was written by {@link #write(SourceNode, DataOutput)}.
+     *
+     * @param in
+     *            the stream to read from
+     * @return the root of the tree
+     * @throws IOException
+     *             an I/O error occurred, or the data is not a valid tree
+     */
+    @Nonnull
+    SourceNode read(@Nonnull DataInput in) throws IOException;
+
+    /**
+     * Writes a tree produced by the architecture's parser.
+     *
+     * @param node
+     *            the root of the tree
+     * @param out
+     *            the stream to write to
+     * @throws IOException
+     *             an I/O error occurred, or the tree contains nodes that this serializer doesn't support
+     */
+    void write(@Nonnull SourceNode node, @Nonnull DataOutput out) throws IOException;
+
+}
@@ -27,6 +27,9 @@ import javax.annotation.Nonnull;
 
 import org.hamcrest.Matcher;
 import org.junit.Test;
+import org.reasm.expressions.EpochSymbolLookup;
+import org.reasm.expressions.EvaluationContext;
+import org.reasm.expressions.IdentifierExpression;
 import org.reasm.messages.*;
 import org.reasm.source.AbstractSourceFile;
 import org.reasm.source.CompositeSourceNode;
@@ -1600,6 +1603,138 @@ public class AssemblyTest {
         }
     }
 
+    /**
+     * Asserts that {@link Assembly#getCurrentSymbolLookupContext()} returns the same instance for many symbol references between
+     * two definitions, and returns a new instance after a non-local symbol definition or a namespace change.
+     */
+    @Test
+    public void getCurrentSymbolLookupContextIsReused() {
+        final TestSourceNode node = new TestSourceNode() {
+            @Override
+            protected void assembleCore2(AssemblyBuilder builder) throws IOException {
+                builder.defineSymbol(SymbolContext.VALUE, "foo", false, SymbolType.CONSTANT, ONE);
+
+                final Assembly assembly = builder.getAssembly();
+                final SymbolLookupContext lookupContext = assembly.getCurrentSymbolLookupContext();
+                for (int i = 0; i < 10000; i++) {
+                    builder.resolveSymbolReference(SymbolContext.VALUE, "foo", false, null, null);
+                    assertThat(assembly.getCurrentSymbolLookupContext(), is(sameInstance(lookupContext)));
+                }
+
+                builder.defineSymbol(SymbolContext.VALUE, "local", true, SymbolType.CONSTANT, ONE);
+                assertThat(assembly.getCurrentSymbolLookupContext(), is(sameInstance(lookupContext)));
+
+                builder.defineSymbol(SymbolContext.VALUE, "bar", false, SymbolType.CONSTANT, ONE);
+                final SymbolLookupContext lookupContextAfterDefinition = assembly.getCurrentSymbolLookupContext();
+                assertThat(lookupContextAfterDefinition, is(not(sameInstance(lookupContext))));
+                assertThat(assembly.getCurrentSymbolLookupContext(), is(sameInstance(lookupContextAfterDefinition)));
+
+                builder.enterNamespace("ns");
+                final SymbolLookupContext lookupContextInNamespace = assembly.getCurrentSymbolLookupContext();
+                assertThat(lookupContextInNamespace, is(not(sameInstance(lookupContextAfterDefinition))));
+
+                builder.exitNamespace();
+                final SymbolLookupContext lookupContextAfterNamespace = assembly.getCurrentSymbolLookupContext();
+                assertThat(lookupContextAfterNamespace, is(not(sameInstance(lookupContextInNamespace))));
+                assertThat(lookupContextAfterNamespace, is(lookupContextAfterDefinition));
+            }
+        };
+
+        final Assembly assembly = createAssembly(node);
+        step(assembly, AssemblyCompletionStatus.COMPLETE);
+        assertThat(assembly.getGravity(), is(MessageGravity.NONE));
+        node.assertAssembleCount(1);
+    }
+
+    /**
+     * Asserts that {@link Assembly#getSymbolDefinitionEpoch()} changes when a new symbol is defined, but not when a symbol is
+     * referenced or redefined.
+     */
+    @Test
+    public void getSymbolDefinitionEpoch() {
+        final TestSourceNode node = new TestSourceNode() {
+            @Override
+            protected void assembleCore2(AssemblyBuilder builder) throws IOException {
+                final Assembly assembly = builder.getAssembly();
+                final long initialEpoch = assembly.getSymbolDefinitionEpoch();
+
+                builder.defineSymbol(SymbolContext.VALUE, "foo", false, SymbolType.VARIABLE, ONE);
+                final long epochAfterDefinition = assembly.getSymbolDefinitionEpoch();
+                assertThat(epochAfterDefinition, is(not(initialEpoch)));
+
+                builder.resolveSymbolReference(SymbolContext.VALUE, "foo", false, null, null);
+                builder.defineSymbol(SymbolContext.VALUE, "foo", false, SymbolType.VARIABLE, ONE);
+                assertThat(assembly.getSymbolDefinitionEpoch(), is(epochAfterDefinition));
+
+                builder.defineSymbol(SymbolContext.VALUE, "local", true, SymbolType.CONSTANT, ONE);
+                assertThat(assembly.getSymbolDefinitionEpoch(), is(not(epochAfterDefinition)));
+            }
+        };
+
+        final Assembly assembly = createAssembly(node);
+        step(assembly, AssemblyCompletionStatus.COMPLETE);
+        assertThat(assembly.getGravity(), is(MessageGravity.NONE));
+        node.assertAssembleCount(1);
+    }
+
+    /**
+     * Asserts that {@link Assembly#getSymbolDefinitionEpoch()} changes when a variable that lost its definition at the start of a
+     * new pass is defined again, so that an {@link IdentifierExpression} that looked up the variable before its definition in that
+     * pass finds it after its definition.
+     */
+    @Test
+    public void getSymbolDefinitionEpochVariableDefinedInLaterPass() {
+        final AtomicReference<Assembly> assemblyReference = new AtomicReference<>();
+        final IdentifierExpression expression = new IdentifierExpression("foo", new EpochSymbolLookup() {
+            @Override
+            public long getDefinitionEpoch() {
+                return assemblyReference.get().getSymbolDefinitionEpoch();
+            }
+
+            @Override
+            public Symbol getSymbol(String name) {
+                return assemblyReference.get().resolveSymbolReference(SymbolContext.VALUE, name, false, null, null).getSymbol();
+            }
+        });
+
+        // The expression is evaluated twice per pass: before and after the variable's definition.
+        final ArrayList<Value> values = new ArrayList<>();
+        final TestSourceNode nodeThatEvaluatesTheExpression = new TestSourceNode() {
+            @Override
+            protected void assembleCore2(AssemblyBuilder builder) throws IOException {
+                values.add(expression.evaluate(new EvaluationContext(builder.getAssembly(), 0, null)));
+            }
+        };
+
+        final TestSourceNode nodeThatDefinesTheVariable = new TestSourceNode() {
+            @Override
+            protected void assembleCore2(AssemblyBuilder builder) throws IOException {
+                builder.defineSymbol(SymbolContext.VALUE, "foo", false, SymbolType.VARIABLE, ONE);
+            }
+        };
+
+        // The forward reference to the "bar" constant causes a second pass.
+        final TestSourceNode nodeThatDefinesAConstant = new TestSourceNode() {
+            @Override
+            protected void assembleCore2(AssemblyBuilder builder) throws IOException {
+                builder.defineSymbol(SymbolContext.VALUE, "bar", false, SymbolType.CONSTANT, TWO);
+            }
+        };
+
+        final SourceNode rootNode = new SimpleCompositeSourceNode(Arrays.asList(createNodeThatReferencesASymbol("bar"),
+                nodeThatEvaluatesTheExpression, nodeThatDefinesTheVariable, nodeThatEvaluatesTheExpression,
+                nodeThatDefinesAConstant));
+        final Assembly assembly = createAssembly(rootNode);
+        assemblyReference.set(assembly);
+        while (assembly.step() != AssemblyCompletionStatus.COMPLETE) {
+        }
+
+        assertThat(assembly.getCurrentPass(), is(2));
+        assertThat(values.size(), is(4));
+        assertThat(values.get(2), is(nullValue()));
+        assertThat(values.get(3), is((Value) ONE));
+    }
+
     /**
      * Asserts that {@link Assembly#incrementMacroCounter()} increments the macro counter by one.
      */
@@ -1904,6 +2039,31 @@ public class AssemblyTest {
         nodeThatDefinesTheFooSymbolAgain.assertAssembleCount(1);
     }
 
+    /**
+     * Asserts that redefining a variable with an equal integer value keeps the symbol's current value object and exposes the
+     * value's primitive representation.
+     */
+    @Test
+    public void redefineVariableWithEqualIntegerValue() {
+        final TestSourceNode nodeThatDefinesTheFooSymbol = createNodeThatDefinesASymbol("foo", SymbolType.VARIABLE, ONE);
+        final TestSourceNode nodeThatDefinesTheFooSymbolAgain = createNodeThatDefinesASymbol("foo", SymbolType.VARIABLE,
+                new UnsignedIntValue(1L));
+        final SourceNode rootNode = new SimpleCompositeSourceNode(Arrays.asList(nodeThatDefinesTheFooSymbol,
+                nodeThatDefinesTheFooSymbolAgain));
+        final Assembly assembly = createAssembly(rootNode);
+
+        step(assembly, AssemblyCompletionStatus.PENDING);
+        step(assembly, AssemblyCompletionStatus.PENDING);
+        step(assembly, AssemblyCompletionStatus.COMPLETE);
+        assertThat(assembly.getGravity(), is(MessageGravity.NONE));
+
+        final Symbol fooSymbol = assembly.resolveSymbolReference(SymbolContext.VALUE, "foo", false, null, null).getSymbol();
+        assertThat(fooSymbol, is(notNullValue()));
+        assertThat(fooSymbol.getValue(), is(sameInstance((Object) ONE)));
+        assertThat(fooSymbol.getIntegerKind(), is(IntegerKind.UNSIGNED));
+        assertThat(fooSymbol.getIntegerValue(), is(1L));
+    }
+
     /**
      * Asserts that defining a constant and a variable with the same name causes an error.
      */
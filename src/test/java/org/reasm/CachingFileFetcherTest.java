@@ -0,0 +1,265 @@
+package org.reasm;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+import org.reasm.source.SourceFile;
+import org.reasm.testhelpers.NullFileFetcher;
+
+/**
+ * Test class for {@link CachingFileFetcher}.
+ *
+ * @author Francis Gagné
+ */
+public class CachingFileFetcherTest {
+
+    /**
+     * A file fetcher that reads files from a map, or from a directory if the map doesn't contain the file, and counts how many
+     * times it fetched a file.
+     */
+    private static final class CountingFileFetcher implements FileFetcher {
+
+        @Nonnull
+        final HashMap<String, String> files = new HashMap<>();
+        @CheckForNull
+        final Path directory;
+        int fetchCount;
+
+        CountingFileFetcher(@CheckForNull Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        public byte[] fetchBinaryFile(String filePath) throws IOException {
+            this.fetchCount++;
+            final String contents = this.files.get(filePath);
+            if (contents != null) {
+                return contents.getBytes(StandardCharsets.UTF_8);
+            }
+
+            return Files.readAllBytes(this.directory.resolve(filePath));
+        }
+
+        @Override
+        public SourceFile fetchSourceFile(String filePath) throws IOException {
+            return new SourceFile(new String(this.fetchBinaryFile(filePath), StandardCharsets.UTF_8), filePath);
+        }
+
+    }
+
+    private static void deleteDirectory(@Nonnull Path directory, @Nonnull String... fileNames) throws IOException {
+        for (String fileName : fileNames) {
+            Files.deleteIfExists(directory.resolve(fileName));
+        }
+
+        Files.delete(directory);
+    }
+
+    private static void writeFile(@Nonnull Path path, @Nonnull String contents, long lastModifiedTime) throws IOException {
+        Files.write(path, contents.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(path, FileTime.fromMillis(lastModifiedTime));
+    }
+
+    /**
+     * Asserts that {@link CachingFileFetcher#CachingFileFetcher(FileFetcher, long)} throws an {@link IllegalArgumentException}
+     * when the <code>maximumSize</code> argument is negative.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void cachingFileFetcherNegativeMaximumSize() {
+        new CachingFileFetcher(new NullFileFetcher(), -1);
+    }
+
+    /**
+     * Asserts that {@link CachingFileFetcher#CachingFileFetcher(FileFetcher, long)} throws a {@link NullPointerException} when
+     * the <code>fileFetcher</code> argument is <code>null</code>.
+     */
+    @Test(expected = NullPointerException.class)
+    public void cachingFileFetcherNullFileFetcher() {
+        new CachingFileFetcher(null, 0);
+    }
+
+    /**
+     * Asserts that {@link CachingFileFetcher#fetchBinaryFile(String)} returns the cached contents of a file without fetching it
+     * again while the file's last modification time and size don't change.
+     *
+     * @throws IOException
+     *             an I/O error occurred
+     */
+    @Test
+    public void fetchBinaryFileStamp() throws IOException {
+        final Path directory = Files.createTempDirectory("reasm");
+        try {
+            final CountingFileFetcher countingFileFetcher = new CountingFileFetcher(directory);
+            final CachingFileFetcher cachingFileFetcher = new CachingFileFetcher(countingFileFetcher, 1000, directory);
+            writeFile(directory.resolve("a.bin"), "abc", 100000);
+
+            final byte[] contents = cachingFileFetcher.fetchBinaryFile("a.bin");
+            assertThat(cachingFileFetcher.fetchBinaryFile("a.bin"), is(sameInstance(contents)));
+            assertThat(countingFileFetcher.fetchCount, is(1));
+            assertThat(cachingFileFetcher.getSize(), is(3L));
+
+            writeFile(directory.resolve("a.bin"), "abcd", 200000);
+            assertThat(cachingFileFetcher.fetchBinaryFile("a.bin"), is("abcd".getBytes(StandardCharsets.UTF_8)));
+            assertThat(countingFileFetcher.fetchCount, is(2));
+            assertThat(cachingFileFetcher.getSize(), is(4L));
+        } finally {
+            deleteDirectory(directory, "a.bin");
+        }
+    }
+
+    /**
+     * Asserts that {@link CachingFileFetcher#fetchSourceFile(String)} returns the cached source file when the contents of the file
+     * haven't changed, and a new source file when they have.
+     *
+     * @throws IOException
+     *             an I/O error occurred
+     */
+    @Test
+    public void fetchSourceFileContents() throws IOException {
+        final CountingFileFetcher countingFileFetcher = new CountingFileFetcher(null);
+        countingFileFetcher.files.put("a.asm", "nop");
+        final CachingFileFetcher cachingFileFetcher = new CachingFileFetcher(countingFileFetcher, 1000);
+
+        final SourceFile sourceFile = cachingFileFetcher.fetchSourceFile("a.asm");
+        assertThat(cachingFileFetcher.fetchSourceFile("a.asm"), is(sameInstance(sourceFile)));
+        assertThat(countingFileFetcher.fetchCount, is(2));
+
+        countingFileFetcher.files.put("a.asm", "rts");
+        final SourceFile changedSourceFile = cachingFileFetcher.fetchSourceFile("a.asm");
+        assertThat(changedSourceFile, is(not(sameInstance(sourceFile))));
+        assertThat(changedSourceFile.getText().toString(), is("rts"));
+    }
+
+    /**
+     * Asserts that {@link CachingFileFetcher#fetchSourceFile(String)} evicts the least recently used files when the total size of
+     * the cached files exceeds the maximum size.
+     *
+     * @throws IOException
+     *             an I/O error occurred
+     */
+    @Test
+    public void fetchSourceFileEviction() throws IOException {
+        final CountingFileFetcher countingFileFetcher = new CountingFileFetcher(null);
+        countingFileFetcher.files.put("a", "aaaa");
+        countingFileFetcher.files.put("b", "bbbb");
+        countingFileFetcher.files.put("c", "cccc");
+        final CachingFileFetcher cachingFileFetcher = new CachingFileFetcher(countingFileFetcher, 16);
+
+        final SourceFile a = cachingFileFetcher.fetchSourceFile("a");
+        final SourceFile b = cachingFileFetcher.fetchSourceFile("b");
+        assertThat(cachingFileFetcher.getSize(), is(16L));
+
+        // Use "a" so that "b" becomes the least recently used file.
+        assertThat(cachingFileFetcher.fetchSourceFile("a"), is(sameInstance(a)));
+        cachingFileFetcher.fetchSourceFile("c");
+        assertThat(cachingFileFetcher.getSize(), is(16L));
+        assertThat(cachingFileFetcher.fetchSourceFile("a"), is(sameInstance(a)));
+        assertThat(cachingFileFetcher.fetchSourceFile("b"), is(not(sameInstance(b))));
+    }
+
+    /**
+     * Asserts that {@link CachingFileFetcher#fetchSourceFile(String)} doesn't cache files that are larger than the maximum size.
+     *
+     * @throws IOException
+     *             an I/O error occurred
+     */
+    @Test
+    public void fetchSourceFileLargerThanMaximumSize() throws IOException {
+        final CountingFileFetcher countingFileFetcher = new CountingFileFetcher(null);
+        countingFileFetcher.files.put("a.asm", "nop");
+        final CachingFileFetcher cachingFileFetcher = new CachingFileFetcher(countingFileFetcher, 5);
+
+        final SourceFile sourceFile = cachingFileFetcher.fetchSourceFile("a.asm");
+        assertThat(cachingFileFetcher.fetchSourceFile("a.asm"), is(not(sameInstance(sourceFile))));
+        assertThat(cachingFileFetcher.getSize(), is(0L));
+    }
+
+    /**
+     * Asserts that {@link CachingFileFetcher#fetchSourceFile(String)} propagates the exceptions thrown by the underlying file
+     * fetcher.
+     *
+     * @throws IOException
+     *             an I/O error occurred
+     */
+    @Test(expected = FileNotFoundException.class)
+    public void fetchSourceFileNotFound() throws IOException {
+        new CachingFileFetcher(new NullFileFetcher(), 1000).fetchSourceFile("a.asm");
+    }
+
+    /**
+     * Asserts that {@link CachingFileFetcher#fetchSourceFile(String)} throws a {@link NullPointerException} when the
+     * <code>filePath</code> argument is <code>null</code>.
+     *
+     * @throws IOException
+     *             an I/O error occurred
+     */
+    @Test(expected = NullPointerException.class)
+    public void fetchSourceFileNullFilePath() throws IOException {
+        new CachingFileFetcher(new NullFileFetcher(), 1000).fetchSourceFile(null);
+    }
+
+    /**
+     * Asserts that {@link CachingFileFetcher#fetchSourceFile(String)} returns the cached source file without fetching it again
+     * while the file's last modification time and size don't change.
+     *
+     * @throws IOException
+     *             an I/O error occurred
+     */
+    @Test
+    public void fetchSourceFileStamp() throws IOException {
+        final Path directory = Files.createTempDirectory("reasm");
+        try {
+            final CountingFileFetcher countingFileFetcher = new CountingFileFetcher(directory);
+            final CachingFileFetcher cachingFileFetcher = new CachingFileFetcher(countingFileFetcher, 1000, directory);
+            writeFile(directory.resolve("a.asm"), "nop", 100000);
+
+            final SourceFile sourceFile = cachingFileFetcher.fetchSourceFile("a.asm");
+            assertThat(cachingFileFetcher.fetchSourceFile("a.asm"), is(sameInstance(sourceFile)));
+            assertThat(countingFileFetcher.fetchCount, is(1));
+
+            // The file is fetched again when it is touched, but its source file is kept because its contents didn't change.
+            writeFile(directory.resolve("a.asm"), "nop", 200000);
+            assertThat(cachingFileFetcher.fetchSourceFile("a.asm"), is(sameInstance(sourceFile)));
+            assertThat(countingFileFetcher.fetchCount, is(2));
+
+            writeFile(directory.resolve("a.asm"), "rts", 300000);
+            assertThat(cachingFileFetcher.fetchSourceFile("a.asm").getText().toString(), is("rts"));
+            assertThat(countingFileFetcher.fetchCount, is(3));
+        } finally {
+            deleteDirectory(directory, "a.asm");
+        }
+    }
+
+    /**
+     * Asserts that {@link CachingFileFetcher#invalidateAll()} removes all the files from the cache.
+     *
+     * @throws IOException
+     *             an I/O error occurred
+     */
+    @Test
+    public void invalidateAll() throws IOException {
+        final CountingFileFetcher countingFileFetcher = new CountingFileFetcher(null);
+        countingFileFetcher.files.put("a.asm", "nop");
+        final CachingFileFetcher cachingFileFetcher = new CachingFileFetcher(countingFileFetcher, 1000);
+
+        final SourceFile sourceFile = cachingFileFetcher.fetchSourceFile("a.asm");
+        cachingFileFetcher.invalidateAll();
+        assertThat(cachingFileFetcher.getSize(), is(0L));
+        assertThat(cachingFileFetcher.fetchSourceFile("a.asm"), is(not(sameInstance(sourceFile))));
+    }
+
+}
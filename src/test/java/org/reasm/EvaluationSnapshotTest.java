@@ -0,0 +1,229 @@
+package org.reasm;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.reasm.AssemblyTestsCommon.EMPTY_SOURCE_FILE;
+import static org.reasm.AssemblyTestsCommon.FORTY_TWO;
+import static org.reasm.AssemblyTestsCommon.createAssembly;
+import static org.reasm.AssemblyTestsCommon.createNodeThatDefinesASymbol;
+import static org.reasm.AssemblyTestsCommon.step;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.reasm.expressions.BinaryOperator;
+import org.reasm.expressions.BinaryOperatorExpression;
+import org.reasm.expressions.Expression;
+import org.reasm.expressions.IdentifierExpression;
+import org.reasm.expressions.ProgramCounterExpression;
+import org.reasm.expressions.SymbolLookup;
+import org.reasm.testhelpers.NullArchitecture;
+
+import ca.fragag.Consumer;
+
+/**
+ * Test class for {@link EvaluationSnapshot}.
+ *
+ * @author Francis Gagné
+ */
+public class EvaluationSnapshotTest {
+
+    private static final int NUMBER_OF_SYMBOLS = 1000;
+
+    private static Assembly createCompletedAssemblyWithPredefinedSymbols() {
+        final ArrayList<PredefinedSymbol> predefinedSymbols = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_SYMBOLS; i++) {
+            predefinedSymbols.add(new PredefinedSymbol(SymbolContext.VALUE, "s" + i, SymbolType.CONSTANT, new UnsignedIntValue(i)));
+        }
+
+        final Configuration configuration = new Configuration(Environment.DEFAULT, EMPTY_SOURCE_FILE, NullArchitecture.DEFAULT)
+                .setPredefinedSymbols(new PredefinedSymbolTable(predefinedSymbols));
+        final Assembly assembly = new Assembly(configuration);
+        step(assembly, AssemblyCompletionStatus.COMPLETE);
+        return assembly;
+    }
+
+    /**
+     * Asserts that {@link Assembly#evaluationSnapshot()} returns the same snapshot every time it is called on a completed
+     * assembly.
+     */
+    @Test
+    public void assemblyEvaluationSnapshot() {
+        final Assembly assembly = createAssembly(createNodeThatDefinesASymbol("foo", SymbolType.CONSTANT, FORTY_TWO));
+        step(assembly, AssemblyCompletionStatus.COMPLETE);
+
+        final EvaluationSnapshot snapshot = assembly.evaluationSnapshot();
+        assertThat(snapshot.getAssembly(), is(sameInstance(assembly)));
+        assertThat(assembly.evaluationSnapshot(), is(sameInstance(snapshot)));
+    }
+
+    /**
+     * Asserts that {@link Assembly#evaluationSnapshot()} returns the same snapshot to threads that call it concurrently on a
+     * completed assembly.
+     *
+     * @throws Exception
+     *             a call failed
+     */
+    @Test
+    public void assemblyEvaluationSnapshotConcurrently() throws Exception {
+        final Assembly assembly = createCompletedAssemblyWithPredefinedSymbols();
+
+        final int numberOfThreads = 8;
+        final CyclicBarrier barrier = new CyclicBarrier(numberOfThreads);
+        final ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            final ArrayList<Future<EvaluationSnapshot>> futures = new ArrayList<>();
+            for (int t = 0; t < numberOfThreads; t++) {
+                futures.add(executor.submit(new Callable<EvaluationSnapshot>() {
+                    @Override
+                    public EvaluationSnapshot call() throws Exception {
+                        barrier.await();
+                        return assembly.evaluationSnapshot();
+                    }
+                }));
+            }
+
+            final EvaluationSnapshot snapshot = futures.get(0).get();
+            for (Future<EvaluationSnapshot> future : futures) {
+                assertThat(future.get(), is(sameInstance(snapshot)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Asserts that {@link Assembly#evaluationSnapshot()} throws an {@link IllegalStateException} when the assembly is not complete.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void assemblyEvaluationSnapshotNotComplete() {
+        createAssembly(createNodeThatDefinesASymbol("foo", SymbolType.CONSTANT, FORTY_TWO)).evaluationSnapshot();
+    }
+
+    /**
+     * Asserts that {@link EvaluationSnapshot#evaluate(Expression, long, Consumer)} evaluates an expression with the symbols of the
+     * assembly and the specified program counter.
+     */
+    @Test
+    public void evaluate() {
+        final EvaluationSnapshot snapshot = createCompletedAssemblyWithPredefinedSymbols().evaluationSnapshot();
+        final Expression expression = new BinaryOperatorExpression(BinaryOperator.ADDITION, new IdentifierExpression("S12",
+                snapshot.getSymbolLookup(SymbolContext.VALUE)), ProgramCounterExpression.INSTANCE);
+        assertThat(snapshot.evaluate(expression, 30, null), is((Value) new UnsignedIntValue(42)));
+    }
+
+    /**
+     * Asserts that {@link EvaluationSnapshot#evaluate(Expression, long, Consumer)} produces the right values when many
+     * expressions are evaluated concurrently from many threads, and that the assembly messages raised by the evaluations are all
+     * delivered to a thread-safe consumer.
+     *
+     * @throws Exception
+     *             an evaluation failed
+     */
+    @Test
+    public void evaluateConcurrently() throws Exception {
+        final EvaluationSnapshot snapshot = createCompletedAssemblyWithPredefinedSymbols().evaluationSnapshot();
+        final SymbolLookup symbolLookup = snapshot.getSymbolLookup(SymbolContext.VALUE);
+
+        // s(i) / s(i % 10) raises a division by zero error when i is a multiple of 10.
+        final Expression[] expressions = new Expression[NUMBER_OF_SYMBOLS];
+        for (int i = 0; i < NUMBER_OF_SYMBOLS; i++) {
+            expressions[i] = new BinaryOperatorExpression(BinaryOperator.ADDITION, new BinaryOperatorExpression(
+                    BinaryOperator.DIVISION, new IdentifierExpression("s" + i, symbolLookup), new IdentifierExpression("s"
+                            + i % 10, symbolLookup)), ProgramCounterExpression.INSTANCE);
+        }
+
+        final AtomicInteger numberOfMessages = new AtomicInteger();
+        final Consumer<AssemblyMessage> assemblyMessageConsumer = new Consumer<AssemblyMessage>() {
+            @Override
+            public void accept(AssemblyMessage message) {
+                numberOfMessages.incrementAndGet();
+            }
+        };
+
+        final int numberOfThreads = 8;
+        final int rounds = 20;
+        final ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            final ArrayList<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < numberOfThreads; t++) {
+                final long programCounter = t;
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int round = 0; round < rounds; round++) {
+                            for (int i = 0; i < NUMBER_OF_SYMBOLS; i++) {
+                                final Value value = snapshot.evaluate(expressions[i], programCounter, assemblyMessageConsumer);
+                                if (i % 10 == 0) {
+                                    assertThat(value, is(nullValue()));
+                                } else {
+                                    assertThat(value, is((Value) new UnsignedIntValue(i / (i % 10) + programCounter)));
+                                }
+                            }
+                        }
+
+                        return null;
+                    }
+                }));
+            }
+
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(numberOfMessages.get(), is(numberOfThreads * rounds * NUMBER_OF_SYMBOLS / 10));
+    }
+
+    /**
+     * Asserts that {@link EvaluationSnapshot#getLocalSymbol(AssemblyStepLocation, SymbolContext, String)} returns the local symbols
+     * of the assembly.
+     */
+    @Test
+    public void getLocalSymbol() {
+        final Assembly assembly = createAssembly(createNodeThatDefinesASymbol("l", true, SymbolType.CONSTANT, FORTY_TWO));
+        step(assembly, AssemblyCompletionStatus.COMPLETE);
+
+        final EvaluationSnapshot snapshot = assembly.evaluationSnapshot();
+        final UserSymbol symbol = assembly.getScopes().get(null).getLocalSymbols().iterator().next();
+        assertThat(snapshot.getLocalSymbol(null, SymbolContext.VALUE, "L"), is(sameInstance(symbol)));
+        assertThat(snapshot.getSymbol(SymbolContext.VALUE, "l"), is(nullValue()));
+    }
+
+    /**
+     * Asserts that {@link EvaluationSnapshot#getSymbol(SymbolContext, String)} returns the non-local symbols of the assembly,
+     * looking them up by name without regard to case.
+     */
+    @Test
+    public void getSymbol() {
+        final Assembly assembly = createAssembly(createNodeThatDefinesASymbol("foo", SymbolType.CONSTANT, FORTY_TWO));
+        step(assembly, AssemblyCompletionStatus.COMPLETE);
+
+        final EvaluationSnapshot snapshot = assembly.evaluationSnapshot();
+        final UserSymbol symbol = assembly.getSymbols().iterator().next();
+        assertThat(snapshot.getSymbol(SymbolContext.VALUE, "foo"), is(sameInstance(symbol)));
+        assertThat(snapshot.getSymbol(SymbolContext.VALUE, "FOO"), is(sameInstance(symbol)));
+        assertThat(snapshot.getSymbol(SymbolContext.VALUE, "bar"), is(nullValue()));
+        assertThat(snapshot.getSymbol(new SymbolContext<>(Object.class), "foo"), is(nullValue()));
+    }
+
+    /**
+     * Asserts that {@link EvaluationSnapshot#getSymbol(SymbolContext, String)} throws a {@link NullPointerException} when the
+     * <code>name</code> argument is <code>null</code>.
+     */
+    @Test(expected = NullPointerException.class)
+    public void getSymbolNullName() {
+        createCompletedAssemblyWithPredefinedSymbols().evaluationSnapshot().getSymbol(SymbolContext.VALUE, null);
+    }
+
+}
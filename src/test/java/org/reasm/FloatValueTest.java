@@ -1,6 +1,7 @@
 package org.reasm;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -56,4 +57,20 @@ public class FloatValueTest extends ObjectHashCodeEqualsContract {
         assertTrue("accept() didn't call any method in visitor", visitor.visited);
     }
 
+    /**
+     * Asserts that {@link Value#getIntegerKind()} returns <code>null</code> on a {@link FloatValue}.
+     */
+    @Test
+    public void getIntegerKind() {
+        assertThat(new FloatValue(VALUE).getIntegerKind(), is(nullValue()));
+    }
+
+    /**
+     * Asserts that {@link Value#getIntegerValue()} throws an {@link IllegalStateException} on a {@link FloatValue}.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void getIntegerValue() {
+        new FloatValue(VALUE).getIntegerValue();
+    }
+
 }
@@ -0,0 +1,46 @@
+package org.reasm;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link IntegerKind}.
+ *
+ * @author Francis Gagné
+ */
+public class IntegerKindTest {
+
+    /**
+     * Asserts that {@link IntegerKind#longValueOf(Object)} returns the <code>long</code> representation of an integer value.
+     */
+    @Test
+    public void longValueOf() {
+        assertThat(IntegerKind.longValueOf(new UnsignedIntValue(42)), is(42L));
+        assertThat(IntegerKind.longValueOf(new SignedIntValue(-42)), is(-42L));
+    }
+
+    /**
+     * Asserts that {@link IntegerKind#of(Object)} returns the integer kind of a value.
+     */
+    @Test
+    public void of() {
+        assertThat(IntegerKind.of(new UnsignedIntValue(42)), is(IntegerKind.UNSIGNED));
+        assertThat(IntegerKind.of(new SignedIntValue(42)), is(IntegerKind.SIGNED));
+        assertThat(IntegerKind.of(new FloatValue(42)), is(nullValue()));
+        assertThat(IntegerKind.of(new StringValue("42")), is(nullValue()));
+        assertThat(IntegerKind.of(null), is(nullValue()));
+    }
+
+    /**
+     * Asserts that {@link IntegerKind#toValue(long)} returns a {@link Value} of the correct kind.
+     */
+    @Test
+    public void toValue() {
+        assertThat(IntegerKind.UNSIGNED.toValue(42), is((Value) new UnsignedIntValue(42)));
+        assertThat(IntegerKind.SIGNED.toValue(-42), is((Value) new SignedIntValue(-42)));
+    }
+
+}
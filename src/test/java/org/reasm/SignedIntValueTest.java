@@ -1,6 +1,8 @@
 package org.reasm;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -57,4 +59,32 @@ public class SignedIntValueTest extends ObjectHashCodeEqualsContract {
         assertTrue("accept() didn't call any method in visitor", visitor.visited);
     }
 
+    /**
+     * Asserts that {@link SignedIntValue#getIntegerKind()} returns {@link IntegerKind#SIGNED}.
+     */
+    @Test
+    public void getIntegerKind() {
+        assertThat(new SignedIntValue(VALUE).getIntegerKind(), is(IntegerKind.SIGNED));
+    }
+
+    /**
+     * Asserts that {@link SignedIntValue#getIntegerValue()} returns the value.
+     */
+    @Test
+    public void getIntegerValue() {
+        assertThat(new SignedIntValue(VALUE).getIntegerValue(), is(VALUE));
+    }
+
+    /**
+     * Asserts that {@link SignedIntValue#of(long)} returns a shared instance for small values and a new instance for other values.
+     */
+    @Test
+    public void of() {
+        assertThat(SignedIntValue.of(-1), is(sameInstance(SignedIntValue.of(-1))));
+        assertThat(SignedIntValue.of(-128), is(new SignedIntValue(-128)));
+        assertThat(SignedIntValue.of(255), is(new SignedIntValue(255)));
+        assertThat(SignedIntValue.of(256), is(not(sameInstance(SignedIntValue.of(256)))));
+        assertThat(SignedIntValue.of(Long.MIN_VALUE), is(new SignedIntValue(Long.MIN_VALUE)));
+    }
+
 }
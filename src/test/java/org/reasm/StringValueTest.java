@@ -1,6 +1,9 @@
 package org.reasm;
 
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -45,7 +48,8 @@ public class StringValueTest extends ObjectHashCodeEqualsContract {
      * Initializes a new StringValueTest.
      */
     public StringValueTest() {
-        super(new StringValue(VALUE), new StringValue(VALUE), new StringValue(VALUE), new StringValue(VALUE + "2"), new Object());
+        super(new StringValue(VALUE), new StringValue(VALUE), new StringValue("val").concat(new StringValue("ue")), new StringValue(
+                VALUE + "2"), new Object());
     }
 
     /**
@@ -58,6 +62,108 @@ public class StringValueTest extends ObjectHashCodeEqualsContract {
         assertTrue("accept() didn't call any method in visitor", visitor.visited);
     }
 
+    /**
+     * Asserts that {@link StringValue#compareTo(StringValue)} compares strings lexicographically, whether or not they were created
+     * by concatenation.
+     */
+    @Test
+    public void compareTo() {
+        final StringValue abc = new StringValue("a").concat(new StringValue("bc"));
+        assertThat(abc.compareTo(new StringValue("abc")), is(0));
+        assertThat(abc.compareTo(new StringValue("ab").concat(new StringValue("c"))), is(0));
+        assertThat(abc.compareTo(new StringValue("ab")), is(greaterThan(0)));
+        assertThat(abc.compareTo(new StringValue("abd")), is(lessThan(0)));
+        assertThat(new StringValue("ab").compareTo(abc), is(lessThan(0)));
+        assertThat(new StringValue("b").compareTo(abc), is(greaterThan(0)));
+    }
+
+    /**
+     * Asserts that {@link StringValue#compareTo(StringValue)} throws a {@link NullPointerException} when the <code>other</code>
+     * argument is <code>null</code>.
+     */
+    @Test(expected = NullPointerException.class)
+    public void compareToNull() {
+        new StringValue(VALUE).compareTo(null);
+    }
+
+    /**
+     * Asserts that {@link StringValue#concat(StringValue)} returns a string that contains the characters of both strings.
+     */
+    @Test
+    public void concat() {
+        final StringValue concatenation = new StringValue("val").concat(new StringValue("ue"));
+        assertThat(concatenation.length(), is(5));
+        assertThat(concatenation, is(new StringValue(VALUE)));
+        assertThat(concatenation.toString(), is("StringValue [value=value]"));
+        concatenation.accept(new StringValueVisitor());
+    }
+
+    /**
+     * Asserts that {@link StringValue#concat(StringValue)} returns the other string when one of the strings is empty.
+     */
+    @Test
+    public void concatEmpty() {
+        final StringValue value = new StringValue(VALUE);
+        final StringValue empty = new StringValue("");
+        assertThat(value.concat(empty), is(sameInstance(value)));
+        assertThat(empty.concat(value), is(sameInstance(value)));
+    }
+
+    /**
+     * Asserts that a concatenation whose operand has been flattened (and has released its own operands) still produces the right
+     * string.
+     */
+    @Test
+    public void concatFlattenedOperand() {
+        final StringValue operand = new StringValue("va").concat(new StringValue("l"));
+        final StringValue concatenation = operand.concat(new StringValue("ue"));
+        assertThat(operand.hashCode(), is(new StringValue("val").hashCode()));
+        assertThat(concatenation.compareTo(new StringValue(VALUE)), is(0));
+        assertThat(concatenation.toString(), is("StringValue [value=value]"));
+        assertThat(operand, is(new StringValue("val")));
+    }
+
+    /**
+     * Asserts that a long chain of calls to {@link StringValue#concat(StringValue)} produces the right string, and that comparing
+     * or flattening it doesn't overflow the call stack.
+     */
+    @Test
+    public void concatLongChain() {
+        final StringBuilder sb = new StringBuilder();
+        StringValue leftChain = new StringValue("");
+        StringValue rightChain = new StringValue("");
+        for (int i = 0; i < 100000; i++) {
+            final String part = Integer.toString(i % 10);
+            sb.append(part);
+            leftChain = leftChain.concat(new StringValue(part));
+            rightChain = new StringValue(Integer.toString((99999 - i) % 10)).concat(rightChain);
+        }
+
+        final String expected = sb.toString();
+        assertThat(leftChain.length(), is(expected.length()));
+        assertThat(leftChain.compareTo(rightChain), is(0));
+        assertThat(leftChain.hashCode(), is(new StringValue(expected).hashCode()));
+        assertThat(rightChain, is(new StringValue(expected)));
+    }
+
+    /**
+     * Asserts that {@link StringValue#concat(StringValue)} throws a {@link NullPointerException} when the <code>other</code>
+     * argument is <code>null</code>.
+     */
+    @Test(expected = NullPointerException.class)
+    public void concatNull() {
+        new StringValue(VALUE).concat(null);
+    }
+
+    /**
+     * Asserts that {@link StringValue#length()} returns the length of the string.
+     */
+    @Test
+    public void length() {
+        assertThat(new StringValue(VALUE).length(), is(5));
+        assertThat(new StringValue("").length(), is(0));
+    }
+
     /**
      * Asserts that {@link StringValue#StringValue(String)} throws a {@link NullPointerException} when the <code>value</code>
      * argument is <code>null</code>.
@@ -0,0 +1,123 @@
+package org.reasm;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.reasm.AssemblyTestsCommon.FORTY_TWO;
+import static org.reasm.AssemblyTestsCommon.createAssembly;
+import static org.reasm.AssemblyTestsCommon.createNodeThatDefinesASymbol;
+import static org.reasm.AssemblyTestsCommon.step;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.reasm.testhelpers.TestSourceNode;
+
+/**
+ * Test class for {@link SymbolIndex}.
+ *
+ * @author Francis Gagné
+ */
+public class SymbolIndexTest {
+
+    private static final SymbolContext<Object> OTHER_CONTEXT = new SymbolContext<>(Object.class);
+
+    private static final UserSymbol ALPHA = new UserSymbol(SymbolContext.VALUE, "alpha", SymbolType.CONSTANT);
+    private static final UserSymbol ALPHABET = new UserSymbol(SymbolContext.VALUE, "ALPHABET", SymbolType.VARIABLE);
+    private static final UserSymbol ALPHA_OTHER = new UserSymbol(OTHER_CONTEXT, "Alpha", SymbolType.CONSTANT);
+    private static final UserSymbol BETA = new UserSymbol(SymbolContext.VALUE, "beta", SymbolType.CONSTANT);
+    private static final UserSymbol NS_GAMMA = new UserSymbol(SymbolContext.VALUE, "ns.gamma", SymbolType.CONSTANT);
+    private static final UserSymbol NS_INNER_DELTA = new UserSymbol(SymbolContext.VALUE, "ns.inner.delta", SymbolType.CONSTANT);
+
+    private static final SymbolIndex INDEX = new SymbolIndex(Arrays.asList(NS_INNER_DELTA, BETA, ALPHABET, NS_GAMMA, ALPHA,
+            ALPHA_OTHER));
+
+    private static final Namespace NS = new Namespace("ns", null);
+    private static final Namespace NS_INNER = new Namespace("inner", NS);
+
+    /**
+     * Asserts that {@link Assembly#getSymbolIndex()} returns <code>null</code> until the assembly completes, then returns an index
+     * of the assembly's symbols.
+     */
+    @Test
+    public void assemblyGetSymbolIndex() {
+        final TestSourceNode nodeThatDefinesASymbol = createNodeThatDefinesASymbol("foo", SymbolType.CONSTANT, FORTY_TWO);
+        final Assembly assembly = createAssembly(nodeThatDefinesASymbol);
+        assertThat(assembly.getSymbolIndex(), is(nullValue()));
+        step(assembly, AssemblyCompletionStatus.COMPLETE);
+
+        final SymbolIndex symbolIndex = assembly.getSymbolIndex();
+        assertThat(symbolIndex, is(notNullValue()));
+        assertThat(symbolIndex.size(), is(1));
+        assertThat(symbolIndex.findByPrefix("F", null, null, null), contains(assembly.getSymbols().iterator().next()));
+    }
+
+    /**
+     * Asserts that {@link SymbolIndex#findByPattern(String, SymbolContext, Namespace, SymbolType)} returns the symbols whose name
+     * matches the specified pattern.
+     */
+    @Test
+    public void findByPattern() {
+        assertThat(INDEX.findByPattern("alpha", null, null, null), contains(ALPHA, ALPHA_OTHER));
+        assertThat(INDEX.findByPattern("al*", SymbolContext.VALUE, null, null), contains(ALPHA, ALPHABET));
+        assertThat(INDEX.findByPattern("*ta", null, null, null), contains(BETA, NS_INNER_DELTA));
+        assertThat(INDEX.findByPattern("b?ta", null, null, null), contains(BETA));
+        assertThat(INDEX.findByPattern("*", null, NS, null), contains(NS_GAMMA, NS_INNER_DELTA));
+        assertThat(INDEX.findByPattern("?????", null, NS, null), contains(NS_GAMMA));
+        assertThat(INDEX.findByPattern("a*z", null, null, null), is(empty()));
+    }
+
+    /**
+     * Asserts that {@link SymbolIndex#findByPattern(String, SymbolContext, Namespace, SymbolType)} throws a
+     * {@link NullPointerException} when the <code>pattern</code> argument is <code>null</code>.
+     */
+    @Test(expected = NullPointerException.class)
+    public void findByPatternNullPattern() {
+        INDEX.findByPattern(null, null, null, null);
+    }
+
+    /**
+     * Asserts that {@link SymbolIndex#findByPrefix(String, SymbolContext, Namespace, SymbolType)} returns the symbols whose name
+     * starts with the specified prefix, filtered by context, namespace and type.
+     */
+    @Test
+    public void findByPrefix() {
+        assertThat(INDEX.findByPrefix("ALP", null, null, null), contains(ALPHA, ALPHA_OTHER, ALPHABET));
+        assertThat(INDEX.findByPrefix("alp", SymbolContext.VALUE, null, null), contains(ALPHA, ALPHABET));
+        assertThat(INDEX.findByPrefix("alp", OTHER_CONTEXT, null, null), contains(ALPHA_OTHER));
+        assertThat(INDEX.findByPrefix("alp", null, null, SymbolType.VARIABLE), contains(ALPHABET));
+        assertThat(INDEX.findByPrefix("", null, NS, null), contains(NS_GAMMA, NS_INNER_DELTA));
+        assertThat(INDEX.findByPrefix("d", null, NS_INNER, null), contains(NS_INNER_DELTA));
+        assertThat(INDEX.findByPrefix("gamma", null, null, null), is(empty()));
+        assertThat(INDEX.findByPrefix("zeta", null, null, null), is(empty()));
+    }
+
+    /**
+     * Asserts that {@link SymbolIndex#findByPrefix(String, SymbolContext, Namespace, SymbolType)} throws a
+     * {@link NullPointerException} when the <code>prefix</code> argument is <code>null</code>.
+     */
+    @Test(expected = NullPointerException.class)
+    public void findByPrefixNullPrefix() {
+        INDEX.findByPrefix(null, null, null, null);
+    }
+
+    /**
+     * Asserts that {@link SymbolIndex#matchesPattern(String, String)} handles the <code>'*'</code> and <code>'?'</code> wildcards.
+     */
+    @Test
+    public void matchesPattern() {
+        assertThat(SymbolIndex.matchesPattern("", ""), is(true));
+        assertThat(SymbolIndex.matchesPattern("*", ""), is(true));
+        assertThat(SymbolIndex.matchesPattern("?", ""), is(false));
+        assertThat(SymbolIndex.matchesPattern("FOO", "foo"), is(true));
+        assertThat(SymbolIndex.matchesPattern("f*o", "foo"), is(true));
+        assertThat(SymbolIndex.matchesPattern("f*o", "foobar"), is(false));
+        assertThat(SymbolIndex.matchesPattern("*bar*", "foobarbaz"), is(true));
+        assertThat(SymbolIndex.matchesPattern("a*b*c", "aXbYbZc"), is(true));
+        assertThat(SymbolIndex.matchesPattern("a*b?c", "abbc"), is(true));
+    }
+
+}
@@ -98,9 +98,13 @@ public class SymbolLookupContextTest extends ObjectHashCodeEqualsContract {
         manyPendingSteps(assembly, pendingStepsPerPassBeforeCapture);
 
         MAIN_OBJECT = assembly.getCurrentSymbolLookupContext();
-        OTHER_EQUAL_OBJECT = assembly.getCurrentSymbolLookupContext();
+        assertThat(assembly.getCurrentSymbolLookupContext(), is(sameInstance(MAIN_OBJECT)));
+
+        // getCurrentSymbolLookupContext() returns the same instance while the assembly's state doesn't change,
+        // so create distinct instances directly.
+        OTHER_EQUAL_OBJECT = assembly.createSymbolLookupContext();
         assertThat(OTHER_EQUAL_OBJECT, is(not(sameInstance(MAIN_OBJECT))));
-        ANOTHER_EQUAL_OBJECT = assembly.getCurrentSymbolLookupContext();
+        ANOTHER_EQUAL_OBJECT = assembly.createSymbolLookupContext();
 
         manyPendingSteps(assembly, pendingStepsPerPassAfterCapture);
         step(assembly, AssemblyCompletionStatus.STARTED_NEW_PASS);
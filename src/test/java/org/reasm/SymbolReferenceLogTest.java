@@ -0,0 +1,183 @@
+package org.reasm;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.reasm.AssemblyTestsCommon.FORTY_TWO;
+import static org.reasm.AssemblyTestsCommon.createAssembly;
+import static org.reasm.AssemblyTestsCommon.createNodeThatDefinesASymbol;
+import static org.reasm.AssemblyTestsCommon.step;
+
+import java.util.Arrays;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link SymbolReferenceLog}.
+ *
+ * @author Francis Gagné
+ */
+public class SymbolReferenceLogTest {
+
+    private static Assembly createAssemblyThatDefinesFoo() {
+        final Assembly assembly = createAssembly(createNodeThatDefinesASymbol("foo", SymbolType.CONSTANT, FORTY_TWO));
+        step(assembly, AssemblyCompletionStatus.COMPLETE);
+        return assembly;
+    }
+
+    /**
+     * Asserts that {@link SymbolReferenceLog#add(SymbolReference)} adds symbol references to the log, growing it as necessary,
+     * that {@link SymbolReferenceLog#get(int)} recreates the symbol references and that {@link SymbolReferenceLog#clear()} empties
+     * the log.
+     */
+    @Test
+    public void addAndClear() {
+        final Assembly assembly = createAssemblyThatDefinesFoo();
+        final SymbolReferenceLog log = new SymbolReferenceLog();
+
+        final SymbolReference[] symbolReferences = new SymbolReference[1000];
+        for (int i = 0; i < symbolReferences.length; i++) {
+            symbolReferences[i] = assembly.resolveSymbolReference(SymbolContext.VALUE, (i & 1) == 0 ? "foo" : "bar", false, null,
+                    null);
+            assertThat(log.add(symbolReferences[i]), is(i));
+        }
+
+        assertThat(log.size(), is(symbolReferences.length));
+        assertThat(log.getNumberOfUnresolvedReferences(), is(symbolReferences.length / 2));
+        for (int i = 0; i < symbolReferences.length; i++) {
+            final SymbolReference symbolReference = log.get(i);
+            assertThat(symbolReference.getContexts(), is(symbolReferences[i].getContexts()));
+            assertThat(symbolReference.getName(), is(symbolReferences[i].getName()));
+            assertThat(symbolReference.getSymbol(), is(sameInstance(symbolReferences[i].getSymbol())));
+            assertThat(symbolReference.getValue(), is(sameInstance(symbolReferences[i].getValue())));
+            assertThat(log.isUnresolved(i), is((i & 1) != 0));
+        }
+
+        log.clear();
+        assertThat(log.size(), is(0));
+        assertThat(log.getNumberOfUnresolvedReferences(), is(0));
+    }
+
+    /**
+     * Asserts that {@link SymbolReferenceLog#get(int)} recreates a symbol definition that was added to the log without a
+     * {@link SymbolReference} and that {@link SymbolReferenceLog#updateValue(int)} captures the new value of the symbol.
+     */
+    @Test
+    public void getDefinition() {
+        final Assembly assembly = createAssemblyThatDefinesFoo();
+        final AssemblyStep step = assembly.getSteps().get(0);
+        final SymbolLookupContext lookupContext = assembly.getCurrentSymbolLookupContext();
+        final UserSymbol foo = (UserSymbol) assembly.resolveSymbolReference(SymbolContext.VALUE, "foo", false, null, null)
+                .getSymbol();
+        final SymbolReferenceLog log = new SymbolReferenceLog();
+        final int index = log.add(SymbolReference.cachedContextSingleton(SymbolContext.VALUE), "foo", "foo", null, lookupContext,
+                step, SymbolDefinitionResolutionFallback.getInstance(SymbolType.CONSTANT), foo);
+
+        SymbolReference symbolReference = log.get(index);
+        assertThat(symbolReference.getContexts(), is((Object) Arrays.asList(SymbolContext.VALUE)));
+        assertThat(symbolReference.getDefinedName(), is("foo"));
+        assertThat(symbolReference.getStep(), is(sameInstance(step)));
+        assertThat(symbolReference.getSymbol(), is(sameInstance((Symbol) foo)));
+        assertThat(symbolReference.getValue(), is((Object) FORTY_TWO));
+        assertThat(log.isStale(index), is(false));
+
+        // Redefine foo with a different value; the reference becomes stale until its value is updated.
+        foo.prepareForNewPass();
+        foo.define(assembly, step, SymbolType.CONSTANT, new UnsignedIntValue(43));
+        assertThat(log.isStale(index), is(true));
+        log.updateValue(index);
+        assertThat(log.isStale(index), is(false));
+
+        symbolReference = log.get(index);
+        assertThat(symbolReference.getValue(), is((Object) new UnsignedIntValue(43)));
+    }
+
+    /**
+     * Asserts that {@link SymbolReferenceLog#isAnyStale()} returns <code>false</code> on an empty log.
+     */
+    @Test
+    public void isAnyStaleEmpty() {
+        assertThat(new SymbolReferenceLog().isAnyStale(), is(false));
+    }
+
+    /**
+     * Asserts that {@link SymbolReferenceLog#isAnyStale()} detects a stale symbol reference when the log is large enough for the
+     * check to be performed in parallel.
+     */
+    @Test
+    public void isAnyStaleParallel() {
+        final Assembly assembly = createAssemblyThatDefinesFoo();
+        final SymbolReferenceLog log = new SymbolReferenceLog();
+        for (int i = 0; i < SymbolReferenceLog.PARALLEL_THRESHOLD * 2; i++) {
+            log.add(assembly.resolveSymbolReference(SymbolContext.VALUE, (i & 1) == 0 ? "foo" : "bar", false, null, null));
+        }
+
+        assertThat(log.isAnyStale(), is(false));
+
+        // Change the value of foo, which makes every reference to foo stale.
+        final UserSymbol foo = (UserSymbol) log.get(0).getSymbol();
+        foo.prepareForNewPass();
+        assertThat(foo.define(assembly, assembly.getSteps().get(0), SymbolType.CONSTANT, new UnsignedIntValue(43)), is(true));
+        assertThat(log.isAnyStale(), is(true));
+    }
+
+    /**
+     * Asserts that {@link SymbolReferenceLog#isAnyStale()} checks symbol references that have a custom
+     * {@link SymbolResolutionFallback} when the check is performed in parallel.
+     */
+    @Test
+    public void isAnyStaleParallelCustomFallback() {
+        final Assembly assembly = createAssemblyThatDefinesFoo();
+        final SymbolReferenceLog log = new SymbolReferenceLog();
+        for (int i = 0; i < SymbolReferenceLog.PARALLEL_THRESHOLD; i++) {
+            log.add(assembly.resolveSymbolReference(SymbolContext.VALUE, "foo", false, null, null));
+        }
+
+        log.add(assembly.resolveSymbolReference(SymbolContext.VALUE, "bar", false, null, new SymbolResolutionFallback() {
+            @Override
+            public Symbol resolve(@Nonnull SymbolReference symbolReference) {
+                // Return a different symbol every time.
+                return new StaticSymbol(FORTY_TWO);
+            }
+        }));
+
+        assertThat(log.isAnyStale(), is(true));
+    }
+
+    /**
+     * Asserts that {@link SymbolReferenceLog#isStale(int)} returns <code>false</code> for symbol references that resolve to the
+     * same symbol with the same value, or that don't resolve to a symbol.
+     */
+    @Test
+    public void isStaleFalse() {
+        final Assembly assembly = createAssemblyThatDefinesFoo();
+        final SymbolReferenceLog log = new SymbolReferenceLog();
+        log.add(assembly.resolveSymbolReference(SymbolContext.VALUE, "foo", false, null, null));
+        log.add(assembly.resolveSymbolReference(SymbolContext.VALUE, "bar", false, null, null));
+        assertThat(log.isStale(0), is(false));
+        assertThat(log.isStale(1), is(false));
+    }
+
+    /**
+     * Asserts that {@link SymbolReferenceLog#isStale(int)} returns <code>true</code> for a symbol reference that resolves to a
+     * different constant.
+     */
+    @Test
+    public void isStaleTrue() {
+        final Assembly assembly = createAssemblyThatDefinesFoo();
+        final SymbolReferenceLog log = new SymbolReferenceLog();
+        log.add(assembly.resolveSymbolReference(SymbolContext.VALUE, "bar", false, null, new SymbolResolutionFallback() {
+            @Override
+            public Symbol resolve(@Nonnull SymbolReference symbolReference) {
+                // Return a different symbol every time.
+                return new StaticSymbol(FORTY_TWO);
+            }
+        }));
+
+        assertThat(log.getNumberOfUnresolvedReferences(), is(0));
+        assertThat(log.isStale(0), is(true));
+    }
+
+}
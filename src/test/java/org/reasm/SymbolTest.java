@@ -1,6 +1,7 @@
 package org.reasm;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
@@ -13,6 +14,44 @@ import org.junit.Test;
  */
 public class SymbolTest {
 
+    private static Symbol createSymbol(final Object value) {
+        return new Symbol("foo", SymbolType.CONSTANT) {
+            @Override
+            public Object getValue() {
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Asserts that {@link Symbol#getIntegerKind()} returns the integer kind of the symbol's value.
+     */
+    @Test
+    public void getIntegerKind() {
+        assertThat(createSymbol(new UnsignedIntValue(42)).getIntegerKind(), is(IntegerKind.UNSIGNED));
+        assertThat(createSymbol(new SignedIntValue(42)).getIntegerKind(), is(IntegerKind.SIGNED));
+        assertThat(createSymbol(new StringValue("42")).getIntegerKind(), is(nullValue()));
+        assertThat(createSymbol(null).getIntegerKind(), is(nullValue()));
+    }
+
+    /**
+     * Asserts that {@link Symbol#getIntegerValue()} returns the <code>long</code> representation of the symbol's value.
+     */
+    @Test
+    public void getIntegerValue() {
+        assertThat(createSymbol(new UnsignedIntValue(42)).getIntegerValue(), is(42L));
+        assertThat(createSymbol(new SignedIntValue(-42)).getIntegerValue(), is(-42L));
+    }
+
+    /**
+     * Asserts that {@link Symbol#getIntegerValue()} throws an {@link IllegalStateException} when the symbol's value is not an
+     * integer.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void getIntegerValueNotInteger() {
+        createSymbol(new StringValue("42")).getIntegerValue();
+    }
+
     /**
      * Asserts that {@link Symbol#Symbol(String, SymbolType)} initializes a {@link Symbol} correctly.
      */
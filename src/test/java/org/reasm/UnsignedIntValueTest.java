@@ -1,6 +1,8 @@
 package org.reasm;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -57,4 +59,32 @@ public class UnsignedIntValueTest extends ObjectHashCodeEqualsContract {
         assertTrue("accept() didn't call any method in visitor", visitor.visited);
     }
 
+    /**
+     * Asserts that {@link UnsignedIntValue#getIntegerKind()} returns {@link IntegerKind#UNSIGNED}.
+     */
+    @Test
+    public void getIntegerKind() {
+        assertThat(new UnsignedIntValue(VALUE).getIntegerKind(), is(IntegerKind.UNSIGNED));
+    }
+
+    /**
+     * Asserts that {@link UnsignedIntValue#getIntegerValue()} returns the value.
+     */
+    @Test
+    public void getIntegerValue() {
+        assertThat(new UnsignedIntValue(VALUE).getIntegerValue(), is(VALUE));
+    }
+
+    /**
+     * Asserts that {@link UnsignedIntValue#of(long)} returns a shared instance for small values and a new instance for other
+     * values.
+     */
+    @Test
+    public void of() {
+        assertThat(UnsignedIntValue.of(0), is(sameInstance(UnsignedIntValue.of(0))));
+        assertThat(UnsignedIntValue.of(255), is(new UnsignedIntValue(255)));
+        assertThat(UnsignedIntValue.of(256), is(not(sameInstance(UnsignedIntValue.of(256)))));
+        assertThat(UnsignedIntValue.of(-1), is(new UnsignedIntValue(-1)));
+    }
+
 }
@@ -1,12 +1,18 @@
 package org.reasm.expressions;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 import org.junit.Test;
+import org.reasm.StringValue;
 import org.reasm.UnsignedIntValue;
 import org.reasm.Value;
 import org.reasm.ValueVisitor;
+import org.reasm.testhelpers.DummySymbolLookup;
+import org.reasm.testhelpers.ExpressionDependencyRecorder;
 
 /**
  * Test class for {@link BinaryOperatorExpression}.
@@ -58,6 +64,49 @@ public class BinaryOperatorExpressionTest {
         new BinaryOperatorExpression(null, OPERAND1, OPERAND2);
     }
 
+    /**
+     * Asserts that {@link BinaryOperatorExpression#collectDependencies(ExpressionDependencyVisitor)} reports the dependencies of
+     * both operands, in order.
+     */
+    @Test
+    public void collectDependencies() {
+        final IdentifierExpression identifier = new IdentifierExpression("foo", DummySymbolLookup.DEFAULT);
+        final BinaryOperatorExpression expression = new BinaryOperatorExpression(BinaryOperator.ADDITION, identifier,
+                new BinaryOperatorExpression(BinaryOperator.SUBTRACTION, ProgramCounterExpression.INSTANCE, OPERAND2));
+        assertThat(ExpressionDependencyRecorder.collect(expression), contains(identifier, ProgramCounterExpression.INSTANCE));
+    }
+
+    /**
+     * Asserts that {@link BinaryOperatorExpression#collectDependencies(ExpressionDependencyVisitor)} reports no dependencies when
+     * both operands are constants.
+     */
+    @Test
+    public void collectDependenciesConstant() {
+        assertThat(ExpressionDependencyRecorder.collect(BINARY_OPERATOR_EXPRESSION), is(empty()));
+    }
+
+    /**
+     * Asserts that {@link BinaryOperatorExpression#dependsOnProgramCounter()} returns <code>true</code> if and only if one of the
+     * operands depends on the program counter.
+     */
+    @Test
+    public void dependsOnProgramCounter() {
+        assertThat(BINARY_OPERATOR_EXPRESSION.dependsOnProgramCounter(), is(false));
+        assertThat(new BinaryOperatorExpression(BinaryOperator.ADDITION, OPERAND1, ProgramCounterExpression.INSTANCE)
+                .dependsOnProgramCounter(), is(true));
+    }
+
+    /**
+     * Asserts that {@link BinaryOperatorExpression#dependsOnSymbols()} returns <code>true</code> if and only if one of the operands
+     * depends on symbols.
+     */
+    @Test
+    public void dependsOnSymbols() {
+        assertThat(BINARY_OPERATOR_EXPRESSION.dependsOnSymbols(), is(false));
+        assertThat(new BinaryOperatorExpression(BinaryOperator.ADDITION, IdentifierExpressionTest.IDENTIFIER_EXPRESSION, OPERAND2)
+                .dependsOnSymbols(), is(true));
+    }
+
     /**
      * Asserts that {@link BinaryOperatorExpression#evaluate(EvaluationContext)} evaluates to the result of applying the
      * expression's operator to the expression's operands.
@@ -67,6 +116,47 @@ public class BinaryOperatorExpressionTest {
         assertThat(BINARY_OPERATOR_EXPRESSION.evaluate(EvaluationContext.DUMMY), is((Value) new UnsignedIntValue(5)));
     }
 
+    /**
+     * Asserts that {@link BinaryOperatorExpression#fold()} folds a binary operator expression whose operands are constants into a
+     * {@link ValueExpression}.
+     */
+    @Test
+    public void fold() {
+        final Expression expression = new BinaryOperatorExpression(BinaryOperator.BITWISE_OR, new GroupingExpression(
+                new BinaryOperatorExpression(BinaryOperator.BIT_SHIFT_LEFT, new ValueExpression(new UnsignedIntValue(1)),
+                        new ValueExpression(new UnsignedIntValue(4)))), OPERAND2);
+        assertThat(expression.fold(), is((Expression) new ValueExpression(new UnsignedIntValue(0x13))));
+        assertThat(new BinaryOperatorExpression(BinaryOperator.ADDITION, new ValueExpression(new StringValue("abc")), OPERAND1)
+                .fold(), is((Expression) new ValueExpression(new StringValue("abc2"))));
+    }
+
+    /**
+     * Asserts that {@link BinaryOperatorExpression#fold()} doesn't fold a binary operator expression whose evaluation raises an
+     * assembly message.
+     */
+    @Test
+    public void foldDivisionByZero() {
+        final Expression expression = new BinaryOperatorExpression(BinaryOperator.DIVISION, OPERAND1, new ValueExpression(
+                new UnsignedIntValue(0)));
+        assertThat(expression.fold(), is(sameInstance(expression)));
+    }
+
+    /**
+     * Asserts that {@link BinaryOperatorExpression#fold()} folds the constant operand of a binary operator expression whose other
+     * operand depends on the program counter.
+     */
+    @Test
+    public void foldPartial() {
+        final Expression expression = new BinaryOperatorExpression(BinaryOperator.ADDITION, ProgramCounterExpression.INSTANCE,
+                BINARY_OPERATOR_EXPRESSION);
+        assertThat(expression.fold(), is((Expression) new BinaryOperatorExpression(BinaryOperator.ADDITION,
+                ProgramCounterExpression.INSTANCE, new ValueExpression(new UnsignedIntValue(5)))));
+
+        final Expression unfoldable = new BinaryOperatorExpression(BinaryOperator.ADDITION, ProgramCounterExpression.INSTANCE,
+                OPERAND1);
+        assertThat(unfoldable.fold(), is(sameInstance(unfoldable)));
+    }
+
     /**
      * Asserts that {@link BinaryOperatorExpression#toString()} returns a string representation of the expression.
      */
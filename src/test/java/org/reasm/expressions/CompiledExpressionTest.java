@@ -0,0 +1,209 @@
+package org.reasm.expressions;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+import org.reasm.AssemblyMessage;
+import org.reasm.FloatValue;
+import org.reasm.SignedIntValue;
+import org.reasm.StaticSymbol;
+import org.reasm.UnsignedIntValue;
+import org.reasm.Value;
+import org.reasm.messages.DivisionByZeroErrorMessage;
+import org.reasm.testhelpers.AssemblyMessageCollector;
+import org.reasm.testhelpers.EquivalentAssemblyMessage;
+import org.reasm.testhelpers.SingleSymbolLookup;
+
+/**
+ * Test class for {@link CompiledExpression}.
+ *
+ * @author Francis Gagné
+ */
+public class CompiledExpressionTest {
+
+    private static final Expression ONE = new ValueExpression(new UnsignedIntValue(1));
+    private static final Expression TWO = new ValueExpression(new UnsignedIntValue(2));
+    private static final Expression THREE = new ValueExpression(new UnsignedIntValue(3));
+    private static final Expression ZERO = new ValueExpression(new UnsignedIntValue(0));
+    private static final Expression DIVISION_BY_ZERO = new BinaryOperatorExpression(BinaryOperator.DIVISION, ONE, ZERO);
+
+    @CheckForNull
+    private static Value assertSameEvaluation(@Nonnull Expression expression, long programCounter) {
+        final ArrayList<AssemblyMessage> expectedMessages = new ArrayList<>();
+        final Value expectedValue = expression.evaluate(new EvaluationContext(null, programCounter, new AssemblyMessageCollector(
+                expectedMessages)));
+
+        final ArrayList<AssemblyMessage> messages = new ArrayList<>();
+        final Value value = new CompiledExpression(expression).evaluate(new EvaluationContext(null, programCounter,
+                new AssemblyMessageCollector(messages)));
+
+        assertThat(value, is(expectedValue));
+        assertThat(messages.size(), is(expectedMessages.size()));
+        for (int i = 0; i < messages.size(); i++) {
+            assertThat(messages.get(i), new EquivalentAssemblyMessage(expectedMessages.get(i)));
+        }
+
+        return value;
+    }
+
+    /**
+     * Asserts that {@link CompiledExpression#CompiledExpression(Expression)} throws a {@link NullPointerException} when the
+     * <code>expression</code> argument is <code>null</code>.
+     */
+    @Test(expected = NullPointerException.class)
+    public void compiledExpressionNullExpression() {
+        new CompiledExpression(null);
+    }
+
+    /**
+     * Asserts that {@link CompiledExpression#evaluate(EvaluationContext)} only evaluates the part of a
+     * {@link ConditionalExpression} that is selected by the condition.
+     */
+    @Test
+    public void evaluateConditional() {
+        assertThat(assertSameEvaluation(new ConditionalExpression(ONE, TWO, DIVISION_BY_ZERO), 0),
+                is((Value) new UnsignedIntValue(2)));
+        assertThat(assertSameEvaluation(new ConditionalExpression(ZERO, DIVISION_BY_ZERO, THREE), 0),
+                is((Value) new UnsignedIntValue(3)));
+        assertThat(assertSameEvaluation(new ConditionalExpression(ValueExpression.UNDETERMINED, DIVISION_BY_ZERO, DIVISION_BY_ZERO),
+                0), is(nullValue()));
+    }
+
+    /**
+     * Asserts that {@link CompiledExpression#evaluate(EvaluationContext)} evaluates nested {@link ConditionalExpression
+     * ConditionalExpressions} that are operands of other expressions.
+     */
+    @Test
+    public void evaluateConditionalNested() {
+        final Expression expression = new BinaryOperatorExpression(BinaryOperator.ADDITION, new ConditionalExpression(
+                new ConditionalExpression(ZERO, ONE, ZERO), TWO, new ConditionalExpression(ValueExpression.UNDETERMINED, ONE, TWO)),
+                THREE);
+        assertThat(assertSameEvaluation(expression, 0), is(nullValue()));
+
+        final Expression expression2 = new BinaryOperatorExpression(BinaryOperator.ADDITION, THREE, new ConditionalExpression(
+                new ConditionalExpression(ONE, ONE, ZERO), TWO, ONE));
+        assertThat(assertSameEvaluation(expression2, 0), is((Value) new UnsignedIntValue(5)));
+    }
+
+    /**
+     * Asserts that {@link CompiledExpression#evaluate(EvaluationContext)} raises the same assembly messages as the expression tree.
+     */
+    @Test
+    public void evaluateDivisionByZero() {
+        final ArrayList<AssemblyMessage> messages = new ArrayList<>();
+        new CompiledExpression(DIVISION_BY_ZERO).evaluate(new EvaluationContext(null, 0, new AssemblyMessageCollector(messages)));
+        assertThat(messages, contains(new EquivalentAssemblyMessage(new DivisionByZeroErrorMessage())));
+
+        assertSameEvaluation(new BinaryOperatorExpression(BinaryOperator.ADDITION, DIVISION_BY_ZERO, DIVISION_BY_ZERO), 0);
+    }
+
+    /**
+     * Asserts that {@link CompiledExpression#evaluate(EvaluationContext)} evaluates expressions that are not compiled to
+     * instructions, such as {@link IdentifierExpression IdentifierExpressions}.
+     */
+    @Test
+    public void evaluateIdentifier() {
+        final Expression expression = new BinaryOperatorExpression(BinaryOperator.ADDITION, new IdentifierExpression("foo",
+                new SingleSymbolLookup("foo", new StaticSymbol(new UnsignedIntValue(40)))), TWO);
+        assertThat(assertSameEvaluation(expression, 0), is((Value) new UnsignedIntValue(42)));
+    }
+
+    /**
+     * Asserts that {@link CompiledExpression#evaluate(EvaluationContext)} evaluates every binary operator like the expression tree,
+     * both on integers in primitive form and on other operands.
+     */
+    @Test
+    public void evaluateIntegerOperators() {
+        final BinaryOperator[] operators = new BinaryOperator[] { BinaryOperator.MULTIPLICATION, BinaryOperator.DIVISION,
+                BinaryOperator.MODULUS, BinaryOperator.ADDITION, BinaryOperator.SUBTRACTION, BinaryOperator.BIT_SHIFT_LEFT,
+                BinaryOperator.BIT_SHIFT_RIGHT, BinaryOperator.LESS_THAN, BinaryOperator.LESS_THAN_OR_EQUAL_TO,
+                BinaryOperator.GREATER_THAN, BinaryOperator.GREATER_THAN_OR_EQUAL_TO, BinaryOperator.EQUAL_TO,
+                BinaryOperator.DIFFERENT_FROM, BinaryOperator.STRICTLY_EQUAL_TO, BinaryOperator.STRICTLY_DIFFERENT_FROM,
+                BinaryOperator.BITWISE_AND, BinaryOperator.BITWISE_XOR, BinaryOperator.BITWISE_OR, BinaryOperator.LOGICAL_AND,
+                BinaryOperator.LOGICAL_OR };
+        final Expression[] operands = new Expression[] { ZERO, ONE, new ValueExpression(new UnsignedIntValue(300)),
+                new ValueExpression(new UnsignedIntValue(-1)), new ValueExpression(new UnsignedIntValue(Long.MIN_VALUE)),
+                new ValueExpression(new SignedIntValue(-1)), new ValueExpression(new SignedIntValue(-300)),
+                new ValueExpression(new SignedIntValue(Long.MIN_VALUE)), new ValueExpression(new FloatValue(2.5)),
+                ValueExpression.UNDETERMINED };
+        for (BinaryOperator operator : operators) {
+            for (Expression operand1 : operands) {
+                for (Expression operand2 : operands) {
+                    assertSameEvaluation(new BinaryOperatorExpression(operator, operand1, operand2), 0);
+
+                    // Compute the first operand with an integer operator, so that it is an integer in primitive form.
+                    assertSameEvaluation(new BinaryOperatorExpression(operator, new BinaryOperatorExpression(
+                            BinaryOperator.BITWISE_OR, operand1, ProgramCounterExpression.INSTANCE), operand2), 0x101);
+                }
+            }
+        }
+    }
+
+    /**
+     * Asserts that {@link CompiledExpression#evaluate(EvaluationContext)} evaluates unary and binary operators like the expression
+     * tree.
+     */
+    @Test
+    public void evaluateOperators() {
+        final Expression expression = new BinaryOperatorExpression(BinaryOperator.MULTIPLICATION, new GroupingExpression(
+                new BinaryOperatorExpression(BinaryOperator.ADDITION, ONE, TWO)), new UnaryOperatorExpression(
+                UnaryOperator.NEGATION, THREE));
+        assertThat(assertSameEvaluation(expression, 0), is((Value) new SignedIntValue(-9)));
+    }
+
+    /**
+     * Asserts that {@link CompiledExpression#evaluate(EvaluationContext)} evaluates the {@link ProgramCounterExpression} to the
+     * program counter of the evaluation context.
+     */
+    @Test
+    public void evaluateProgramCounter() {
+        final Expression expression = new BinaryOperatorExpression(BinaryOperator.SUBTRACTION, ProgramCounterExpression.INSTANCE,
+                ONE);
+        assertThat(assertSameEvaluation(expression, 0x1000), is((Value) new UnsignedIntValue(0xFFF)));
+    }
+
+    /**
+     * Asserts that {@link CompiledExpression#evaluate(EvaluationContext)} produces the same value as the expression tree when a
+     * large compiled expression is evaluated repeatedly, and that the operand stack of a left-leaning chain of operators stays
+     * shallow.
+     */
+    @Test
+    public void evaluateRepeatedly() {
+        Expression expression = ONE;
+        for (int i = 0; i < 1000; i++) {
+            expression = new BinaryOperatorExpression(BinaryOperator.ADDITION, expression, new ConditionalExpression(
+                    new BinaryOperatorExpression(BinaryOperator.LESS_THAN, ProgramCounterExpression.INSTANCE, TWO), ONE, TWO));
+        }
+
+        final CompiledExpression compiledExpression = new CompiledExpression(expression);
+        assertThat(compiledExpression.getMaxStackDepth(), is(3));
+
+        final ArrayList<AssemblyMessage> messages = new ArrayList<>();
+        for (long programCounter = 0; programCounter < 100; programCounter++) {
+            final EvaluationContext evaluationContext = new EvaluationContext(null, programCounter, new AssemblyMessageCollector(
+                    messages));
+            assertThat(compiledExpression.evaluate(evaluationContext), is(expression.evaluate(evaluationContext)));
+        }
+
+        assertThat(messages, is(empty()));
+    }
+
+    /**
+     * Asserts that {@link CompiledExpression#getExpression()} returns the expression that was compiled.
+     */
+    @Test
+    public void getExpression() {
+        assertThat(new CompiledExpression(DIVISION_BY_ZERO).getExpression(), is(sameInstance(DIVISION_BY_ZERO)));
+    }
+
+}
@@ -1,5 +1,7 @@
 package org.reasm.expressions;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
@@ -9,6 +11,8 @@ import org.junit.Test;
 import org.reasm.UnsignedIntValue;
 import org.reasm.Value;
 import org.reasm.ValueVisitor;
+import org.reasm.testhelpers.DummySymbolLookup;
+import org.reasm.testhelpers.ExpressionDependencyRecorder;
 
 /**
  * Test class for {@link ConditionalExpression}.
@@ -29,6 +33,20 @@ public class ConditionalExpressionTest {
     private static final ConditionalExpression UNDEFINED_CONDITIONAL_EXPRESSION = new ConditionalExpression(
             ValueExpression.UNDETERMINED, TRUE_PART, FALSE_PART);
 
+    /**
+     * Asserts that {@link ConditionalExpression#collectDependencies(ExpressionDependencyVisitor)} reports the dependencies of the
+     * condition, of the true part and of the false part, in order.
+     */
+    @Test
+    public void collectDependencies() {
+        final IdentifierExpression condition = new IdentifierExpression("foo", DummySymbolLookup.DEFAULT);
+        final IdentifierExpression falsePart = new IdentifierExpression("bar", DummySymbolLookup.DEFAULT);
+        final ConditionalExpression expression = new ConditionalExpression(condition, ProgramCounterExpression.INSTANCE, falsePart);
+        assertThat(ExpressionDependencyRecorder.collect(expression), contains(condition, ProgramCounterExpression.INSTANCE,
+                falsePart));
+        assertThat(ExpressionDependencyRecorder.collect(TRUE_CONDITIONAL_EXPRESSION), is(empty()));
+    }
+
     /**
      * Asserts that {@link ConditionalExpression#ConditionalExpression(Expression, Expression, Expression)} correctly initializes a
      * {@link ConditionalExpression}.
@@ -67,6 +85,28 @@ public class ConditionalExpressionTest {
         new ConditionalExpression(FALSE_CONDITION, null, FALSE_PART);
     }
 
+    /**
+     * Asserts that {@link ConditionalExpression#dependsOnProgramCounter()} returns <code>true</code> if and only if one of the
+     * operands depends on the program counter.
+     */
+    @Test
+    public void dependsOnProgramCounter() {
+        assertThat(TRUE_CONDITIONAL_EXPRESSION.dependsOnProgramCounter(), is(false));
+        assertThat(new ConditionalExpression(TRUE_CONDITION, TRUE_PART, ProgramCounterExpression.INSTANCE)
+                .dependsOnProgramCounter(), is(true));
+    }
+
+    /**
+     * Asserts that {@link ConditionalExpression#dependsOnSymbols()} returns <code>true</code> if and only if one of the operands
+     * depends on symbols.
+     */
+    @Test
+    public void dependsOnSymbols() {
+        assertThat(TRUE_CONDITIONAL_EXPRESSION.dependsOnSymbols(), is(false));
+        assertThat(new ConditionalExpression(IdentifierExpressionTest.IDENTIFIER_EXPRESSION, TRUE_PART, FALSE_PART)
+                .dependsOnSymbols(), is(true));
+    }
+
     /**
      * Asserts that {@link ConditionalExpression#evaluate(EvaluationContext)} returns the value of the false part of the
      * {@link ConditionalExpression} when the condition evaluates to a false value.
@@ -94,6 +134,33 @@ public class ConditionalExpressionTest {
         assertThat(UNDEFINED_CONDITIONAL_EXPRESSION.evaluate(EvaluationContext.DUMMY), is(nullValue()));
     }
 
+    /**
+     * Asserts that {@link ConditionalExpression#fold()} folds a conditional expression whose condition is a constant into the part
+     * selected by the condition.
+     */
+    @Test
+    public void fold() {
+        assertThat(TRUE_CONDITIONAL_EXPRESSION.fold(), is(sameInstance(TRUE_PART)));
+        assertThat(FALSE_CONDITIONAL_EXPRESSION.fold(), is(sameInstance(FALSE_PART)));
+        assertThat(UNDEFINED_CONDITIONAL_EXPRESSION.fold(), is(sameInstance((Expression) ValueExpression.UNDETERMINED)));
+        assertThat(new ConditionalExpression(TRUE_CONDITION, IdentifierExpressionTest.IDENTIFIER_EXPRESSION, FALSE_PART).fold(),
+                is(sameInstance((Expression) IdentifierExpressionTest.IDENTIFIER_EXPRESSION)));
+    }
+
+    /**
+     * Asserts that {@link ConditionalExpression#fold()} folds the parts of a conditional expression whose condition is not a
+     * constant.
+     */
+    @Test
+    public void foldNonConstantCondition() {
+        final Expression condition = ProgramCounterExpression.INSTANCE;
+        final ConditionalExpression expression = new ConditionalExpression(condition, TRUE_PART, FALSE_PART);
+        assertThat(expression.fold(), is(sameInstance((Expression) expression)));
+
+        assertThat(new ConditionalExpression(condition, new GroupingExpression(TRUE_PART), FALSE_PART).fold(),
+                is((Expression) expression));
+    }
+
     /**
      * Asserts that {@link ConditionalExpression#simplify(EvaluationContext)} simplifies to the false part of a
      * {@link ConditionalExpression} when the condition evaluates to a false value.
@@ -3,6 +3,7 @@ package org.reasm.expressions;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 import java.util.ArrayList;
@@ -5209,6 +5210,55 @@ public class ExpressionEvaluationTest {
     static final FunctionValue UNDETERMINED_FUNCTION_C_VALUE = new FunctionValue(UNDETERMINED_FUNCTION_C);
     static final AssemblyMessage CANNOT_CONVERT_STRING_A_TO_FLOAT_ERROR_MESSAGE = new CannotConvertStringToFloatErrorMessage("a");
 
+    /**
+     * Asserts that {@link ExpressionEvaluation#booleanToValue(boolean)} returns the shared instances of the unsigned integer values
+     * 1 and 0.
+     */
+    @Test
+    public void booleanToValue() {
+        assertThat(ExpressionEvaluation.booleanToValue(true), is(sameInstance((Value) UnsignedIntValue.of(1))));
+        assertThat(ExpressionEvaluation.booleanToValue(false), is(sameInstance((Value) UnsignedIntValue.of(0))));
+    }
+
+    /**
+     * Asserts that {@link ExpressionEvaluation#evaluateAddition(Value, Value, EvaluationContext)} concatenates a long chain of
+     * strings and numbers correctly.
+     */
+    @Test
+    public void evaluateAdditionStringChain() {
+        final ArrayList<AssemblyMessage> messages = new ArrayList<>();
+        final EvaluationContext evaluationContext = new EvaluationContext(null, 0, new AssemblyMessageCollector(messages));
+        final StringBuilder sb = new StringBuilder();
+        Value result = new StringValue("");
+        for (int i = 0; i < 100000; i++) {
+            sb.append(i).append(',');
+            result = ExpressionEvaluation.evaluateAddition(result, UnsignedIntValue.of(i), evaluationContext);
+            result = ExpressionEvaluation.evaluateAddition(result, new StringValue(","), evaluationContext);
+        }
+
+        assertThat(result, is((Value) new StringValue(sb.toString())));
+        assertThat(messages, is(empty()));
+    }
+
+    /**
+     * Asserts that
+     * {@link ExpressionEvaluation#evaluateComparison(Value, Value, EvaluationContext, ExpressionEvaluation.Comparison)} compares
+     * concatenated strings correctly.
+     */
+    @Test
+    public void evaluateComparisonConcatenatedStrings() {
+        final ArrayList<AssemblyMessage> messages = new ArrayList<>();
+        final EvaluationContext evaluationContext = new EvaluationContext(null, 0, new AssemblyMessageCollector(messages));
+        final Value a42 = ExpressionEvaluation.evaluateAddition(new StringValue("a"), UINT_42, evaluationContext);
+        assertThat(ExpressionEvaluation.evaluateComparison(a42, STRING_A42, evaluationContext,
+                ExpressionEvaluation.Comparison.EQUAL_TO), is((Value) UINT_1));
+        assertThat(ExpressionEvaluation.evaluateComparison(a42, STRING_AA, evaluationContext,
+                ExpressionEvaluation.Comparison.LESS_THAN), is((Value) UINT_1));
+        assertThat(ExpressionEvaluation.evaluateStrictEquality(a42, STRING_A42,
+                ExpressionEvaluation.StrictEquality.STRICTLY_EQUAL_TO), is((Value) UINT_1));
+        assertThat(messages, is(empty()));
+    }
+
     /**
      * Asserts that
      * {@link ExpressionEvaluation#evaluateComparison(Value, Value, EvaluationContext, ExpressionEvaluation.Comparison)} behaves
@@ -1,5 +1,6 @@
 package org.reasm.expressions;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
@@ -11,7 +12,9 @@ import org.reasm.SignedIntValue;
 import org.reasm.StringValue;
 import org.reasm.UnsignedIntValue;
 import org.reasm.Value;
+import org.reasm.ValueVisitor;
 import org.reasm.testhelpers.DummyFunction;
+import org.reasm.testhelpers.ExpressionDependencyRecorder;
 
 /**
  * Test class for {@link Expression}.
@@ -22,6 +25,39 @@ public class ExpressionTest {
 
     private static final Function DUMMY_FUNCTION = new DummyFunction();
 
+    /**
+     * Asserts that {@link Expression#collectDependencies(ExpressionDependencyVisitor)} reports an expression that doesn't report
+     * its dependencies as an unknown dependency.
+     */
+    @Test
+    public void collectDependencies() {
+        final Expression expression = new Expression() {
+
+            @Override
+            public boolean equals(Object obj) {
+                return this == obj;
+            }
+
+            @Override
+            public Value evaluate(EvaluationContext evaluationContext) {
+                return null;
+            }
+
+            @Override
+            public int hashCode() {
+                return 0;
+            }
+
+            @Override
+            public IdentifierExpression toIdentifier(EvaluationContext evaluationContext, ValueVisitor<String> valueVisitor) {
+                return null;
+            }
+
+        };
+
+        assertThat(ExpressionDependencyRecorder.collect(expression), contains(expression));
+    }
+
     /**
      * Asserts that {@link Expression#quoteString(String)} returns <code>""</code> for the empty string.
      */
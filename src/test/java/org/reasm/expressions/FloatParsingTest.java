@@ -0,0 +1,138 @@
+package org.reasm.expressions;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link FloatParsing}.
+ *
+ * @author Francis Gagné
+ */
+public class FloatParsingTest {
+
+    private static final String[] CORPUS = {
+            // Simple values
+            "0", "1", "1.", ".5", "189.625", "000123.4500", "0.000", ".0e5",
+
+            // Values that take Clinger's fast path, and values that just miss it
+            "9007199254740992", "9007199254740993", "9007199254740991e22", "9007199254740991e23", "1e22", "1e23", "1e-22",
+            "1e-23", "123e30", "1234567e30",
+
+            // Values with more than 19 significant digits
+            "12345678901234567890", "123456789012345678901234567890", "0.1000000000000000055511151231257827021181583404541015625",
+            "0.1000000000000000055511151231257827021181583404541015624", "9999999999999999999", "99999999999999999999",
+            "18446744073709551615", "18446744073709551616", "0.30000000000000001665334536937734810635447502136230468749",
+            "0.30000000000000001665334536937734810635447502136230468750",
+
+            // Values that are exactly halfway between two doubles
+            "9007199254740995", "9007199254740997", "4503599627370496.5", "4503599627370497.5",
+            "2.000000000000000111022302462515654042363166809082031250",
+            "2.000000000000000111022302462515654042363166809082031251",
+
+            // Limits of the double type
+            "1.7976931348623157e308", "1.7976931348623158e308", "1.7976931348623159e308", "2.2250738585072014E-308",
+            "2.2250738585072011e-308", "2.2250738585072012e-308", "4.9e-324", "2.4703282292062327e-324",
+            "2.4703282292062328e-324", "1e-324", "1e-400", "1e309", "1e400",
+
+            // Exponents that are far out of range
+            "1e2147483648", "1e-2147483649", "0e999999999999", "100000000000000000000000e-2147483648",
+            "0.00000000000000000000001e2147483648" };
+
+    private static void assertParsesLikeJava(@Nonnull String value) {
+        assertThat(value, Double.doubleToLongBits(FloatParsing.parse(value, 0, value.length())),
+                is(Double.doubleToLongBits(Double.parseDouble(value))));
+    }
+
+    /**
+     * Asserts that {@link FloatParsing#parse(CharSequence, int, int)} produces the same results as
+     * {@link Double#parseDouble(String)} on a corpus of edge cases.
+     */
+    @Test
+    public void parseCorpus() {
+        for (String value : CORPUS) {
+            assertParsesLikeJava(value);
+        }
+    }
+
+    /**
+     * Asserts that {@link FloatParsing#parse(CharSequence, int, int)} only parses the specified range of the
+     * {@link CharSequence}.
+     */
+    @Test
+    public void parseRange() {
+        assertThat(FloatParsing.parse("x1.5E3y", 1, 6), is(1500.0));
+    }
+
+    /**
+     * Asserts that {@link FloatParsing#parse(CharSequence, int, int)} produces the same results as
+     * {@link Double#parseDouble(String)} on random doubles written in the shortest form that reads back as the same double.
+     */
+    @Test
+    public void parseRandomDoubles() {
+        final Random random = new Random(0x5eed);
+        for (int i = 0; i < 100000; i++) {
+            final double value = Double.longBitsToDouble(random.nextLong() & Long.MAX_VALUE);
+            if (!Double.isNaN(value) && !Double.isInfinite(value)) {
+                assertParsesLikeJava(Double.toString(value));
+            }
+        }
+    }
+
+    /**
+     * Asserts that {@link FloatParsing#parse(CharSequence, int, int)} produces the same results as
+     * {@link Double#parseDouble(String)} on the midpoints between random consecutive doubles, which must be rounded to even, and
+     * on values that are just below or just above them.
+     */
+    @Test
+    public void parseRandomMidpoints() {
+        final Random random = new Random(0x5eed);
+        for (int i = 0; i < 10000; i++) {
+            final double value = Double.longBitsToDouble(random.nextLong() & 0x7FEFFFFFFFFFFFFFL);
+            final BigDecimal midpoint = new BigDecimal(value).add(new BigDecimal(Math.nextUp(value))).divide(BigDecimal.valueOf(2));
+            assertParsesLikeJava(midpoint.toPlainString());
+            assertParsesLikeJava(midpoint.toPlainString() + "1");
+            assertParsesLikeJava(midpoint.subtract(midpoint.ulp()).toPlainString());
+        }
+    }
+
+    /**
+     * Asserts that {@link FloatParsing#parse(CharSequence, int, int)} produces the same results as
+     * {@link Double#parseDouble(String)} on random strings of digits with random exponents.
+     */
+    @Test
+    public void parseRandomStrings() {
+        final Random random = new Random(0x5eed);
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            sb.setLength(0);
+            final int integerDigits = random.nextInt(25);
+            for (int j = 0; j < integerDigits; j++) {
+                sb.append((char) ('0' + random.nextInt(10)));
+            }
+
+            final int fractionalDigits = integerDigits == 0 ? 1 + random.nextInt(25) : random.nextInt(25);
+            if (fractionalDigits != 0 || random.nextBoolean()) {
+                sb.append('.');
+                for (int j = 0; j < fractionalDigits; j++) {
+                    sb.append((char) ('0' + random.nextInt(10)));
+                }
+            }
+
+            if (random.nextBoolean()) {
+                sb.append(random.nextBoolean() ? 'E' : 'e');
+                sb.append(random.nextInt(3) == 0 ? "-" : random.nextBoolean() ? "+" : "");
+                sb.append(random.nextInt(350));
+            }
+
+            assertParsesLikeJava(sb.toString());
+        }
+    }
+
+}
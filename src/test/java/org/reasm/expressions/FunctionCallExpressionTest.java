@@ -33,7 +33,9 @@ import org.reasm.Value;
 import org.reasm.ValueVisitor;
 import org.reasm.messages.SubjectOfFunctionCallIsNotFunctionErrorMessage;
 import org.reasm.testhelpers.AssemblyMessageCollector;
+import org.reasm.testhelpers.DummySymbolLookup;
 import org.reasm.testhelpers.EquivalentAssemblyMessage;
+import org.reasm.testhelpers.ExpressionDependencyRecorder;
 
 /**
  * Test class for {@link FunctionCallExpression}.
@@ -213,6 +215,20 @@ public class FunctionCallExpressionTest {
     static final FunctionCallExpression FUNCTION_CALL_EXPRESSION = new FunctionCallExpression(FUNCTION_EXPRESSION,
             ARGUMENT_0_EXPRESSION, ARGUMENT_1_EXPRESSION, ARGUMENT_2_EXPRESSION, ARGUMENT_3_EXPRESSION);
 
+    /**
+     * Asserts that {@link FunctionCallExpression#collectDependencies(ExpressionDependencyVisitor)} reports the dependencies of the
+     * function expression, followed by the function call expression itself and the dependencies of the arguments.
+     */
+    @Test
+    public void collectDependencies() {
+        final IdentifierExpression function = new IdentifierExpression("foo", DummySymbolLookup.DEFAULT);
+        final FunctionCallExpression expression = new FunctionCallExpression(function, ARGUMENT_0_EXPRESSION,
+                ProgramCounterExpression.INSTANCE);
+        assertThat(ExpressionDependencyRecorder.collect(expression), contains(function, expression,
+                ProgramCounterExpression.INSTANCE));
+        assertThat(ExpressionDependencyRecorder.collect(FUNCTION_CALL_EXPRESSION), contains((Expression) FUNCTION_CALL_EXPRESSION));
+    }
+
     /**
      * Asserts that {@link FunctionCallExpression#evaluate(EvaluationContext)} evaluates to the result of the function call.
      */
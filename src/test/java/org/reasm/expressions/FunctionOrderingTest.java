@@ -0,0 +1,143 @@
+package org.reasm.expressions;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.reasm.Function;
+import org.reasm.testhelpers.DummyFunction;
+
+/**
+ * Test class for {@link FunctionOrdering}.
+ *
+ * @author Francis Gagné
+ */
+public class FunctionOrderingTest {
+
+    /**
+     * Asserts that {@link FunctionOrdering#compare(Function, Function)} orders functions by the order in which they are first
+     * compared.
+     */
+    @Test
+    public void compare() {
+        final FunctionOrdering ordering = new FunctionOrdering();
+        final Function a = new DummyFunction();
+        final Function b = new DummyFunction();
+        final Function c = new DummyFunction();
+        final Function d = new DummyFunction();
+
+        assertThat(ordering.compare(a, b), is(lessThan(0)));
+        assertThat(ordering.compare(b, a), is(greaterThan(0)));
+
+        // c has never been compared, so it is greater than a and b.
+        assertThat(ordering.compare(c, a), is(greaterThan(0)));
+        assertThat(ordering.compare(b, c), is(lessThan(0)));
+
+        // Neither d nor a new function have been compared, so the first one is less than the second one.
+        final Function e = new DummyFunction();
+        assertThat(ordering.compare(e, d), is(lessThan(0)));
+        assertThat(ordering.compare(d, c), is(greaterThan(0)));
+    }
+
+    /**
+     * Asserts that {@link FunctionOrdering#compare(Function, Function)} places both functions in the ordering when neither has been
+     * compared before, so that the second function is less than the functions that are compared for the first time afterwards.
+     */
+    @Test
+    public void compareAssignsOrdinalsToBothFunctions() {
+        final FunctionOrdering ordering = new FunctionOrdering();
+        final Function a = new DummyFunction();
+        final Function b = new DummyFunction();
+        final Function c = new DummyFunction();
+        final Function d = new DummyFunction();
+
+        assertThat(ordering.compare(a, b), is(lessThan(0)));
+        assertThat(ordering.compare(c, d), is(lessThan(0)));
+        assertThat(ordering.compare(b, c), is(lessThan(0)));
+        assertThat(ordering.compare(c, b), is(greaterThan(0)));
+        assertThat(ordering.compare(a, d), is(lessThan(0)));
+    }
+
+    /**
+     * Asserts that {@link FunctionOrdering#compare(Function, Function)} produces a single, coherent ordering when functions are
+     * compared concurrently from many threads.
+     *
+     * @throws InterruptedException
+     *             the test was interrupted
+     */
+    @Test
+    public void compareConcurrently() throws InterruptedException {
+        final FunctionOrdering ordering = new FunctionOrdering();
+        final Function[] functions = new Function[100];
+        for (int i = 0; i < functions.length; i++) {
+            functions[i] = new DummyFunction();
+        }
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < functions.length; i++) {
+                            final int length = functions.length;
+                            ordering.compare(functions[(i + offset * 7) % length], functions[(i * 13) % length]);
+                        }
+                    } catch (Throwable e) {
+                        failure.set(e);
+                    }
+                }
+            };
+            threads[t].start();
+        }
+
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(failure.get(), is(nullValue()));
+
+        // The ordering must be antisymmetric and transitive.
+        for (Function f1 : functions) {
+            for (Function f2 : functions) {
+                assertThat(Integer.signum(ordering.compare(f1, f2)), is(-Integer.signum(ordering.compare(f2, f1))));
+                for (Function f3 : functions) {
+                    if (ordering.compare(f1, f2) < 0 && ordering.compare(f2, f3) < 0) {
+                        assertThat(ordering.compare(f1, f3), is(lessThan(0)));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Asserts that {@link FunctionOrdering#compare(Function, Function)} returns 0 when a function is compared with itself.
+     */
+    @Test
+    public void compareSameFunction() {
+        final Function a = new DummyFunction();
+        assertThat(new FunctionOrdering().compare(a, a), is(0));
+    }
+
+    /**
+     * Asserts that {@link FunctionOrdering#of(org.reasm.Assembly)} returns the same ordering every time it is called with the same
+     * assembly.
+     */
+    @Test
+    public void of() {
+        assertThat(FunctionOrdering.of(null), is(sameInstance(FunctionOrdering.of(null))));
+    }
+
+}
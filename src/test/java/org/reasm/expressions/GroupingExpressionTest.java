@@ -1,5 +1,7 @@
 package org.reasm.expressions;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
@@ -9,6 +11,7 @@ import org.reasm.UnsignedIntValue;
 import org.reasm.Value;
 import org.reasm.ValueVisitor;
 import org.reasm.testhelpers.DummySymbolLookup;
+import org.reasm.testhelpers.ExpressionDependencyRecorder;
 
 /**
  * Test class for {@link GroupingExpression}.
@@ -20,6 +23,37 @@ public class GroupingExpressionTest {
     private static final Expression CHILD_EXPRESSION = new ValueExpression(new UnsignedIntValue(2));
     static final GroupingExpression GROUPING_EXPRESSION = new GroupingExpression(CHILD_EXPRESSION);
 
+    /**
+     * Asserts that {@link GroupingExpression#collectDependencies(ExpressionDependencyVisitor)} reports the dependencies of the
+     * child expression.
+     */
+    @Test
+    public void collectDependencies() {
+        assertThat(ExpressionDependencyRecorder.collect(GROUPING_EXPRESSION), is(empty()));
+        assertThat(ExpressionDependencyRecorder.collect(new GroupingExpression(ProgramCounterExpression.INSTANCE)),
+                contains((Expression) ProgramCounterExpression.INSTANCE));
+    }
+
+    /**
+     * Asserts that {@link GroupingExpression#dependsOnProgramCounter()} returns <code>true</code> if and only if the child
+     * expression depends on the program counter.
+     */
+    @Test
+    public void dependsOnProgramCounter() {
+        assertThat(GROUPING_EXPRESSION.dependsOnProgramCounter(), is(false));
+        assertThat(new GroupingExpression(ProgramCounterExpression.INSTANCE).dependsOnProgramCounter(), is(true));
+    }
+
+    /**
+     * Asserts that {@link GroupingExpression#dependsOnSymbols()} returns <code>true</code> if and only if the child expression
+     * depends on symbols.
+     */
+    @Test
+    public void dependsOnSymbols() {
+        assertThat(GROUPING_EXPRESSION.dependsOnSymbols(), is(false));
+        assertThat(new GroupingExpression(new IdentifierExpression("foo", DummySymbolLookup.DEFAULT)).dependsOnSymbols(), is(true));
+    }
+
     /**
      * Asserts that {@link GroupingExpression#evaluate(EvaluationContext)} evaluates to the value of the child expression.
      */
@@ -28,6 +62,18 @@ public class GroupingExpressionTest {
         assertThat(GROUPING_EXPRESSION.evaluate(EvaluationContext.DUMMY), is((Value) new UnsignedIntValue(2)));
     }
 
+    /**
+     * Asserts that {@link GroupingExpression#fold()} folds a grouping expression whose child expression is a constant into the
+     * child expression, and leaves other grouping expressions unchanged.
+     */
+    @Test
+    public void fold() {
+        assertThat(GROUPING_EXPRESSION.fold(), is(sameInstance(CHILD_EXPRESSION)));
+
+        final Expression expression = new GroupingExpression(new IdentifierExpression("foo", DummySymbolLookup.DEFAULT));
+        assertThat(expression.fold(), is(sameInstance(expression)));
+    }
+
     /**
      * Asserts that {@link GroupingExpression#GroupingExpression(Expression)} correctly initializes a {@link GroupingExpression}.
      */
@@ -1,10 +1,15 @@
 package org.reasm.expressions;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.junit.Test;
 import org.reasm.StaticSymbol;
 import org.reasm.Symbol;
@@ -13,6 +18,7 @@ import org.reasm.UnsignedIntValue;
 import org.reasm.Value;
 import org.reasm.ValueVisitor;
 import org.reasm.testhelpers.DummySymbolLookup;
+import org.reasm.testhelpers.ExpressionDependencyRecorder;
 import org.reasm.testhelpers.SingleSymbolLookup;
 
 /**
@@ -24,6 +30,35 @@ public class IdentifierExpressionTest {
 
     static final IdentifierExpression IDENTIFIER_EXPRESSION = new IdentifierExpression("foo", DummySymbolLookup.DEFAULT);
 
+    /**
+     * Asserts that {@link IdentifierExpression#collectDependencies(ExpressionDependencyVisitor)} reports the identifier itself.
+     */
+    @Test
+    public void collectDependencies() {
+        assertThat(ExpressionDependencyRecorder.collect(IDENTIFIER_EXPRESSION), contains((Expression) IDENTIFIER_EXPRESSION));
+    }
+
+    /**
+     * Asserts that {@link IdentifierExpression#collectDependencies(ExpressionDependencyVisitor)} reports no dependencies when the
+     * identifier has no {@link SymbolLookup}.
+     */
+    @Test
+    public void collectDependenciesNullSymbolLookup() {
+        final IdentifierExpression expression = new IdentifierExpression("foo", null);
+        assertThat(ExpressionDependencyRecorder.collect(expression), is(empty()));
+        assertThat(expression.dependsOnSymbols(), is(false));
+    }
+
+    /**
+     * Asserts that {@link IdentifierExpression#dependsOnSymbols()} returns <code>true</code> and that
+     * {@link IdentifierExpression#dependsOnProgramCounter()} returns <code>false</code>.
+     */
+    @Test
+    public void dependsOn() {
+        assertThat(IDENTIFIER_EXPRESSION.dependsOnProgramCounter(), is(false));
+        assertThat(IDENTIFIER_EXPRESSION.dependsOnSymbols(), is(true));
+    }
+
     /**
      * Asserts that {@link IdentifierExpression#evaluate(EvaluationContext)} evaluates to the value of the symbol identified by the
      * identifier.
@@ -35,6 +70,42 @@ public class IdentifierExpressionTest {
         assertThat(new IdentifierExpression("foo", symbolLookup).evaluate(EvaluationContext.DUMMY), is(value));
     }
 
+    /**
+     * Asserts that {@link IdentifierExpression#evaluate(EvaluationContext)} only looks up the symbol again when the definition
+     * epoch of an {@link EpochSymbolLookup} changes.
+     */
+    @Test
+    public void evaluateEpochSymbolLookup() {
+        final Value value = new UnsignedIntValue(1);
+        final StaticSymbol symbol = new StaticSymbol(value);
+        final AtomicInteger lookups = new AtomicInteger();
+        final AtomicLong epoch = new AtomicLong();
+        final EpochSymbolLookup symbolLookup = new EpochSymbolLookup() {
+            @Override
+            public long getDefinitionEpoch() {
+                return epoch.get();
+            }
+
+            @Override
+            public Symbol getSymbol(String name) {
+                lookups.incrementAndGet();
+                return symbol;
+            }
+        };
+
+        final IdentifierExpression expression = new IdentifierExpression("foo", symbolLookup);
+        for (int i = 0; i < 10; i++) {
+            assertThat(expression.evaluate(EvaluationContext.DUMMY), is(value));
+        }
+
+        assertThat(lookups.get(), is(1));
+
+        epoch.incrementAndGet();
+        assertThat(expression.evaluate(EvaluationContext.DUMMY), is(value));
+        assertThat(expression.evaluate(EvaluationContext.DUMMY), is(value));
+        assertThat(lookups.get(), is(2));
+    }
+
     /**
      * Asserts that {@link IdentifierExpression#evaluate(EvaluationContext)} returns <code>null</code> when the identifier
      * identifies a symbol whose value is not a {@link Value}.
@@ -1,5 +1,6 @@
 package org.reasm.expressions;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
@@ -16,6 +17,7 @@ import org.reasm.UnsignedIntValue;
 import org.reasm.Value;
 import org.reasm.ValueVisitor;
 import org.reasm.testhelpers.DummySymbolLookup;
+import org.reasm.testhelpers.ExpressionDependencyRecorder;
 
 /**
  * Test class for {@link IndexerExpression}.
@@ -52,6 +54,21 @@ public class IndexerExpressionTest {
     private static final IndexerExpression INDEXER_EXPRESSION_WITH_VALUE_INDEX = new IndexerExpression(SUBJECT_EXPRESSION,
             VALUE_INDEX_EXPRESSION, DummySymbolLookup.DEFAULT);
 
+    /**
+     * Asserts that {@link IndexerExpression#collectDependencies(ExpressionDependencyVisitor)} reports the dependencies of the
+     * subject and of the index, followed by the indexer expression itself.
+     */
+    @Test
+    public void collectDependencies() {
+        assertThat(ExpressionDependencyRecorder.collect(INDEXER_EXPRESSION_WITH_VALUE_INDEX), contains(SUBJECT_EXPRESSION,
+                INDEXER_EXPRESSION_WITH_VALUE_INDEX));
+
+        final IndexerExpression expression = new IndexerExpression(SUBJECT_EXPRESSION, SYMBOLIC_INDEX_EXPRESSION,
+                DummySymbolLookup.DEFAULT);
+        assertThat(ExpressionDependencyRecorder.collect(expression), contains(SUBJECT_EXPRESSION, SYMBOLIC_INDEX_EXPRESSION,
+                expression));
+    }
+
     /**
      * Asserts that {@link IndexerExpression#evaluate(EvaluationContext)} evaluates to the value of the symbol identified by the
      * indexer expression.
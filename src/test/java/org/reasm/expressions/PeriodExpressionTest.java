@@ -1,5 +1,6 @@
 package org.reasm.expressions;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
@@ -10,6 +11,7 @@ import org.reasm.UnsignedIntValue;
 import org.reasm.Value;
 import org.reasm.ValueVisitor;
 import org.reasm.testhelpers.DummySymbolLookup;
+import org.reasm.testhelpers.ExpressionDependencyRecorder;
 import org.reasm.testhelpers.SingleSymbolLookup;
 
 /**
@@ -24,6 +26,16 @@ public class PeriodExpressionTest {
     private static final PeriodExpression PERIOD_EXPRESSION = new PeriodExpression(LEFT_EXPRESSION, RIGHT_EXPRESSION,
             DummySymbolLookup.DEFAULT);
 
+    /**
+     * Asserts that {@link PeriodExpression#collectDependencies(ExpressionDependencyVisitor)} reports the dependencies of both
+     * operands, followed by the period expression itself.
+     */
+    @Test
+    public void collectDependencies() {
+        assertThat(ExpressionDependencyRecorder.collect(PERIOD_EXPRESSION), contains(LEFT_EXPRESSION, RIGHT_EXPRESSION,
+                PERIOD_EXPRESSION));
+    }
+
     /**
      * Asserts that {@link PeriodExpression#evaluate(EvaluationContext)} evaluates to the value of the symbol identified by the
      * period expression.
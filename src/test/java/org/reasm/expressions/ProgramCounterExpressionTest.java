@@ -1,5 +1,6 @@
 package org.reasm.expressions;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
@@ -7,6 +8,7 @@ import org.junit.Test;
 import org.reasm.UnsignedIntValue;
 import org.reasm.Value;
 import org.reasm.ValueVisitor;
+import org.reasm.testhelpers.ExpressionDependencyRecorder;
 
 /**
  * Test class for {@link ProgramCounterExpression}.
@@ -17,6 +19,25 @@ public class ProgramCounterExpressionTest {
 
     private static final EvaluationContext EVALUATION_CONTEXT = new EvaluationContext(null, 1, null);
 
+    /**
+     * Asserts that {@link ProgramCounterExpression#collectDependencies(ExpressionDependencyVisitor)} reports the program counter.
+     */
+    @Test
+    public void collectDependencies() {
+        assertThat(ExpressionDependencyRecorder.collect(ProgramCounterExpression.INSTANCE),
+                contains((Expression) ProgramCounterExpression.INSTANCE));
+    }
+
+    /**
+     * Asserts that {@link ProgramCounterExpression#dependsOnProgramCounter()} returns <code>true</code> and that
+     * {@link ProgramCounterExpression#dependsOnSymbols()} returns <code>false</code>.
+     */
+    @Test
+    public void dependsOn() {
+        assertThat(ProgramCounterExpression.INSTANCE.dependsOnProgramCounter(), is(true));
+        assertThat(ProgramCounterExpression.INSTANCE.dependsOnSymbols(), is(false));
+    }
+
     /**
      * Asserts that {@link ProgramCounterExpression#evaluate(EvaluationContext)} evaluates to the evaluation context's program
      * counter.
@@ -1,6 +1,9 @@
 package org.reasm.expressions;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 import org.junit.Test;
@@ -8,6 +11,7 @@ import org.reasm.SignedIntValue;
 import org.reasm.UnsignedIntValue;
 import org.reasm.Value;
 import org.reasm.ValueVisitor;
+import org.reasm.testhelpers.ExpressionDependencyRecorder;
 
 /**
  * Test class for {@link UnaryOperatorExpression}.
@@ -19,6 +23,39 @@ public class UnaryOperatorExpressionTest {
     private static final Expression OPERAND = new ValueExpression(new UnsignedIntValue(2));
     static final UnaryOperatorExpression UNARY_OPERATOR_EXPRESSION = new UnaryOperatorExpression(UnaryOperator.NEGATION, OPERAND);
 
+    /**
+     * Asserts that {@link UnaryOperatorExpression#collectDependencies(ExpressionDependencyVisitor)} reports the dependencies of
+     * the operand.
+     */
+    @Test
+    public void collectDependencies() {
+        assertThat(ExpressionDependencyRecorder.collect(UNARY_OPERATOR_EXPRESSION), is(empty()));
+        assertThat(ExpressionDependencyRecorder.collect(new UnaryOperatorExpression(UnaryOperator.NEGATION,
+                ProgramCounterExpression.INSTANCE)), contains((Expression) ProgramCounterExpression.INSTANCE));
+    }
+
+    /**
+     * Asserts that {@link UnaryOperatorExpression#dependsOnProgramCounter()} returns <code>true</code> if and only if the operand
+     * depends on the program counter.
+     */
+    @Test
+    public void dependsOnProgramCounter() {
+        assertThat(UNARY_OPERATOR_EXPRESSION.dependsOnProgramCounter(), is(false));
+        assertThat(new UnaryOperatorExpression(UnaryOperator.NEGATION, ProgramCounterExpression.INSTANCE).dependsOnProgramCounter(),
+                is(true));
+    }
+
+    /**
+     * Asserts that {@link UnaryOperatorExpression#dependsOnSymbols()} returns <code>true</code> if and only if the operand depends
+     * on symbols.
+     */
+    @Test
+    public void dependsOnSymbols() {
+        assertThat(UNARY_OPERATOR_EXPRESSION.dependsOnSymbols(), is(false));
+        assertThat(new UnaryOperatorExpression(UnaryOperator.NEGATION, IdentifierExpressionTest.IDENTIFIER_EXPRESSION)
+                .dependsOnSymbols(), is(true));
+    }
+
     /**
      * Asserts that {@link UnaryOperatorExpression#evaluate(EvaluationContext)} evaluates to the result of applying the expression's
      * operator to the expression's operand.
@@ -28,6 +65,18 @@ public class UnaryOperatorExpressionTest {
         assertThat(UNARY_OPERATOR_EXPRESSION.evaluate(EvaluationContext.DUMMY), is((Value) new SignedIntValue(-2)));
     }
 
+    /**
+     * Asserts that {@link UnaryOperatorExpression#fold()} folds a unary operator expression whose operand is a constant into a
+     * {@link ValueExpression}, and leaves other unary operator expressions unchanged.
+     */
+    @Test
+    public void fold() {
+        assertThat(UNARY_OPERATOR_EXPRESSION.fold(), is((Expression) new ValueExpression(new SignedIntValue(-2))));
+
+        final Expression expression = new UnaryOperatorExpression(UnaryOperator.NEGATION, ProgramCounterExpression.INSTANCE);
+        assertThat(expression.fold(), is(sameInstance(expression)));
+    }
+
     /**
      * Asserts that {@link UnaryOperatorExpression#toString()} returns a string representation of the expression.
      */
@@ -1,5 +1,6 @@
 package org.reasm.expressions;
 
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
@@ -8,6 +9,7 @@ import org.junit.Test;
 import org.reasm.UnsignedIntValue;
 import org.reasm.Value;
 import org.reasm.ValueVisitor;
+import org.reasm.testhelpers.ExpressionDependencyRecorder;
 
 /**
  * Test class for {@link ValueExpression}.
@@ -19,6 +21,24 @@ public class ValueExpressionTest {
     private static final Value VALUE = new UnsignedIntValue(1);
     private static final ValueExpression VALUE_EXPRESSION = new ValueExpression(VALUE);
 
+    /**
+     * Asserts that {@link ValueExpression#collectDependencies(ExpressionDependencyVisitor)} reports no dependencies.
+     */
+    @Test
+    public void collectDependencies() {
+        assertThat(ExpressionDependencyRecorder.collect(VALUE_EXPRESSION), is(empty()));
+    }
+
+    /**
+     * Asserts that {@link ValueExpression#dependsOnProgramCounter()} and {@link ValueExpression#dependsOnSymbols()} return
+     * <code>false</code>.
+     */
+    @Test
+    public void dependsOn() {
+        assertThat(VALUE_EXPRESSION.dependsOnProgramCounter(), is(false));
+        assertThat(VALUE_EXPRESSION.dependsOnSymbols(), is(false));
+    }
+
     /**
      * Asserts that {@link ValueExpression#evaluate(EvaluationContext)} evaluates to the expression's value.
      */
@@ -27,6 +47,14 @@ public class ValueExpressionTest {
         assertThat(VALUE_EXPRESSION.evaluate(EvaluationContext.DUMMY), is(sameInstance(VALUE)));
     }
 
+    /**
+     * Asserts that {@link ValueExpression#fold()} returns the value expression itself.
+     */
+    @Test
+    public void fold() {
+        assertThat(VALUE_EXPRESSION.fold(), is(sameInstance((Expression) VALUE_EXPRESSION)));
+    }
+
     /**
      * Asserts that {@link ValueExpression#toString()} returns a string representation of the expression.
      */
@@ -10,11 +10,15 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import static org.reasm.testhelpers.IsSourceNodeWithLength.hasLength;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -33,7 +37,9 @@ import org.reasm.testhelpers.NullArchitecture;
 
 import ca.fragag.text.Document;
 
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
 
 /**
  * Test class for {@link AbstractSourceFile}.
@@ -215,7 +221,22 @@ public class AbstractSourceFileTest {
                 { new DataItem("aaa\r", 4, 0) },
 
                 // A carriage return + line feed at the end of the text
-                { new DataItem("aaa\r\n", 5, 0) } });
+                { new DataItem("aaa\r\n", 5, 0) },
+
+                // A carriage return + line feed that straddles two chunks
+                { new DataItem(Strings.repeat("a", 8191) + "\r\nb", 8193, 1) },
+
+                // Many lines that span many chunks
+                { createManyLinesDataItem() } });
+
+        @Nonnull
+        private static DataItem createManyLinesDataItem() {
+            // 15000 lines of 5 characters each, followed by an empty line
+            final Integer[] expectedLineLengths = new Integer[15001];
+            Arrays.fill(expectedLineLengths, 5);
+            expectedLineLengths[15000] = 0;
+            return new DataItem(Strings.repeat("aaa\r\n", 15000), expectedLineLengths);
+        }
 
         /**
          * Gets the parameters to use to test {@link AbstractSourceFile#computeLineLengths(CharSequence)}.
@@ -247,8 +268,8 @@ public class AbstractSourceFileTest {
          */
         @Test
         public void computeLineLengths() {
-            final ArrayList<Integer> lineLengths = AbstractSourceFile.computeLineLengths(this.data.text);
-            assertThat(lineLengths, contains(this.data.expectedLineLengths));
+            final int[] lineLengths = AbstractSourceFile.computeLineLengths(this.data.text);
+            assertThat(Ints.asList(lineLengths), contains(this.data.expectedLineLengths));
         }
 
         /**
@@ -257,8 +278,18 @@ public class AbstractSourceFileTest {
          */
         @Test
         public void computeLineLengthsDocument() {
-            final ArrayList<Integer> lineLengths = AbstractSourceFile.computeLineLengths(new Document(this.data.text));
-            assertThat(lineLengths, contains(this.data.expectedLineLengths));
+            final int[] lineLengths = AbstractSourceFile.computeLineLengths(new Document(this.data.text));
+            assertThat(Ints.asList(lineLengths), contains(this.data.expectedLineLengths));
+        }
+
+        /**
+         * Asserts that {@link AbstractSourceFile#computeLineLengths(CharSequence)} computes the correct line lengths in a
+         * {@link StringBuilder}.
+         */
+        @Test
+        public void computeLineLengthsStringBuilder() {
+            final int[] lineLengths = AbstractSourceFile.computeLineLengths(new StringBuilder(this.data.text));
+            assertThat(Ints.asList(lineLengths), contains(this.data.expectedLineLengths));
         }
 
     }
@@ -386,6 +417,32 @@ public class AbstractSourceFileTest {
         assertThat(parsedAgain, is(sameInstance(parsed)));
     }
 
+    /**
+     * Asserts that {@link AbstractSourceFile#getParsed(Architecture, ForkJoinPool)} returns a nonnull {@link SourceNode} and
+     * shares its result with {@link AbstractSourceFile#getParsed(Architecture)}.
+     */
+    @Test
+    public void getParsedForkJoinPool() {
+        final DummySourceFile file = new DummySourceFile(new Document("12345678"));
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            final SourceNode parsed = file.getParsed(HexArchitecture.INSTANCE, pool);
+            assertThat(parsed, is(notNullValue()));
+            assertThat(file.getParsed(HexArchitecture.INSTANCE), is(sameInstance(parsed)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Asserts that {@link AbstractSourceFile#getParsed(Architecture, ForkJoinPool)} throws a {@link NullPointerException} when the
+     * <code>pool</code> argument is <code>null</code>.
+     */
+    @Test(expected = NullPointerException.class)
+    public void getParsedForkJoinPoolNullPool() {
+        new DummySourceFile(new Document("12345678")).getParsed(HexArchitecture.INSTANCE, (ForkJoinPool) null);
+    }
+
     /**
      * Asserts that {@link AbstractSourceFile#getParsed(Architecture)} throws a {@link NullPointerException} when the
      * <code>architecture</code> argument is <code>null</code>.
@@ -411,6 +468,88 @@ public class AbstractSourceFileTest {
         }
     }
 
+    /**
+     * Asserts that {@link AbstractSourceFile#getParsed(Architecture, ParseCache)} returns a nonnull {@link SourceNode} and shares
+     * its result with {@link AbstractSourceFile#getParsed(Architecture)}.
+     *
+     * @throws IOException
+     *             an I/O error occurred
+     */
+    @Test
+    public void getParsedParseCache() throws IOException {
+        final DummySourceFile file = new DummySourceFile(new Document("12345678"));
+        final Path directory = Files.createTempDirectory("reasm");
+        try {
+            final SourceNode parsed = file.getParsed(HexArchitecture.INSTANCE, new ParseCache(directory));
+            assertThat(parsed, is(notNullValue()));
+            assertThat(file.getParsed(HexArchitecture.INSTANCE), is(sameInstance(parsed)));
+        } finally {
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * Asserts that {@link AbstractSourceFile#getParsed(Architecture, ParseCache, ForkJoinPool)} parses the file with the
+     * specified cache and pool, and that the result is cached.
+     *
+     * @throws IOException
+     *             an I/O error occurred
+     */
+    @Test
+    public void getParsedParseCacheForkJoinPool() throws IOException {
+        final DummySourceFile file = new DummySourceFile(new Document("12345678"));
+        final Path directory = Files.createTempDirectory("reasm");
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            final SourceNode parsed = file.getParsed(HexArchitecture.INSTANCE, new ParseCache(directory), pool);
+            assertThat(parsed, is(notNullValue()));
+            assertThat(file.getParsed(HexArchitecture.INSTANCE), is(sameInstance(parsed)));
+        } finally {
+            pool.shutdown();
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * Asserts that {@link AbstractSourceFile#getParsed(Architecture, ParseCache, ForkJoinPool)} throws a
+     * {@link NullPointerException} when the <code>cache</code> argument is <code>null</code>.
+     */
+    @Test(expected = NullPointerException.class)
+    public void getParsedParseCacheForkJoinPoolNullCache() {
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            new DummySourceFile(new Document("12345678")).getParsed(HexArchitecture.INSTANCE, null, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Asserts that {@link AbstractSourceFile#getParsed(Architecture, ParseCache, ForkJoinPool)} throws a
+     * {@link NullPointerException} when the <code>pool</code> argument is <code>null</code>.
+     *
+     * @throws IOException
+     *             an I/O error occurred
+     */
+    @Test(expected = NullPointerException.class)
+    public void getParsedParseCacheForkJoinPoolNullPool() throws IOException {
+        final Path directory = Files.createTempDirectory("reasm");
+        try {
+            new DummySourceFile(new Document("12345678")).getParsed(HexArchitecture.INSTANCE, new ParseCache(directory), null);
+        } finally {
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * Asserts that {@link AbstractSourceFile#getParsed(Architecture, ParseCache)} throws a {@link NullPointerException} when the
+     * <code>cache</code> argument is <code>null</code>.
+     */
+    @Test(expected = NullPointerException.class)
+    public void getParsedParseCacheNullCache() {
+        new DummySourceFile(new Document("12345678")).getParsed(HexArchitecture.INSTANCE, (ParseCache) null);
+    }
+
     /**
      * Asserts that {@link AbstractSourceFile#getParsed(Architecture)} throws a {@link ContractViolationException} when the
      * architecture's {@linkplain Architecture#parse(Document) parse method} returns a {@link SourceNode} with a length that is
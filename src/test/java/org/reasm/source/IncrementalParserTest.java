@@ -0,0 +1,190 @@
+package org.reasm.source;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+import org.reasm.ContractViolationException;
+import org.reasm.testhelpers.DummySourceNode;
+
+import ca.fragag.text.Document;
+import ca.fragag.text.DocumentReader;
+
+/**
+ * Test class for {@link IncrementalParser}.
+ *
+ * @author Francis Gagné
+ */
+public class IncrementalParserTest {
+
+    /**
+     * Parses words followed by spaces. The length of a node depends on the character that follows it.
+     */
+    private static final IncrementalParser WORD_PARSER = new IncrementalParser() {
+        @Override
+        protected SourceNode parseNode(DocumentReader reader) {
+            final int start = reader.getCurrentPosition();
+            while (!reader.atEnd() && reader.getCurrentCodePoint() != ' ') {
+                reader.advance();
+            }
+
+            while (!reader.atEnd() && reader.getCurrentCodePoint() == ' ') {
+                reader.advance();
+            }
+
+            return new DummySourceNode(reader.getCurrentPosition() - start, null);
+        }
+    };
+
+    private static void assertSameChildLengths(@Nonnull SourceNode actual, @Nonnull SourceNode expected) {
+        final List<SourceNode> actualChildNodes = ((CompositeSourceNode) actual).getChildNodes();
+        final List<SourceNode> expectedChildNodes = ((CompositeSourceNode) expected).getChildNodes();
+        final ArrayList<Integer> actualLengths = new ArrayList<>();
+        for (SourceNode node : actualChildNodes) {
+            actualLengths.add(node.getLength());
+        }
+
+        final ArrayList<Integer> expectedLengths = new ArrayList<>();
+        for (SourceNode node : expectedChildNodes) {
+            expectedLengths.add(node.getLength());
+        }
+
+        assertThat(actualLengths, is(expectedLengths));
+    }
+
+    @Nonnull
+    private static String replace(@Nonnull String text, int offset, int length, @Nonnull String replacement) {
+        return text.substring(0, offset) + replacement + text.substring(offset + length);
+    }
+
+    /**
+     * Asserts that {@link IncrementalParser#parse(Document)} splits the text in the nodes returned by
+     * {@link IncrementalParser#parseNode(DocumentReader)}.
+     */
+    @Test
+    public void parse() {
+        final SourceNode result = WORD_PARSER.parse(new Document("ab  c d"));
+        assertThat(result.getClass() == SimpleCompositeSourceNode.class, is(true));
+        assertThat(result.getLength(), is(7));
+        final List<SourceNode> childNodes = ((CompositeSourceNode) result).getChildNodes();
+        assertThat(childNodes.size(), is(3));
+        assertThat(childNodes.get(0).getLength(), is(4));
+        assertThat(childNodes.get(1).getLength(), is(2));
+        assertThat(childNodes.get(2).getLength(), is(1));
+    }
+
+    /**
+     * Asserts that {@link IncrementalParser#parse(Document)} throws a {@link ContractViolationException} when
+     * {@link IncrementalParser#parseNode(DocumentReader)} returns an empty node.
+     */
+    @Test(expected = ContractViolationException.class)
+    public void parseEmptyNode() {
+        new IncrementalParser() {
+            @Override
+            protected SourceNode parseNode(DocumentReader reader) {
+                return new DummySourceNode(0, null);
+            }
+        }.parse(new Document("abc"));
+    }
+
+    /**
+     * Asserts that {@link IncrementalParser#parse(Document)} throws a {@link NullPointerException} when the <code>text</code>
+     * argument is <code>null</code>.
+     */
+    @Test(expected = NullPointerException.class)
+    public void parseNullText() {
+        WORD_PARSER.parse(null);
+    }
+
+    /**
+     * Asserts that {@link IncrementalParser#parse(Document)} throws a {@link ContractViolationException} when
+     * {@link IncrementalParser#parseNode(DocumentReader)} returns a node that extends past the end of the text.
+     */
+    @Test(expected = ContractViolationException.class)
+    public void parseTooLongNode() {
+        new IncrementalParser() {
+            @Override
+            protected SourceNode parseNode(DocumentReader reader) {
+                return new DummySourceNode(2, null);
+            }
+        }.parse(new Document("abc"));
+    }
+
+    /**
+     * Asserts that {@link IncrementalParser#reparse(Document, SourceNode, int, int, int)} parses the whole text again when the old
+     * source node is not a {@link SimpleCompositeSourceNode}.
+     */
+    @Test
+    public void reparseNotComposite() {
+        final SourceNode result = WORD_PARSER.reparse(new Document("ab cd"), new DummySourceNode(4, null), 2, 0, 1);
+        assertSameChildLengths(result, WORD_PARSER.parse(new Document("ab cd")));
+    }
+
+    /**
+     * Asserts that {@link IncrementalParser#reparse(Document, SourceNode, int, int, int)} throws a {@link NullPointerException}
+     * when the <code>oldParsed</code> argument is <code>null</code>.
+     */
+    @Test(expected = NullPointerException.class)
+    public void reparseNullOldParsed() {
+        WORD_PARSER.reparse(new Document("ab"), null, 0, 0, 0);
+    }
+
+    /**
+     * Asserts that {@link IncrementalParser#reparse(Document, SourceNode, int, int, int)} throws a {@link NullPointerException}
+     * when the <code>text</code> argument is <code>null</code>.
+     */
+    @Test(expected = NullPointerException.class)
+    public void reparseNullText() {
+        WORD_PARSER.reparse(null, WORD_PARSER.parse(new Document("ab")), 0, 0, 0);
+    }
+
+    /**
+     * Asserts that {@link IncrementalParser#reparse(Document, SourceNode, int, int, int)} produces the same nodes as
+     * {@link IncrementalParser#parse(Document)} after random replacements.
+     */
+    @Test
+    public void reparseRandom() {
+        final Random random = new Random(0x1dea);
+        final String[] fragments = { "", " ", "  ", "a", "ab", "a b", " a ", "abc  de" };
+        String text = "";
+        SourceNode parsed = WORD_PARSER.parse(new Document(text));
+        for (int i = 0; i < 2000; i++) {
+            final int offset = random.nextInt(text.length() + 1);
+            final int lengthToRemove = random.nextInt(Math.min(text.length() - offset, 4) + 1);
+            final String textToInsert = fragments[random.nextInt(fragments.length)];
+            text = replace(text, offset, lengthToRemove, textToInsert);
+
+            final Document document = new Document(text);
+            parsed = WORD_PARSER.reparse(document, parsed, offset, lengthToRemove, textToInsert.length());
+            assertThat(parsed.getLength(), is(text.length()));
+            assertSameChildLengths(parsed, WORD_PARSER.parse(document));
+        }
+    }
+
+    /**
+     * Asserts that {@link IncrementalParser#reparse(Document, SourceNode, int, int, int)} reuses the nodes before and after the
+     * replaced range.
+     */
+    @Test
+    public void reparseReusesNodes() {
+        final SourceNode oldParsed = WORD_PARSER.parse(new Document("aa bb cc dd ee"));
+        final List<SourceNode> oldChildNodes = ((CompositeSourceNode) oldParsed).getChildNodes();
+
+        // Replace "cc" with "xyz".
+        final SourceNode result = WORD_PARSER.reparse(new Document("aa bb xyz dd ee"), oldParsed, 6, 2, 3);
+        final List<SourceNode> childNodes = ((CompositeSourceNode) result).getChildNodes();
+        assertThat(childNodes.size(), is(5));
+        assertThat(childNodes.get(0), is(sameInstance(oldChildNodes.get(0))));
+        assertThat(childNodes.get(2).getLength(), is(4));
+        assertThat(childNodes.get(3), is(sameInstance(oldChildNodes.get(3))));
+        assertThat(childNodes.get(4), is(sameInstance(oldChildNodes.get(4))));
+    }
+
+}
@@ -3,10 +3,17 @@ package org.reasm.source;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
 
 import org.junit.Test;
 
+import com.google.common.primitives.Ints;
+
 /**
  * Test class for {@link LineLengthList}.
  *
@@ -17,6 +24,113 @@ public class LineLengthListTest {
     private static final LineLengthList EMPTY_LINE_LENGTH_LIST = LineLengthList.Factory.INSTANCE.create();
     private static final LineLengthList LINE_LENGTH_LIST = LineLengthList.Factory.INSTANCE.create(Arrays.asList(6, 9, 7, 4));
 
+    private static void assertListMatches(@Nonnull LineLengthList list, @Nonnull List<Integer> expected) {
+        assertThat(list, is(expected));
+
+        final LineLengthList.TextLocation textLocation = new LineLengthList.TextLocation();
+        int textPosition = 0;
+        for (int i = 0; i < expected.size(); i++) {
+            final int lineLength = expected.get(i);
+            assertThat(list.getLineLength(i), is(lineLength));
+            assertThat(list.textPositionOfLineIndex(i), is(textPosition));
+            assertThat(list.lineIndexOfTextPosition(textPosition + lineLength - 1), is(i));
+            list.textLocationOfTextPosition(textPosition + lineLength - 1, textLocation);
+            assertThat(textLocation.lineIndex, is(i));
+            assertThat(textLocation.linePosition, is(lineLength - 1));
+            textPosition += lineLength;
+        }
+    }
+
+    /**
+     * Asserts that {@link LineLengthList.Factory#createFromArray(int[])} creates a list that contains the line lengths in the
+     * array, in the same order, and that answers queries correctly.
+     */
+    @Test
+    public void createFromArray() {
+        for (int size = 0; size <= 100; size++) {
+            final int[] lineLengths = new int[size];
+            for (int i = 0; i < size; i++) {
+                lineLengths[i] = i % 7 + 1;
+            }
+
+            final LineLengthList list = LineLengthList.Factory.INSTANCE.createFromArray(lineLengths);
+            assertThat(list, is((List<Integer>) Ints.asList(lineLengths)));
+
+            int textPosition = 0;
+            for (int i = 0; i < size; i++) {
+                assertThat(list.textPositionOfLineIndex(i), is(textPosition));
+                assertThat(list.lineIndexOfTextPosition(textPosition), is(i));
+                textPosition += lineLengths[i];
+            }
+        }
+    }
+
+    /**
+     * Asserts that {@link LineLengthList.Factory#add(LineLengthList, int, int)},
+     * {@link LineLengthList.Factory#remove(LineLengthList, int)} and {@link LineLengthList.Factory#set(LineLengthList, int, int)}
+     * produce lists that contain the same line lengths as an {@link ArrayList} that goes through the same modifications, and that
+     * answer queries correctly, while the tree grows and shrinks by several levels.
+     */
+    @Test
+    public void factoryAddRemoveSetRandom() {
+        final Random random = new Random(0x5eed);
+        final ArrayList<Integer> expected = new ArrayList<>();
+        LineLengthList list = LineLengthList.Factory.INSTANCE.create();
+        for (int i = 0; i < 60000; i++) {
+            final int operation = random.nextInt(8);
+            final int lineLength = 1 + random.nextInt(80);
+            if (i >= 30000 && operation < 5 && !expected.isEmpty()) {
+                final int index = random.nextInt(expected.size());
+                expected.remove(index);
+                list = LineLengthList.Factory.INSTANCE.remove(list, index);
+            } else if (operation == 7 && !expected.isEmpty()) {
+                final int index = random.nextInt(expected.size());
+                expected.set(index, lineLength);
+                list = LineLengthList.Factory.INSTANCE.set(list, index, lineLength);
+            } else {
+                final int index = random.nextInt(expected.size() + 1);
+                expected.add(index, lineLength);
+                list = LineLengthList.Factory.INSTANCE.add(list, index, lineLength);
+            }
+
+            if (i % 5000 == 0 || expected.size() < 100) {
+                assertListMatches(list, expected);
+            }
+        }
+
+        assertListMatches(list, expected);
+    }
+
+    /**
+     * Asserts that {@link LineLengthList.Factory#add(LineLengthList, int, int)},
+     * {@link LineLengthList.Factory#remove(LineLengthList, int)} and {@link LineLengthList.Factory#set(LineLengthList, int, int)}
+     * leave the original list unchanged.
+     */
+    @Test
+    public void factoryModificationsArePersistent() {
+        final int[] lineLengths = new int[10000];
+        for (int i = 0; i < lineLengths.length; i++) {
+            lineLengths[i] = i % 13 + 1;
+        }
+
+        final LineLengthList list = LineLengthList.Factory.INSTANCE.createFromArray(lineLengths);
+        final List<Integer> expected = new ArrayList<>(Ints.asList(lineLengths));
+
+        final LineLengthList added = LineLengthList.Factory.INSTANCE.add(list, 5000, 100);
+        final LineLengthList removed = LineLengthList.Factory.INSTANCE.remove(list, 5000);
+        final LineLengthList set = LineLengthList.Factory.INSTANCE.set(list, 5000, 100);
+        assertListMatches(list, expected);
+
+        assertThat(added.size(), is(10001));
+        assertThat(added.getLineLength(5000), is(100));
+        assertThat(added.getLineLength(5001), is(lineLengths[5000]));
+        assertThat(removed.size(), is(9999));
+        assertThat(removed.getLineLength(5000), is(lineLengths[5001]));
+        assertThat(set.size(), is(10000));
+        assertThat(set.getLineLength(5000), is(100));
+        assertThat(set.textPositionOfLineIndex(5001), is(list.textPositionOfLineIndex(5001) + 100 - lineLengths[5000]));
+    }
+
     /**
      * Asserts that {@link LineLengthList#lineIndexOfTextPosition(int)} returns the correct line index.
      */
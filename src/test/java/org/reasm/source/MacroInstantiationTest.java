@@ -1,6 +1,7 @@
 package org.reasm.source;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
@@ -75,6 +76,27 @@ public class MacroInstantiationTest {
         new MacroInstantiation(null);
     }
 
+    /**
+     * Asserts that {@link MacroInstantiation#MacroInstantiation(SourceLocation)} creates {@link MacroInstantiation
+     * MacroInstantiations} that share their text and their parse results with the other {@link MacroInstantiation
+     * MacroInstantiations} of the same macro body.
+     */
+    @Test
+    public void macroInstantiationSharesMacroBody() {
+        final SourceLocation macroBody = new SourceFile("one\ntwo\nthree", SOURCE_FILE_NAME)
+                .getSourceLocations(NullArchitecture.DEFAULT).get(0).getChildSourceLocations().get(1);
+        final MacroInstantiation first = new MacroInstantiation(macroBody);
+        final MacroInstantiation second = new MacroInstantiation(macroBody);
+        assertThat(first.getText().toString(), is("two\n"));
+        assertThat(second.getText(), is(sameInstance(first.getText())));
+        assertThat(second.getParsed(NullArchitecture.DEFAULT), is(sameInstance(first.getParsed(NullArchitecture.DEFAULT))));
+
+        final MacroInstantiation other = new MacroInstantiation(macroBody.getFile().getSourceLocations(NullArchitecture.DEFAULT)
+                .get(0).getChildSourceLocations().get(2));
+        assertThat(other.getText().toString(), is("three"));
+        assertThat(other.getText(), is(not(sameInstance(first.getText()))));
+    }
+
     /**
      * Asserts that {@link MacroInstantiation#self()} returns <code>this</code>.
      */
@@ -97,4 +119,58 @@ public class MacroInstantiationTest {
         assertThat(textLocation.linePosition, is(0));
     }
 
+    /**
+     * Asserts that {@link MacroInstantiation#textLocationOfTextPosition(int, LineLengthList.TextLocation)} computes positions on
+     * the first line relative to the start of the macro body when the macro body starts in the middle of a line.
+     */
+    @Test
+    public void textLocationOfTextPositionMidLine() {
+        final SourceFile sourceFile = new SourceFile("one\ntwo\nthree\nfour\nfive", SOURCE_FILE_NAME);
+        final SourceNode sourceNode = ((CompositeSourceNode) sourceFile.getParsed(NullArchitecture.DEFAULT)).getChildNodes()
+                .get(3);
+        final MacroInstantiation macroInstantiation = new MacroInstantiation(new SourceLocation(sourceFile,
+                NullArchitecture.DEFAULT, sourceNode, 10, 3, 3));
+        assertThat(macroInstantiation.getText().toString(), is("ree\nf"));
+
+        final LineLengthList.TextLocation textLocation = new LineLengthList.TextLocation();
+        macroInstantiation.textLocationOfTextPosition(2, textLocation);
+        assertThat(textLocation.lineIndex, is(2));
+        assertThat(textLocation.linePosition, is(2));
+        macroInstantiation.textLocationOfTextPosition(5, textLocation);
+        assertThat(textLocation.lineIndex, is(3));
+        assertThat(textLocation.linePosition, is(1));
+    }
+
+    /**
+     * Asserts that {@link MacroInstantiation#textLocationOfTextPosition(int, LineLengthList.TextLocation)} sets the attributes of
+     * the specified {@link LineLengthList.TextLocation} to the correct values when the macro body is itself in a
+     * {@link MacroInstantiation}.
+     */
+    @Test
+    public void textLocationOfTextPositionNested() {
+        final MacroInstantiation outer = new MacroInstantiation(new SourceFile("one\ntwo\nthree\nfour\nfive", SOURCE_FILE_NAME)
+                .getSourceLocations(NullArchitecture.DEFAULT).get(0).getChildSourceLocations().get(1));
+        final MacroInstantiation inner = new MacroInstantiation(outer.replaceText(0, 0, "x\n")
+                .getSourceLocations(NullArchitecture.DEFAULT).get(0).getChildSourceLocations().get(1));
+        assertThat(inner.getText().toString(), is("two\n"));
+
+        final LineLengthList.TextLocation textLocation = new LineLengthList.TextLocation();
+        inner.textLocationOfTextPosition(1, textLocation);
+        assertThat(textLocation.lineIndex, is(2));
+        assertThat(textLocation.linePosition, is(1));
+    }
+
+    /**
+     * Asserts that {@link MacroInstantiation#textLocationOfTextPosition(int, LineLengthList.TextLocation)} sets the attributes of
+     * the specified {@link LineLengthList.TextLocation} to the correct values after text has been replaced in the
+     * {@link MacroInstantiation}.
+     */
+    @Test
+    public void textLocationOfTextPositionReplacedText() {
+        final LineLengthList.TextLocation textLocation = new LineLengthList.TextLocation();
+        MACRO_INSTANTIATION.replaceText(0, 0, "a\nb").textLocationOfTextPosition(3, textLocation);
+        assertThat(textLocation.lineIndex, is(3));
+        assertThat(textLocation.linePosition, is(1));
+    }
+
 }
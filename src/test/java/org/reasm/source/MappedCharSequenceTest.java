@@ -0,0 +1,182 @@
+package org.reasm.source;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link MappedCharSequence}.
+ *
+ * @author Francis Gagné
+ */
+public class MappedCharSequenceTest {
+
+    // Long enough to span several chunks, with characters that are encoded on 1 to 4 bytes in UTF-8.
+    private static final String TEXT = createText();
+
+    @Nonnull
+    private static MappedCharSequence create(@Nonnull String text, @Nonnull Charset charset) throws IOException {
+        return new MappedCharSequence(ByteBuffer.wrap(text.getBytes(charset)), charset);
+    }
+
+    @Nonnull
+    private static String createText() {
+        final Random random = new Random(0x5eed);
+        final StringBuilder sb = new StringBuilder();
+        while (sb.length() < MappedCharSequence.CHUNK_SIZE * 5) {
+            switch (random.nextInt(5)) {
+            case 0:
+                sb.append("\u00E9");
+                break;
+
+            case 1:
+                sb.append("\u20AC");
+                break;
+
+            case 2:
+                sb.append("\uD83D\uDE00");
+                break;
+
+            case 3:
+                sb.append('\n');
+                break;
+
+            default:
+                sb.append((char) ('a' + random.nextInt(26)));
+                break;
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Asserts that {@link MappedCharSequence#charAt(int)} returns the characters of the decoded text, in any order.
+     *
+     * @throws IOException
+     *             the text could not be decoded
+     */
+    @Test
+    public void charAt() throws IOException {
+        final MappedCharSequence sequence = create(TEXT, StandardCharsets.UTF_8);
+        for (int i = 0; i < TEXT.length(); i++) {
+            assertThat(sequence.charAt(i), is(TEXT.charAt(i)));
+        }
+
+        final Random random = new Random(0x5eed);
+        for (int i = 0; i < 10000; i++) {
+            final int index = random.nextInt(TEXT.length());
+            assertThat(sequence.charAt(index), is(TEXT.charAt(index)));
+        }
+    }
+
+    /**
+     * Asserts that {@link MappedCharSequence#charAt(int)} throws an {@link IndexOutOfBoundsException} when the <code>index</code>
+     * argument is equal to the length of the sequence.
+     *
+     * @throws IOException
+     *             the text could not be decoded
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void charAtIndexTooLarge() throws IOException {
+        create("abc", StandardCharsets.UTF_8).charAt(3);
+    }
+
+    /**
+     * Asserts that {@link MappedCharSequence#getChars(int, int, char[], int)} copies a range of characters that spans several
+     * chunks.
+     *
+     * @throws IOException
+     *             the text could not be decoded
+     */
+    @Test
+    public void getChars() throws IOException {
+        final MappedCharSequence sequence = create(TEXT, StandardCharsets.UTF_8);
+        final int start = MappedCharSequence.CHUNK_SIZE / 2;
+        final int end = TEXT.length() - 3;
+        final char[] chars = new char[end - start + 2];
+        sequence.getChars(start, end, chars, 1);
+        assertThat(new String(chars, 1, end - start), is(TEXT.substring(start, end)));
+    }
+
+    /**
+     * Asserts that {@link MappedCharSequence#length()} returns the number of decoded characters.
+     *
+     * @throws IOException
+     *             the text could not be decoded
+     */
+    @Test
+    public void length() throws IOException {
+        assertThat(create(TEXT, StandardCharsets.UTF_8).length(), is(TEXT.length()));
+        assertThat(create(TEXT, StandardCharsets.UTF_16LE).length(), is(TEXT.length()));
+        assertThat(create("", StandardCharsets.UTF_8).length(), is(0));
+    }
+
+    /**
+     * Asserts that {@link MappedCharSequence#map(Path, Charset)} creates a {@link MappedCharSequence} over the contents of a file.
+     *
+     * @throws IOException
+     *             an I/O error occurred
+     */
+    @Test
+    public void map() throws IOException {
+        final Path path = Files.createTempFile("reasm", ".asm");
+        try {
+            Files.write(path, TEXT.getBytes(StandardCharsets.UTF_8));
+            assertThat(MappedCharSequence.map(path, StandardCharsets.UTF_8).toString(), is(TEXT));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * Asserts that {@link MappedCharSequence#MappedCharSequence(ByteBuffer, Charset)} throws a {@link MalformedInputException} when
+     * the bytes are not valid in the specified charset.
+     *
+     * @throws IOException
+     *             the text could not be decoded
+     */
+    @Test(expected = MalformedInputException.class)
+    public void mappedCharSequenceMalformedInput() throws IOException {
+        new MappedCharSequence(ByteBuffer.wrap(new byte[] { 'a', (byte) 0xC3 }), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Asserts that {@link MappedCharSequence#subSequence(int, int)} returns the specified range of the decoded text.
+     *
+     * @throws IOException
+     *             the text could not be decoded
+     */
+    @Test
+    public void subSequence() throws IOException {
+        final MappedCharSequence sequence = create(TEXT, StandardCharsets.UTF_8);
+        final CharSequence subSequence = sequence.subSequence(100, MappedCharSequence.CHUNK_SIZE * 2);
+        assertThat(subSequence.length(), is(MappedCharSequence.CHUNK_SIZE * 2 - 100));
+        assertThat(subSequence.toString(), is(TEXT.substring(100, MappedCharSequence.CHUNK_SIZE * 2)));
+    }
+
+    /**
+     * Asserts that {@link MappedCharSequence#toString()} returns the decoded text.
+     *
+     * @throws IOException
+     *             the text could not be decoded
+     */
+    @Test
+    public void testToString() throws IOException {
+        assertThat(create(TEXT, StandardCharsets.UTF_8).toString(), is(TEXT));
+        assertThat(create(TEXT, StandardCharsets.UTF_16BE).toString(), is(TEXT));
+    }
+
+}
@@ -0,0 +1,119 @@
+package org.reasm.source;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+import org.reasm.ContractViolationException;
+import org.reasm.testhelpers.DummySourceNode;
+import org.reasm.testhelpers.NullArchitecture;
+
+import ca.fragag.text.Document;
+
+/**
+ * Test class for {@link ParallelParser}.
+ *
+ * @author Francis Gagné
+ */
+public class ParallelParserTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @Nonnull
+    private static Document createText() {
+        final Random random = new Random(0x5eed);
+        final String[] lineBreaks = { "\n", "\r\n", "\r" };
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            for (int j = random.nextInt(20); j > 0; j--) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+
+            sb.append(lineBreaks[random.nextInt(lineBreaks.length)]);
+        }
+
+        sb.append("last");
+        return new Document(sb.toString());
+    }
+
+    /**
+     * Asserts that {@link ParallelParser#parse(org.reasm.Architecture, Document, ForkJoinPool, int)} produces the same source nodes
+     * as parsing the whole text when the text is split in many chunks.
+     */
+    @Test
+    public void parseChunks() {
+        final Document text = createText();
+        final SourceNode result = ParallelParser.parse(NullArchitecture.DEFAULT, text, POOL, 1000);
+        final SourceNode serialResult = NullArchitecture.DEFAULT.parse(text);
+
+        assertThat(result, is(instanceOf(SimpleCompositeSourceNode.class)));
+        assertThat(result.getLength(), is(text.length()));
+        final List<SourceNode> childNodes = ((CompositeSourceNode) result).getChildNodes();
+        final List<SourceNode> serialChildNodes = ((CompositeSourceNode) serialResult).getChildNodes();
+        assertThat(childNodes.size(), is(serialChildNodes.size()));
+        for (int i = 0; i < childNodes.size(); i++) {
+            assertThat(childNodes.get(i).getLength(), is(serialChildNodes.get(i).getLength()));
+        }
+    }
+
+    /**
+     * Asserts that {@link ParallelParser#parse(org.reasm.Architecture, Document, ForkJoinPool, int)} throws a
+     * {@link ContractViolationException} when the architecture returns a split point before the position it was given.
+     */
+    @Test(expected = ContractViolationException.class)
+    public void parseInvalidSplitPoint() {
+        ParallelParser.parse(new NullArchitecture() {
+            @Override
+            public int findSplitPoint(Document text, int position) {
+                return position - 1;
+            }
+        }, createText(), POOL, 1000);
+    }
+
+    /**
+     * Asserts that {@link ParallelParser#parse(org.reasm.Architecture, Document, ForkJoinPool, int)} parses the whole text at once
+     * when the architecture doesn't declare split points.
+     */
+    @Test
+    public void parseNoSplitPoints() {
+        final Document text = createText();
+        final SourceNode parsed = new DummySourceNode(text.length(), null);
+        final SourceNode result = ParallelParser.parse(new NullArchitecture() {
+            @Override
+            public int findSplitPoint(Document text, int position) {
+                return -1;
+            }
+
+            @Override
+            public SourceNode parse(Document text) {
+                return parsed;
+            }
+        }, text, POOL, 1000);
+        assertThat(result, is(sameInstance(parsed)));
+    }
+
+    /**
+     * Asserts that {@link ParallelParser#parse(org.reasm.Architecture, Document, ForkJoinPool)} parses a small text as a whole.
+     */
+    @Test
+    public void parseSmallText() {
+        final Document text = createText();
+        final SourceNode parsed = new DummySourceNode(text.length(), null);
+        final SourceNode result = ParallelParser.parse(new NullArchitecture() {
+            @Override
+            public SourceNode parse(Document text) {
+                return parsed;
+            }
+        }, text, POOL);
+        assertThat(result, is(sameInstance(parsed)));
+    }
+
+}
@@ -0,0 +1,315 @@
+package org.reasm.source;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import java.util.concurrent.ForkJoinPool;
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+import org.reasm.Architecture;
+import org.reasm.testhelpers.DummySourceNode;
+import org.reasm.testhelpers.NullArchitecture;
+
+import ca.fragag.text.Document;
+
+/**
+ * Test class for {@link ParseCache}.
+ *
+ * @author Francis Gagné
+ */
+public class ParseCacheTest {
+
+    /**
+     * An architecture that parses a text to a single {@link DummySourceNode} and counts how many times it parsed a text.
+     */
+    private static final class CountingArchitecture extends Architecture {
+
+        int parseCount;
+        boolean failWrites;
+
+        CountingArchitecture() {
+            super(null);
+        }
+
+        @Override
+        public SourceNodeSerializer getSourceNodeSerializer() {
+            return new SourceNodeSerializer() {
+                @Override
+                public String getFormatVersion() {
+                    return "1";
+                }
+
+                @Override
+                public SourceNode read(DataInput in) throws IOException {
+                    return new DummySourceNode(in.readInt(), null);
+                }
+
+                @Override
+                public void write(SourceNode node, DataOutput out) throws IOException {
+                    if (CountingArchitecture.this.failWrites) {
+                        throw new IllegalStateException();
+                    }
+
+                    out.writeInt(node.getLength());
+                }
+            };
+        }
+
+        @Override
+        public SourceNode parse(Document text) {
+            this.parseCount++;
+            return new DummySourceNode(text.length(), null);
+        }
+
+    }
+
+    @Nonnull
+    private static byte[] createFile(int textLength, int... treeData) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x52504331);
+        out.writeInt(textLength);
+        for (int data : treeData) {
+            out.writeInt(data);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static void deleteDirectory(@Nonnull Path directory) throws IOException {
+        for (Path file : listFiles(directory)) {
+            Files.delete(file);
+        }
+
+        Files.delete(directory);
+    }
+
+    @Nonnull
+    private static ArrayList<Path> listFiles(@Nonnull Path directory) throws IOException {
+        final ArrayList<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+
+        return files;
+    }
+
+    /**
+     * Asserts that {@link ParseCache#ParseCache(Path)} throws a {@link NullPointerException} when the <code>directory</code>
+     * argument is <code>null</code>.
+     */
+    @Test(expected = NullPointerException.class)
+    public void parseCacheNullDirectory() {
+        new ParseCache(null);
+    }
+
+    /**
+     * Asserts that {@link ParseCache#parse(Architecture, Document, ForkJoinPool)} parses a text again when the cached
+     * tree is corrupted, and replaces the cached tree.
+     *
+     * @throws IOException
+     *             an I/O error occurred
+     */
+    @Test
+    public void parseCorruptedFile() throws IOException {
+        final Path directory = Files.createTempDirectory("reasm");
+        try {
+            final CountingArchitecture architecture = new CountingArchitecture();
+            final ParseCache cache = new ParseCache(directory);
+            cache.parse(architecture, new Document("abc"), null);
+            final ArrayList<Path> files = listFiles(directory);
+            assertThat(files.size(), is(1));
+            Files.write(files.get(0), new byte[] { 1, 2, 3 });
+
+            assertThat(cache.parse(architecture, new Document("abc"), null).getLength(), is(3));
+            assertThat(architecture.parseCount, is(2));
+            assertThat(cache.parse(architecture, new Document("abc"), null).getLength(), is(3));
+            assertThat(architecture.parseCount, is(2));
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    /**
+     * Asserts that {@link ParseCache#parse(Architecture, Document, ForkJoinPool)} parses a text that differs from the cached texts.
+     *
+     * @throws IOException
+     *             an I/O error occurred
+     */
+    @Test
+    public void parseDifferentText() throws IOException {
+        final Path directory = Files.createTempDirectory("reasm");
+        try {
+            final CountingArchitecture architecture = new CountingArchitecture();
+            final ParseCache cache = new ParseCache(directory);
+            cache.parse(architecture, new Document("abc"), null);
+            assertThat(cache.parse(architecture, new Document("abd"), null).getLength(), is(3));
+            assertThat(architecture.parseCount, is(2));
+            assertThat(listFiles(directory).size(), is(2));
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    /**
+     * Asserts that {@link ParseCache#parse(Architecture, Document, ForkJoinPool)} parses a text that is not in the cache on the
+     * specified pool, and stores the result.
+     *
+     * @throws IOException
+     *             an I/O error occurred
+     */
+    @Test
+    public void parseForkJoinPool() throws IOException {
+        final Path directory = Files.createTempDirectory("reasm");
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            final CountingArchitecture architecture = new CountingArchitecture();
+            final ParseCache cache = new ParseCache(directory);
+            assertThat(cache.parse(architecture, new Document("abc"), pool).getLength(), is(3));
+            assertThat(architecture.parseCount, is(1));
+            assertThat(listFiles(directory).size(), is(1));
+            assertThat(cache.parse(architecture, new Document("abc"), pool).getLength(), is(3));
+            assertThat(architecture.parseCount, is(1));
+        } finally {
+            pool.shutdown();
+            deleteDirectory(directory);
+        }
+    }
+
+    /**
+     * Asserts that {@link ParseCache#parse(Architecture, Document, ForkJoinPool)} deletes a cached tree that cannot be read, even
+     * if the new tree cannot be stored.
+     *
+     * @throws IOException
+     *             an I/O error occurred
+     */
+    @Test
+    public void parseInvalidTreeDeleted() throws IOException {
+        final Path directory = Files.createTempDirectory("reasm");
+        try {
+            final CountingArchitecture architecture = new CountingArchitecture();
+            final ParseCache cache = new ParseCache(directory);
+            cache.parse(architecture, new Document("abc"), null);
+            final ArrayList<Path> files = listFiles(directory);
+            assertThat(files.size(), is(1));
+            Files.write(files.get(0), createFile(3, -1));
+
+            architecture.failWrites = true;
+            assertThat(cache.parse(architecture, new Document("abc"), null).getLength(), is(3));
+            assertThat(architecture.parseCount, is(2));
+            assertThat(listFiles(directory).size(), is(0));
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    /**
+     * Asserts that {@link ParseCache#parse(Architecture, Document, ForkJoinPool)} loads the tree that was stored when the
+     * same text was parsed before, even by another cache on the same directory.
+     *
+     * @throws IOException
+     *             an I/O error occurred
+     */
+    @Test
+    public void parseLoadsStoredTree() throws IOException {
+        final Path directory = Files.createTempDirectory("reasm");
+        try {
+            final CountingArchitecture architecture = new CountingArchitecture();
+            assertThat(new ParseCache(directory).parse(architecture, new Document("abc"), null).getLength(), is(3));
+            assertThat(architecture.parseCount, is(1));
+            assertThat(new ParseCache(directory).parse(architecture, new Document("abc"), null).getLength(), is(3));
+            assertThat(architecture.parseCount, is(1));
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    /**
+     * Asserts that {@link ParseCache#parse(Architecture, Document, ForkJoinPool)} parses the text and stores nothing when
+     * the architecture doesn't provide a {@link SourceNodeSerializer}.
+     *
+     * @throws IOException
+     *             an I/O error occurred
+     */
+    @Test
+    public void parseNoSerializer() throws IOException {
+        final Path directory = Files.createTempDirectory("reasm");
+        try {
+            final SourceNode result = new ParseCache(directory).parse(NullArchitecture.DEFAULT, new Document("abc"), null);
+            assertThat(result.getLength(), is(3));
+            assertThat(listFiles(directory).size(), is(0));
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    /**
+     * Asserts that {@link ParseCache#parse(Architecture, Document, ForkJoinPool)} parses a text again when the serializer throws a
+     * {@link RuntimeException} while reading the cached tree, and replaces the cached tree.
+     *
+     * @throws IOException
+     *             an I/O error occurred
+     */
+    @Test
+    public void parseSerializerThrows() throws IOException {
+        final Path directory = Files.createTempDirectory("reasm");
+        try {
+            final CountingArchitecture architecture = new CountingArchitecture();
+            final ParseCache cache = new ParseCache(directory);
+            cache.parse(architecture, new Document("abc"), null);
+            final ArrayList<Path> files = listFiles(directory);
+            assertThat(files.size(), is(1));
+
+            // The serializer throws an IllegalArgumentException when it creates a node with a negative length.
+            Files.write(files.get(0), createFile(3, -1));
+
+            assertThat(cache.parse(architecture, new Document("abc"), null).getLength(), is(3));
+            assertThat(architecture.parseCount, is(2));
+            assertThat(cache.parse(architecture, new Document("abc"), null).getLength(), is(3));
+            assertThat(architecture.parseCount, is(2));
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    /**
+     * Asserts that {@link ParseCache#parse(Architecture, Document, ForkJoinPool)} parses a text again when the cached tree is
+     * truncated, and replaces the cached tree.
+     *
+     * @throws IOException
+     *             an I/O error occurred
+     */
+    @Test
+    public void parseTruncatedFile() throws IOException {
+        final Path directory = Files.createTempDirectory("reasm");
+        try {
+            final CountingArchitecture architecture = new CountingArchitecture();
+            final ParseCache cache = new ParseCache(directory);
+            cache.parse(architecture, new Document("abc"), null);
+            final ArrayList<Path> files = listFiles(directory);
+            assertThat(files.size(), is(1));
+            Files.write(files.get(0), createFile(3));
+
+            assertThat(cache.parse(architecture, new Document("abc"), null).getLength(), is(3));
+            assertThat(architecture.parseCount, is(2));
+            assertThat(cache.parse(architecture, new Document("abc"), null).getLength(), is(3));
+            assertThat(architecture.parseCount, is(2));
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+}
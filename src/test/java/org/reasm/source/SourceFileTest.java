@@ -4,6 +4,11 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 
 import org.junit.Test;
@@ -56,6 +61,26 @@ public class SourceFileTest {
         assertThat(sourceFile.getFileName(), is(SOURCE_FILE_NAME));
     }
 
+    /**
+     * Asserts that {@link SourceFile#fromPath(Path, Charset)} creates a {@link SourceFile} with the decoded contents of the file,
+     * named after the path.
+     *
+     * @throws IOException
+     *             an I/O error occurred
+     */
+    @Test
+    public void fromPath() throws IOException {
+        final Path path = Files.createTempFile("reasm", ".asm");
+        try {
+            Files.write(path, "caf\u00E9\nnop".getBytes(StandardCharsets.ISO_8859_1));
+            final SourceFile sourceFile = SourceFile.fromPath(path, StandardCharsets.ISO_8859_1);
+            assertThat(sourceFile.getText().toString(), is("caf\u00E9\nnop"));
+            assertThat(sourceFile.getFileName(), is(path.toString()));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
     /**
      * Asserts that {@link SourceFile#getFileName()} returns the file name passed to the constructor.
      */
@@ -0,0 +1,159 @@
+package org.reasm.source;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+import org.reasm.testhelpers.DummySourceNode;
+
+/**
+ * Test class for {@link SourceNodeList}.
+ *
+ * @author Francis Gagné
+ */
+public class SourceNodeListTest {
+
+    @Nonnull
+    private static List<SourceNode> createNodes(int... lengths) {
+        final ArrayList<SourceNode> nodes = new ArrayList<>();
+        for (int length : lengths) {
+            nodes.add(new DummySourceNode(length, null));
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Asserts that {@link SourceNodeList#getTotalLength()} returns the sum of the lengths of the source nodes in the list.
+     */
+    @Test
+    public void getTotalLength() {
+        assertThat(SourceNodeList.Factory.INSTANCE.create(createNodes(3, 1, 4, 1, 5)).getTotalLength(), is(14));
+    }
+
+    /**
+     * Asserts that {@link SourceNodeList#getTotalLength()} returns 0 on an empty list.
+     */
+    @Test
+    public void getTotalLengthEmpty() {
+        assertThat(SourceNodeList.Factory.INSTANCE.create(Collections.<SourceNode> emptyList()).getTotalLength(), is(0));
+    }
+
+    /**
+     * Asserts that {@link SourceNodeList#indexOfTextPosition(int)} returns the index of the source node that contains the
+     * specified text position.
+     */
+    @Test
+    public void indexOfTextPosition() {
+        final SourceNodeList list = SourceNodeList.Factory.INSTANCE.create(createNodes(3, 1, 4, 1, 5));
+        final int[] expectedIndices = new int[] { 0, 0, 0, 1, 2, 2, 2, 2, 3, 4, 4, 4, 4, 4 };
+        for (int textPosition = 0; textPosition < expectedIndices.length; textPosition++) {
+            assertThat(list.indexOfTextPosition(textPosition), is(expectedIndices[textPosition]));
+        }
+    }
+
+    /**
+     * Asserts that {@link SourceNodeList#indexOfTextPosition(int)} throws an {@link IndexOutOfBoundsException} when the text
+     * position is equal to the total length.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void indexOfTextPositionTextPositionAtEnd() {
+        SourceNodeList.Factory.INSTANCE.create(createNodes(3, 1, 4)).indexOfTextPosition(8);
+    }
+
+    /**
+     * Asserts that {@link SourceNodeList#indexOfTextPosition(int)} throws an {@link IndexOutOfBoundsException} when the text
+     * position is negative.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void indexOfTextPositionTextPositionTooSmall() {
+        SourceNodeList.Factory.INSTANCE.create(createNodes(3, 1, 4)).indexOfTextPosition(-1);
+    }
+
+    /**
+     * Asserts that {@link SourceNodeList.Factory#splice(SourceNodeList, int, int, List)} returns the original list when no source
+     * node is removed or inserted.
+     */
+    @Test
+    public void spliceNothing() {
+        final SourceNodeList list = SourceNodeList.Factory.INSTANCE.create(createNodes(3, 1, 4));
+        final SourceNodeList newList = SourceNodeList.Factory.INSTANCE.splice(list, 1, 0, Collections.<SourceNode> emptyList());
+        assertThat(newList, is(sameInstance(list)));
+    }
+
+    /**
+     * Asserts that {@link SourceNodeList.Factory#splice(SourceNodeList, int, int, List)} replaces a range of source nodes, keeps
+     * the total length up to date and leaves the original list unchanged.
+     */
+    @Test
+    public void spliceRandom() {
+        final Random random = new Random(42);
+        final ArrayList<SourceNode> expected = new ArrayList<>(createNodes(2, 7, 1, 8, 2, 8));
+        SourceNodeList list = SourceNodeList.Factory.INSTANCE.create(expected);
+        for (int iteration = 0; iteration < 200; iteration++) {
+            final int index = random.nextInt(expected.size() + 1);
+            final int numberOfNodesToRemove = random.nextInt(Math.min(4, expected.size() - index + 1));
+            final List<SourceNode> nodesToInsert = createNodes(random.nextInt(5) + 1, random.nextInt(5) + 1, random.nextInt(5) + 1)
+                    .subList(0, random.nextInt(4));
+
+            final List<SourceNode> originalContents = new ArrayList<>(list);
+            final SourceNodeList newList = SourceNodeList.Factory.INSTANCE.splice(list, index, numberOfNodesToRemove,
+                    nodesToInsert);
+            assertThat(list, is(originalContents));
+
+            expected.subList(index, index + numberOfNodesToRemove).clear();
+            expected.addAll(index, nodesToInsert);
+            assertThat(newList, is((List<SourceNode>) expected));
+
+            int expectedTotalLength = 0;
+            for (SourceNode node : expected) {
+                expectedTotalLength += node.getLength();
+            }
+
+            assertThat(newList.getTotalLength(), is(expectedTotalLength));
+            list = newList;
+        }
+    }
+
+    /**
+     * Asserts that {@link SourceNodeList#textPositionOfIndex(int)} returns the text position of the start of the source node at the
+     * specified index.
+     */
+    @Test
+    public void textPositionOfIndex() {
+        final SourceNodeList list = SourceNodeList.Factory.INSTANCE.create(createNodes(3, 1, 4, 1, 5));
+        final List<Integer> textPositions = new ArrayList<>();
+        for (int index = 0; index <= list.size(); index++) {
+            textPositions.add(list.textPositionOfIndex(index));
+        }
+
+        assertThat(textPositions, is(Arrays.asList(0, 3, 4, 8, 9, 14)));
+    }
+
+    /**
+     * Asserts that {@link SourceNodeList#textPositionOfIndex(int)} returns 0 for index 0 on an empty list.
+     */
+    @Test
+    public void textPositionOfIndexEmpty() {
+        assertThat(SourceNodeList.Factory.INSTANCE.create(Collections.<SourceNode> emptyList()).textPositionOfIndex(0), is(0));
+    }
+
+    /**
+     * Asserts that {@link SourceNodeList#textPositionOfIndex(int)} throws an {@link IndexOutOfBoundsException} when the index is
+     * greater than the size of the list.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void textPositionOfIndexIndexTooLarge() {
+        SourceNodeList.Factory.INSTANCE.create(createNodes(3, 1, 4)).textPositionOfIndex(4);
+    }
+
+}
@@ -111,6 +111,44 @@ public class SourceNodeRangeReaderTest {
         assertThat(reader.atEnd(), is(true));
     }
 
+    /**
+     * Asserts that {@link SourceNodeRangeReader#indexOf(int)} returns the position in the source node of the next occurrence of a
+     * code point within the reader's range, or -1 if there is none, without advancing the reader.
+     */
+    @Test
+    public void indexOf() {
+        final SourceNodeRangeReader reader = new SourceNodeRangeReader(SOURCE_LOCATION, new SubstringBounds(2, 12));
+        assertThat(reader.indexOf('g'), is(8));
+        assertThat(reader.indexOf(0x1F341), is(9));
+        assertThat(reader.indexOf('a'), is(-1));
+        assertThat(reader.indexOf('i'), is(-1));
+        assertThat(reader.getCurrentPositionInSourceNode(), is(2));
+    }
+
+    /**
+     * Asserts that {@link SourceNodeRangeReader#indexOf(int)} doesn't combine a high surrogate at the end of the reader's range
+     * with the low surrogate that follows the range.
+     */
+    @Test
+    public void indexOfHighSurrogateAtEnd() {
+        final SourceNodeRangeReader reader = new SourceNodeRangeReader(SOURCE_LOCATION, new SubstringBounds(2, 10));
+        assertThat(reader.indexOf(0x1F341), is(-1));
+        assertThat(reader.indexOf(0xD83C), is(9));
+    }
+
+    /**
+     * Asserts that {@link SourceNodeRangeReader#indexOf(int)} ignores the code points that are skipped by the reader's
+     * {@link SourceNodeRangeReader.SkipHandler}.
+     */
+    @Test
+    public void indexOfSkipHandler() {
+        final SourceNodeRangeReader reader = new SourceNodeRangeReader(SOURCE_LOCATION, new SubstringBounds(2, 12),
+                new ParenthesesSkipHandler());
+        assertThat(reader.indexOf('d'), is(-1));
+        assertThat(reader.indexOf('g'), is(8));
+        assertThat(reader.getCurrentPositionInSourceNode(), is(2));
+    }
+
     /**
      * Asserts that {@link SourceNodeRangeReader#readToString()} returns the rest of the reader's contents as a {@link String}.
      */
@@ -144,6 +182,70 @@ public class SourceNodeRangeReaderTest {
         assertThat(reader.atEnd(), is(true));
     }
 
+    /**
+     * Asserts that {@link SourceNodeRangeReader#regionMatches(boolean, String)} determines whether the code points from the
+     * reader's current position start with the code points of a string, without advancing the reader.
+     */
+    @Test
+    public void regionMatches() {
+        final SourceNodeRangeReader reader = new SourceNodeRangeReader(SOURCE_LOCATION, new SubstringBounds(2, 12));
+        assertThat(reader.regionMatches(false, ""), is(true));
+        assertThat(reader.regionMatches(false, "c(de"), is(true));
+        assertThat(reader.regionMatches(false, "c(def)g\uD83C\uDF41h"), is(true));
+        assertThat(reader.regionMatches(false, "c(def)g\uD83C\uDF41hi"), is(false));
+        assertThat(reader.regionMatches(false, "C(DE"), is(false));
+        assertThat(reader.regionMatches(true, "C(DE"), is(true));
+        assertThat(reader.regionMatches(true, "C(Dx"), is(false));
+        assertThat(reader.getCurrentPositionInSourceNode(), is(2));
+    }
+
+    /**
+     * Asserts that {@link SourceNodeRangeReader#regionMatches(boolean, String)} doesn't combine a high surrogate at the end of the
+     * reader's range with the low surrogate that follows the range.
+     */
+    @Test
+    public void regionMatchesHighSurrogateAtEnd() {
+        final SourceNodeRangeReader reader = new SourceNodeRangeReader(SOURCE_LOCATION, new SubstringBounds(2, 10));
+        assertThat(reader.regionMatches(false, "c(def)g\uD83C"), is(true));
+        assertThat(reader.regionMatches(false, "c(def)g\uD83C\uDF41"), is(false));
+    }
+
+    /**
+     * Asserts that {@link SourceNodeRangeReader#regionMatches(boolean, String)} compares supplementary characters without regard
+     * to case when <code>ignoreCase</code> is <code>true</code>, with or without a {@link SourceNodeRangeReader.SkipHandler}.
+     */
+    @Test
+    public void regionMatchesIgnoreCaseSupplementary() {
+        // U+10428 DESERET SMALL LETTER LONG I is the lowercase form of U+10400 DESERET CAPITAL LETTER LONG I.
+        final SourceFile sourceFile = new SourceFile("0123\n\uD801\uDC28(x)b", null);
+        final SourceNode sourceNode = ((CompositeSourceNode) NULL_ARCHITECTURE.parse(sourceFile.getText())).getChildNodes().get(1);
+        final SourceLocation sourceLocation = new SourceLocation(sourceFile, NULL_ARCHITECTURE, sourceNode, 5, 2, 1);
+
+        final SourceNodeRangeReader reader = new SourceNodeRangeReader(sourceLocation, new SubstringBounds(0, 6));
+        assertThat(reader.regionMatches(true, "\uD801\uDC00(X"), is(true));
+        assertThat(reader.regionMatches(false, "\uD801\uDC00(X"), is(false));
+
+        final SourceNodeRangeReader skippingReader = new SourceNodeRangeReader(sourceLocation, new SubstringBounds(0, 6),
+                new ParenthesesSkipHandler());
+        assertThat(skippingReader.regionMatches(true, "\uD801\uDC00B"), is(true));
+        assertThat(skippingReader.regionMatches(false, "\uD801\uDC00B"), is(false));
+    }
+
+    /**
+     * Asserts that {@link SourceNodeRangeReader#regionMatches(boolean, String)} ignores the code points that are skipped by the
+     * reader's {@link SourceNodeRangeReader.SkipHandler}.
+     */
+    @Test
+    public void regionMatchesSkipHandler() {
+        final SourceNodeRangeReader reader = new SourceNodeRangeReader(SOURCE_LOCATION, new SubstringBounds(2, 12),
+                new ParenthesesSkipHandler());
+        assertThat(reader.regionMatches(false, "cg\uD83C\uDF41h"), is(true));
+        assertThat(reader.regionMatches(true, "CG"), is(true));
+        assertThat(reader.regionMatches(false, "c("), is(false));
+        assertThat(reader.regionMatches(false, "cg\uD83C\uDF41hi"), is(false));
+        assertThat(reader.getCurrentPositionInSourceNode(), is(2));
+    }
+
     /**
      * Asserts that {@link SourceNodeRangeReader#SourceNodeRangeReader(SourceLocation, int, int)} correctly initializes a
      * {@link SourceNodeRangeReader}.
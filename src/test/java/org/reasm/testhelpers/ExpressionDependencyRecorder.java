@@ -0,0 +1,64 @@
+package org.reasm.testhelpers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import org.reasm.expressions.Expression;
+import org.reasm.expressions.ExpressionDependencyVisitor;
+import org.reasm.expressions.FunctionCallExpression;
+import org.reasm.expressions.IdentifierExpression;
+import org.reasm.expressions.ProgramCounterExpression;
+
+/**
+ * An {@link ExpressionDependencyVisitor} that records the dependencies it receives. The program counter is recorded as
+ * {@link ProgramCounterExpression#INSTANCE}; other dependencies are recorded as the expression that was visited.
+ *
+ * @author Francis Gagné
+ */
+public final class ExpressionDependencyRecorder implements ExpressionDependencyVisitor {
+
+    /**
+     * Collects the dependencies of an expression.
+     *
+     * @param expression
+     *            the expression
+     * @return the dependencies of the expression
+     */
+    @Nonnull
+    public static List<Expression> collect(@Nonnull Expression expression) {
+        final ExpressionDependencyRecorder recorder = new ExpressionDependencyRecorder();
+        expression.collectDependencies(recorder);
+        return recorder.dependencies;
+    }
+
+    @Nonnull
+    private final ArrayList<Expression> dependencies = new ArrayList<>();
+
+    @Override
+    public final void visitComputedIdentifier(Expression expression) {
+        this.dependencies.add(expression);
+    }
+
+    @Override
+    public final void visitFunctionCall(FunctionCallExpression expression) {
+        this.dependencies.add(expression);
+    }
+
+    @Override
+    public final void visitIdentifier(IdentifierExpression expression) {
+        this.dependencies.add(expression);
+    }
+
+    @Override
+    public final void visitProgramCounter() {
+        this.dependencies.add(ProgramCounterExpression.INSTANCE);
+    }
+
+    @Override
+    public final void visitUnknown(Expression expression) {
+        this.dependencies.add(expression);
+    }
+
+}
@@ -1,9 +1,6 @@
 package org.reasm.testhelpers;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -13,9 +10,8 @@ import org.reasm.Architecture;
 import org.reasm.AssemblyBuilder;
 import org.reasm.messages.UnknownMnemonicErrorMessage;
 import org.reasm.source.AbstractSourceFile;
-import org.reasm.source.CompositeSourceNode;
+import org.reasm.source.IncrementalParser;
 import org.reasm.source.ParseError;
-import org.reasm.source.SimpleCompositeSourceNode;
 import org.reasm.source.SourceNode;
 
 import ca.fragag.text.Document;
@@ -59,6 +55,14 @@ public class HexArchitecture extends Architecture {
      */
     public static final HexArchitecture INSTANCE = new HexArchitecture();
 
+    @Nonnull
+    private static final IncrementalParser PARSER = new IncrementalParser() {
+        @Override
+        protected SourceNode parseNode(DocumentReader reader) {
+            return HexArchitecture.parse(reader);
+        }
+    };
+
     private static boolean isHexDigit(int codePoint) {
         return codePoint >= '0' && codePoint <= '9' || codePoint >= 'A' && codePoint <= 'F' || codePoint >= 'a' && codePoint <= 'f';
     }
@@ -115,76 +119,14 @@ public class HexArchitecture extends Architecture {
     @Nonnull
     @Override
     public SourceNode parse(@Nonnull Document text) {
-        ArrayList<SourceNode> nodes = new ArrayList<>();
-        DocumentReader reader = new DocumentReader(text);
-        while (!reader.atEnd()) {
-            nodes.add(parse(reader));
-        }
-
-        return new SimpleCompositeSourceNode(nodes);
+        return PARSER.parse(text);
     }
 
     @Nonnull
     @Override
     public SourceNode reparse(@Nonnull Document text, @Nonnull AbstractSourceFile<?> oldSourceFile, int replaceOffset,
             int lengthToRemove, int lengthToInsert) {
-        final int endOfReplacedRange = replaceOffset - lengthToRemove + lengthToInsert;
-        final SourceNode oldParsed = oldSourceFile.getParsed(this);
-        if (oldParsed.getClass() == SimpleCompositeSourceNode.class) {
-            List<SourceNode> oldNodes = ((CompositeSourceNode) oldParsed).getChildNodes();
-            Iterator<SourceNode> oldNodesIterator = oldNodes.iterator();
-            SourceNode oldNode = null;
-
-            ArrayList<SourceNode> newNodes = new ArrayList<>();
-            int newTextPosition = 0;
-
-            // Reuse nodes from the old source file that are before replaceOffset.
-            for (; oldNodesIterator.hasNext();) {
-                oldNode = oldNodesIterator.next();
-                if (newTextPosition >= replaceOffset) {
-                    break;
-                }
-
-                if (newTextPosition <= replaceOffset + oldNode.getLength()) {
-                    newNodes.add(oldNode);
-                    newTextPosition += oldNode.getLength();
-                }
-            }
-
-            int catchupPosition = newTextPosition - lengthToRemove + lengthToInsert;
-            DocumentReader reader = new DocumentReader(text, newTextPosition);
-            while (!reader.atEnd()) {
-                final SourceNode newNode = parse(reader);
-                newNodes.add(newNode);
-                newTextPosition += newNode.getLength();
-
-                // If we haven't reached the end of the replaced range, continue parsing.
-                if (newTextPosition < endOfReplacedRange) {
-                    continue;
-                }
-
-                while (oldNodesIterator.hasNext() && catchupPosition < newTextPosition) {
-                    oldNode = oldNodesIterator.next();
-                    catchupPosition += oldNode.getLength();
-                }
-
-                // If we managed to catch up on matching nodes after the replaced range, stop parsing and reuse them.
-                if (oldNode != null && catchupPosition == newTextPosition) {
-                    newNodes.add(oldNode);
-
-                    while (oldNodesIterator.hasNext()) {
-                        newNodes.add(oldNodesIterator.next());
-                    }
-
-                    break;
-                }
-            }
-
-            return new SimpleCompositeSourceNode(newNodes);
-        }
-
-        // Fall back to the default implementation.
-        return super.reparse(text, oldSourceFile, replaceOffset, lengthToRemove, lengthToInsert);
+        return PARSER.reparse(text, oldSourceFile.getParsed(this), replaceOffset, lengthToRemove, lengthToInsert);
     }
 
 }
@@ -91,6 +91,23 @@ public class NullArchitecture extends Architecture {
         super(Arrays.asList(names));
     }
 
+    @Override
+    public int findSplitPoint(@Nonnull Document text, int position) {
+        // Every line start is a split point. A CR followed by a LF is a single line break.
+        if (position == 0) {
+            return 0;
+        }
+
+        for (int i = position; i < text.length(); i++) {
+            final char previous = text.charAt(i - 1);
+            if (previous == '\n' || previous == '\r' && text.charAt(i) != '\n') {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
     @Nonnull
     @Override
     public SourceNode parse(@Nonnull Document text) {